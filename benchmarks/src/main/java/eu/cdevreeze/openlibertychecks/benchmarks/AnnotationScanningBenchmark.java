@@ -0,0 +1,79 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.benchmarks;
+
+import eu.cdevreeze.openlibertychecks.classfile.AnnotationIndex;
+import eu.cdevreeze.openlibertychecks.classfile.ClassDescriptor;
+import eu.cdevreeze.openlibertychecks.classfile.internal.ArchiveScanning;
+import eu.cdevreeze.openlibertychecks.console.FindResourcesInWar;
+import eu.cdevreeze.openlibertychecks.io.DirectoryCrawler;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of class file based annotation scanning on generated exploded WARs, from a few hundred up to
+ * tens of thousands of annotated classes (see {@link CorpusGenerator}). The throughput should scale
+ * (inversely) linearly with the scale.
+ *
+ * @author Chris de Vreeze
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnnotationScanningBenchmark {
+
+    // See CorpusGenerator.Settings.ofScale
+    @Param({"1", "10", "100"})
+    public int scale;
+
+    private Path warDir;
+    private List<ClassDescriptor> classes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        warDir = new CorpusGenerator(CorpusGenerator.Settings.ofScale(scale))
+                .writeExplodedWar(Files.createTempDirectory("annotation-scanning-benchmark").resolve("app.war"));
+        classes = ArchiveScanning.findClassDescriptorsInWar(warDir, DirectoryCrawler.DEFAULT_PARALLELISM);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkData.deleteRecursively(warDir.getParent());
+    }
+
+    @Benchmark
+    public List<ClassDescriptor> findClassDescriptorsInWar() {
+        return ArchiveScanning.findClassDescriptorsInWar(warDir, DirectoryCrawler.DEFAULT_PARALLELISM);
+    }
+
+    @Benchmark
+    public AnnotationIndex buildAnnotationIndex() {
+        return AnnotationIndex.build(classes);
+    }
+
+    @Benchmark
+    public List<AnnotationIndex.Occurrence> findResourceAnnotationOccurrencesInWar() {
+        return FindResourcesInWar.findResourceAnnotationOccurrencesInWar(warDir);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.file.*;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark input data support, such as configuration directories generated by {@link CorpusGenerator},
+ * and class file trees copied from the class path.
+ *
+ * @author Chris de Vreeze
+ */
+public final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Writes the generated server configuration (server.xml and its includes), web.xml and ejb-jar.xml of the
+     * given scale to the given directory, and returns that directory. See {@link CorpusGenerator.Settings#ofScale(int)}.
+     */
+    public static Path writeConfigDir(Path dir, int scale) {
+        try {
+            CorpusGenerator generator = new CorpusGenerator(CorpusGenerator.Settings.ofScale(scale));
+            generator.writeServerConfig(dir);
+            Files.writeString(dir.resolve("web.xml"), generator.webXml());
+            Files.writeString(dir.resolve("ejb-jar.xml"), generator.ejbJarXml());
+            return dir;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Copies the class files under the given package path (such as "com/google/common") from the class path
+     * entry (JAR file or directory) containing the given class to the given target directory, which then
+     * becomes the root of a class file tree. Returns the number of copied class files.
+     */
+    public static int copyClassTree(Class<?> anchorClass, String packagePath, Path targetDir) {
+        try {
+            Path codeSource = Path.of(anchorClass.getProtectionDomain().getCodeSource().getLocation().toURI());
+
+            if (Files.isDirectory(codeSource)) {
+                return copyClassFiles(codeSource, packagePath, targetDir);
+            }
+
+            try (FileSystem jarFileSystem = FileSystems.newFileSystem(codeSource)) {
+                return copyClassFiles(jarFileSystem.getPath("/"), packagePath, targetDir);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int copyClassFiles(Path root, String packagePath, Path targetDir) throws IOException {
+        Path packageDir = root.resolve(packagePath);
+        if (!Files.isDirectory(packageDir)) {
+            return 0;
+        }
+
+        int count = 0;
+        try (Stream<Path> paths = Files.walk(packageDir)) {
+            for (Path path : paths.filter(p -> p.getFileName().toString().endsWith(".class")).toList()) {
+                Path targetPath = targetDir.resolve(root.relativize(path).toString());
+                Files.createDirectories(targetPath.getParent());
+                Files.copy(path, targetPath, StandardCopyOption.REPLACE_EXISTING);
+                count += 1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Deletes the given directory recursively, if it exists.
+     */
+    public static void deleteRecursively(Path dir) {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.benchmarks;
+
+import com.google.common.base.Preconditions;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Minimal class file writer, for generating annotated classes without a compiler or bytecode library.
+ * <p>
+ * The generated classes extend {@link Object}, have a public no-arg constructor, private fields and public
+ * void methods with an empty body. Only runtime-visible annotations having String or String array element
+ * values are supported. That is enough for class scanning benchmarks, and the generated classes can even be
+ * loaded and reflected upon.
+ *
+ * @author Chris de Vreeze
+ */
+public final class ClassFileWriter {
+
+    // See the JVM specification, chapter 4
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int MAJOR_VERSION = 61; // Java 17
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_PRIVATE = 0x0002;
+    private static final int ACC_SUPER = 0x0020;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    /**
+     * Annotation, with element values that are either strings or lists of strings.
+     */
+    public record Annotation(String annotationTypeName, Map<String, Object> elementValues) {
+
+        public Annotation {
+            Objects.requireNonNull(annotationTypeName);
+            Objects.requireNonNull(elementValues);
+            Preconditions.checkArgument(
+                    elementValues.values().stream().allMatch(v ->
+                            v instanceof String || (v instanceof List<?> values && values.stream().allMatch(String.class::isInstance))),
+                    "Only String and List<String> element values are supported"
+            );
+        }
+
+        public static Annotation of(String annotationTypeName) {
+            return new Annotation(annotationTypeName, Map.of());
+        }
+    }
+
+    public record Field(String name, String typeDescriptor, List<Annotation> annotations) {
+    }
+
+    /**
+     * Public void method with an empty body. The method descriptor determines the parameters.
+     */
+    public record Method(String name, String methodDescriptor, List<Annotation> annotations) {
+    }
+
+    private final ByteArrayOutputStream constantPoolBytes = new ByteArrayOutputStream();
+    private final DataOutputStream constantPool = new DataOutputStream(constantPoolBytes);
+    private final Map<String, Integer> constantIndexes = new HashMap<>();
+    private int constantCount = 1;
+
+    private ClassFileWriter() {
+    }
+
+    /**
+     * Returns the class file content of the given class. The class name is a binary class name, such as "com.example.Foo".
+     */
+    public static byte[] writeClass(
+            String className,
+            List<Annotation> classAnnotations,
+            List<Field> fields,
+            List<Method> methods
+    ) {
+        try {
+            return new ClassFileWriter().write(className, classAnnotations, fields, methods);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] write(
+            String className,
+            List<Annotation> classAnnotations,
+            List<Field> fields,
+            List<Method> methods
+    ) throws IOException {
+        // The body is written first, because it fills the constant pool
+        ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+        DataOutputStream body = new DataOutputStream(bodyBytes);
+
+        body.writeShort(ACC_PUBLIC | ACC_SUPER);
+        body.writeShort(classConstant(className.replace('.', '/')));
+        body.writeShort(classConstant("java/lang/Object"));
+        body.writeShort(0); // interfaces
+
+        body.writeShort(fields.size());
+        for (Field field : fields) {
+            body.writeShort(ACC_PRIVATE);
+            body.writeShort(utf8Constant(field.name()));
+            body.writeShort(utf8Constant(field.typeDescriptor()));
+            writeAttributes(field.annotations(), List.of(), body);
+        }
+
+        body.writeShort(methods.size() + 1);
+        writeConstructor(body);
+        for (Method method : methods) {
+            Preconditions.checkArgument(method.methodDescriptor().endsWith(")V"), "Only void methods are supported");
+            body.writeShort(ACC_PUBLIC);
+            body.writeShort(utf8Constant(method.name()));
+            body.writeShort(utf8Constant(method.methodDescriptor()));
+            int maxLocals = 1 + countParameterSlots(method.methodDescriptor());
+            writeAttributes(method.annotations(), List.of(codeAttribute(0, maxLocals, new byte[]{(byte) 0xB1})), body);
+        }
+
+        writeAttributes(classAnnotations, List.of(), body);
+
+        ByteArrayOutputStream resultBytes = new ByteArrayOutputStream();
+        DataOutputStream result = new DataOutputStream(resultBytes);
+        result.writeInt(MAGIC);
+        result.writeShort(0);
+        result.writeShort(MAJOR_VERSION);
+        result.writeShort(constantCount);
+        constantPoolBytes.writeTo(result);
+        bodyBytes.writeTo(result);
+        return resultBytes.toByteArray();
+    }
+
+    private void writeConstructor(DataOutputStream body) throws IOException {
+        int objectInit = methodrefConstant("java/lang/Object", "<init>", "()V");
+
+        body.writeShort(ACC_PUBLIC);
+        body.writeShort(utf8Constant("<init>"));
+        body.writeShort(utf8Constant("()V"));
+        // aload_0, invokespecial Object.<init>, return
+        byte[] code = {0x2A, (byte) 0xB7, (byte) (objectInit >> 8), (byte) objectInit, (byte) 0xB1};
+        writeAttributes(List.of(), List.of(codeAttribute(1, 1, code)), body);
+    }
+
+    private byte[] codeAttribute(int maxStack, int maxLocals, byte[] code) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeShort(utf8Constant("Code"));
+        out.writeInt(2 + 2 + 4 + code.length + 2 + 2);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0); // exception table
+        out.writeShort(0); // attributes
+        return bytes.toByteArray();
+    }
+
+    private void writeAttributes(List<Annotation> annotations, List<byte[]> otherAttributes, DataOutputStream out) throws IOException {
+        out.writeShort(otherAttributes.size() + (annotations.isEmpty() ? 0 : 1));
+        for (byte[] attribute : otherAttributes) {
+            out.write(attribute);
+        }
+
+        if (!annotations.isEmpty()) {
+            ByteArrayOutputStream annotationBytes = new ByteArrayOutputStream();
+            DataOutputStream annotationOut = new DataOutputStream(annotationBytes);
+            annotationOut.writeShort(annotations.size());
+            for (Annotation annotation : annotations) {
+                writeAnnotation(annotation, annotationOut);
+            }
+
+            out.writeShort(utf8Constant("RuntimeVisibleAnnotations"));
+            out.writeInt(annotationBytes.size());
+            annotationBytes.writeTo(out);
+        }
+    }
+
+    private void writeAnnotation(Annotation annotation, DataOutputStream out) throws IOException {
+        out.writeShort(utf8Constant("L" + annotation.annotationTypeName().replace('.', '/') + ";"));
+        out.writeShort(annotation.elementValues().size());
+
+        for (Map.Entry<String, Object> elementValue : annotation.elementValues().entrySet()) {
+            out.writeShort(utf8Constant(elementValue.getKey()));
+
+            if (elementValue.getValue() instanceof String s) {
+                out.writeByte('s');
+                out.writeShort(utf8Constant(s));
+            } else {
+                List<?> values = (List<?>) elementValue.getValue();
+                out.writeByte('[');
+                out.writeShort(values.size());
+                for (Object value : values) {
+                    out.writeByte('s');
+                    out.writeShort(utf8Constant((String) value));
+                }
+            }
+        }
+    }
+
+    private int utf8Constant(String value) throws IOException {
+        Integer index = constantIndexes.get("U" + value);
+        if (index != null) {
+            return index;
+        }
+        constantPool.writeByte(CONSTANT_UTF8);
+        constantPool.writeUTF(value);
+        return register("U" + value);
+    }
+
+    private int classConstant(String internalName) throws IOException {
+        Integer index = constantIndexes.get("C" + internalName);
+        if (index != null) {
+            return index;
+        }
+        int nameIndex = utf8Constant(internalName);
+        constantPool.writeByte(CONSTANT_CLASS);
+        constantPool.writeShort(nameIndex);
+        return register("C" + internalName);
+    }
+
+    private int methodrefConstant(String owner, String name, String descriptor) throws IOException {
+        int classIndex = classConstant(owner);
+        int nameIndex = utf8Constant(name);
+        int descriptorIndex = utf8Constant(descriptor);
+
+        constantPool.writeByte(CONSTANT_NAME_AND_TYPE);
+        constantPool.writeShort(nameIndex);
+        constantPool.writeShort(descriptorIndex);
+        int nameAndTypeIndex = register("N" + name + descriptor);
+
+        constantPool.writeByte(CONSTANT_METHODREF);
+        constantPool.writeShort(classIndex);
+        constantPool.writeShort(nameAndTypeIndex);
+        return register("M" + owner + "." + name + descriptor);
+    }
+
+    private int register(String key) {
+        int index = constantCount;
+        constantIndexes.put(key, index);
+        constantCount += 1;
+        return index;
+    }
+
+    private static int countParameterSlots(String methodDescriptor) {
+        int slots = 0;
+        int i = 1;
+        while (methodDescriptor.charAt(i) != ')') {
+            char c = methodDescriptor.charAt(i);
+            if (c == 'J' || c == 'D') {
+                slots += 2;
+                i += 1;
+            } else if (c == 'L') {
+                slots += 1;
+                i = methodDescriptor.indexOf(';', i) + 1;
+            } else if (c == '[') {
+                slots += 1;
+                while (methodDescriptor.charAt(i) == '[') {
+                    i += 1;
+                }
+                i = (methodDescriptor.charAt(i) == 'L') ? methodDescriptor.indexOf(';', i) + 1 : i + 1;
+            } else {
+                slots += 1;
+                i += 1;
+            }
+        }
+        return slots;
+    }
+}
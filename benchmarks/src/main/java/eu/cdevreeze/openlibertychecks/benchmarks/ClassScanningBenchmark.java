@@ -0,0 +1,76 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.benchmarks;
+
+import eu.cdevreeze.openlibertychecks.classfile.ClassDescriptor;
+import eu.cdevreeze.openlibertychecks.classfile.internal.ClassFileScanning;
+import eu.cdevreeze.openlibertychecks.reflection.internal.ClassPathScanning;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of class scanning on class file trees of varying sizes. The trees are copies of packages on the
+ * benchmark class path, so {@link ClassPathScanning#findClasses(Path)} can load the found classes.
+ *
+ * @author Chris de Vreeze
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClassScanningBenchmark {
+
+    // Small, medium and large class trees
+    @Param({"eu/cdevreeze/openlibertychecks", "jakarta/servlet", "com/google/common"})
+    public String packagePath;
+
+    private Path rootDir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        rootDir = Files.createTempDirectory("class-scanning-benchmark");
+
+        Class<?> anchorClass = switch (packagePath) {
+            case "jakarta/servlet" -> jakarta.servlet.Servlet.class;
+            case "com/google/common" -> com.google.common.collect.ImmutableList.class;
+            default -> ClassPathScanning.class;
+        };
+        int classCount = BenchmarkData.copyClassTree(anchorClass, packagePath, rootDir);
+        System.out.printf("%nCopied %d class files to %s%n", classCount, rootDir);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkData.deleteRecursively(rootDir);
+    }
+
+    @Benchmark
+    public List<Class<?>> findClasses() {
+        return ClassPathScanning.findClasses(rootDir);
+    }
+
+    @Benchmark
+    public List<ClassDescriptor> findClassDescriptors() {
+        return ClassFileScanning.findClassDescriptors(rootDir);
+    }
+}
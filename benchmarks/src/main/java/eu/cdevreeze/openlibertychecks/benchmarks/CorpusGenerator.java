@@ -0,0 +1,347 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.benchmarks;
+
+import com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic generator of a synthetic corpus for benchmarks and scaling tests. The corpus consists of
+ * a (large) server.xml with a chain of nested includes, and an exploded WAR with a web.xml, an ejb-jar.xml
+ * and many annotated classes.
+ * <p>
+ * The same settings (including the seed) always lead to the same corpus, byte for byte. The references
+ * in the generated configuration (such as connectionManagerRef and libraryRef) all resolve, and the
+ * resource references in web.xml match the JNDI names of the data sources.
+ * <p>
+ * This class can also be run as a program, taking the output directory and optionally a scale factor.
+ *
+ * @author Chris de Vreeze
+ */
+public final class CorpusGenerator {
+
+    private static final String JAKARTAEE_NS = "https://jakarta.ee/xml/ns/jakartaee";
+
+    private static final String RESOURCE = "jakarta.annotation.Resource";
+    private static final String STATELESS = "jakarta.ejb.Stateless";
+    private static final String WEB_SERVLET = "jakarta.servlet.annotation.WebServlet";
+    private static final String INJECT = "jakarta.inject.Inject";
+
+    public record Settings(
+            long seed,
+            int dataSourceCount,
+            int jndiEntryCount,
+            int jmsQueueCount,
+            int libraryCount,
+            int includeDepth,
+            int servletCount,
+            int sessionBeanCount,
+            int classCount
+    ) {
+
+        public Settings {
+            Preconditions.checkArgument(dataSourceCount >= 0 && jndiEntryCount >= 0 && jmsQueueCount >= 0);
+            Preconditions.checkArgument(libraryCount >= 1 && includeDepth >= 0);
+            Preconditions.checkArgument(servletCount >= 0 && sessionBeanCount >= 0 && classCount >= 0);
+        }
+
+        /**
+         * Returns settings where all counts grow linearly with the given scale. Scale 1 is a small project;
+         * scale 100 amounts to thousands of server.xml entries and tens of thousands of classes.
+         */
+        public static Settings ofScale(int scale) {
+            Preconditions.checkArgument(scale >= 1);
+            return new Settings(
+                    42L,
+                    20 * scale,
+                    50 * scale,
+                    10 * scale,
+                    5 * scale,
+                    Math.min(1 + scale / 10, 20),
+                    10 * scale,
+                    10 * scale,
+                    250 * scale
+            );
+        }
+
+        public Settings withSeed(long newSeed) {
+            return new Settings(
+                    newSeed,
+                    dataSourceCount,
+                    jndiEntryCount,
+                    jmsQueueCount,
+                    libraryCount,
+                    includeDepth,
+                    servletCount,
+                    sessionBeanCount,
+                    classCount
+            );
+        }
+    }
+
+    private final Settings settings;
+
+    public CorpusGenerator(Settings settings) {
+        this.settings = settings;
+    }
+
+    public Settings settings() {
+        return settings;
+    }
+
+    /**
+     * Returns the server.xml (at include level 0) or included configuration file (at levels 1 up to and including
+     * the include depth). The entries are distributed over the levels, and each level except the last one
+     * includes the next level.
+     */
+    public String serverXml(int includeLevel) {
+        Preconditions.checkArgument(includeLevel >= 0 && includeLevel <= settings.includeDepth());
+
+        SplittableRandom random = new SplittableRandom(settings.seed() + includeLevel);
+        int levels = settings.includeDepth() + 1;
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        sb.append(String.format("<server description=\"generated server configuration, level %d\">%n", includeLevel));
+
+        if (includeLevel == 0) {
+            sb.append("    <featureManager>\n");
+            sb.append("        <feature>servlet-6.0</feature>\n");
+            sb.append("        <feature>jdbc-4.3</feature>\n");
+            sb.append("        <feature>messaging-3.1</feature>\n");
+            sb.append("        <feature>enterpriseBeansLite-4.0</feature>\n");
+            sb.append("    </featureManager>\n");
+            sb.append("    <httpEndpoint id=\"defaultHttpEndpoint\" host=\"*\" httpPort=\"9080\" httpsPort=\"9443\"/>\n");
+            sb.append("    <messagingEngine id=\"defaultME\"/>\n");
+        }
+        if (includeLevel < settings.includeDepth()) {
+            sb.append(String.format("    <include location=\"%s\"/>%n", includeFileName(includeLevel + 1)));
+        }
+
+        for (int i = includeLevel; i < settings.libraryCount(); i += levels) {
+            sb.append(String.format("    <library id=\"lib%d\">%n", i));
+            sb.append(String.format("        <fileset dir=\"${shared.resource.dir}/lib%d\" includes=\"*.jar\"/>%n", i));
+            sb.append("    </library>\n");
+        }
+
+        for (int i = includeLevel; i < settings.dataSourceCount(); i += levels) {
+            sb.append(String.format("    <dataSource id=\"ds%d\" jndiName=\"jdbc/ds%d\" connectionManagerRef=\"pool%d\">%n", i, i, i));
+            sb.append(String.format("        <jdbcDriver libraryRef=\"lib%d\"/>%n", i % settings.libraryCount()));
+            sb.append(String.format("        <properties databaseName=\"db%d\" serverName=\"db%d.example.com\" portNumber=\"5432\"/>%n", i, random.nextInt(10)));
+            sb.append("    </dataSource>\n");
+            sb.append(String.format(
+                    "    <connectionManager id=\"pool%d\" maxPoolSize=\"%d\" minPoolSize=\"%d\" connectionTimeout=\"%ds\"/>%n",
+                    i,
+                    10 + random.nextInt(90),
+                    random.nextInt(5),
+                    5 + random.nextInt(60)
+            ));
+        }
+
+        for (int i = includeLevel; i < settings.jmsQueueCount(); i += levels) {
+            sb.append(String.format("    <jmsQueue id=\"queue%d\" jndiName=\"jms/queue%d\">%n", i, i));
+            sb.append(String.format("        <properties.wasJms queueName=\"QUEUE.%d\"/>%n", i));
+            sb.append("    </jmsQueue>\n");
+        }
+
+        for (int i = includeLevel; i < settings.jndiEntryCount(); i += levels) {
+            sb.append(String.format("    <jndiEntry jndiName=\"config/entry%d\" value=\"%d\"/>%n", i, random.nextInt(1_000_000)));
+        }
+
+        sb.append("</server>\n");
+        return sb.toString();
+    }
+
+    public String webXml() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        sb.append(String.format("<web-app xmlns=\"%s\" version=\"6.0\">%n", JAKARTAEE_NS));
+
+        for (int i = 0; i < settings.servletCount(); i++) {
+            sb.append("    <servlet>\n");
+            sb.append(String.format("        <servlet-name>servlet%d</servlet-name>%n", i));
+            sb.append(String.format("        <servlet-class>com.example.web.Servlet%d</servlet-class>%n", i));
+            sb.append("    </servlet>\n");
+            sb.append("    <servlet-mapping>\n");
+            sb.append(String.format("        <servlet-name>servlet%d</servlet-name>%n", i));
+            sb.append(String.format("        <url-pattern>/servlet%d/*</url-pattern>%n", i));
+            sb.append("    </servlet-mapping>\n");
+        }
+
+        for (int i = 0; i < settings.dataSourceCount(); i++) {
+            sb.append("    <resource-ref>\n");
+            sb.append(String.format("        <res-ref-name>jdbc/ds%d</res-ref-name>%n", i));
+            sb.append("        <res-type>javax.sql.DataSource</res-type>\n");
+            sb.append("        <res-auth>Container</res-auth>\n");
+            sb.append("    </resource-ref>\n");
+        }
+
+        sb.append("</web-app>\n");
+        return sb.toString();
+    }
+
+    public String ejbJarXml() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        sb.append(String.format("<ejb-jar xmlns=\"%s\" version=\"4.0\">%n", JAKARTAEE_NS));
+        sb.append("    <enterprise-beans>\n");
+
+        for (int i = 0; i < settings.sessionBeanCount(); i++) {
+            sb.append("        <session>\n");
+            sb.append(String.format("            <ejb-name>Bean%d</ejb-name>%n", i));
+            sb.append(String.format("            <business-local>com.example.ejb.Bean%dLocal</business-local>%n", i));
+            sb.append(String.format("            <ejb-class>com.example.ejb.Bean%d</ejb-class>%n", i));
+            sb.append(String.format("            <session-type>%s</session-type>%n", (i % 3 == 0) ? "Singleton" : "Stateless"));
+            sb.append("        </session>\n");
+        }
+
+        sb.append("    </enterprise-beans>\n");
+        sb.append("</ejb-jar>\n");
+        return sb.toString();
+    }
+
+    /**
+     * Returns the class file of the generated class with the given index. Depending on the index, the class is
+     * a stateless session bean, a servlet or a plain CDI bean, and it has Resource annotations on the class,
+     * on fields and on setter methods, as well as Inject annotations.
+     */
+    public byte[] classFile(int classIndex) {
+        Preconditions.checkArgument(classIndex >= 0 && classIndex < settings.classCount());
+
+        SplittableRandom random = new SplittableRandom(settings.seed() ^ (31L * classIndex));
+        int dataSourceCount = Math.max(settings.dataSourceCount(), 1);
+
+        List<ClassFileWriter.Annotation> classAnnotations = new ArrayList<>();
+        switch (classIndex % 3) {
+            case 0 -> classAnnotations.add(ClassFileWriter.Annotation.of(STATELESS));
+            case 1 -> classAnnotations.add(new ClassFileWriter.Annotation(
+                    WEB_SERVLET,
+                    Map.of("urlPatterns", List.of("/generated" + classIndex + "/*"))
+            ));
+            default -> {
+            }
+        }
+        if (random.nextInt(4) == 0) {
+            classAnnotations.add(resourceAnnotation("jdbc/ds" + random.nextInt(dataSourceCount)));
+        }
+
+        List<ClassFileWriter.Field> fields = new ArrayList<>();
+        List<ClassFileWriter.Method> methods = new ArrayList<>();
+        int memberCount = 1 + random.nextInt(4);
+        for (int i = 0; i < memberCount; i++) {
+            String jndiName = "jdbc/ds" + random.nextInt(dataSourceCount);
+
+            switch (random.nextInt(3)) {
+                case 0 -> fields.add(new ClassFileWriter.Field(
+                        "dataSource" + i,
+                        "Ljavax/sql/DataSource;",
+                        List.of(resourceAnnotation(jndiName))
+                ));
+                case 1 -> methods.add(new ClassFileWriter.Method(
+                        "setDataSource" + i,
+                        "(Ljavax/sql/DataSource;)V",
+                        List.of(resourceAnnotation(jndiName))
+                ));
+                default -> fields.add(new ClassFileWriter.Field(
+                        "service" + i,
+                        "Ljava/lang/Runnable;",
+                        List.of(ClassFileWriter.Annotation.of(INJECT))
+                ));
+            }
+        }
+        fields.add(new ClassFileWriter.Field("state", "I", List.of()));
+
+        return ClassFileWriter.writeClass(className(classIndex), classAnnotations, fields, methods);
+    }
+
+    public String className(int classIndex) {
+        // At most 100 classes per package
+        return String.format("com.example.generated.p%d.Generated%d", classIndex / 100, classIndex);
+    }
+
+    /**
+     * Writes server.xml and the included files to the given directory, and returns the server.xml path.
+     */
+    public Path writeServerConfig(Path dir) {
+        try {
+            Files.createDirectories(dir);
+            for (int level = 1; level <= settings.includeDepth(); level++) {
+                Files.writeString(dir.resolve(includeFileName(level)), serverXml(level));
+            }
+            return Files.writeString(dir.resolve("server.xml"), serverXml(0));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes an exploded WAR to the given directory, with a web.xml, an ejb-jar.xml and the generated classes
+     * in "WEB-INF/classes". Returns the given WAR directory.
+     */
+    public Path writeExplodedWar(Path warDir) {
+        try {
+            Path webInfDir = warDir.resolve("WEB-INF");
+            Files.createDirectories(webInfDir);
+            Files.writeString(webInfDir.resolve("web.xml"), webXml());
+            Files.writeString(webInfDir.resolve("ejb-jar.xml"), ejbJarXml());
+
+            Path classesDir = webInfDir.resolve("classes");
+            for (int i = 0; i < settings.classCount(); i++) {
+                Path classFile = classesDir.resolve(className(i).replace('.', '/') + ".class");
+                Files.createDirectories(classFile.getParent());
+                Files.write(classFile, classFile(i));
+            }
+            return warDir;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the server configuration to "config" and the exploded WAR to "app.war" under the given directory.
+     */
+    public void writeCorpus(Path dir) {
+        writeServerConfig(dir.resolve("config"));
+        writeExplodedWar(dir.resolve("app.war"));
+    }
+
+    public static void main(String[] args) {
+        Preconditions.checkArgument(args.length >= 1, "Usage: CorpusGenerator <output dir> [<scale>]");
+
+        Path dir = Path.of(args[0]);
+        int scale = (args.length >= 2) ? Integer.parseInt(args[1]) : 1;
+        Settings settings = Settings.ofScale(scale);
+
+        new CorpusGenerator(settings).writeCorpus(dir);
+        System.out.printf("Generated corpus in %s, using %s%n", dir, settings);
+    }
+
+    private static ClassFileWriter.Annotation resourceAnnotation(String jndiName) {
+        return new ClassFileWriter.Annotation(RESOURCE, Map.of("name", jndiName));
+    }
+
+    private static String includeFileName(int includeLevel) {
+        return String.format("include-%d.xml", includeLevel);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.benchmarks;
+
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.*;
+import eu.cdevreeze.openlibertychecks.xml.jakartaee10.ResourceRef;
+import eu.cdevreeze.openlibertychecks.xml.jakartaee10.ejb.EjbJar;
+import eu.cdevreeze.openlibertychecks.xml.jakartaee10.ejb.SessionBean;
+import eu.cdevreeze.openlibertychecks.xml.jakartaee10.servlet.Servlet;
+import eu.cdevreeze.openlibertychecks.xml.jakartaee10.servlet.WebApp;
+import eu.cdevreeze.yaidom4j.dom.ancestryaware.Document;
+import eu.cdevreeze.yaidom4j.dom.immutabledom.jaxpinterop.DocumentParser;
+import eu.cdevreeze.yaidom4j.dom.immutabledom.jaxpinterop.DocumentParsers;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the XML dialect accessors, such as {@link Server#dataSources()} and {@link WebApp#resourceRefs()},
+ * on already parsed documents of varying sizes.
+ *
+ * @author Chris de Vreeze
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DialectAccessorBenchmark {
+
+    // See CorpusGenerator.Settings.ofScale
+    @Param({"1", "10", "100"})
+    public int scale;
+
+    private Server server;
+    private WebApp webApp;
+    private EjbJar ejbJar;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Path configDir = BenchmarkData.writeConfigDir(Files.createTempDirectory("dialect-accessor-benchmark"), scale);
+        DocumentParser docParser = DocumentParsers.builder().removingInterElementWhitespace().build();
+
+        server = new Server(Document.from(docParser.parse(configDir.resolve("server.xml").toUri())).documentElement());
+        webApp = new WebApp(Document.from(docParser.parse(configDir.resolve("web.xml").toUri())).documentElement());
+        ejbJar = new EjbJar(Document.from(docParser.parse(configDir.resolve("ejb-jar.xml").toUri())).documentElement());
+
+        BenchmarkData.deleteRecursively(configDir);
+    }
+
+    @Benchmark
+    public List<DataSource> serverDataSources() {
+        return server.dataSources();
+    }
+
+    @Benchmark
+    public List<ConnectionManager> serverConnectionManagers() {
+        return server.connectionManagers();
+    }
+
+    @Benchmark
+    public List<JndiEntry> serverJndiEntries() {
+        return server.jndiEntries();
+    }
+
+    @Benchmark
+    public List<HttpEndpoint> serverHttpEndpoints() {
+        return server.httpEndpoints();
+    }
+
+    @Benchmark
+    public List<Servlet> webAppServlets() {
+        return webApp.servlets();
+    }
+
+    @Benchmark
+    public List<ResourceRef> webAppResourceRefs() {
+        return webApp.resourceRefs();
+    }
+
+    @Benchmark
+    public List<SessionBean> ejbJarSessionBeans() {
+        return ejbJar.enterpriseBeansElementOption().map(e -> (List<SessionBean>) e.sessionBeans()).orElse(List.of());
+    }
+}
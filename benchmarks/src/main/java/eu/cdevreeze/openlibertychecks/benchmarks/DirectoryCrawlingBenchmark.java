@@ -0,0 +1,104 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.benchmarks;
+
+import eu.cdevreeze.openlibertychecks.io.DirectoryCrawler;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark comparing {@link DirectoryCrawler} with a sequential {@link Files#walk} on the same directory tree,
+ * finding the XML files outside the excluded directories (such as "target" and ".git").
+ *
+ * @author Chris de Vreeze
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DirectoryCrawlingBenchmark {
+
+    // Number of top-level directories, each one having 20 subdirectories and an excluded "target" directory
+    @Param({"10", "100"})
+    public int width;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private Path rootDir;
+    private DirectoryCrawler crawler;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        rootDir = Files.createTempDirectory("directory-crawling-benchmark");
+
+        for (int i = 0; i < width; i++) {
+            for (int j = 0; j < 20; j++) {
+                Path dir = Files.createDirectories(rootDir.resolve("dir" + i).resolve("sub" + j));
+                Files.writeString(dir.resolve("server.xml"), "<server/>");
+                Files.writeString(dir.resolve("server.env"), "A=B");
+            }
+            Path excludedDir = Files.createDirectories(rootDir.resolve("dir" + i).resolve("target").resolve("classes"));
+            Files.writeString(excludedDir.resolve("server.xml"), "<server/>");
+        }
+
+        crawler = new DirectoryCrawler(
+                DirectoryCrawler.Settings.forFileExtension(".xml")
+                        .withExcludedDirectoryNames(DirectoryCrawler.DEFAULT_EXCLUDED_DIRECTORY_NAMES)
+                        .withParallelism(parallelism)
+        );
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkData.deleteRecursively(rootDir);
+    }
+
+    @Benchmark
+    public List<Path> findFilesWithCrawler() {
+        return crawler.findFiles(rootDir);
+    }
+
+    @Benchmark
+    public List<Path> findFilesWithFilesWalk() throws IOException {
+        try (Stream<Path> fileStream = Files.walk(rootDir)) {
+            return fileStream
+                    .filter(Files::isRegularFile)
+                    .filter(p -> p.getFileName().toString().endsWith(".xml"))
+                    .filter(p -> isOutsideExcludedDirectories(rootDir.relativize(p)))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static boolean isOutsideExcludedDirectories(Path relativePath) {
+        for (int i = 0; i < relativePath.getNameCount() - 1; i++) {
+            if (DirectoryCrawler.DEFAULT_EXCLUDED_DIRECTORY_NAMES.contains(relativePath.getName(i).toString())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.benchmarks;
+
+import eu.cdevreeze.openlibertychecks.console.FindResourcesInWar;
+import eu.cdevreeze.yaidom4j.dom.immutabledom.Element;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end benchmark of {@link FindResourcesInWar}, on a generated open WAR directory and server
+ * configuration of varying sizes (see {@link CorpusGenerator}).
+ *
+ * @author Chris de Vreeze
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EndToEndBenchmark {
+
+    // See CorpusGenerator.Settings.ofScale
+    @Param({"1", "10", "100"})
+    public int scale;
+
+    private Path tempDir;
+    private Path warDir;
+    private Path configDir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        tempDir = Files.createTempDirectory("end-to-end-benchmark");
+        new CorpusGenerator(CorpusGenerator.Settings.ofScale(scale)).writeCorpus(tempDir);
+        warDir = tempDir.resolve("app.war");
+        configDir = tempDir.resolve("config");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkData.deleteRecursively(tempDir);
+    }
+
+    @Benchmark
+    public Element findResourcesAsXml() {
+        return FindResourcesInWar.findResourcesAsXml(warDir, List.of(configDir, warDir.resolve("WEB-INF")));
+    }
+
+    @Benchmark
+    public void writeResourcesAsXml() {
+        FindResourcesInWar.writeResourcesAsXml(warDir, List.of(configDir, warDir.resolve("WEB-INF")), Writer.nullWriter());
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.benchmarks;
+
+import eu.cdevreeze.yaidom4j.dom.ancestryaware.Document;
+import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
+import eu.cdevreeze.yaidom4j.dom.immutabledom.jaxpinterop.DocumentParser;
+import eu.cdevreeze.yaidom4j.dom.immutabledom.jaxpinterop.DocumentParsers;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark of parsing server.xml, web.xml and ejb-jar.xml files of varying sizes into yaidom4j documents.
+ * The server.xml benchmark parses the whole chain of included files.
+ *
+ * @author Chris de Vreeze
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class XmlParsingBenchmark {
+
+    // See CorpusGenerator.Settings.ofScale
+    @Param({"1", "10", "100"})
+    public int scale;
+
+    private Path configDir;
+    private DocumentParser docParser;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        configDir = BenchmarkData.writeConfigDir(Files.createTempDirectory("xml-parsing-benchmark"), scale);
+        docParser = DocumentParsers.builder().removingInterElementWhitespace().build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkData.deleteRecursively(configDir);
+    }
+
+    @Benchmark
+    public List<ElementTree.Element> parseServerXml() throws IOException {
+        try (Stream<Path> files = Files.list(configDir)) {
+            return files
+                    .map(p -> p.getFileName().toString())
+                    .filter(name -> name.equals("server.xml") || name.startsWith("include-"))
+                    .map(this::parse)
+                    .toList();
+        }
+    }
+
+    @Benchmark
+    public ElementTree.Element parseWebXml() {
+        return parse("web.xml");
+    }
+
+    @Benchmark
+    public ElementTree.Element parseEjbJarXml() {
+        return parse("ejb-jar.xml");
+    }
+
+    private ElementTree.Element parse(String fileName) {
+        return Document.from(docParser.parse(configDir.resolve(fileName).toUri())).documentElement();
+    }
+}
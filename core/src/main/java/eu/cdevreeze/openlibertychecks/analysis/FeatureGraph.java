@@ -0,0 +1,400 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.analysis;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import eu.cdevreeze.yaidom4j.dom.ancestryaware.Document;
+import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
+import eu.cdevreeze.yaidom4j.dom.immutabledom.jaxpinterop.DocumentParsers;
+import org.xml.sax.InputSource;
+
+import javax.xml.namespace.QName;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementPredicates.hasName;
+
+/**
+ * Offline OpenLiberty feature dependency graph, compiled into bit sets, so that resolving the features of
+ * a server configuration is a bit set closure, and checking the result for conflicts is a few bit set
+ * intersections. That makes it cheap to check a whole fleet of server configurations.
+ * <p>
+ * The bundled graph is resource "feature-graph.xml" next to this class. It covers the most common Java EE 7/8
+ * and Jakarta EE 9.1/10 features, including some auto-features and tolerated dependencies, but it is not
+ * the complete OpenLiberty feature repository. The resolution is simpler than the one of OpenLiberty itself:
+ * forced dependencies are enabled first, then dependencies that tolerate alternatives are enabled (unless
+ * an alternative is already enabled), and then the auto-features whose conditions are met. This is repeated
+ * until nothing changes. There is no backtracking.
+ * <p>
+ * This class is immutable and therefore thread-safe.
+ *
+ * @author Chris de Vreeze
+ */
+public final class FeatureGraph {
+
+    public static final String BUNDLED_GRAPH_RESOURCE = "feature-graph.xml";
+
+    public enum Generation {JAVA_EE, JAKARTA_EE}
+
+    public enum ConflictKind {SINGLETON, MIXED_GENERATION}
+
+    /**
+     * Dependency on a feature, unless one of the tolerated features is enabled anyway.
+     */
+    public record Enables(String feature, ImmutableSet<String> toleratedFeatures) {
+
+        public Enables {
+            Objects.requireNonNull(feature);
+            Objects.requireNonNull(toleratedFeatures);
+        }
+    }
+
+    /**
+     * Feature definition. An auto-feature has at least one condition, which is met if any of its features
+     * is enabled.
+     */
+    public record FeatureDefinition(
+            String name,
+            String family,
+            Optional<Generation> generationOption,
+            ImmutableList<Enables> enables,
+            ImmutableList<ImmutableSet<String>> autoFeatureConditions
+    ) {
+
+        public FeatureDefinition {
+            Objects.requireNonNull(name);
+            Objects.requireNonNull(family);
+            Objects.requireNonNull(generationOption);
+            Objects.requireNonNull(enables);
+            Objects.requireNonNull(autoFeatureConditions);
+        }
+
+        public boolean isAutoFeature() {
+            return !autoFeatureConditions.isEmpty();
+        }
+    }
+
+    public record Conflict(ConflictKind kind, ImmutableList<String> features, String message) {
+
+        public Conflict {
+            Objects.requireNonNull(kind);
+            Objects.requireNonNull(features);
+            Objects.requireNonNull(message);
+        }
+    }
+
+    /**
+     * Resolution of configured features. The unknown features are the configured features missing in the graph.
+     * The enabled features are in graph order.
+     */
+    public record Resolution(
+            ImmutableList<String> configuredFeatures,
+            ImmutableList<String> unknownFeatures,
+            ImmutableList<String> enabledFeatures,
+            ImmutableList<Conflict> conflicts
+    ) {
+
+        public Resolution {
+            Objects.requireNonNull(configuredFeatures);
+            Objects.requireNonNull(unknownFeatures);
+            Objects.requireNonNull(enabledFeatures);
+            Objects.requireNonNull(conflicts);
+        }
+
+        public boolean hasConflicts() {
+            return !conflicts.isEmpty();
+        }
+    }
+
+    // Compiled dependency; the feature indexes that satisfy it include the preferred one
+    private record Dependency(int preferred, BitSet satisfiedBy) {
+
+        boolean isForced() {
+            return satisfiedBy.cardinality() == 1;
+        }
+    }
+
+    private record AutoFeature(int feature, ImmutableList<BitSet> conditions) {
+    }
+
+    private static final Supplier<FeatureGraph> BUNDLED_GRAPH = Suppliers.memoize(FeatureGraph::loadBundledGraph);
+
+    private final ImmutableList<FeatureDefinition> features;
+    private final ImmutableMap<String, Integer> indexesByLowerCaseName;
+    private final ImmutableList<ImmutableList<Dependency>> dependencies;
+    private final ImmutableList<AutoFeature> autoFeatures;
+    private final ImmutableMap<String, BitSet> singletonFamilies;
+    private final BitSet javaEeFeatures;
+    private final BitSet jakartaEeFeatures;
+
+    public FeatureGraph(List<FeatureDefinition> features) {
+        this.features = ImmutableList.copyOf(features);
+        this.indexesByLowerCaseName = IntStream.range(0, features.size())
+                .boxed()
+                .collect(ImmutableMap.toImmutableMap(i -> features.get(i).name().toLowerCase(Locale.ROOT), i -> i));
+
+        this.dependencies = features.stream()
+                .map(f -> f.enables().stream()
+                        .map(e -> {
+                            BitSet satisfiedBy = toBitSet(e.toleratedFeatures());
+                            satisfiedBy.set(index(e.feature()));
+                            return new Dependency(index(e.feature()), satisfiedBy);
+                        })
+                        .collect(ImmutableList.toImmutableList()))
+                .collect(ImmutableList.toImmutableList());
+
+        this.autoFeatures = IntStream.range(0, features.size())
+                .filter(i -> features.get(i).isAutoFeature())
+                .mapToObj(i -> new AutoFeature(
+                        i,
+                        features.get(i).autoFeatureConditions().stream()
+                                .map(this::toBitSet)
+                                .collect(ImmutableList.toImmutableList())
+                ))
+                .collect(ImmutableList.toImmutableList());
+
+        Map<String, BitSet> families = new LinkedHashMap<>();
+        IntStream.range(0, features.size())
+                .forEach(i -> families.computeIfAbsent(features.get(i).family(), k -> new BitSet()).set(i));
+        this.singletonFamilies = families.entrySet().stream()
+                .filter(e -> e.getValue().cardinality() > 1)
+                .collect(ImmutableMap.toImmutableMap(Map.Entry::getKey, Map.Entry::getValue));
+
+        this.javaEeFeatures = generationBitSet(Generation.JAVA_EE);
+        this.jakartaEeFeatures = generationBitSet(Generation.JAKARTA_EE);
+    }
+
+    public static FeatureGraph bundled() {
+        return BUNDLED_GRAPH.get();
+    }
+
+    /**
+     * Parses a feature graph, in the format of the bundled graph.
+     */
+    public static FeatureGraph parse(ElementTree.Element featureGraphElement) {
+        Preconditions.checkArgument(featureGraphElement.elementName().getLocalPart().equals("featureGraph"));
+
+        return new FeatureGraph(
+                featureGraphElement.childElementStream(hasName("feature"))
+                        .map(FeatureGraph::parseFeature)
+                        .toList()
+        );
+    }
+
+    public ImmutableList<FeatureDefinition> features() {
+        return features;
+    }
+
+    public Optional<FeatureDefinition> findFeature(String featureName) {
+        return Optional.ofNullable(indexesByLowerCaseName.get(featureName.strip().toLowerCase(Locale.ROOT)))
+                .map(features::get);
+    }
+
+    /**
+     * Resolves the given configured features (such as the features of one featureManager), returning the enabled
+     * features and the conflicts among them. Feature names are matched ignoring case.
+     */
+    public Resolution resolve(List<String> configuredFeatures) {
+        BitSet enabled = new BitSet(features.size());
+        List<String> unknownFeatures = new ArrayList<>();
+
+        for (String feature : configuredFeatures) {
+            Integer idx = indexesByLowerCaseName.get(feature.strip().toLowerCase(Locale.ROOT));
+            if (idx == null) {
+                unknownFeatures.add(feature);
+            } else {
+                enabled.set(idx);
+            }
+        }
+
+        computeClosure(enabled);
+
+        return new Resolution(
+                ImmutableList.copyOf(configuredFeatures),
+                ImmutableList.copyOf(unknownFeatures),
+                enabled.stream().mapToObj(i -> features.get(i).name()).collect(ImmutableList.toImmutableList()),
+                findConflicts(enabled)
+        );
+    }
+
+    private void computeClosure(BitSet enabled) {
+        Deque<Integer> work = new ArrayDeque<>();
+        enabled.stream().forEach(work::add);
+        List<Dependency> pendingToleratingDependencies = new ArrayList<>();
+
+        while (!work.isEmpty()) {
+            // Forced dependencies first, so that tolerating dependencies see as many enabled alternatives as possible
+            while (!work.isEmpty()) {
+                for (Dependency dependency : dependencies.get(work.poll())) {
+                    if (!dependency.isForced()) {
+                        pendingToleratingDependencies.add(dependency);
+                    } else if (!enabled.get(dependency.preferred())) {
+                        enabled.set(dependency.preferred());
+                        work.add(dependency.preferred());
+                    }
+                }
+            }
+
+            for (Dependency dependency : pendingToleratingDependencies) {
+                if (!enabled.intersects(dependency.satisfiedBy())) {
+                    enabled.set(dependency.preferred());
+                    work.add(dependency.preferred());
+                }
+            }
+            pendingToleratingDependencies.clear();
+
+            if (work.isEmpty()) {
+                for (AutoFeature autoFeature : autoFeatures) {
+                    if (!enabled.get(autoFeature.feature())
+                            && autoFeature.conditions().stream().allMatch(enabled::intersects)) {
+                        enabled.set(autoFeature.feature());
+                        work.add(autoFeature.feature());
+                    }
+                }
+            }
+        }
+    }
+
+    private ImmutableList<Conflict> findConflicts(BitSet enabled) {
+        ImmutableList.Builder<Conflict> conflicts = ImmutableList.builder();
+
+        singletonFamilies.forEach((family, familyFeatures) -> {
+            if (familyFeatures.intersects(enabled)) {
+                BitSet enabledFamilyFeatures = (BitSet) familyFeatures.clone();
+                enabledFamilyFeatures.and(enabled);
+
+                if (enabledFamilyFeatures.cardinality() > 1) {
+                    ImmutableList<String> names = featureNames(enabledFamilyFeatures);
+                    conflicts.add(new Conflict(
+                            ConflictKind.SINGLETON,
+                            names,
+                            String.format("Features %s of singleton family '%s' are enabled together", names, family)
+                    ));
+                }
+            }
+        });
+
+        if (enabled.intersects(javaEeFeatures) && enabled.intersects(jakartaEeFeatures)) {
+            BitSet enabledJavaEeFeatures = (BitSet) javaEeFeatures.clone();
+            enabledJavaEeFeatures.and(enabled);
+            BitSet enabledJakartaEeFeatures = (BitSet) jakartaEeFeatures.clone();
+            enabledJakartaEeFeatures.and(enabled);
+
+            conflicts.add(new Conflict(
+                    ConflictKind.MIXED_GENERATION,
+                    ImmutableList.<String>builder()
+                            .addAll(featureNames(enabledJavaEeFeatures))
+                            .addAll(featureNames(enabledJakartaEeFeatures))
+                            .build(),
+                    String.format(
+                            "Java EE features %s are mixed with Jakarta EE features %s",
+                            featureNames(enabledJavaEeFeatures),
+                            featureNames(enabledJakartaEeFeatures)
+                    )
+            ));
+        }
+        return conflicts.build();
+    }
+
+    private ImmutableList<String> featureNames(BitSet featureIndexes) {
+        return featureIndexes.stream().mapToObj(i -> features.get(i).name()).collect(ImmutableList.toImmutableList());
+    }
+
+    private int index(String featureName) {
+        Integer idx = indexesByLowerCaseName.get(featureName.toLowerCase(Locale.ROOT));
+        Preconditions.checkArgument(idx != null, "Unknown feature '%s'", featureName);
+        return idx;
+    }
+
+    private BitSet toBitSet(Set<String> featureNames) {
+        BitSet result = new BitSet(features.size());
+        featureNames.forEach(name -> result.set(index(name)));
+        return result;
+    }
+
+    private BitSet generationBitSet(Generation generation) {
+        BitSet result = new BitSet(features.size());
+        IntStream.range(0, features.size())
+                .filter(i -> features.get(i).generationOption().equals(Optional.of(generation)))
+                .forEach(result::set);
+        return result;
+    }
+
+    private static FeatureDefinition parseFeature(ElementTree.Element featureElement) {
+        String name = featureElement.attributeOption(new QName("name")).orElseThrow();
+        boolean isAutoFeature =
+                featureElement.attributeOption(new QName("auto")).map(Boolean::parseBoolean).orElse(false);
+
+        ImmutableList<ImmutableSet<String>> autoFeatureConditions = featureElement
+                .childElementStream(hasName("when"))
+                .map(e -> splitNames(e.text()))
+                .collect(ImmutableList.toImmutableList());
+        Preconditions.checkArgument(
+                isAutoFeature != autoFeatureConditions.isEmpty(),
+                "Only auto-features have (and must have) conditions: %s", name
+        );
+
+        return new FeatureDefinition(
+                name,
+                featureElement.attributeOption(new QName("family")).orElse(FeatureTable.nameWithoutVersion(name)),
+                featureElement.attributeOption(new QName("platform")).map(FeatureGraph::generation),
+                featureElement.childElementStream(hasName("enables"))
+                        .map(e -> new Enables(
+                                e.text().strip(),
+                                e.attributeOption(new QName("tolerates"))
+                                        .map(FeatureGraph::splitNames)
+                                        .orElse(ImmutableSet.of())
+                        ))
+                        .collect(ImmutableList.toImmutableList()),
+                autoFeatureConditions
+        );
+    }
+
+    private static Generation generation(String platform) {
+        return switch (platform) {
+            case "ee7", "ee8" -> Generation.JAVA_EE;
+            case "ee9", "ee10" -> Generation.JAKARTA_EE;
+            default -> throw new IllegalArgumentException("Unknown platform: " + platform);
+        };
+    }
+
+    private static ImmutableSet<String> splitNames(String names) {
+        return Arrays.stream(names.strip().split("\\s+")).collect(ImmutableSet.toImmutableSet());
+    }
+
+    private static FeatureGraph loadBundledGraph() {
+        try (InputStream inputStream = FeatureGraph.class.getResourceAsStream(BUNDLED_GRAPH_RESOURCE)) {
+            Objects.requireNonNull(inputStream, "Missing resource " + BUNDLED_GRAPH_RESOURCE);
+            return parse(
+                    Document.from(
+                            DocumentParsers.builder().removingInterElementWhitespace().build()
+                                    .parse(new InputSource(inputStream))
+                    ).documentElement()
+            );
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
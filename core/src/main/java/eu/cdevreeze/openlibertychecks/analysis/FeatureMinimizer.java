@@ -0,0 +1,257 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.analysis;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import eu.cdevreeze.openlibertychecks.classfile.*;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.Server;
+import eu.cdevreeze.openlibertychecks.xml.internal.DescendantElementIndex;
+import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
+
+import javax.xml.namespace.QName;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Recommender of a minimal set of OpenLiberty features, comparing the features enabled in the featureManager
+ * with the evidence of feature usage: the types referenced by the application classes (in their signatures,
+ * annotations and method bodies, as found in the class files, so no class is loaded), the deployment descriptors
+ * present (and some of their content, such as security constraints in web.xml), and the configured server.xml
+ * elements.
+ * <p>
+ * An enabled feature is kept if it is not in the {@link FeatureTable}, if its usage cannot be inferred, or if
+ * there is evidence of its use. All other enabled features are recommended for removal. Removable features that
+ * are still required by a kept feature do not count towards the estimated saving, because OpenLiberty enables
+ * them anyway. Convenience features (such as "jakartaee-10.0") are not in the table, so they are kept.
+ *
+ * @author Chris de Vreeze
+ */
+public final class FeatureMinimizer {
+
+    /**
+     * Evidence of feature usage. The referenced types are type names such as "jakarta.servlet.http.HttpServlet".
+     * The descriptor names and server element names are element local names, such as "web-app" or "dataSource".
+     * A descriptor name can also be a document element name and descendant element name separated by a slash,
+     * such as "web-app/security-constraint", meaning that the descriptor contains such an element.
+     */
+    public record UsageEvidence(
+            ImmutableSet<String> referencedTypeNames,
+            ImmutableSet<String> descriptorNames,
+            ImmutableSet<String> serverElementNames
+    ) {
+
+        public UsageEvidence {
+            Objects.requireNonNull(referencedTypeNames);
+            Objects.requireNonNull(descriptorNames);
+            Objects.requireNonNull(serverElementNames);
+        }
+
+        /**
+         * Collects the evidence from the given annotation indexes (one per application, say), the document
+         * elements of the deployment descriptors, and the server configurations. Only the descendant descriptor
+         * element names and server element names known to the feature table are looked up.
+         */
+        public static UsageEvidence collect(
+                List<AnnotationIndex> annotationIndexes,
+                List<ElementTree.Element> descriptorElements,
+                List<Server> servers,
+                FeatureTable featureTable
+        ) {
+            return new UsageEvidence(
+                    annotationIndexes.stream()
+                            .flatMap(index -> index.classes().stream())
+                            .flatMap(UsageEvidence::referencedTypeNames)
+                            .map(name -> name.replace("[]", ""))
+                            .collect(ImmutableSet.toImmutableSet()),
+                    descriptorElements.stream()
+                            .flatMap(e -> descriptorNames(e, featureTable))
+                            .collect(ImmutableSet.toImmutableSet()),
+                    featureTable.features().stream()
+                            .flatMap(f -> f.serverElementNames().stream())
+                            .distinct()
+                            .filter(name -> servers.stream().anyMatch(server ->
+                                    !DescendantElementIndex.of(server.getElement()).elements(name).isEmpty()))
+                            .collect(ImmutableSet.toImmutableSet())
+            );
+        }
+
+        private static Stream<String> referencedTypeNames(ClassDescriptor classDescriptor) {
+            Stream<String> superTypeNames = Stream.concat(
+                    classDescriptor.superClassNameOption().stream(),
+                    classDescriptor.interfaceNames().stream()
+            );
+            Stream<String> memberTypeNames = Stream.concat(
+                    classDescriptor.fields().stream().map(FieldDescriptor::typeName),
+                    classDescriptor.methods().stream()
+                            .flatMap(m -> Stream.concat(Stream.of(m.returnTypeName()), m.parameterTypeNames().stream()))
+            );
+            Stream<String> annotationTypeNames = Stream.of(
+                            Stream.of(classDescriptor),
+                            classDescriptor.fields().stream(),
+                            classDescriptor.methods().stream()
+                    )
+                    .flatMap(s -> s)
+                    .flatMap(e -> e.annotations().stream())
+                    .map(AnnotationDescriptor::annotationTypeName);
+            return Stream.of(
+                            superTypeNames,
+                            memberTypeNames,
+                            annotationTypeNames,
+                            classDescriptor.referencedClassNames().stream()
+                    )
+                    .flatMap(s -> s);
+        }
+
+        private static Stream<String> descriptorNames(
+                ElementTree.Element descriptorElement,
+                FeatureTable featureTable
+        ) {
+            String documentElementName = descriptorElement.elementName().getLocalPart();
+            String namespace = descriptorElement.elementName().getNamespaceURI();
+            String prefix = documentElementName + "/";
+            DescendantElementIndex index = DescendantElementIndex.of(descriptorElement);
+
+            // The descendant elements are in the namespace of the document element
+            Stream<String> descendantDescriptorNames = featureTable.features().stream()
+                    .flatMap(f -> f.descriptorNames().stream())
+                    .filter(name -> name.startsWith(prefix))
+                    .distinct()
+                    .filter(name -> !index.elements(new QName(namespace, name.substring(prefix.length()))).isEmpty());
+            return Stream.concat(Stream.of(documentElementName), descendantDescriptorNames);
+        }
+    }
+
+    /**
+     * Recommendation, with the reason for keeping each feature of the minimal feature set. The estimated savings
+     * are rough figures taken from the feature table.
+     */
+    public record Recommendation(
+            ImmutableList<String> enabledFeatures,
+            ImmutableList<String> minimalFeatures,
+            ImmutableList<String> removableFeatures,
+            ImmutableMap<String, String> reasonsToKeep,
+            int estimatedStartupSavingMillis,
+            int estimatedHeapSavingKb
+    ) {
+
+        public Recommendation {
+            Objects.requireNonNull(enabledFeatures);
+            Objects.requireNonNull(minimalFeatures);
+            Objects.requireNonNull(removableFeatures);
+            Objects.requireNonNull(reasonsToKeep);
+        }
+    }
+
+    private final FeatureTable featureTable;
+
+    public FeatureMinimizer(FeatureTable featureTable) {
+        this.featureTable = Objects.requireNonNull(featureTable);
+    }
+
+    public FeatureMinimizer() {
+        this(FeatureTable.bundled());
+    }
+
+    public Recommendation recommend(Server server, UsageEvidence evidence) {
+        return recommend(
+                server.featureManagers().stream()
+                        .flatMap(fm -> fm.features().stream())
+                        .map(String::strip)
+                        .distinct()
+                        .toList(),
+                evidence
+        );
+    }
+
+    public Recommendation recommend(List<String> enabledFeatures, UsageEvidence evidence) {
+        Set<String> usedPackages = new HashSet<>();
+        evidence.referencedTypeNames().forEach(typeName -> addPackageAndAncestors(typeName, usedPackages));
+
+        Map<String, String> reasonsToKeep = new LinkedHashMap<>();
+        List<String> removableFeatures = new ArrayList<>();
+
+        for (String feature : enabledFeatures) {
+            Optional<String> reasonToKeepOption = featureTable.findFeature(feature)
+                    .map(info -> findReasonToKeep(info, usedPackages, evidence))
+                    .orElse(Optional.of("not in the feature table"));
+
+            reasonToKeepOption.ifPresentOrElse(
+                    reason -> reasonsToKeep.put(feature, reason),
+                    () -> removableFeatures.add(feature)
+            );
+        }
+
+        Set<FeatureTable.FeatureInfo> stillEnabled = new HashSet<>();
+        reasonsToKeep.keySet().stream()
+                .flatMap(f -> featureTable.findFeature(f).stream())
+                .forEach(info -> stillEnabled.addAll(featureTable.requiredFeatureClosure(info)));
+
+        List<FeatureTable.FeatureInfo> disabled = removableFeatures.stream()
+                .flatMap(f -> featureTable.findFeature(f).stream())
+                .filter(info -> !stillEnabled.contains(info))
+                .distinct()
+                .toList();
+
+        return new Recommendation(
+                ImmutableList.copyOf(enabledFeatures),
+                ImmutableList.copyOf(reasonsToKeep.keySet()),
+                ImmutableList.copyOf(removableFeatures),
+                ImmutableMap.copyOf(reasonsToKeep),
+                disabled.stream().mapToInt(FeatureTable.FeatureInfo::startupMillis).sum(),
+                disabled.stream().mapToInt(FeatureTable.FeatureInfo::heapKb).sum()
+        );
+    }
+
+    private static Optional<String> findReasonToKeep(
+            FeatureTable.FeatureInfo feature,
+            Set<String> usedPackages,
+            UsageEvidence evidence
+    ) {
+        if (!feature.inferable()) {
+            return Optional.of("usage cannot be inferred");
+        }
+        return feature.typeNames().stream()
+                .filter(evidence.referencedTypeNames()::contains)
+                .map(t -> "uses type " + t)
+                .findFirst()
+                .or(() -> feature.packages().stream()
+                        .filter(usedPackages::contains)
+                        .map(p -> "uses package " + p)
+                        .findFirst())
+                .or(() -> feature.descriptorNames().stream()
+                        .filter(evidence.descriptorNames()::contains)
+                        .map(d -> "has descriptor " + d)
+                        .findFirst())
+                .or(() -> feature.serverElementNames().stream()
+                        .filter(evidence.serverElementNames()::contains)
+                        .map(e -> "configures " + e)
+                        .findFirst());
+    }
+
+    private static void addPackageAndAncestors(String typeName, Set<String> packages) {
+        String packageName = typeName;
+        int idx;
+        while ((idx = packageName.lastIndexOf('.')) > 0) {
+            packageName = packageName.substring(0, idx);
+            if (!packages.add(packageName)) {
+                return;
+            }
+        }
+    }
+}
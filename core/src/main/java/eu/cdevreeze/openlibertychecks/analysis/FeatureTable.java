@@ -0,0 +1,191 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.analysis;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import eu.cdevreeze.yaidom4j.dom.ancestryaware.Document;
+import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
+import eu.cdevreeze.yaidom4j.dom.immutabledom.jaxpinterop.DocumentParsers;
+import org.xml.sax.InputSource;
+
+import javax.xml.namespace.QName;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.function.Function;
+
+import static eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementPredicates.hasName;
+
+/**
+ * Offline table of OpenLiberty features, with the evidence (packages, types, descriptors and server.xml elements)
+ * showing that a feature is used, and rough estimates of the startup time and heap each feature adds.
+ * The bundled table is resource "feature-usage-table.xml" next to this class.
+ * <p>
+ * Features are looked up by name, with or without version, ignoring case. Renamed features (such as "jaxrs"
+ * and "restfulWS") share one entry.
+ *
+ * @author Chris de Vreeze
+ */
+public final class FeatureTable {
+
+    public static final String BUNDLED_TABLE_RESOURCE = "feature-usage-table.xml";
+
+    /**
+     * Feature table entry. The required features are given as table entries, through their first names.
+     * A feature that is not inferable is never considered unused.
+     */
+    public record FeatureInfo(
+            ImmutableList<String> names,
+            ImmutableSet<String> packages,
+            ImmutableSet<String> typeNames,
+            ImmutableSet<String> descriptorNames,
+            ImmutableSet<String> serverElementNames,
+            ImmutableList<String> requiredFeatureNames,
+            boolean inferable,
+            int startupMillis,
+            int heapKb
+    ) {
+
+        public FeatureInfo {
+            Preconditions.checkArgument(!names.isEmpty());
+            Objects.requireNonNull(packages);
+            Objects.requireNonNull(typeNames);
+            Objects.requireNonNull(descriptorNames);
+            Objects.requireNonNull(serverElementNames);
+            Objects.requireNonNull(requiredFeatureNames);
+        }
+
+        public String name() {
+            return names.get(0);
+        }
+    }
+
+    private static final Supplier<FeatureTable> BUNDLED_TABLE = Suppliers.memoize(FeatureTable::loadBundledTable);
+
+    private final ImmutableList<FeatureInfo> features;
+    private final ImmutableMap<String, FeatureInfo> featuresByName;
+
+    public FeatureTable(List<FeatureInfo> features) {
+        this.features = ImmutableList.copyOf(features);
+        this.featuresByName = features.stream()
+                .flatMap(f -> f.names().stream().map(n -> Map.entry(n.toLowerCase(Locale.ROOT), f)))
+                .collect(ImmutableMap.toImmutableMap(Map.Entry::getKey, Map.Entry::getValue));
+        Preconditions.checkArgument(
+                features.stream().flatMap(f -> f.requiredFeatureNames().stream()).allMatch(featuresByName::containsKey),
+                "Unknown required feature"
+        );
+    }
+
+    public static FeatureTable bundled() {
+        return BUNDLED_TABLE.get();
+    }
+
+    /**
+     * Parses a feature table, in the format of the bundled table.
+     */
+    public static FeatureTable parse(ElementTree.Element featureTableElement) {
+        Preconditions.checkArgument(featureTableElement.elementName().getLocalPart().equals("featureTable"));
+
+        return new FeatureTable(
+                featureTableElement.childElementStream(hasName("feature"))
+                        .map(FeatureTable::parseFeature)
+                        .toList()
+        );
+    }
+
+    public ImmutableList<FeatureInfo> features() {
+        return features;
+    }
+
+    /**
+     * Finds the feature with the given name, such as "servlet-6.0" or "servlet".
+     */
+    public Optional<FeatureInfo> findFeature(String featureName) {
+        return Optional.ofNullable(featuresByName.get(nameWithoutVersion(featureName).toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * Returns the feature itself followed by the features it (transitively) requires.
+     */
+    public ImmutableSet<FeatureInfo> requiredFeatureClosure(FeatureInfo feature) {
+        Set<FeatureInfo> result = new LinkedHashSet<>();
+        Deque<FeatureInfo> queue = new ArrayDeque<>(List.of(feature));
+
+        while (!queue.isEmpty()) {
+            FeatureInfo current = queue.poll();
+            if (result.add(current)) {
+                current.requiredFeatureNames().forEach(n -> queue.add(featuresByName.get(n)));
+            }
+        }
+        return ImmutableSet.copyOf(result);
+    }
+
+    /**
+     * Returns the feature name without version, such as "servlet" for "servlet-6.0".
+     */
+    public static String nameWithoutVersion(String featureName) {
+        String name = featureName.strip();
+        int idx = name.lastIndexOf('-');
+        return (idx > 0 && idx + 1 < name.length() && Character.isDigit(name.charAt(idx + 1))) ?
+                name.substring(0, idx) :
+                name;
+    }
+
+    private static FeatureInfo parseFeature(ElementTree.Element featureElement) {
+        Function<String, ImmutableSet<String>> childTexts = name -> featureElement.childElementStream(hasName(name))
+                .map(e -> e.text().strip())
+                .collect(ImmutableSet.toImmutableSet());
+
+        return new FeatureInfo(
+                splitNames(featureElement.attributeOption(new QName("names")).orElseThrow()),
+                childTexts.apply("package"),
+                childTexts.apply("type"),
+                childTexts.apply("descriptor"),
+                childTexts.apply("serverElement"),
+                featureElement.childElementStream(hasName("requires"))
+                        .map(e -> splitNames(e.text()).get(0).toLowerCase(Locale.ROOT))
+                        .collect(ImmutableList.toImmutableList()),
+                featureElement.attributeOption(new QName("inferable")).map(Boolean::parseBoolean).orElse(true),
+                featureElement.attributeOption(new QName("startupMillis")).map(Integer::parseInt).orElse(0),
+                featureElement.attributeOption(new QName("heapKb")).map(Integer::parseInt).orElse(0)
+        );
+    }
+
+    private static ImmutableList<String> splitNames(String names) {
+        return Arrays.stream(names.strip().split("\\s+")).collect(ImmutableList.toImmutableList());
+    }
+
+    private static FeatureTable loadBundledTable() {
+        try (InputStream inputStream = FeatureTable.class.getResourceAsStream(BUNDLED_TABLE_RESOURCE)) {
+            Objects.requireNonNull(inputStream, "Missing resource " + BUNDLED_TABLE_RESOURCE);
+            return parse(
+                    Document.from(
+                            DocumentParsers.builder().removingInterElementWhitespace().build()
+                                    .parse(new InputSource(inputStream))
+                    ).documentElement()
+            );
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
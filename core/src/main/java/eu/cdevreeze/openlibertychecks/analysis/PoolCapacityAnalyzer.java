@@ -0,0 +1,261 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.analysis;
+
+import com.google.common.collect.ImmutableList;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.*;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Analyzer of connection pool capacity. Each data source is linked to its connection manager, which is the
+ * referenced one, the nested one, or else the default one (with the default pool settings of OpenLiberty).
+ * The pool settings are then checked against each other and against the default executor of the server.
+ * A minPoolSize exceeding the maxPoolSize is not reported here, because
+ * {@link eu.cdevreeze.openlibertychecks.rules.ServerXmlChecks#CONNECTION_MANAGER_POOL_SIZE} already checks that.
+ * <p>
+ * Across a fleet of servers, the potential number of database connections is summed per database host
+ * (the serverName property of the data source), which shows whether a database can cope with all servers
+ * filling their pools at the same time.
+ * <p>
+ * Values that cannot be parsed (for example because of unresolved variables) are skipped by the checks.
+ *
+ * @author Chris de Vreeze
+ */
+public class PoolCapacityAnalyzer {
+
+    private PoolCapacityAnalyzer() {
+    }
+
+    public static final int DEFAULT_MAX_POOL_SIZE = ConnectionManager.DEFAULT_MAX_POOL_SIZE;
+    public static final Duration DEFAULT_AGED_TIMEOUT = ConnectionManager.DEFAULT_AGED_TIMEOUT;
+    public static final Duration DEFAULT_REAP_TIME = ConnectionManager.DEFAULT_REAP_TIME;
+    public static final String UNKNOWN_HOST = "(unknown)";
+
+    public enum IssueKind {
+        UNBOUNDED_POOL,
+        POOL_SMALLER_THAN_EXECUTOR,
+        AGED_TIMEOUT_SHORTER_THAN_REAP_TIME
+    }
+
+    /**
+     * Effective pool settings of a data source. The connection manager is absent if the default connection
+     * manager is used. Settings that are not configured get their OpenLiberty defaults, and settings that are
+     * configured but cannot be parsed are absent. A maxPoolSize of 0 means that the pool is unbounded. A negative
+     * agedTimeout means that connections are never discarded because of their age.
+     */
+    public record PoolSettings(
+            DataSource dataSource,
+            Optional<ConnectionManager> connectionManagerOption,
+            OptionalInt maxPoolSizeOption,
+            OptionalInt minPoolSizeOption,
+            Optional<Duration> agedTimeoutOption,
+            Optional<Duration> reapTimeOption
+    ) {
+
+        public PoolSettings {
+            Objects.requireNonNull(dataSource);
+            Objects.requireNonNull(connectionManagerOption);
+            Objects.requireNonNull(maxPoolSizeOption);
+            Objects.requireNonNull(minPoolSizeOption);
+            Objects.requireNonNull(agedTimeoutOption);
+            Objects.requireNonNull(reapTimeOption);
+        }
+
+        public boolean isUnbounded() {
+            return maxPoolSizeOption.isPresent() && maxPoolSizeOption.getAsInt() == 0;
+        }
+    }
+
+    public record Issue(IssueKind kind, DataSource dataSource, String message) {
+
+        public Issue {
+            Objects.requireNonNull(kind);
+            Objects.requireNonNull(dataSource);
+            Objects.requireNonNull(message);
+        }
+    }
+
+    /**
+     * Potential number of connections to one database host, as the sum of the maxPoolSize values of the data
+     * sources connecting to it. If any of these pools is unbounded, so is the total. Pools whose maxPoolSize cannot
+     * be parsed (for example because of an unresolved variable) are counted as unknown pools instead, in which case
+     * the total is only a lower bound.
+     */
+    public record HostCapacity(
+            String host,
+            int dataSourceCount,
+            long totalMaxConnections,
+            boolean unbounded,
+            int unknownPoolCount
+    ) {
+
+        public HostCapacity {
+            Objects.requireNonNull(host);
+        }
+    }
+
+    public static PoolSettings poolSettings(DataSource dataSource, VariableResolver variableResolver) {
+        Optional<ConnectionManager> connectionManagerOption = dataSource.resolveConnectionManager()
+                .or(() -> dataSource.connectionManagers().stream().findFirst());
+
+        return new PoolSettings(
+                dataSource,
+                connectionManagerOption,
+                connectionManagerOption
+                        .map(cm -> parseInt(cm.maxPoolSizeAsStringOption(), variableResolver, DEFAULT_MAX_POOL_SIZE))
+                        .orElse(OptionalInt.of(DEFAULT_MAX_POOL_SIZE)),
+                connectionManagerOption
+                        .map(cm -> variableResolver.resolveAsInt(cm.minPoolSizeAsStringOption()))
+                        .orElse(OptionalInt.empty()),
+                connectionManagerOption
+                        .map(cm -> parseDuration(
+                                cm.agedTimeoutAsStringOption(), variableResolver, DEFAULT_AGED_TIMEOUT))
+                        .orElse(Optional.of(DEFAULT_AGED_TIMEOUT)),
+                connectionManagerOption
+                        .map(cm -> parseDuration(cm.reapTimeOption(), variableResolver, DEFAULT_REAP_TIME))
+                        .orElse(Optional.of(DEFAULT_REAP_TIME))
+        );
+    }
+
+    /**
+     * Checks the pool settings of all data sources of the given server.
+     */
+    public static ImmutableList<Issue> findIssues(Server server, VariableResolver variableResolver) {
+        OptionalInt executorMaxThreadsOption = server.executors().stream()
+                .map(exec -> variableResolver.resolveAsInt(exec.maxThreadsAsStringOption()))
+                .flatMapToInt(OptionalInt::stream)
+                .filter(maxThreads -> maxThreads > 0)
+                .findFirst();
+
+        return server.dataSources().stream()
+                .map(ds -> poolSettings(ds, variableResolver))
+                .flatMap(settings -> findIssues(settings, executorMaxThreadsOption).stream())
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    /**
+     * Checks the given pool settings. If the maximum number of executor threads is known, a bounded pool that is
+     * smaller than that is reported, because under full load requests may wait for connections.
+     */
+    public static ImmutableList<Issue> findIssues(PoolSettings settings, OptionalInt executorMaxThreadsOption) {
+        ImmutableList.Builder<Issue> issues = ImmutableList.builder();
+        DataSource dataSource = settings.dataSource();
+        String dataSourceName = dataSource.idOption().or(dataSource::jndiNameOption).orElse("");
+
+        if (settings.isUnbounded()) {
+            issues.add(new Issue(
+                    IssueKind.UNBOUNDED_POOL,
+                    dataSource,
+                    String.format("dataSource '%s': connection pool is unbounded (maxPoolSize 0)", dataSourceName)
+            ));
+        } else if (settings.maxPoolSizeOption().isPresent() && executorMaxThreadsOption.isPresent() &&
+                settings.maxPoolSizeOption().getAsInt() < executorMaxThreadsOption.getAsInt()) {
+            issues.add(new Issue(
+                    IssueKind.POOL_SMALLER_THAN_EXECUTOR,
+                    dataSource,
+                    String.format(
+                            "dataSource '%s': maxPoolSize %d is smaller than executor maxThreads %d",
+                            dataSourceName,
+                            settings.maxPoolSizeOption().getAsInt(),
+                            executorMaxThreadsOption.getAsInt()
+                    )
+            ));
+        }
+
+        if (settings.agedTimeoutOption().isPresent() && settings.reapTimeOption().isPresent() &&
+                !settings.agedTimeoutOption().get().isNegative() &&
+                !settings.reapTimeOption().get().isNegative() &&
+                !settings.reapTimeOption().get().isZero() &&
+                settings.agedTimeoutOption().get().compareTo(settings.reapTimeOption().get()) < 0) {
+            issues.add(new Issue(
+                    IssueKind.AGED_TIMEOUT_SHORTER_THAN_REAP_TIME,
+                    dataSource,
+                    String.format(
+                            "dataSource '%s': agedTimeout %s is shorter than reapTime %s, " +
+                                    "so connections may outlive their agedTimeout",
+                            dataSourceName,
+                            settings.agedTimeoutOption().get(),
+                            settings.reapTimeOption().get()
+                    )
+            ));
+        }
+        return issues.build();
+    }
+
+    /**
+     * Returns the potential number of connections per database host, over all data sources of the given servers,
+     * ordered by host. Each server has its own variable resolver.
+     */
+    public static ImmutableList<HostCapacity> findHostCapacities(
+            List<Server> servers,
+            Function<Server, VariableResolver> variableResolvers
+    ) {
+        Map<String, List<PoolSettings>> settingsByHost = new TreeMap<>();
+        for (Server server : servers) {
+            VariableResolver variableResolver = variableResolvers.apply(server);
+            for (DataSource dataSource : server.dataSources()) {
+                settingsByHost.computeIfAbsent(host(dataSource, variableResolver), k -> new ArrayList<>())
+                        .add(poolSettings(dataSource, variableResolver));
+            }
+        }
+
+        return settingsByHost.entrySet().stream()
+                .map(e -> new HostCapacity(
+                        e.getKey(),
+                        e.getValue().size(),
+                        e.getValue().stream()
+                                .mapToLong(settings -> settings.maxPoolSizeOption().orElse(0))
+                                .sum(),
+                        e.getValue().stream().anyMatch(PoolSettings::isUnbounded),
+                        (int) e.getValue().stream().filter(settings -> settings.maxPoolSizeOption().isEmpty()).count()
+                ))
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    private static String host(DataSource dataSource, VariableResolver variableResolver) {
+        return dataSource.propertiesElements().stream()
+                .flatMap(props -> props.serverNameOption().stream())
+                .map(variableResolver::resolve)
+                .findFirst()
+                .orElse(UNKNOWN_HOST);
+    }
+
+    private static OptionalInt parseInt(
+            Optional<String> valueOption,
+            VariableResolver variableResolver,
+            int defaultValue
+    ) {
+        if (valueOption.isEmpty()) {
+            return OptionalInt.of(defaultValue);
+        }
+        return variableResolver.resolveAsInt(valueOption);
+    }
+
+    private static Optional<Duration> parseDuration(
+            Optional<String> valueOption,
+            VariableResolver variableResolver,
+            Duration defaultValue
+    ) {
+        if (valueOption.isEmpty()) {
+            return Optional.of(defaultValue);
+        }
+        return ConfigValueParser.parseDurationOption(variableResolver.resolve(valueOption.get()));
+    }
+}
@@ -0,0 +1,378 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.analysis;
+
+import com.google.common.collect.*;
+import eu.cdevreeze.openlibertychecks.classfile.*;
+import eu.cdevreeze.openlibertychecks.reflection.jakartaee10.CommonJakartaAnnotations;
+import eu.cdevreeze.openlibertychecks.xml.XmlDocumentRepository;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.*;
+import eu.cdevreeze.openlibertychecks.xml.jakartaee10.servlet.WebApp;
+import eu.cdevreeze.openlibertychecks.xml.jakartaee10.servlet.WebXmlContent;
+import eu.cdevreeze.yaidom4j.dom.immutabledom.Element;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Graph linking the resource lookups of applications to the server resources they use. The nodes are Resource
+ * annotation occurrences (injection points), resource-ref and resource-env-ref elements in web.xml files, server
+ * resources with a JNDI name (dataSource, jmsConnectionFactory, jmsQueue, jndiEntry etc.), and the configuration
+ * elements these server resources refer to (connectionManager, jdbcDriver and library).
+ * <p>
+ * An edge runs from the user of a resource to the resource used:
+ * <ul>
+ *     <li>An injection point with a "java:comp/env/" lookup points to the reference with that name</li>
+ *     <li>An injection point with another lookup points to the server resources with that JNDI name</li>
+ *     <li>An injection point without lookup points to the reference with its name, if any, and otherwise to the
+ *     server resources having its name as JNDI name (as by the default binding of OpenLiberty)</li>
+ *     <li>A reference points to the server resources having its lookup-name, or otherwise its name, as JNDI name</li>
+ *     <li>A server resource points to its (referenced or nested) connection manager and JDBC drivers, and a JDBC
+ *     driver points to its library</li>
+ * </ul>
+ * <p>
+ * The edges and server resources are indexed (by node and by JNDI name, respectively), so queries such as
+ * {@link #unresolvedLookups()}, {@link #orphanServerResources()} and {@link #usedServerResources(Node)} do not
+ * search through all XML elements and classes. The server resources of all given servers share one JNDI namespace,
+ * so a graph should typically be built for one server configuration and the applications deployed to it.
+ * Variables in JNDI names are not resolved. Bindings in ibm-web-bnd.xml files are not taken into account.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @author Chris de Vreeze
+ */
+public final class ResourceGraph {
+
+    public static final String JAVA_COMP_ENV_PREFIX = "java:comp/env/";
+
+    public sealed interface Node permits InjectionPoint, Reference, ServerResource, ConfigElement {
+    }
+
+    /**
+     * Resource annotation occurrence. The name is the explicit name, or else the default name, which is
+     * the class name followed by a slash and the field or (setter) property name.
+     */
+    public record InjectionPoint(
+            AnnotationIndex.Occurrence occurrence,
+            String name,
+            Optional<String> lookupOption
+    ) implements Node {
+
+        public InjectionPoint {
+            Objects.requireNonNull(occurrence);
+            Objects.requireNonNull(name);
+            Objects.requireNonNull(lookupOption);
+        }
+    }
+
+    /**
+     * Element "resource-ref" or "resource-env-ref" in a web.xml file.
+     */
+    public record Reference(WebXmlContent reference, String name, Optional<String> lookupNameOption) implements Node {
+
+        public Reference {
+            Objects.requireNonNull(reference);
+            Objects.requireNonNull(name);
+            Objects.requireNonNull(lookupNameOption);
+        }
+    }
+
+    public record ServerResource(ServerXmlContent resource, String jndiName) implements Node {
+
+        public ServerResource {
+            Objects.requireNonNull(resource);
+            Objects.requireNonNull(jndiName);
+        }
+    }
+
+    public record ConfigElement(ServerXmlContent element) implements Node {
+
+        public ConfigElement {
+            Objects.requireNonNull(element);
+        }
+    }
+
+    private final ImmutableList<Node> nodes;
+    private final ImmutableSetMultimap<Node, Node> successors;
+    private final ImmutableSetMultimap<Node, Node> predecessors;
+    private final ImmutableListMultimap<String, ServerResource> serverResourcesByJndiName;
+    private final ImmutableListMultimap<String, Node> lookupsByJndiName;
+    private final ConcurrentHashMap<Node, ImmutableSet<Node>> reachableNodesCache = new ConcurrentHashMap<>();
+
+    private ResourceGraph(
+            ImmutableList<Node> nodes,
+            ImmutableSetMultimap<Node, Node> successors,
+            ImmutableListMultimap<String, ServerResource> serverResourcesByJndiName,
+            ImmutableListMultimap<String, Node> lookupsByJndiName
+    ) {
+        this.nodes = nodes;
+        this.successors = successors;
+        this.predecessors = successors.inverse();
+        this.serverResourcesByJndiName = serverResourcesByJndiName;
+        this.lookupsByJndiName = lookupsByJndiName;
+    }
+
+    /**
+     * Builds the graph from the Resource annotations found in the given annotation index (if any), and
+     * the web.xml and server.xml documents in the given repository.
+     */
+    public static ResourceGraph build(
+            Optional<AnnotationIndex> annotationIndexOption,
+            XmlDocumentRepository xmlDocumentRepository
+    ) {
+        return build(
+                annotationIndexOption
+                        .map(CommonJakartaAnnotations::findResourceAnnotationOccurrences)
+                        .orElse(ImmutableList.of()),
+                xmlDocumentRepository.webApps(),
+                xmlDocumentRepository.servers()
+        );
+    }
+
+    public static ResourceGraph build(
+            List<AnnotationIndex.Occurrence> resourceAnnotationOccurrences,
+            List<WebApp> webApps,
+            List<Server> servers
+    ) {
+        // Lookups are resolved when added, so the server resources and references must be added first
+        GraphBuilder builder = new GraphBuilder();
+        servers.forEach(builder::addServer);
+        webApps.forEach(builder::addWebApp);
+        resourceAnnotationOccurrences.forEach(builder::addResourceAnnotationOccurrence);
+        return builder.build();
+    }
+
+    public ImmutableList<Node> nodes() {
+        return nodes;
+    }
+
+    public ImmutableList<InjectionPoint> injectionPoints() {
+        return nodesOfType(InjectionPoint.class);
+    }
+
+    public ImmutableList<Reference> references() {
+        return nodesOfType(Reference.class);
+    }
+
+    public ImmutableList<ServerResource> serverResources() {
+        return nodesOfType(ServerResource.class);
+    }
+
+    public ImmutableSet<Node> successors(Node node) {
+        return successors.get(node);
+    }
+
+    public ImmutableSet<Node> predecessors(Node node) {
+        return predecessors.get(node);
+    }
+
+    public ImmutableList<ServerResource> findServerResources(String jndiName) {
+        return serverResourcesByJndiName.get(jndiName);
+    }
+
+    /**
+     * Returns the injection points and references that directly look up the given JNDI name, whether
+     * or not a server resource with that JNDI name exists.
+     */
+    public ImmutableList<Node> findLookups(String jndiName) {
+        return lookupsByJndiName.get(jndiName);
+    }
+
+    /**
+     * Returns the nodes (transitively) reachable from the given node, excluding the node itself.
+     * The result is cached per node.
+     */
+    public ImmutableSet<Node> reachableNodes(Node node) {
+        return reachableNodesCache.computeIfAbsent(node, this::computeReachableNodes);
+    }
+
+    /**
+     * Returns the server resources that the given node ultimately uses, for example the data source
+     * behind an injection point.
+     */
+    public ImmutableList<ServerResource> usedServerResources(Node node) {
+        return reachableNodes(node).stream()
+                .filter(n -> n instanceof ServerResource)
+                .map(n -> (ServerResource) n)
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    /**
+     * Returns the injection points and references that do not (transitively) lead to any server resource.
+     */
+    public ImmutableList<Node> unresolvedLookups() {
+        return nodes.stream()
+                .filter(n -> n instanceof InjectionPoint || n instanceof Reference)
+                .filter(n -> usedServerResources(n).isEmpty())
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    /**
+     * Returns the server resources that are not used by any injection point or reference.
+     */
+    public ImmutableList<ServerResource> orphanServerResources() {
+        return serverResources().stream()
+                .filter(n -> predecessors.get(n).isEmpty())
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    private ImmutableSet<Node> computeReachableNodes(Node node) {
+        Set<Node> visited = new LinkedHashSet<>();
+        Deque<Node> stack = new ArrayDeque<>(successors.get(node));
+
+        while (!stack.isEmpty()) {
+            Node current = stack.pop();
+            if (visited.add(current)) {
+                stack.addAll(successors.get(current));
+            }
+        }
+        visited.remove(node);
+        return ImmutableSet.copyOf(visited);
+    }
+
+    private <T extends Node> ImmutableList<T> nodesOfType(Class<T> nodeType) {
+        return nodes.stream().filter(nodeType::isInstance).map(nodeType::cast).collect(ImmutableList.toImmutableList());
+    }
+
+    private static final class GraphBuilder {
+
+        private final List<Node> nodes = new ArrayList<>();
+        private final SetMultimap<Node, Node> successors = LinkedHashMultimap.create();
+        private final ListMultimap<String, ServerResource> serverResourcesByJndiName = ArrayListMultimap.create();
+        private final ListMultimap<String, Reference> referencesByName = ArrayListMultimap.create();
+        private final ListMultimap<String, Node> lookupsByJndiName = ArrayListMultimap.create();
+        // Configuration elements can be shared by several server resources, so they are keyed by underlying element
+        private final Map<Element, ConfigElement> configElements = new IdentityHashMap<>();
+
+        void addServer(Server server) {
+            server.dataSources().forEach(ds -> ds.jndiNameOption().ifPresent(jndiName -> {
+                ServerResource node = addServerResource(ds, jndiName);
+                addConnectionManagers(node, ds.resolveConnectionManager(), ds.connectionManagers());
+                ds.jdbcDrivers().forEach(jdbcDriver -> {
+                    ConfigElement driverNode = addConfigElement(jdbcDriver);
+                    successors.put(node, driverNode);
+                    jdbcDriver.resolveLibrary().ifPresent(lib -> successors.put(driverNode, addConfigElement(lib)));
+                });
+            }));
+            server.jmsConnectionFactories().forEach(cf -> cf.jndiNameOption().ifPresent(jndiName -> {
+                ServerResource node = addServerResource(cf, jndiName);
+                addConnectionManagers(node, cf.resolveConnectionManager(), cf.connectionManagers());
+            }));
+            server.jmsQueueConnectionFactories().forEach(cf -> cf.jndiNameOption().ifPresent(jndiName -> {
+                ServerResource node = addServerResource(cf, jndiName);
+                addConnectionManagers(node, cf.resolveConnectionManager(), List.of());
+            }));
+            server.jmsTopicConnectionFactories().forEach(cf -> cf.jndiNameOption().ifPresent(jndiName -> {
+                ServerResource node = addServerResource(cf, jndiName);
+                addConnectionManagers(node, cf.resolveConnectionManager(), List.of());
+            }));
+            server.jmsQueues().forEach(q -> q.jndiNameOption().ifPresent(jndiName -> addServerResource(q, jndiName)));
+            server.jmsTopics().forEach(t -> t.jndiNameOption().ifPresent(jndiName -> addServerResource(t, jndiName)));
+            server.jndiEntries().forEach(e -> addServerResource(e, e.jndiName()));
+        }
+
+        void addWebApp(WebApp webApp) {
+            Stream.concat(
+                    webApp.resourceRefs().stream()
+                            .map(ref -> new Reference(ref, ref.resRefName(), ref.lookupNameOption())),
+                    webApp.resourceEnvRefs().stream()
+                            .map(ref -> new Reference(ref, ref.resourceEnvRefName(), ref.lookupNameOption()))
+            ).forEach(node -> {
+                nodes.add(node);
+                referencesByName.put(node.name(), node);
+                addLookup(node, node.lookupNameOption().orElse(node.name()));
+            });
+        }
+
+        void addResourceAnnotationOccurrence(AnnotationIndex.Occurrence occurrence) {
+            InjectionPoint node = new InjectionPoint(
+                    occurrence,
+                    occurrence.annotation().stringValueOption("name")
+                            .filter(name -> !name.isEmpty())
+                            .orElseGet(() -> defaultName(occurrence)),
+                    occurrence.annotation().stringValueOption("lookup").filter(lookup -> !lookup.isEmpty())
+            );
+            nodes.add(node);
+
+            if (node.lookupOption().isPresent()) {
+                String lookup = node.lookupOption().get();
+                if (lookup.startsWith(JAVA_COMP_ENV_PREFIX)) {
+                    referencesByName.get(lookup.substring(JAVA_COMP_ENV_PREFIX.length()))
+                            .forEach(ref -> successors.put(node, ref));
+                } else {
+                    addLookup(node, lookup);
+                }
+            } else if (referencesByName.containsKey(node.name())) {
+                referencesByName.get(node.name()).forEach(ref -> successors.put(node, ref));
+            } else {
+                addLookup(node, node.name());
+            }
+        }
+
+        ResourceGraph build() {
+            return new ResourceGraph(
+                    ImmutableList.copyOf(nodes),
+                    ImmutableSetMultimap.copyOf(successors),
+                    ImmutableListMultimap.copyOf(serverResourcesByJndiName),
+                    ImmutableListMultimap.copyOf(lookupsByJndiName)
+            );
+        }
+
+        private ServerResource addServerResource(ServerXmlContent resource, String jndiName) {
+            ServerResource node = new ServerResource(resource, jndiName);
+            nodes.add(node);
+            serverResourcesByJndiName.put(jndiName, node);
+            return node;
+        }
+
+        private void addConnectionManagers(
+                ServerResource node,
+                Optional<ConnectionManager> referencedConnectionManagerOption,
+                List<ConnectionManager> nestedConnectionManagers
+        ) {
+            Stream.concat(referencedConnectionManagerOption.stream(), nestedConnectionManagers.stream())
+                    .forEach(cm -> successors.put(node, addConfigElement(cm)));
+        }
+
+        private ConfigElement addConfigElement(ServerXmlContent element) {
+            return configElements.computeIfAbsent(element.getElement().underlyingNode(), e -> {
+                ConfigElement node = new ConfigElement(element);
+                nodes.add(node);
+                return node;
+            });
+        }
+
+        private void addLookup(Node node, String jndiName) {
+            lookupsByJndiName.put(jndiName, node);
+            serverResourcesByJndiName.get(jndiName).forEach(resource -> successors.put(node, resource));
+        }
+
+        private static String defaultName(AnnotationIndex.Occurrence occurrence) {
+            String className = occurrence.declaringClass().className();
+            if (occurrence.annotatedElement() instanceof FieldDescriptor field) {
+                return className + "/" + field.name();
+            } else if (occurrence.annotatedElement() instanceof MethodDescriptor method
+                    && method.name().startsWith("set") && method.name().length() > 3) {
+                String propertyName = method.name().substring(3);
+                return className + "/" + Character.toLowerCase(propertyName.charAt(0)) + propertyName.substring(1);
+            } else {
+                return className;
+            }
+        }
+    }
+}
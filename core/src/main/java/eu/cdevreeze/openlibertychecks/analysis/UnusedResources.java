@@ -0,0 +1,203 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.analysis;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.*;
+import eu.cdevreeze.openlibertychecks.xml.internal.DescendantElementIndex;
+import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
+import eu.cdevreeze.yaidom4j.dom.immutabledom.Element;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Detection of server resources (data sources, JMS connection factories and resource adapters) that no deployed
+ * application uses. Each of them still costs startup time, and a connection pool that has been filled once does
+ * not shrink below its minPoolSize, so an unused pooled resource may keep that many idle connections open.
+ * <p>
+ * A data source or connection factory is used if some injection point or reference in the {@link ResourceGraph}
+ * leads to it. A resource adapter is used if some configuration element (such as a connectionFactory or
+ * activationSpec) configures it through a "properties.&lt;resourceAdapterId&gt;" child element. Such a child
+ * element nested in the resource adapter itself only configures the adapter, so it does not count as a usage.
+ *
+ * @author Chris de Vreeze
+ */
+public class UnusedResources {
+
+    private UnusedResources() {
+    }
+
+    public enum ResourceKind {DATA_SOURCE, JMS_CONNECTION_FACTORY, RESOURCE_ADAPTER}
+
+    /**
+     * Unused server resource. The minPoolSize is the one of the referenced or nested connection manager,
+     * if any, and the estimated number of idle connections is that minPoolSize (or 0 if absent).
+     */
+    public record UnusedResource(
+            ResourceKind kind,
+            ServerXmlContent resource,
+            Optional<String> idOption,
+            Optional<String> jndiNameOption,
+            Optional<ConnectionManager> connectionManagerOption,
+            OptionalInt minPoolSizeOption
+    ) {
+
+        public UnusedResource {
+            Objects.requireNonNull(kind);
+            Objects.requireNonNull(resource);
+            Objects.requireNonNull(idOption);
+            Objects.requireNonNull(jndiNameOption);
+            Objects.requireNonNull(connectionManagerOption);
+            Objects.requireNonNull(minPoolSizeOption);
+        }
+
+        public int estimatedIdleConnections() {
+            return minPoolSizeOption.orElse(0);
+        }
+    }
+
+    /**
+     * Finds the unused resources in the given servers, given the resource graph of the applications deployed
+     * to them. Variables in minPoolSize attributes are resolved by the given variable resolver.
+     */
+    public static ImmutableList<UnusedResource> findUnusedResources(
+            ResourceGraph resourceGraph,
+            List<Server> servers,
+            VariableResolver variableResolver
+    ) {
+        // The graph and the servers may have been created independently, so resources are matched by element
+        Set<Element> usedResourceElements = Sets.newIdentityHashSet();
+        resourceGraph.serverResources().stream()
+                .filter(r -> !resourceGraph.predecessors(r).isEmpty())
+                .forEach(r -> usedResourceElements.add(r.resource().getElement().underlyingNode()));
+
+        return servers.stream()
+                .flatMap(server -> findUnusedResources(server, usedResourceElements, variableResolver))
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    public static int totalEstimatedIdleConnections(List<UnusedResource> unusedResources) {
+        return unusedResources.stream().mapToInt(UnusedResource::estimatedIdleConnections).sum();
+    }
+
+    private static Stream<UnusedResource> findUnusedResources(
+            Server server,
+            Set<Element> usedResourceElements,
+            VariableResolver variableResolver
+    ) {
+        Predicate<ServerXmlContent> isUnused = r -> !usedResourceElements.contains(r.getElement().underlyingNode());
+
+        Stream<UnusedResource> dataSources = server.dataSources().stream()
+                .filter(isUnused)
+                .map(ds -> unusedPooledResource(
+                        ResourceKind.DATA_SOURCE,
+                        ds,
+                        ds.idOption(),
+                        ds.jndiNameOption(),
+                        ds.resolveConnectionManager().or(() -> ds.connectionManagers().stream().findFirst()),
+                        variableResolver
+                ));
+        Stream<UnusedResource> connectionFactories = Stream.of(
+                        server.jmsConnectionFactories().stream()
+                                .filter(isUnused)
+                                .map(cf -> unusedPooledResource(
+                                        ResourceKind.JMS_CONNECTION_FACTORY,
+                                        cf,
+                                        cf.idOption(),
+                                        cf.jndiNameOption(),
+                                        cf.resolveConnectionManager()
+                                                .or(() -> cf.connectionManagers().stream().findFirst()),
+                                        variableResolver
+                                )),
+                        server.jmsQueueConnectionFactories().stream()
+                                .filter(isUnused)
+                                .map(cf -> unusedPooledResource(
+                                        ResourceKind.JMS_CONNECTION_FACTORY,
+                                        cf,
+                                        cf.idOption(),
+                                        cf.jndiNameOption(),
+                                        cf.resolveConnectionManager(),
+                                        variableResolver
+                                )),
+                        server.jmsTopicConnectionFactories().stream()
+                                .filter(isUnused)
+                                .map(cf -> unusedPooledResource(
+                                        ResourceKind.JMS_CONNECTION_FACTORY,
+                                        cf,
+                                        cf.idOption(),
+                                        cf.jndiNameOption(),
+                                        cf.resolveConnectionManager(),
+                                        variableResolver
+                                ))
+                )
+                .flatMap(s -> s);
+        Stream<UnusedResource> resourceAdapters = server.resourceAdapters().stream()
+                .filter(ra -> ra.idOption().isEmpty() || !isConfigured(ra))
+                .map(ra -> new UnusedResource(
+                        ResourceKind.RESOURCE_ADAPTER,
+                        ra,
+                        ra.idOption(),
+                        Optional.empty(),
+                        Optional.empty(),
+                        OptionalInt.empty()
+                ));
+
+        return Stream.of(dataSources, connectionFactories, resourceAdapters).flatMap(s -> s);
+    }
+
+    private static UnusedResource unusedPooledResource(
+            ResourceKind kind,
+            ServerXmlContent resource,
+            Optional<String> idOption,
+            Optional<String> jndiNameOption,
+            Optional<ConnectionManager> connectionManagerOption,
+            VariableResolver variableResolver
+    ) {
+        OptionalInt minPoolSizeOption = connectionManagerOption
+                .map(cm -> {
+                    try {
+                        return cm.minPoolSizeOption(variableResolver);
+                    } catch (NumberFormatException e) {
+                        return OptionalInt.empty();
+                    }
+                })
+                .orElse(OptionalInt.empty());
+        return new UnusedResource(kind, resource, idOption, jndiNameOption, connectionManagerOption, minPoolSizeOption);
+    }
+
+    private static boolean isConfigured(ResourceAdapter resourceAdapter) {
+        String propertiesElementName = "properties." + resourceAdapter.idOption().orElseThrow();
+        Element resourceAdapterElement = resourceAdapter.getElement().underlyingNode();
+        // The resource adapter's own nested properties element configures the adapter itself, not a usage of it
+        return DescendantElementIndex.of(resourceAdapter.getElement()).elements(propertiesElementName).stream()
+                .anyMatch(e -> !hasAncestor(e, resourceAdapterElement));
+    }
+
+    private static boolean hasAncestor(ElementTree.Element element, Element ancestor) {
+        Optional<ElementTree.Element> parentOption = element.parentElementOption();
+        while (parentOption.isPresent()) {
+            if (parentOption.get().underlyingNode() == ancestor) {
+                return true;
+            }
+            parentOption = parentOption.get().parentElementOption();
+        }
+        return false;
+    }
+}
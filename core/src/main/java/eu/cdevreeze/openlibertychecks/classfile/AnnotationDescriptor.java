@@ -0,0 +1,85 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.classfile;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Annotation as found in a class file. The annotation type name is a binary class name, such as
+ * "jakarta.annotation.Resource".
+ * <p>
+ * Note that a class file only contains the explicitly given element values, so default values
+ * of annotation elements are absent.
+ *
+ * @author Chris de Vreeze
+ */
+public record AnnotationDescriptor(
+        String annotationTypeName,
+        ImmutableMap<String, AnnotationValue> elementValues
+) {
+
+    public AnnotationDescriptor {
+        Objects.requireNonNull(annotationTypeName);
+        Objects.requireNonNull(elementValues);
+    }
+
+    public Optional<AnnotationValue> elementValueOption(String elementName) {
+        return Optional.ofNullable(elementValues.get(elementName));
+    }
+
+    public Optional<String> stringValueOption(String elementName) {
+        return elementValueOption(elementName)
+                .filter(v -> v instanceof AnnotationValue.ConstValue c && c.value() instanceof String)
+                .map(v -> (String) ((AnnotationValue.ConstValue) v).value());
+    }
+
+    public Optional<Boolean> booleanValueOption(String elementName) {
+        return elementValueOption(elementName)
+                .filter(v -> v instanceof AnnotationValue.ConstValue c && c.value() instanceof Boolean)
+                .map(v -> (Boolean) ((AnnotationValue.ConstValue) v).value());
+    }
+
+    public Optional<AnnotationValue.EnumConstant> enumValueOption(String elementName) {
+        return elementValueOption(elementName)
+                .filter(v -> v instanceof AnnotationValue.EnumConstant)
+                .map(v -> (AnnotationValue.EnumConstant) v);
+    }
+
+    public Optional<AnnotationValue.ClassRef> classValueOption(String elementName) {
+        return elementValueOption(elementName)
+                .filter(v -> v instanceof AnnotationValue.ClassRef)
+                .map(v -> (AnnotationValue.ClassRef) v);
+    }
+
+    /**
+     * Returns the nested annotations of the given array-valued element, such as the "value" element of
+     * a container annotation like {@link jakarta.annotation.Resources}.
+     */
+    public ImmutableList<AnnotationDescriptor> nestedAnnotations(String elementName) {
+        return elementValueOption(elementName)
+                .stream()
+                .flatMap(v -> (v instanceof AnnotationValue.ArrayValue arr) ? arr.values().stream() : Stream.of(v))
+                .filter(v -> v instanceof AnnotationValue.NestedAnnotation)
+                .map(v -> ((AnnotationValue.NestedAnnotation) v).annotation())
+                .collect(ImmutableList.toImmutableList());
+    }
+}
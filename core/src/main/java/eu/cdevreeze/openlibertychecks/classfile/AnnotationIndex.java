@@ -0,0 +1,160 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.classfile;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import java.lang.annotation.Annotation;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Inverted index from annotation type names to the classes, fields, methods and constructors carrying
+ * annotations of that type. The index is built in one pass over the class descriptors, after which each
+ * query is a hash lookup instead of another pass over all classes.
+ * <p>
+ * Only declared annotations are indexed, and annotations nested in container annotations (such as
+ * "jakarta.annotation.Resources") are not indexed separately. Within one annotation type, the occurrences
+ * are in the order of the class descriptors passed to {@link #build(Collection)}, and within a class the
+ * class annotations come first, followed by field annotations and method (and constructor) annotations.
+ * <p>
+ * This class is immutable and therefore thread-safe.
+ *
+ * @author Chris de Vreeze
+ */
+public final class AnnotationIndex {
+
+    /**
+     * Annotation occurrence, along with the annotated element and the class in which it is declared.
+     * For class annotations, the annotated element is the declaring class itself.
+     */
+    public record Occurrence(
+            ClassDescriptor declaringClass,
+            AnnotatedElementDescriptor annotatedElement,
+            AnnotationDescriptor annotation
+    ) {
+
+        public Occurrence {
+            Objects.requireNonNull(declaringClass);
+            Objects.requireNonNull(annotatedElement);
+            Objects.requireNonNull(annotation);
+        }
+    }
+
+    private final ImmutableMap<String, ClassDescriptor> classesByName;
+    private final ImmutableListMultimap<String, Occurrence> occurrencesByAnnotationType;
+
+    private AnnotationIndex(
+            ImmutableMap<String, ClassDescriptor> classesByName,
+            ImmutableListMultimap<String, Occurrence> occurrencesByAnnotationType
+    ) {
+        this.classesByName = classesByName;
+        this.occurrencesByAnnotationType = occurrencesByAnnotationType;
+    }
+
+    /**
+     * Builds the index. If multiple classes have the same name (e.g. the same class in 2 JAR files),
+     * {@link #findClass(String)} returns the first one, but the annotations of all of them are indexed.
+     */
+    public static AnnotationIndex build(Collection<ClassDescriptor> classes) {
+        ImmutableListMultimap.Builder<String, Occurrence> occurrences = ImmutableListMultimap.builder();
+
+        for (ClassDescriptor clazz : classes) {
+            addOccurrences(clazz, clazz, occurrences);
+            clazz.fields().forEach(f -> addOccurrences(clazz, f, occurrences));
+            clazz.methods().forEach(m -> addOccurrences(clazz, m, occurrences));
+        }
+
+        ImmutableMap<String, ClassDescriptor> classesByName = classes.stream()
+                .collect(ImmutableMap.toImmutableMap(ClassDescriptor::className, Function.identity(), (c1, c2) -> c1));
+
+        return new AnnotationIndex(classesByName, occurrences.build());
+    }
+
+    public ImmutableList<ClassDescriptor> classes() {
+        return classesByName.values().asList();
+    }
+
+    public Optional<ClassDescriptor> findClass(String className) {
+        return Optional.ofNullable(classesByName.get(className));
+    }
+
+    /**
+     * Returns the names of all annotation types occurring in the index.
+     */
+    public ImmutableSet<String> annotationTypeNames() {
+        return occurrencesByAnnotationType.keySet();
+    }
+
+    public ImmutableList<Occurrence> occurrences(String annotationTypeName) {
+        return occurrencesByAnnotationType.get(annotationTypeName);
+    }
+
+    public ImmutableList<Occurrence> occurrences(Class<? extends Annotation> annotationClass) {
+        return occurrences(annotationClass.getName());
+    }
+
+    public ImmutableList<ClassDescriptor> annotatedClasses(String annotationTypeName) {
+        return occurrences(annotationTypeName).stream()
+                .filter(occ -> occ.annotatedElement() instanceof ClassDescriptor)
+                .map(Occurrence::declaringClass)
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    public ImmutableList<FieldDescriptor> annotatedFields(String annotationTypeName) {
+        return occurrences(annotationTypeName).stream()
+                .flatMap(occ -> (occ.annotatedElement() instanceof FieldDescriptor f) ? Stream.of(f) : Stream.empty())
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    /**
+     * Returns the annotated methods, excluding constructors.
+     */
+    public ImmutableList<MethodDescriptor> annotatedMethods(String annotationTypeName) {
+        return annotatedMethodsOrConstructors(annotationTypeName).stream()
+                .filter(m -> !m.isConstructor())
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    public ImmutableList<MethodDescriptor> annotatedConstructors(String annotationTypeName) {
+        return annotatedMethodsOrConstructors(annotationTypeName).stream()
+                .filter(MethodDescriptor::isConstructor)
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    private ImmutableList<MethodDescriptor> annotatedMethodsOrConstructors(String annotationTypeName) {
+        return occurrences(annotationTypeName).stream()
+                .flatMap(occ -> (occ.annotatedElement() instanceof MethodDescriptor m) ? Stream.of(m) : Stream.empty())
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    private static void addOccurrences(
+            ClassDescriptor declaringClass,
+            AnnotatedElementDescriptor annotatedElement,
+            ImmutableListMultimap.Builder<String, Occurrence> occurrences
+    ) {
+        for (AnnotationDescriptor annotation : annotatedElement.annotations()) {
+            occurrences.put(annotation.annotationTypeName(), new Occurrence(declaringClass, annotatedElement, annotation));
+        }
+    }
+}
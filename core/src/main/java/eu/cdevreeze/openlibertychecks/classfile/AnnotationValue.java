@@ -0,0 +1,72 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.classfile;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.Objects;
+
+/**
+ * Annotation element value as found in a class file. See the JVM specification, section 4.7.16.1.
+ *
+ * @author Chris de Vreeze
+ */
+public sealed interface AnnotationValue {
+
+    /**
+     * Primitive or String constant. The value is a String, Boolean, Byte, Character, Short, Integer,
+     * Long, Float or Double.
+     */
+    record ConstValue(Object value) implements AnnotationValue {
+
+        public ConstValue {
+            Objects.requireNonNull(value);
+        }
+    }
+
+    record EnumConstant(String enumTypeName, String constantName) implements AnnotationValue {
+
+        public EnumConstant {
+            Objects.requireNonNull(enumTypeName);
+            Objects.requireNonNull(constantName);
+        }
+    }
+
+    /**
+     * Class literal, holding the Java type name, such as "java.lang.String", "int[]" or "void".
+     */
+    record ClassRef(String typeName) implements AnnotationValue {
+
+        public ClassRef {
+            Objects.requireNonNull(typeName);
+        }
+    }
+
+    record NestedAnnotation(AnnotationDescriptor annotation) implements AnnotationValue {
+
+        public NestedAnnotation {
+            Objects.requireNonNull(annotation);
+        }
+    }
+
+    record ArrayValue(ImmutableList<AnnotationValue> values) implements AnnotationValue {
+
+        public ArrayValue {
+            Objects.requireNonNull(values);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.classfile;
+
+import com.google.common.collect.ImmutableList;
+
+import java.lang.reflect.Modifier;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Lightweight description of a class, as found in a class file, without loading the class.
+ * <p>
+ * Class names are binary names, such as "com.example.Outer$Inner", like the ones returned by
+ * {@link Class#getName()}. Only runtime-visible annotations are retained.
+ * <p>
+ * Only the fields and methods declared in the class file itself are described. Unlike {@link Class#getFields()} and
+ * {@link Class#getMethods()}, inherited public members are not included, since the superclass is another class file.
+ * Hence descriptor-based queries find an annotated member once, in its declaring class, instead of once more for
+ * each subclass.
+ * <p>
+ * The referenced class names are the names of all classes referenced from the constant pool of the class file,
+ * other than the class itself. So they include the classes that are only used in method bodies, such as the
+ * classes of local variables, created instances and invoked static methods. Array classes are represented by their
+ * element classes, and arrays of primitives are left out.
+ *
+ * @author Chris de Vreeze
+ */
+public record ClassDescriptor(
+        String className,
+        Optional<String> superClassNameOption,
+        ImmutableList<String> interfaceNames,
+        int accessFlags,
+        ImmutableList<AnnotationDescriptor> annotations,
+        ImmutableList<FieldDescriptor> fields,
+        ImmutableList<MethodDescriptor> methods,
+        ImmutableList<String> referencedClassNames
+) implements AnnotatedElementDescriptor {
+
+    // See the JVM specification, section 4.1
+    private static final int ACC_INTERFACE = 0x0200;
+    private static final int ACC_ANNOTATION = 0x2000;
+    private static final int ACC_ENUM = 0x4000;
+    private static final int ACC_MODULE = 0x8000;
+
+    public ClassDescriptor {
+        Objects.requireNonNull(className);
+        Objects.requireNonNull(superClassNameOption);
+        Objects.requireNonNull(interfaceNames);
+        Objects.requireNonNull(annotations);
+        Objects.requireNonNull(fields);
+        Objects.requireNonNull(methods);
+        Objects.requireNonNull(referencedClassNames);
+    }
+
+    public String packageName() {
+        int idx = className.lastIndexOf('.');
+        return (idx < 0) ? "" : className.substring(0, idx);
+    }
+
+    public boolean isInterface() {
+        return (accessFlags & ACC_INTERFACE) != 0;
+    }
+
+    public boolean isAnnotation() {
+        return (accessFlags & ACC_ANNOTATION) != 0;
+    }
+
+    public boolean isEnum() {
+        return (accessFlags & ACC_ENUM) != 0;
+    }
+
+    public boolean isModuleInfo() {
+        return (accessFlags & ACC_MODULE) != 0;
+    }
+
+    public boolean isAbstract() {
+        return Modifier.isAbstract(accessFlags);
+    }
+
+    public ImmutableList<MethodDescriptor> constructors() {
+        return methods.stream()
+                .filter(MethodDescriptor::isConstructor)
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    public ImmutableList<MethodDescriptor> nonConstructorMethods() {
+        return methods.stream()
+                .filter(m -> !m.isConstructor() && !m.isStaticInitializer())
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    /**
+     * Returns a string in the format of {@link Class#toString()}.
+     */
+    public String toJavaString() {
+        return (isInterface() ? "interface " : "class ") + className;
+    }
+}
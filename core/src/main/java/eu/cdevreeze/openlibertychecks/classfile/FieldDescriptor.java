@@ -0,0 +1,56 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.classfile;
+
+import com.google.common.collect.ImmutableList;
+
+import java.lang.reflect.Modifier;
+import java.util.Objects;
+
+/**
+ * Field as found in a class file.
+ *
+ * @author Chris de Vreeze
+ */
+public record FieldDescriptor(
+        String declaringClassName,
+        String name,
+        String typeDescriptor,
+        int accessFlags,
+        ImmutableList<AnnotationDescriptor> annotations
+) implements MemberDescriptor {
+
+    public FieldDescriptor {
+        Objects.requireNonNull(declaringClassName);
+        Objects.requireNonNull(name);
+        Objects.requireNonNull(typeDescriptor);
+        Objects.requireNonNull(annotations);
+    }
+
+    public String typeName() {
+        return TypeDescriptors.toTypeName(typeDescriptor);
+    }
+
+    /**
+     * Returns a string in the format of {@link java.lang.reflect.Field#toString()}.
+     */
+    public String toJavaString() {
+        String modifiers = Modifier.toString(accessFlags & Modifier.fieldModifiers());
+        String prefix = modifiers.isEmpty() ? "" : modifiers + " ";
+        return String.format("%s%s %s.%s", prefix, typeName(), declaringClassName, name);
+    }
+}
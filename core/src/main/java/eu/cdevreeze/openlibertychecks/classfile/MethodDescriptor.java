@@ -0,0 +1,79 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.classfile;
+
+import com.google.common.collect.ImmutableList;
+
+import java.lang.reflect.Modifier;
+import java.util.Objects;
+
+/**
+ * Method or constructor as found in a class file.
+ *
+ * @author Chris de Vreeze
+ */
+public record MethodDescriptor(
+        String declaringClassName,
+        String name,
+        String typeDescriptor,
+        int accessFlags,
+        ImmutableList<AnnotationDescriptor> annotations
+) implements MemberDescriptor {
+
+    public static final String CONSTRUCTOR_NAME = "<init>";
+    public static final String STATIC_INITIALIZER_NAME = "<clinit>";
+
+    public MethodDescriptor {
+        Objects.requireNonNull(declaringClassName);
+        Objects.requireNonNull(name);
+        Objects.requireNonNull(typeDescriptor);
+        Objects.requireNonNull(annotations);
+    }
+
+    public boolean isConstructor() {
+        return name.equals(CONSTRUCTOR_NAME);
+    }
+
+    public boolean isStaticInitializer() {
+        return name.equals(STATIC_INITIALIZER_NAME);
+    }
+
+    public ImmutableList<String> parameterTypeNames() {
+        return TypeDescriptors.toParameterTypeNames(typeDescriptor);
+    }
+
+    public String returnTypeName() {
+        return TypeDescriptors.toReturnTypeName(typeDescriptor);
+    }
+
+    /**
+     * Returns a string in the format of {@link java.lang.reflect.Method#toString()} or
+     * {@link java.lang.reflect.Constructor#toString()}, without the "throws" clause.
+     */
+    public String toJavaString() {
+        int modifierMask = isConstructor() ? Modifier.constructorModifiers() : Modifier.methodModifiers();
+        String modifiers = Modifier.toString(accessFlags & modifierMask);
+        String prefix = modifiers.isEmpty() ? "" : modifiers + " ";
+        String params = String.join(",", parameterTypeNames());
+
+        if (isConstructor()) {
+            return String.format("%s%s(%s)", prefix, declaringClassName, params);
+        } else {
+            return String.format("%s%s %s.%s(%s)", prefix, returnTypeName(), declaringClassName, name, params);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.classfile;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Conversions of JVM type descriptors (see the JVM specification, section 4.3) to Java type names.
+ * The resulting type names are like the ones returned by {@link Class#getTypeName()}.
+ *
+ * @author Chris de Vreeze
+ */
+public class TypeDescriptors {
+
+    private TypeDescriptors() {
+    }
+
+    /**
+     * Converts an internal class name such as "java/util/Map$Entry" to a binary class name such as
+     * "java.util.Map$Entry".
+     */
+    public static String toBinaryClassName(String internalName) {
+        return internalName.replace('/', '.');
+    }
+
+    /**
+     * Converts a field descriptor or return type descriptor to a type name. For example,
+     * "[Ljava/lang/String;" becomes "java.lang.String[]".
+     */
+    public static String toTypeName(String descriptor) {
+        int end = skipType(descriptor, 0);
+        Preconditions.checkArgument(end == descriptor.length(), "Not a field descriptor: %s", descriptor);
+        return typeNameAt(descriptor, 0);
+    }
+
+    public static ImmutableList<String> toParameterTypeNames(String methodDescriptor) {
+        Preconditions.checkArgument(methodDescriptor.startsWith("("), "Not a method descriptor: %s", methodDescriptor);
+
+        ImmutableList.Builder<String> result = ImmutableList.builder();
+        int idx = 1;
+        while (methodDescriptor.charAt(idx) != ')') {
+            result.add(typeNameAt(methodDescriptor, idx));
+            idx = skipType(methodDescriptor, idx);
+        }
+        return result.build();
+    }
+
+    public static String toReturnTypeName(String methodDescriptor) {
+        int idx = methodDescriptor.indexOf(')');
+        Preconditions.checkArgument(idx > 0, "Not a method descriptor: %s", methodDescriptor);
+        return typeNameAt(methodDescriptor, idx + 1);
+    }
+
+    private static String typeNameAt(String descriptor, int idx) {
+        char c = descriptor.charAt(idx);
+        return switch (c) {
+            case 'B' -> "byte";
+            case 'C' -> "char";
+            case 'D' -> "double";
+            case 'F' -> "float";
+            case 'I' -> "int";
+            case 'J' -> "long";
+            case 'S' -> "short";
+            case 'Z' -> "boolean";
+            case 'V' -> "void";
+            case 'L' -> toBinaryClassName(descriptor.substring(idx + 1, descriptor.indexOf(';', idx)));
+            case '[' -> typeNameAt(descriptor, idx + 1) + "[]";
+            default -> throw new IllegalArgumentException("Not a type descriptor: " + descriptor);
+        };
+    }
+
+    private static int skipType(String descriptor, int idx) {
+        int i = idx;
+        while (descriptor.charAt(i) == '[') {
+            i++;
+        }
+        if (descriptor.charAt(i) == 'L') {
+            int semicolonIdx = descriptor.indexOf(';', i);
+            Preconditions.checkArgument(semicolonIdx > i, "Not a type descriptor: %s", descriptor);
+            return semicolonIdx + 1;
+        }
+        return i + 1;
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.classfile.internal;
+
+import com.google.common.base.Preconditions;
+import eu.cdevreeze.openlibertychecks.classfile.ClassDescriptor;
+import eu.cdevreeze.openlibertychecks.internal.ForkJoinSupport;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Scanning of class files inside JAR, WAR and EAR files, without extracting them to disk.
+ * <p>
+ * Archives are opened as zip file systems, which read the zip central directory. Archives nested in other
+ * archives (such as the JAR files in "WEB-INF/lib" of a WAR file) are opened as zip file systems as well,
+ * reading their content into memory rather than into temporary files. The class file bytes are handed to
+ * the {@link ClassFileParser}, so no class is ever loaded.
+ * <p>
+ * The nested JAR files of a WAR or EAR are scanned in parallel. Optionally, a {@link ScanIndexCache} is used
+ * to skip parsing of unchanged class files and JAR files.
+ *
+ * @author Chris de Vreeze
+ */
+public class ArchiveScanning {
+
+    private ArchiveScanning() {
+    }
+
+    /**
+     * Finds the class descriptors in the given archive or exploded archive directory, depending on its file extension.
+     * WAR files and directories are scanned as by {@link #findClassDescriptorsInWar(Path, int)}, EAR files
+     * and directories as by {@link #findClassDescriptorsInEar(Path, int)}, and all other files as JAR files.
+     */
+    public static List<ClassDescriptor> findClassDescriptors(Path archiveOrDir, int parallelism) {
+        return findClassDescriptors(archiveOrDir, parallelism, ScanIndexCache.none());
+    }
+
+    public static List<ClassDescriptor> findClassDescriptors(Path archiveOrDir, int parallelism, ScanIndexCache cache) {
+        String fileName = archiveOrDir.getFileName().toString();
+
+        if (fileName.endsWith(".war")) {
+            return findClassDescriptorsInWar(archiveOrDir, parallelism, cache);
+        } else if (fileName.endsWith(".ear")) {
+            return findClassDescriptorsInEar(archiveOrDir, parallelism, cache);
+        } else if (Files.isDirectory(archiveOrDir)) {
+            return ClassFileScanning.findClassDescriptors(archiveOrDir, parallelism, cache);
+        } else {
+            return findClassDescriptorsInJar(archiveOrDir, cache);
+        }
+    }
+
+    /**
+     * Finds the class descriptors in a WAR file or exploded WAR directory. That is, the classes under
+     * "WEB-INF/classes" and the classes in the JAR files in "WEB-INF/lib".
+     */
+    public static List<ClassDescriptor> findClassDescriptorsInWar(Path warFileOrDir, int parallelism) {
+        return findClassDescriptorsInWar(warFileOrDir, parallelism, ScanIndexCache.none());
+    }
+
+    public static List<ClassDescriptor> findClassDescriptorsInWar(Path warFileOrDir, int parallelism, ScanIndexCache cache) {
+        if (Files.isDirectory(warFileOrDir)) {
+            return findClassDescriptorsInWarRoot(warFileOrDir, parallelism, cache);
+        }
+
+        try (FileSystem warFileSystem = FileSystems.newFileSystem(warFileOrDir)) {
+            return findClassDescriptorsInWarRoot(warFileSystem.getPath("/"), parallelism, cache);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Streaming alternative to {@link #findClassDescriptorsInWar(Path, int, ScanIndexCache)}. The class descriptors
+     * are handed to the given consumer per scanned archive, that is, first those under "WEB-INF/classes" and then
+     * those of each JAR file in "WEB-INF/lib", in the same order as returned by the non-streaming method.
+     * <p>
+     * The JAR files are still scanned in parallel, but the consumer is called by one thread at a time, and the
+     * class descriptors of an archive can be discarded as soon as the consumer returns.
+     */
+    public static void scanClassDescriptorsInWar(
+            Path warFileOrDir,
+            int parallelism,
+            ScanIndexCache cache,
+            Consumer<List<ClassDescriptor>> archiveConsumer
+    ) {
+        if (Files.isDirectory(warFileOrDir)) {
+            scanClassDescriptorsInWarRoot(warFileOrDir, parallelism, cache, archiveConsumer);
+            return;
+        }
+
+        try (FileSystem warFileSystem = FileSystems.newFileSystem(warFileOrDir)) {
+            scanClassDescriptorsInWarRoot(warFileSystem.getPath("/"), parallelism, cache, archiveConsumer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Finds the class descriptors in an EAR file or exploded EAR directory. That is, the classes in all
+     * JAR and WAR files in the root of the EAR and in its "lib" directory.
+     */
+    public static List<ClassDescriptor> findClassDescriptorsInEar(Path earFileOrDir, int parallelism) {
+        return findClassDescriptorsInEar(earFileOrDir, parallelism, ScanIndexCache.none());
+    }
+
+    public static List<ClassDescriptor> findClassDescriptorsInEar(Path earFileOrDir, int parallelism, ScanIndexCache cache) {
+        if (Files.isDirectory(earFileOrDir)) {
+            return findClassDescriptorsInEarRoot(earFileOrDir, parallelism, cache);
+        }
+
+        try (FileSystem earFileSystem = FileSystems.newFileSystem(earFileOrDir)) {
+            return findClassDescriptorsInEarRoot(earFileSystem.getPath("/"), parallelism, cache);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Finds the class descriptors in a JAR file, which may itself be an entry in another archive.
+     * Class files under "META-INF" (such as multi-release class files) are ignored.
+     */
+    public static List<ClassDescriptor> findClassDescriptorsInJar(Path jarFile) {
+        return findClassDescriptorsInJar(jarFile, ScanIndexCache.none());
+    }
+
+    /**
+     * Like {@link #findClassDescriptorsInJar(Path)}, but reusing the cached result if the JAR file is unchanged.
+     */
+    public static List<ClassDescriptor> findClassDescriptorsInJar(Path jarFile, ScanIndexCache cache) {
+        Preconditions.checkArgument(Files.isRegularFile(jarFile));
+
+        return cache.getOrScan(jarFile, () -> {
+            try (FileSystem jarFileSystem = FileSystems.newFileSystem(jarFile)) {
+                Path root = jarFileSystem.getPath("/");
+                return findClassDescriptorsInZipTree(root, root.resolve("META-INF"), ScanIndexCache.none());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static List<ClassDescriptor> findClassDescriptorsInWarRoot(Path warRoot, int parallelism, ScanIndexCache cache) {
+        List<ClassDescriptor> classDescriptors = new ArrayList<>();
+        scanClassDescriptorsInWarRoot(warRoot, parallelism, cache, classDescriptors::addAll);
+        return List.copyOf(classDescriptors);
+    }
+
+    private static void scanClassDescriptorsInWarRoot(
+            Path warRoot,
+            int parallelism,
+            ScanIndexCache cache,
+            Consumer<List<ClassDescriptor>> archiveConsumer
+    ) {
+        Path classesDir = warRoot.resolve("WEB-INF").resolve("classes");
+        Path libDir = warRoot.resolve("WEB-INF").resolve("lib");
+
+        List<ClassDescriptor> classesInClassesDir;
+        if (!Files.isDirectory(classesDir)) {
+            classesInClassesDir = List.of();
+        } else if (isInDefaultFileSystem(classesDir)) {
+            classesInClassesDir = ClassFileScanning.findClassDescriptors(classesDir, parallelism, cache);
+        } else {
+            classesInClassesDir = findClassDescriptorsInZipTree(classesDir, classesDir.resolve("META-INF"), cache);
+        }
+        archiveConsumer.accept(classesInClassesDir);
+
+        List<Path> jars = findArchives(libDir, ".jar");
+        if (jars.isEmpty()) {
+            return;
+        }
+
+        // The JAR files are scanned in parallel, and handed to the consumer in order, as soon as possible
+        ForkJoinSupport.run(
+                ForkJoinSupport.sharedPool(parallelism),
+                () -> jars.parallelStream()
+                        .map(jar -> findClassDescriptorsInJar(jar, cache))
+                        .forEachOrdered(archiveConsumer)
+        );
+    }
+
+    private static List<ClassDescriptor> findClassDescriptorsInEarRoot(Path earRoot, int parallelism, ScanIndexCache cache) {
+        List<Path> modules = Stream.concat(
+                        findArchives(earRoot, ".jar").stream(),
+                        findArchives(earRoot, ".war").stream()
+                )
+                .toList();
+        List<Path> libraries = findArchives(earRoot.resolve("lib"), ".jar");
+
+        // Nested WAR files are scanned sequentially, but their own nested JAR files are scanned in parallel
+        return findClassDescriptorsInNestedArchives(
+                Stream.concat(modules.stream(), libraries.stream()).toList(),
+                archive -> archive.getFileName().toString().endsWith(".war") ?
+                        findClassDescriptorsInWar(archive, parallelism, cache) :
+                        findClassDescriptorsInJar(archive, cache),
+                parallelism
+        );
+    }
+
+    private static List<ClassDescriptor> findClassDescriptorsInNestedArchives(
+            List<Path> archives,
+            Function<Path, List<ClassDescriptor>> scanner,
+            int parallelism
+    ) {
+        if (archives.isEmpty()) {
+            return List.of();
+        }
+
+        return ForkJoinSupport.invoke(
+                ForkJoinSupport.sharedPool(parallelism),
+                () -> archives.parallelStream()
+                        .flatMap(archive -> scanner.apply(archive).stream())
+                        .toList()
+        );
+    }
+
+    private static List<Path> findArchives(Path dir, String fileExtension) {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+
+        try (Stream<Path> pathStream = Files.list(dir)) {
+            return pathStream
+                    .filter(Files::isRegularFile)
+                    .filter(p -> p.getFileName().toString().endsWith(fileExtension))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Walks a directory tree inside a zip file system. The central directory has already been read into memory,
+     * so a sequential walk is cheap here.
+     */
+    private static List<ClassDescriptor> findClassDescriptorsInZipTree(Path rootDir, Path excludedDir, ScanIndexCache cache) {
+        try (Stream<Path> pathStream = Files.walk(rootDir)) {
+            return pathStream
+                    .filter(p -> !p.startsWith(excludedDir))
+                    .filter(p -> p.getFileName() != null && p.getFileName().toString().endsWith(".class"))
+                    .filter(Files::isRegularFile)
+                    .flatMap(p -> cache.getOrScan(p, () -> ClassFileScanning.findClassDescriptor(p).stream().toList()).stream())
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isInDefaultFileSystem(Path path) {
+        return path.getFileSystem() == FileSystems.getDefault();
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.classfile.internal;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import eu.cdevreeze.openlibertychecks.classfile.*;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Compact binary encoding of {@link ClassDescriptor} instances, used by the {@link ScanIndexCache}.
+ * The encoding is private to this package, and may change between versions (see {@link #FORMAT_VERSION}).
+ *
+ * @author Chris de Vreeze
+ */
+final class ClassDescriptorCodec {
+
+    static final int FORMAT_VERSION = 2;
+
+    private ClassDescriptorCodec() {
+    }
+
+    static void writeClassDescriptor(ClassDescriptor clazz, DataOutput out) throws IOException {
+        writeString(clazz.className(), out);
+        out.writeBoolean(clazz.superClassNameOption().isPresent());
+        if (clazz.superClassNameOption().isPresent()) {
+            writeString(clazz.superClassNameOption().get(), out);
+        }
+        out.writeInt(clazz.interfaceNames().size());
+        for (String interfaceName : clazz.interfaceNames()) {
+            writeString(interfaceName, out);
+        }
+        out.writeInt(clazz.accessFlags());
+        writeAnnotations(clazz.annotations(), out);
+
+        out.writeInt(clazz.fields().size());
+        for (FieldDescriptor field : clazz.fields()) {
+            writeString(field.name(), out);
+            writeString(field.typeDescriptor(), out);
+            out.writeInt(field.accessFlags());
+            writeAnnotations(field.annotations(), out);
+        }
+
+        out.writeInt(clazz.methods().size());
+        for (MethodDescriptor method : clazz.methods()) {
+            writeString(method.name(), out);
+            writeString(method.typeDescriptor(), out);
+            out.writeInt(method.accessFlags());
+            writeAnnotations(method.annotations(), out);
+        }
+
+        out.writeInt(clazz.referencedClassNames().size());
+        for (String referencedClassName : clazz.referencedClassNames()) {
+            writeString(referencedClassName, out);
+        }
+    }
+
+    static ClassDescriptor readClassDescriptor(DataInput in) throws IOException {
+        String className = readString(in);
+        Optional<String> superClassNameOption = in.readBoolean() ? Optional.of(readString(in)) : Optional.empty();
+        int interfaceCount = in.readInt();
+        ImmutableList.Builder<String> interfaceNames = ImmutableList.builderWithExpectedSize(interfaceCount);
+        for (int i = 0; i < interfaceCount; i++) {
+            interfaceNames.add(readString(in));
+        }
+        int accessFlags = in.readInt();
+        ImmutableList<AnnotationDescriptor> annotations = readAnnotations(in);
+
+        int fieldCount = in.readInt();
+        ImmutableList.Builder<FieldDescriptor> fields = ImmutableList.builderWithExpectedSize(fieldCount);
+        for (int i = 0; i < fieldCount; i++) {
+            String name = readString(in);
+            String typeDescriptor = readString(in);
+            int flags = in.readInt();
+            fields.add(new FieldDescriptor(className, name, typeDescriptor, flags, readAnnotations(in)));
+        }
+
+        int methodCount = in.readInt();
+        ImmutableList.Builder<MethodDescriptor> methods = ImmutableList.builderWithExpectedSize(methodCount);
+        for (int i = 0; i < methodCount; i++) {
+            String name = readString(in);
+            String typeDescriptor = readString(in);
+            int flags = in.readInt();
+            methods.add(new MethodDescriptor(className, name, typeDescriptor, flags, readAnnotations(in)));
+        }
+
+        int referencedClassCount = in.readInt();
+        ImmutableList.Builder<String> referencedClassNames =
+                ImmutableList.builderWithExpectedSize(referencedClassCount);
+        for (int i = 0; i < referencedClassCount; i++) {
+            referencedClassNames.add(readString(in));
+        }
+
+        return new ClassDescriptor(
+                className,
+                superClassNameOption,
+                interfaceNames.build(),
+                accessFlags,
+                annotations,
+                fields.build(),
+                methods.build(),
+                referencedClassNames.build()
+        );
+    }
+
+    static void writeString(String value, DataOutput out) throws IOException {
+        // Unlike DataOutput.writeUTF, there is no 64K limit
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeAnnotations(ImmutableList<AnnotationDescriptor> annotations, DataOutput out) throws IOException {
+        out.writeInt(annotations.size());
+        for (AnnotationDescriptor annotation : annotations) {
+            writeAnnotation(annotation, out);
+        }
+    }
+
+    private static ImmutableList<AnnotationDescriptor> readAnnotations(DataInput in) throws IOException {
+        int count = in.readInt();
+        if (count == 0) {
+            return ImmutableList.of();
+        }
+        ImmutableList.Builder<AnnotationDescriptor> annotations = ImmutableList.builderWithExpectedSize(count);
+        for (int i = 0; i < count; i++) {
+            annotations.add(readAnnotation(in));
+        }
+        return annotations.build();
+    }
+
+    private static void writeAnnotation(AnnotationDescriptor annotation, DataOutput out) throws IOException {
+        writeString(annotation.annotationTypeName(), out);
+        out.writeInt(annotation.elementValues().size());
+        for (Map.Entry<String, AnnotationValue> elementValue : annotation.elementValues().entrySet()) {
+            writeString(elementValue.getKey(), out);
+            writeAnnotationValue(elementValue.getValue(), out);
+        }
+    }
+
+    private static AnnotationDescriptor readAnnotation(DataInput in) throws IOException {
+        String annotationTypeName = readString(in);
+        int count = in.readInt();
+        ImmutableMap.Builder<String, AnnotationValue> elementValues = ImmutableMap.builderWithExpectedSize(count);
+        for (int i = 0; i < count; i++) {
+            String elementName = readString(in);
+            elementValues.put(elementName, readAnnotationValue(in));
+        }
+        return new AnnotationDescriptor(annotationTypeName, elementValues.build());
+    }
+
+    // The tags are the same as the ones used in class files
+
+    private static void writeAnnotationValue(AnnotationValue value, DataOutput out) throws IOException {
+        if (value instanceof AnnotationValue.ConstValue c) {
+            Object v = c.value();
+            if (v instanceof String s) {
+                out.writeByte('s');
+                writeString(s, out);
+            } else if (v instanceof Boolean b) {
+                out.writeByte('Z');
+                out.writeBoolean(b);
+            } else if (v instanceof Byte b) {
+                out.writeByte('B');
+                out.writeByte(b);
+            } else if (v instanceof Character ch) {
+                out.writeByte('C');
+                out.writeChar(ch);
+            } else if (v instanceof Short s) {
+                out.writeByte('S');
+                out.writeShort(s);
+            } else if (v instanceof Integer i) {
+                out.writeByte('I');
+                out.writeInt(i);
+            } else if (v instanceof Long l) {
+                out.writeByte('J');
+                out.writeLong(l);
+            } else if (v instanceof Float f) {
+                out.writeByte('F');
+                out.writeFloat(f);
+            } else if (v instanceof Double d) {
+                out.writeByte('D');
+                out.writeDouble(d);
+            } else {
+                throw new IllegalArgumentException("Unsupported constant value type: " + v.getClass());
+            }
+        } else if (value instanceof AnnotationValue.EnumConstant e) {
+            out.writeByte('e');
+            writeString(e.enumTypeName(), out);
+            writeString(e.constantName(), out);
+        } else if (value instanceof AnnotationValue.ClassRef c) {
+            out.writeByte('c');
+            writeString(c.typeName(), out);
+        } else if (value instanceof AnnotationValue.NestedAnnotation n) {
+            out.writeByte('@');
+            writeAnnotation(n.annotation(), out);
+        } else if (value instanceof AnnotationValue.ArrayValue a) {
+            out.writeByte('[');
+            out.writeInt(a.values().size());
+            for (AnnotationValue v : a.values()) {
+                writeAnnotationValue(v, out);
+            }
+        }
+    }
+
+    private static AnnotationValue readAnnotationValue(DataInput in) throws IOException {
+        char tag = (char) in.readByte();
+
+        return switch (tag) {
+            case 's' -> new AnnotationValue.ConstValue(readString(in));
+            case 'Z' -> new AnnotationValue.ConstValue(in.readBoolean());
+            case 'B' -> new AnnotationValue.ConstValue(in.readByte());
+            case 'C' -> new AnnotationValue.ConstValue(in.readChar());
+            case 'S' -> new AnnotationValue.ConstValue(in.readShort());
+            case 'I' -> new AnnotationValue.ConstValue(in.readInt());
+            case 'J' -> new AnnotationValue.ConstValue(in.readLong());
+            case 'F' -> new AnnotationValue.ConstValue(in.readFloat());
+            case 'D' -> new AnnotationValue.ConstValue(in.readDouble());
+            case 'e' -> {
+                String enumTypeName = readString(in);
+                yield new AnnotationValue.EnumConstant(enumTypeName, readString(in));
+            }
+            case 'c' -> new AnnotationValue.ClassRef(readString(in));
+            case '@' -> new AnnotationValue.NestedAnnotation(readAnnotation(in));
+            case '[' -> {
+                int count = in.readInt();
+                ImmutableList.Builder<AnnotationValue> values = ImmutableList.builderWithExpectedSize(count);
+                for (int i = 0; i < count; i++) {
+                    values.add(readAnnotationValue(in));
+                }
+                yield new AnnotationValue.ArrayValue(values.build());
+            }
+            default -> throw new IOException("Corrupt scan index cache (unknown annotation value tag " + tag + ")");
+        };
+    }
+}
@@ -0,0 +1,366 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.classfile.internal;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import eu.cdevreeze.openlibertychecks.classfile.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Minimal class file parser, reading the constant pool, class hierarchy, fields, methods and
+ * "RuntimeVisibleAnnotations" attributes. All other attributes (including method bodies) are skipped.
+ * The classes referenced from method bodies are still found, through the class entries of the constant pool.
+ * See the JVM specification, chapter 4.
+ * <p>
+ * No class is ever loaded by this parser, so no static initializers are run, and missing dependencies
+ * of the parsed class do not matter.
+ *
+ * @author Chris de Vreeze
+ */
+public class ClassFileParser {
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+    // Constant pool tags
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_FLOAT = 4;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+    private static final int CONSTANT_METHOD_TYPE = 16;
+    private static final int CONSTANT_DYNAMIC = 17;
+    private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+    private static final int CONSTANT_MODULE = 19;
+    private static final int CONSTANT_PACKAGE = 20;
+
+    private ClassFileParser() {
+    }
+
+    public static ClassDescriptor parse(InputStream inputStream) throws IOException {
+        return parse(inputStream.readAllBytes());
+    }
+
+    /**
+     * Parses the given class file content. Throws a {@link ClassFormatError} if the content is not
+     * a well-formed class file (as far as this parser can tell).
+     */
+    public static ClassDescriptor parse(byte[] classFileContent) {
+        try {
+            return new Parse(ByteBuffer.wrap(classFileContent)).parseClass();
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | ClassCastException |
+                 IllegalArgumentException e) {
+            ClassFormatError error = new ClassFormatError("Corrupt class file");
+            error.initCause(e);
+            throw error;
+        }
+    }
+
+    /**
+     * One parse of one class file. Not thread-safe.
+     */
+    private static final class Parse {
+
+        private final ByteBuffer buf;
+
+        // Constant pool values: String for Utf8, boxed numbers for numeric constants, and
+        // Integer (the referenced Utf8 index) for Class entries
+        private Object[] constants;
+        private int[] tags;
+
+        private Parse(ByteBuffer buf) {
+            this.buf = buf;
+        }
+
+        private ClassDescriptor parseClass() {
+            if (buf.getInt() != MAGIC) {
+                throw new ClassFormatError("Not a class file (wrong magic number)");
+            }
+            buf.getShort(); // minor version
+            buf.getShort(); // major version
+
+            readConstantPool();
+
+            int accessFlags = u2();
+            String className = className(u2());
+            int superClassIndex = u2();
+            Optional<String> superClassNameOption =
+                    (superClassIndex == 0) ? Optional.empty() : Optional.of(className(superClassIndex));
+
+            int interfaceCount = u2();
+            ImmutableList.Builder<String> interfaceNames = ImmutableList.builderWithExpectedSize(interfaceCount);
+            for (int i = 0; i < interfaceCount; i++) {
+                interfaceNames.add(className(u2()));
+            }
+
+            int fieldCount = u2();
+            ImmutableList.Builder<FieldDescriptor> fields = ImmutableList.builderWithExpectedSize(fieldCount);
+            for (int i = 0; i < fieldCount; i++) {
+                int flags = u2();
+                String name = utf8(u2());
+                String descriptor = utf8(u2());
+                fields.add(new FieldDescriptor(className, name, descriptor, flags, readAnnotationsFromAttributes()));
+            }
+
+            int methodCount = u2();
+            ImmutableList.Builder<MethodDescriptor> methods = ImmutableList.builderWithExpectedSize(methodCount);
+            for (int i = 0; i < methodCount; i++) {
+                int flags = u2();
+                String name = utf8(u2());
+                String descriptor = utf8(u2());
+                methods.add(new MethodDescriptor(className, name, descriptor, flags, readAnnotationsFromAttributes()));
+            }
+
+            ImmutableList<AnnotationDescriptor> classAnnotations = readAnnotationsFromAttributes();
+
+            return new ClassDescriptor(
+                    className,
+                    superClassNameOption,
+                    interfaceNames.build(),
+                    accessFlags,
+                    classAnnotations,
+                    fields.build(),
+                    methods.build(),
+                    referencedClassNames(className)
+            );
+        }
+
+        /**
+         * Returns the classes referenced by the class entries in the constant pool, except the given class itself.
+         * Array class entries (such as "[Ljava/lang/String;") are replaced by their element classes.
+         */
+        private ImmutableList<String> referencedClassNames(String className) {
+            Set<String> result = new LinkedHashSet<>();
+            for (int i = 1; i < tags.length; i++) {
+                if (tags[i] == CONSTANT_CLASS) {
+                    String internalName = utf8((Integer) constants[i]);
+                    int dimensions = 0;
+                    while (internalName.charAt(dimensions) == '[') {
+                        dimensions++;
+                    }
+                    if (dimensions == 0) {
+                        result.add(TypeDescriptors.toBinaryClassName(internalName));
+                    } else if (internalName.charAt(dimensions) == 'L') {
+                        result.add(TypeDescriptors.toBinaryClassName(
+                                internalName.substring(dimensions + 1, internalName.length() - 1)
+                        ));
+                    }
+                }
+            }
+            result.remove(className);
+            return ImmutableList.copyOf(result);
+        }
+
+        private void readConstantPool() {
+            int count = u2();
+            constants = new Object[count];
+            tags = new int[count];
+
+            for (int i = 1; i < count; i++) {
+                int tag = u1();
+                tags[i] = tag;
+
+                switch (tag) {
+                    case CONSTANT_UTF8 -> constants[i] = readModifiedUtf8(u2());
+                    case CONSTANT_INTEGER -> constants[i] = buf.getInt();
+                    case CONSTANT_FLOAT -> constants[i] = buf.getFloat();
+                    case CONSTANT_LONG -> {
+                        constants[i] = buf.getLong();
+                        i++; // takes 2 slots
+                    }
+                    case CONSTANT_DOUBLE -> {
+                        constants[i] = buf.getDouble();
+                        i++; // takes 2 slots
+                    }
+                    case CONSTANT_CLASS -> constants[i] = u2();
+                    case CONSTANT_STRING, CONSTANT_METHOD_TYPE, CONSTANT_MODULE, CONSTANT_PACKAGE -> skip(2);
+                    case CONSTANT_FIELDREF, CONSTANT_METHODREF, CONSTANT_INTERFACE_METHODREF,
+                         CONSTANT_NAME_AND_TYPE, CONSTANT_DYNAMIC, CONSTANT_INVOKE_DYNAMIC -> skip(4);
+                    case CONSTANT_METHOD_HANDLE -> skip(3);
+                    default -> throw new ClassFormatError("Unknown constant pool tag " + tag + " at index " + i);
+                }
+            }
+        }
+
+        private ImmutableList<AnnotationDescriptor> readAnnotationsFromAttributes() {
+            int attributeCount = u2();
+            ImmutableList<AnnotationDescriptor> result = ImmutableList.of();
+
+            for (int i = 0; i < attributeCount; i++) {
+                String attributeName = utf8(u2());
+                int length = buf.getInt();
+
+                if (attributeName.equals(RUNTIME_VISIBLE_ANNOTATIONS)) {
+                    int annotationCount = u2();
+                    ImmutableList.Builder<AnnotationDescriptor> annotations =
+                            ImmutableList.builderWithExpectedSize(annotationCount);
+                    for (int j = 0; j < annotationCount; j++) {
+                        annotations.add(readAnnotation());
+                    }
+                    result = annotations.build();
+                } else {
+                    skip(length);
+                }
+            }
+            return result;
+        }
+
+        private AnnotationDescriptor readAnnotation() {
+            String typeName = TypeDescriptors.toTypeName(utf8(u2()));
+            int pairCount = u2();
+            ImmutableMap.Builder<String, AnnotationValue> elementValues = ImmutableMap.builderWithExpectedSize(pairCount);
+
+            for (int i = 0; i < pairCount; i++) {
+                String elementName = utf8(u2());
+                elementValues.put(elementName, readElementValue());
+            }
+            return new AnnotationDescriptor(typeName, elementValues.build());
+        }
+
+        private AnnotationValue readElementValue() {
+            char tag = (char) u1();
+
+            return switch (tag) {
+                case 'B' -> new AnnotationValue.ConstValue((byte) intConstant(u2()));
+                case 'C' -> new AnnotationValue.ConstValue((char) intConstant(u2()));
+                case 'S' -> new AnnotationValue.ConstValue((short) intConstant(u2()));
+                case 'Z' -> new AnnotationValue.ConstValue(intConstant(u2()) != 0);
+                case 'I' -> new AnnotationValue.ConstValue(constant(u2(), CONSTANT_INTEGER));
+                case 'D' -> new AnnotationValue.ConstValue(constant(u2(), CONSTANT_DOUBLE));
+                case 'F' -> new AnnotationValue.ConstValue(constant(u2(), CONSTANT_FLOAT));
+                case 'J' -> new AnnotationValue.ConstValue(constant(u2(), CONSTANT_LONG));
+                case 's' -> new AnnotationValue.ConstValue(constant(u2(), CONSTANT_UTF8));
+                case 'e' -> {
+                    String enumTypeName = TypeDescriptors.toTypeName(utf8(u2()));
+                    yield new AnnotationValue.EnumConstant(enumTypeName, utf8(u2()));
+                }
+                case 'c' -> new AnnotationValue.ClassRef(TypeDescriptors.toTypeName(utf8(u2())));
+                case '@' -> new AnnotationValue.NestedAnnotation(readAnnotation());
+                case '[' -> {
+                    int count = u2();
+                    ImmutableList.Builder<AnnotationValue> values = ImmutableList.builderWithExpectedSize(count);
+                    for (int i = 0; i < count; i++) {
+                        values.add(readElementValue());
+                    }
+                    yield new AnnotationValue.ArrayValue(values.build());
+                }
+                default -> throw new ClassFormatError("Unknown annotation element value tag " + tag);
+            };
+        }
+
+        private String className(int classIndex) {
+            checkTag(classIndex, CONSTANT_CLASS);
+            return TypeDescriptors.toBinaryClassName(utf8((Integer) constants[classIndex]));
+        }
+
+        private String utf8(int index) {
+            return (String) constant(index, CONSTANT_UTF8);
+        }
+
+        private int intConstant(int index) {
+            return (Integer) constant(index, CONSTANT_INTEGER);
+        }
+
+        /**
+         * Returns the constant pool value at the given index, after checking its tag. Index 0 and the unusable
+         * second slot of a long or double constant have no tag, so they never pass this check.
+         */
+        private Object constant(int index, int expectedTag) {
+            checkTag(index, expectedTag);
+            return constants[index];
+        }
+
+        private void checkTag(int index, int expectedTag) {
+            if (tags[index] != expectedTag) {
+                throw new ClassFormatError("Expected constant pool tag " + expectedTag + " at index " + index);
+            }
+        }
+
+        /**
+         * Decodes "modified UTF-8" (see the JVM specification, section 4.4.7). Most strings in class files
+         * are ASCII, for which no intermediate char array is needed.
+         */
+        private String readModifiedUtf8(int length) {
+            int start = buf.position();
+            byte[] bytes = buf.array();
+            int offset = buf.arrayOffset() + start;
+            skip(length);
+
+            boolean ascii = true;
+            for (int i = 0; i < length; i++) {
+                if (bytes[offset + i] <= 0) {
+                    ascii = false;
+                    break;
+                }
+            }
+            if (ascii) {
+                return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+            }
+
+            char[] chars = new char[length];
+            int charCount = 0;
+            int i = 0;
+            while (i < length) {
+                int b = bytes[offset + i] & 0xFF;
+                if (b < 0x80) {
+                    chars[charCount++] = (char) b;
+                    i++;
+                } else if ((b & 0xE0) == 0xC0) {
+                    int b2 = bytes[offset + i + 1] & 0x3F;
+                    chars[charCount++] = (char) (((b & 0x1F) << 6) | b2);
+                    i += 2;
+                } else {
+                    int b2 = bytes[offset + i + 1] & 0x3F;
+                    int b3 = bytes[offset + i + 2] & 0x3F;
+                    chars[charCount++] = (char) (((b & 0x0F) << 12) | (b2 << 6) | b3);
+                    i += 3;
+                }
+            }
+            return new String(chars, 0, charCount);
+        }
+
+        private int u1() {
+            return buf.get() & 0xFF;
+        }
+
+        private int u2() {
+            return buf.getShort() & 0xFFFF;
+        }
+
+        private void skip(int byteCount) {
+            buf.position(buf.position() + byteCount);
+        }
+    }
+}
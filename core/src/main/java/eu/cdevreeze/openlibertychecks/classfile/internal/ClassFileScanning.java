@@ -0,0 +1,85 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.classfile.internal;
+
+import com.google.common.base.Preconditions;
+import eu.cdevreeze.openlibertychecks.classfile.ClassDescriptor;
+import eu.cdevreeze.openlibertychecks.io.DirectoryCrawler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Class path scanning support, based on parsing class files rather than loading classes.
+ * Unlike {@link eu.cdevreeze.openlibertychecks.reflection.internal.ClassPathScanning}, no class is
+ * loaded or initialized, and the class path of the running program is irrelevant.
+ *
+ * @author Chris de Vreeze
+ */
+public class ClassFileScanning {
+
+    private ClassFileScanning() {
+    }
+
+    /**
+     * Finds the class descriptors in the given directory as one class path entry. JAR files are not considered.
+     * Only ".class" files somewhere under the given directory are found. Class files that cannot be parsed
+     * are skipped.
+     */
+    public static List<ClassDescriptor> findClassDescriptors(Path rootDir) {
+        return findClassDescriptors(rootDir, DirectoryCrawler.DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * Like {@link #findClassDescriptors(Path)}, but crawling the directory tree with the given parallelism.
+     * Note that no directories are excluded, since a package may well be named "target" or "build".
+     */
+    public static List<ClassDescriptor> findClassDescriptors(Path rootDir, int parallelism) {
+        return findClassDescriptors(rootDir, parallelism, ScanIndexCache.none());
+    }
+
+    /**
+     * Like {@link #findClassDescriptors(Path, int)}, but only parsing the class files that are not found
+     * unchanged in the given cache.
+     */
+    public static List<ClassDescriptor> findClassDescriptors(Path rootDir, int parallelism, ScanIndexCache cache) {
+        int maxDepth = 100;
+        DirectoryCrawler crawler = new DirectoryCrawler(
+                DirectoryCrawler.Settings.forFileExtension(".class").withMaxDepth(maxDepth).withParallelism(parallelism)
+        );
+        return crawler.findFiles(rootDir)
+                .stream()
+                .flatMap(p -> cache.getOrScan(p, () -> findClassDescriptor(p).stream().toList()).stream())
+                .toList();
+    }
+
+    public static Optional<ClassDescriptor> findClassDescriptor(Path classFile) {
+        Preconditions.checkArgument(classFile.getFileName().toString().endsWith(".class"));
+
+        try {
+            return Optional.of(ClassFileParser.parse(Files.readAllBytes(classFile)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassFormatError e) {
+            return Optional.empty();
+        }
+    }
+}
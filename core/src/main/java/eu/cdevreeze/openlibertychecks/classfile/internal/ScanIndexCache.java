@@ -0,0 +1,282 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.classfile.internal;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import eu.cdevreeze.openlibertychecks.classfile.ClassDescriptor;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Persistent cache of class descriptors found by class file scanning, for incremental re-runs.
+ * <p>
+ * The cache entries are keyed by the URI of the scanned source, which is a class file or JAR file (possibly
+ * nested in another archive). A cache entry is reused if the file size and last-modified time are unchanged.
+ * Optionally, a SHA-256 content hash is stored as well. In that case, an entry is also reused if only the
+ * last-modified time changed but the content did not, as happens after a fresh checkout or a clean build.
+ * <p>
+ * Only the entries that were looked up during the current run are saved, so entries for deleted files are
+ * pruned. An unreadable or outdated cache file is silently ignored, leading to a full scan.
+ * <p>
+ * This class is thread-safe, so it can be used by parallel scans.
+ *
+ * @author Chris de Vreeze
+ */
+public final class ScanIndexCache {
+
+    private static final int MAGIC = 0x4F4C5343; // "OLSC"
+
+    public record Fingerprint(long lastModifiedMillis, long size, Optional<String> contentHashOption) {
+
+        public Fingerprint {
+            Objects.requireNonNull(contentHashOption);
+        }
+    }
+
+    private record Entry(Fingerprint fingerprint, ImmutableList<ClassDescriptor> classDescriptors) {
+    }
+
+    private static final ScanIndexCache NONE = new ScanIndexCache(Optional.empty(), false, ImmutableMap.of());
+
+    private final Optional<Path> cacheFileOption;
+    private final boolean usingContentHash;
+    private final ImmutableMap<String, Entry> previousEntries;
+    private final ConcurrentHashMap<String, Entry> currentEntries = new ConcurrentHashMap<>();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    private ScanIndexCache(
+            Optional<Path> cacheFileOption,
+            boolean usingContentHash,
+            ImmutableMap<String, Entry> previousEntries
+    ) {
+        this.cacheFileOption = cacheFileOption;
+        this.usingContentHash = usingContentHash;
+        this.previousEntries = previousEntries;
+    }
+
+    /**
+     * Returns the "cache" that caches nothing, always delegating to the scanner.
+     */
+    public static ScanIndexCache none() {
+        return NONE;
+    }
+
+    /**
+     * Loads the cache from the given file, if it exists and can be read. Otherwise, an empty cache is returned
+     * that will be saved to the given file.
+     */
+    public static ScanIndexCache load(Path cacheFile, boolean usingContentHash) {
+        return new ScanIndexCache(Optional.of(cacheFile), usingContentHash, readEntries(cacheFile));
+    }
+
+    /**
+     * Loads the cache from the file given by system property "openlibertychecks.scanIndexCache", using content
+     * hashes if system property "openlibertychecks.scanIndexCache.contentHash" is true. If the first system
+     * property is absent, {@link #none()} is returned.
+     */
+    public static ScanIndexCache fromSystemProperties() {
+        return Optional.ofNullable(System.getProperty("openlibertychecks.scanIndexCache"))
+                .map(f -> load(Path.of(f), Boolean.getBoolean("openlibertychecks.scanIndexCache.contentHash")))
+                .orElse(none());
+    }
+
+    public boolean isEnabled() {
+        return cacheFileOption.isPresent();
+    }
+
+    public long hitCount() {
+        return hitCount.sum();
+    }
+
+    public long missCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Returns the cached class descriptors of the given class file or JAR file, if the file is unchanged.
+     * Otherwise, the scanner is invoked, and its result is cached.
+     */
+    public List<ClassDescriptor> getOrScan(Path source, Supplier<List<ClassDescriptor>> scanner) {
+        if (!isEnabled()) {
+            return scanner.get();
+        }
+
+        String key = source.toUri().toString();
+        BasicFileAttributes attrs = readAttributes(source);
+        Entry previousEntry = previousEntries.get(key);
+
+        Optional<Entry> reusableEntryOption = Optional.ofNullable(previousEntry)
+                .filter(e -> e.fingerprint().size() == attrs.size())
+                .flatMap(e -> {
+                    if (e.fingerprint().lastModifiedMillis() == attrs.lastModifiedTime().toMillis()) {
+                        return Optional.of(e);
+                    } else if (usingContentHash && e.fingerprint().contentHashOption().isPresent() &&
+                            e.fingerprint().contentHashOption().equals(Optional.of(computeContentHash(source)))) {
+                        return Optional.of(new Entry(
+                                new Fingerprint(attrs.lastModifiedTime().toMillis(), attrs.size(), e.fingerprint().contentHashOption()),
+                                e.classDescriptors()
+                        ));
+                    } else {
+                        return Optional.empty();
+                    }
+                });
+
+        if (reusableEntryOption.isPresent()) {
+            hitCount.increment();
+            currentEntries.put(key, reusableEntryOption.get());
+            return reusableEntryOption.get().classDescriptors();
+        }
+
+        missCount.increment();
+        ImmutableList<ClassDescriptor> classDescriptors = ImmutableList.copyOf(scanner.get());
+        Optional<String> contentHashOption = usingContentHash ? Optional.of(computeContentHash(source)) : Optional.empty();
+        currentEntries.put(
+                key,
+                new Entry(new Fingerprint(attrs.lastModifiedTime().toMillis(), attrs.size(), contentHashOption), classDescriptors)
+        );
+        return classDescriptors;
+    }
+
+    /**
+     * Saves the entries used during this run to the cache file, replacing the old cache file.
+     * Does nothing if this cache is not enabled.
+     */
+    public void save() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        Path cacheFile = cacheFileOption.orElseThrow();
+        try {
+            Path parentDir = cacheFile.toAbsolutePath().getParent();
+            Files.createDirectories(parentDir);
+            Path tempFile = Files.createTempFile(parentDir, cacheFile.getFileName().toString(), ".tmp");
+
+            try {
+                try (DataOutputStream out =
+                             new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                    writeEntries(Map.copyOf(currentEntries), out);
+                }
+                Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                // No-op after a successful move; otherwise the partially written temporary file is removed
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeEntries(Map<String, Entry> entries, DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(ClassDescriptorCodec.FORMAT_VERSION);
+        out.writeInt(entries.size());
+
+        for (Map.Entry<String, Entry> keyAndEntry : entries.entrySet()) {
+            Fingerprint fingerprint = keyAndEntry.getValue().fingerprint();
+
+            ClassDescriptorCodec.writeString(keyAndEntry.getKey(), out);
+            out.writeLong(fingerprint.lastModifiedMillis());
+            out.writeLong(fingerprint.size());
+            out.writeBoolean(fingerprint.contentHashOption().isPresent());
+            if (fingerprint.contentHashOption().isPresent()) {
+                ClassDescriptorCodec.writeString(fingerprint.contentHashOption().get(), out);
+            }
+
+            ImmutableList<ClassDescriptor> classDescriptors = keyAndEntry.getValue().classDescriptors();
+            out.writeInt(classDescriptors.size());
+            for (ClassDescriptor classDescriptor : classDescriptors) {
+                ClassDescriptorCodec.writeClassDescriptor(classDescriptor, out);
+            }
+        }
+    }
+
+    private static ImmutableMap<String, Entry> readEntries(Path cacheFile) {
+        if (!Files.isRegularFile(cacheFile)) {
+            return ImmutableMap.of();
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != ClassDescriptorCodec.FORMAT_VERSION) {
+                return ImmutableMap.of();
+            }
+
+            int entryCount = in.readInt();
+            ImmutableMap.Builder<String, Entry> entries = ImmutableMap.builderWithExpectedSize(entryCount);
+            for (int i = 0; i < entryCount; i++) {
+                String key = ClassDescriptorCodec.readString(in);
+                long lastModifiedMillis = in.readLong();
+                long size = in.readLong();
+                Optional<String> contentHashOption =
+                        in.readBoolean() ? Optional.of(ClassDescriptorCodec.readString(in)) : Optional.empty();
+
+                int classCount = in.readInt();
+                ImmutableList.Builder<ClassDescriptor> classDescriptors = ImmutableList.builderWithExpectedSize(classCount);
+                for (int j = 0; j < classCount; j++) {
+                    classDescriptors.add(ClassDescriptorCodec.readClassDescriptor(in));
+                }
+
+                entries.put(key, new Entry(new Fingerprint(lastModifiedMillis, size, contentHashOption), classDescriptors.build()));
+            }
+            return entries.build();
+        } catch (IOException | RuntimeException e) {
+            // Corrupt or truncated cache file; start from scratch
+            return ImmutableMap.of();
+        }
+    }
+
+    private static BasicFileAttributes readAttributes(Path source) {
+        Preconditions.checkArgument(Files.isRegularFile(source));
+        try {
+            return Files.readAttributes(source, BasicFileAttributes.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String computeContentHash(Path source) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream is = new DigestInputStream(Files.newInputStream(source), digest)) {
+                is.transferTo(OutputStream.nullOutputStream());
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.console;
+
+import com.google.common.base.Preconditions;
+import eu.cdevreeze.openlibertychecks.analysis.PoolCapacityAnalyzer;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.Server;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.VariableResolver;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.config.ConfigFileCache;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.config.IncludeResolver;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.config.ServerConfigMerger;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Program analyzing the connection pools of a fleet of OpenLiberty servers. See {@link PoolCapacityAnalyzer}.
+ * <p>
+ * This program takes one or more server config directories, each containing a server.xml file, whose includes
+ * and config dropins are merged into the effective configuration. Shared include files are parsed only once.
+ * The pool issues per server are printed, followed by the potential number of connections per database host.
+ *
+ * @author Chris de Vreeze
+ */
+public class AnalyzePoolCapacity {
+
+    public static void main(String[] args) {
+        Objects.checkIndex(0, args.length);
+
+        List<Path> serverConfigDirs = Arrays.stream(args).map(Path::of).toList();
+        Preconditions.checkArgument(
+                serverConfigDirs.stream().allMatch(dir -> Files.isRegularFile(dir.resolve("server.xml")))
+        );
+
+        ServerConfigMerger merger = new ServerConfigMerger(
+                new IncludeResolver(IncludeResolver.Settings.defaultSettings(), new ConfigFileCache())
+        );
+
+        Map<Server, VariableResolver> variableResolvers = new IdentityHashMap<>();
+        List<Server> servers = new ArrayList<>();
+
+        for (Path serverConfigDir : serverConfigDirs) {
+            Server server = merger.merge(serverConfigDir.resolve("server.xml")).server();
+            VariableResolver variableResolver = VariableResolver.load(serverConfigDir, List.of(server));
+            servers.add(server);
+            variableResolvers.put(server, variableResolver);
+
+            PoolCapacityAnalyzer.findIssues(server, variableResolver)
+                    .forEach(issue -> System.out.printf(
+                            "%s: %s: %s%n", serverConfigDir, issue.kind(), issue.message()
+                    ));
+        }
+
+        PoolCapacityAnalyzer.findHostCapacities(servers, variableResolvers::get)
+                .forEach(capacity -> System.out.printf(
+                        "host=%s dataSources=%d maxConnections=%s unknownPools=%d%n",
+                        capacity.host(),
+                        capacity.dataSourceCount(),
+                        capacity.unbounded() ? "unbounded" : String.valueOf(capacity.totalMaxConnections()),
+                        capacity.unknownPoolCount()
+                ));
+    }
+}
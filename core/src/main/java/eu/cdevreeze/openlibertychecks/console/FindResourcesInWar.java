@@ -0,0 +1,532 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.console;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import eu.cdevreeze.openlibertychecks.classfile.*;
+import eu.cdevreeze.openlibertychecks.classfile.internal.ArchiveScanning;
+import eu.cdevreeze.openlibertychecks.classfile.internal.ClassFileScanning;
+import eu.cdevreeze.openlibertychecks.classfile.internal.ScanIndexCache;
+import eu.cdevreeze.openlibertychecks.io.DirectoryCrawler;
+import eu.cdevreeze.openlibertychecks.reflection.internal.ClassMetadata;
+import eu.cdevreeze.openlibertychecks.reflection.internal.ClassPathScanning;
+import eu.cdevreeze.openlibertychecks.reflection.jakartaee10.CommonJakartaAnnotations;
+import eu.cdevreeze.openlibertychecks.xml.XmlDocumentRepository;
+import eu.cdevreeze.openlibertychecks.xml.internal.ElementStreamWriting;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.JndiEntry;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.Server;
+import eu.cdevreeze.openlibertychecks.xml.jakartaee10.Names;
+import eu.cdevreeze.openlibertychecks.xml.jakartaee10.ResourceRef;
+import eu.cdevreeze.openlibertychecks.xml.jakartaee10.servlet.WebApp;
+import eu.cdevreeze.yaidom4j.core.NamespaceScope;
+import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
+import eu.cdevreeze.yaidom4j.dom.immutabledom.Element;
+import eu.cdevreeze.yaidom4j.dom.immutabledom.Node;
+import eu.cdevreeze.yaidom4j.dom.immutabledom.NodeBuilder;
+import eu.cdevreeze.yaidom4j.dom.immutabledom.jaxpinterop.DocumentPrinter;
+import eu.cdevreeze.yaidom4j.dom.immutabledom.jaxpinterop.DocumentPrinters;
+import jakarta.annotation.Resource;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static eu.cdevreeze.openlibertychecks.reflection.jakartaee10.CommonJakartaAnnotations.findResourceAnnotation;
+import static eu.cdevreeze.openlibertychecks.reflection.jakartaee10.CommonJakartaAnnotations.findResourcesAnnotation;
+
+/**
+ * Program finding the resources in a WAR file or extracted WAR file directory.
+ * These resources may occur as Resource-annotated code or resources in XML configuration files.
+ * The resources are compared with the contents of OpenLiberty configuration files.
+ * <p>
+ * The Resource annotations are found by parsing the class files, so no class of the WAR is loaded, and
+ * the class path of the analysed project is not needed for running this program. Both "WEB-INF/classes" and
+ * the JAR files in "WEB-INF/lib" are scanned, without extracting anything to disk. The reflection-based
+ * methods (such as {@link #findResourcesInClassesDir(Path)}) do require the classes to be on the class path.
+ * <p>
+ * Note that the class file based methods report a Resource-annotated field or method only for the class declaring it,
+ * whereas the reflection-based methods also report inherited public fields and methods for each subclass.
+ * <p>
+ * This program takes at least one path. The first one is the WAR file or open WAR directory.
+ * The other ones are directories containing OpenLiberty configuration files.
+ * <p>
+ * If system property "openlibertychecks.streamingReport" is true, the report is streamed to standard output
+ * (without indentation) instead of being built in memory first. See {@link #writeResourcesAsXml(Path, List, Writer)}.
+ *
+ * @author Chris de Vreeze
+ */
+public class FindResourcesInWar {
+
+    public record ResourceAnnotationInfo(
+            AnnotatedElement annotatedElement,
+            Resource resourceAnnotation
+    ) {
+
+        public Element toXml() {
+            var nb = new NodeBuilder.ConciseApi(NamespaceScope.empty());
+
+            return nb.element(
+                    "resourceAnnotationOccurrence",
+                    ImmutableMap.of(),
+                    ImmutableList.of(convertAnnotatedElementToXml(), convertResourceAnnotationToXml())
+            );
+        }
+
+        private Element convertAnnotatedElementToXml() {
+            var nb = new NodeBuilder.ConciseApi(NamespaceScope.empty());
+
+            if (annotatedElement() instanceof Class<?> c) {
+                return nb.textElement("class", c.toString());
+            } else if (annotatedElement() instanceof Field f) {
+                return nb.textElement(
+                        "field",
+                        ImmutableMap.of("class", f.getDeclaringClass().toString()),
+                        f.toString()
+                );
+            } else if (annotatedElement() instanceof Method m) {
+                return nb.textElement(
+                        "method",
+                        ImmutableMap.of("class", m.getDeclaringClass().toString()),
+                        m.toString()
+                );
+            } else if (annotatedElement() instanceof Constructor<?> c) {
+                return nb.textElement(
+                        "constructor",
+                        ImmutableMap.of("class", c.getDeclaringClass().toString()),
+                        c.toString()
+                );
+            } else if (annotatedElement() instanceof Module m) {
+                return nb.textElement("module", m.toString());
+            } else if (annotatedElement() instanceof Package p) {
+                return nb.textElement("package", p.toString());
+            } else if (annotatedElement() instanceof Parameter p) {
+                return nb.textElement(
+                        "parameter",
+                        ImmutableMap.of("executable", p.getDeclaringExecutable().toString()),
+                        p.toString()
+                );
+            } else if (annotatedElement() instanceof RecordComponent c) {
+                return nb.textElement("recordComponent", c.toString());
+            } else {
+                return nb.textElement("annotatedElement", annotatedElement().toString());
+            }
+        }
+
+        private Element convertResourceAnnotationToXml() {
+            var nb = new NodeBuilder.ConciseApi(NamespaceScope.empty());
+
+            return nb.element(
+                    "annotation",
+                    ImmutableMap.of("annotationType", Resource.class.toString()),
+                    ImmutableList.of(
+                            nb.textElement("name", resourceAnnotation().name()),
+                            nb.textElement("description", resourceAnnotation().description()),
+                            nb.textElement("shareable", String.valueOf(resourceAnnotation().shareable())),
+                            nb.textElement("lookup", resourceAnnotation().lookup()),
+                            nb.textElement("type", resourceAnnotation().type().toString()),
+                            nb.textElement("mappedName", resourceAnnotation().mappedName()),
+                            nb.textElement("authenticationType", resourceAnnotation().authenticationType().name())
+                    )
+            );
+        }
+    }
+
+    /**
+     * Converts a Resource annotation occurrence, as found in a class file without loading the class, to XML.
+     * The result has the same format as {@link ResourceAnnotationInfo#toXml()}.
+     */
+    public static Element convertResourceAnnotationOccurrenceToXml(AnnotationIndex.Occurrence occurrence) {
+        var nb = new NodeBuilder.ConciseApi(NamespaceScope.empty());
+
+        return nb.element(
+                "resourceAnnotationOccurrence",
+                ImmutableMap.of(),
+                ImmutableList.of(
+                        convertAnnotatedElementToXml(occurrence.declaringClass(), occurrence.annotatedElement()),
+                        convertResourceAnnotationToXml(occurrence.annotation())
+                )
+        );
+    }
+
+    private static Element convertAnnotatedElementToXml(
+            ClassDescriptor declaringClass,
+            AnnotatedElementDescriptor annotatedElement
+    ) {
+        var nb = new NodeBuilder.ConciseApi(NamespaceScope.empty());
+
+        if (annotatedElement instanceof ClassDescriptor c) {
+            return nb.textElement("class", c.toJavaString());
+        } else if (annotatedElement instanceof FieldDescriptor f) {
+            return nb.textElement(
+                    "field",
+                    ImmutableMap.of("class", declaringClass.toJavaString()),
+                    f.toJavaString()
+            );
+        } else if (annotatedElement instanceof MethodDescriptor m && m.isConstructor()) {
+            return nb.textElement(
+                    "constructor",
+                    ImmutableMap.of("class", declaringClass.toJavaString()),
+                    m.toJavaString()
+            );
+        } else if (annotatedElement instanceof MethodDescriptor m) {
+            return nb.textElement(
+                    "method",
+                    ImmutableMap.of("class", declaringClass.toJavaString()),
+                    m.toJavaString()
+            );
+        } else {
+            return nb.textElement("annotatedElement", annotatedElement.toString());
+        }
+    }
+
+    private static Element convertResourceAnnotationToXml(AnnotationDescriptor ann) {
+        var nb = new NodeBuilder.ConciseApi(NamespaceScope.empty());
+
+        // Default values are not stored in class files, so they are filled in here
+        return nb.element(
+                "annotation",
+                ImmutableMap.of("annotationType", Resource.class.toString()),
+                ImmutableList.of(
+                        nb.textElement("name", ann.stringValueOption("name").orElse("")),
+                        nb.textElement("description", ann.stringValueOption("description").orElse("")),
+                        nb.textElement("shareable", String.valueOf(ann.booleanValueOption("shareable").orElse(true))),
+                        nb.textElement("lookup", ann.stringValueOption("lookup").orElse("")),
+                        nb.textElement(
+                                "type",
+                                ann.classValueOption("type")
+                                        .map(AnnotationValue.ClassRef::typeName)
+                                        .orElse(Object.class.getName())
+                        ),
+                        nb.textElement("mappedName", ann.stringValueOption("mappedName").orElse("")),
+                        nb.textElement(
+                                "authenticationType",
+                                ann.enumValueOption("authenticationType")
+                                        .map(AnnotationValue.EnumConstant::constantName)
+                                        .orElse(Resource.AuthenticationType.CONTAINER.name())
+                        )
+                )
+        );
+    }
+
+    public static void main(String[] args) {
+        Objects.checkIndex(0, args.length);
+
+        Path warPath = Path.of(args[0]);
+        List<Path> otherPaths = IntStream.range(1, args.length).mapToObj(i -> Path.of(args[i])).toList();
+
+        // If system property "openlibertychecks.scanIndexCache" points to a cache file, unchanged class files and
+        // JAR files are not parsed again. See ScanIndexCache.fromSystemProperties().
+        ScanIndexCache cache = ScanIndexCache.fromSystemProperties();
+
+        if (Boolean.getBoolean("openlibertychecks.streamingReport")) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            writeResourcesAsXml(warPath, otherPaths, cache, writer);
+            cache.save();
+            System.out.println();
+            return;
+        }
+
+        Element foundResources = findResourcesAsXml(warPath, otherPaths, cache);
+        cache.save();
+
+        DocumentPrinter docPrinter = DocumentPrinters.instance();
+        System.out.println(docPrinter.print(foundResources));
+    }
+
+    /**
+     * Streaming alternative to {@link #findResourcesAsXml(Path, List)}, writing the same resourceSummary
+     * content to the given writer. Nothing is collected before writing: the Resource annotation occurrences of
+     * each scanned archive ("WEB-INF/classes" or a JAR file in "WEB-INF/lib") are written as soon as that archive
+     * has been scanned, and the resourceRef and jndiEntry elements of each XML file are written right after
+     * parsing that file. So at most one archive's class descriptors and one XML document are held in memory.
+     * <p>
+     * The web.xml files and the server.xml files are sought separately, so a directory is crawled twice, but
+     * each XML file is parsed only once. The resource annotation occurrences are grouped by archive and class,
+     * so their order may differ from the order in {@link #findResourcesAsXml(Path, List)}.
+     * <p>
+     * The output is not indented. The writer is flushed but not closed.
+     */
+    public static void writeResourcesAsXml(Path warPath, List<Path> otherDirs, Writer writer) {
+        writeResourcesAsXml(warPath, otherDirs, ScanIndexCache.none(), writer);
+    }
+
+    /**
+     * Like {@link #writeResourcesAsXml(Path, List, Writer)}, but reusing the class descriptors in the given cache.
+     * The cache is not saved; that is left to the caller.
+     */
+    public static void writeResourcesAsXml(Path warPath, List<Path> otherDirs, ScanIndexCache cache, Writer writer) {
+        Preconditions.checkArgument(Files.isDirectory(warPath) || Files.isRegularFile(warPath));
+        Preconditions.checkArgument(otherDirs.stream().allMatch(Files::isDirectory));
+
+        try {
+            XMLStreamWriter xmlWriter = ElementStreamWriting.createXmlStreamWriter(writer);
+            xmlWriter.writeStartDocument("UTF-8", "1.0");
+            xmlWriter.writeStartElement("resourceSummary");
+
+            xmlWriter.writeStartElement("resourceAnnotationOccurrences");
+            ArchiveScanning.scanClassDescriptorsInWar(
+                    warPath,
+                    DirectoryCrawler.DEFAULT_PARALLELISM,
+                    cache,
+                    classDescriptors -> {
+                        try {
+                            for (AnnotationIndex.Occurrence occurrence :
+                                    findResourceAnnotationOccurrences(AnnotationIndex.build(classDescriptors))) {
+                                ElementStreamWriting.writeElement(
+                                        convertResourceAnnotationOccurrenceToXml(occurrence),
+                                        xmlWriter
+                                );
+                            }
+                        } catch (XMLStreamException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+            );
+            xmlWriter.writeEndElement();
+
+            xmlWriter.writeStartElement("resourceRefs");
+            XmlDocumentRepository.scan(
+                    otherDirs,
+                    Set.of(Names.JAKARTAEE_WEBAPP_NAME),
+                    XmlDocumentRepository.DEFAULT_MAX_FILE_SIZE,
+                    documentElement -> {
+                        for (ResourceRef resourceRef : new WebApp(documentElement).resourceRefs()) {
+                            writeWrappedElement("resourceRef", resourceRef.getElement(), xmlWriter);
+                        }
+                    }
+            );
+            xmlWriter.writeEndElement();
+
+            xmlWriter.writeStartElement("jndiEntries");
+            XmlDocumentRepository.scan(
+                    otherDirs,
+                    Set.of(XmlDocumentRepository.SERVER_NAME),
+                    XmlDocumentRepository.DEFAULT_MAX_FILE_SIZE,
+                    documentElement -> {
+                        for (JndiEntry jndiEntry : new Server(documentElement).jndiEntries()) {
+                            writeWrappedElement("jndiEntry", jndiEntry.getElement(), xmlWriter);
+                        }
+                    }
+            );
+            xmlWriter.writeEndElement();
+
+            xmlWriter.writeEndElement();
+            xmlWriter.writeEndDocument();
+            xmlWriter.flush();
+        } catch (XMLStreamException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static Element findResourcesAsXml(Path warPath, List<Path> otherDirs) {
+        return findResourcesAsXml(warPath, otherDirs, ScanIndexCache.none());
+    }
+
+    /**
+     * Like {@link #findResourcesAsXml(Path, List)}, but reusing the class descriptors in the given cache.
+     * The cache is not saved; that is left to the caller.
+     */
+    public static Element findResourcesAsXml(Path warPath, List<Path> otherDirs, ScanIndexCache cache) {
+        Preconditions.checkArgument(Files.isDirectory(warPath) || Files.isRegularFile(warPath));
+        Preconditions.checkArgument(otherDirs.stream().allMatch(Files::isDirectory));
+
+        List<AnnotationIndex.Occurrence> resourceAnnotationOccurrences =
+                findResourceAnnotationOccurrencesInWar(warPath, cache);
+
+        var nb = new NodeBuilder.ConciseApi(NamespaceScope.empty());
+
+        Element resourceAnnotationsElement = nb.element(
+                "resourceAnnotationOccurrences",
+                ImmutableMap.of(),
+                resourceAnnotationOccurrences
+                        .stream()
+                        .map(FindResourcesInWar::convertResourceAnnotationOccurrenceToXml)
+                        .collect(ImmutableList.toImmutableList())
+        );
+
+        // Each XML file is parsed only once, for both the web.xml and server.xml queries
+        XmlDocumentRepository xmlDocumentRepository = XmlDocumentRepository.load(otherDirs);
+
+        ImmutableList<Node> resourceRefs = findResourceRefsInWebXmlFiles(xmlDocumentRepository)
+                .stream()
+                .map(e ->
+                        nb.element(
+                                        "resourceRef",
+                                        ImmutableMap.of("doc", e.getElement().docUriOption().map(java.net.URI::toString).orElse(""))
+                                )
+                                .plusChild(e.getElement().underlyingNode())
+                )
+                .collect(ImmutableList.toImmutableList());
+
+        ImmutableList<Node> jndiEntries = findJndiEntriesInServerXmlFiles(xmlDocumentRepository)
+                .stream()
+                .map(e ->
+                        nb.element(
+                                        "jndiEntry",
+                                        ImmutableMap.of("doc", e.getElement().docUriOption().map(java.net.URI::toString).orElse(""))
+                                )
+                                .plusChild(e.getElement().underlyingNode())
+                )
+                .collect(ImmutableList.toImmutableList());
+
+        return nb.element("resourceSummary")
+                .plusChild(resourceAnnotationsElement)
+                .plusChild(
+                        nb.element("resourceRefs").withChildren(resourceRefs)
+                )
+                .plusChild(
+                        nb.element("jndiEntries").withChildren(jndiEntries)
+                );
+    }
+
+    /**
+     * Finds the Resource annotation occurrences in the given WAR file or open WAR directory, without loading any class.
+     * Both "WEB-INF/classes" and the JAR files in "WEB-INF/lib" are scanned, the latter in parallel.
+     */
+    public static List<AnnotationIndex.Occurrence> findResourceAnnotationOccurrencesInWar(Path warPath) {
+        return findResourceAnnotationOccurrencesInWar(warPath, ScanIndexCache.none());
+    }
+
+    /**
+     * Like {@link #findResourceAnnotationOccurrencesInWar(Path)}, but unchanged class files and JAR files found
+     * in the given cache are not parsed again. The cache is updated in memory only; saving it is left to the caller.
+     */
+    public static List<AnnotationIndex.Occurrence> findResourceAnnotationOccurrencesInWar(
+            Path warPath,
+            ScanIndexCache cache
+    ) {
+        List<ClassDescriptor> webAppClasses =
+                ArchiveScanning.findClassDescriptorsInWar(warPath, DirectoryCrawler.DEFAULT_PARALLELISM, cache);
+
+        return findResourceAnnotationOccurrences(AnnotationIndex.build(webAppClasses));
+    }
+
+    /**
+     * Finds the Resource annotation occurrences in the "WEB-INF/classes" directory, without loading any class.
+     */
+    public static List<AnnotationIndex.Occurrence> findResourceAnnotationOccurrencesInClassesDir(Path warDir) {
+        Path classesDir = warDir.resolve("WEB-INF").resolve("classes");
+        Preconditions.checkArgument(Files.isDirectory(classesDir));
+
+        List<ClassDescriptor> webAppClasses = ClassFileScanning.findClassDescriptors(classesDir);
+
+        return findResourceAnnotationOccurrences(AnnotationIndex.build(webAppClasses));
+    }
+
+    /**
+     * Finds the Resource annotation occurrences in the given annotation index, which is a lookup rather than
+     * a pass over all classes. Resource annotations bundled in Resources annotations are included.
+     */
+    public static List<AnnotationIndex.Occurrence> findResourceAnnotationOccurrences(AnnotationIndex index) {
+        return CommonJakartaAnnotations.findResourceAnnotationOccurrences(index);
+    }
+
+    public static Map<AnnotatedElement, List<Resource>> findResourcesInClassesDir(Path warDir) {
+        Path classesDir = warDir.resolve("WEB-INF").resolve("classes");
+        Preconditions.checkArgument(Files.isDirectory(classesDir));
+
+        List<Class<?>> webAppClasses = ClassPathScanning.findClasses(classesDir);
+
+        return webAppClasses.stream()
+                .flatMap(c -> findAllResourcesInClass(c).entrySet().stream())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    public static List<ResourceRef> findResourceRefsInWebXmlFiles(List<Path> dirs) {
+        return findResourceRefsInWebXmlFiles(XmlDocumentRepository.load(dirs));
+    }
+
+    public static List<ResourceRef> findResourceRefsInWebXmlFiles(XmlDocumentRepository xmlDocumentRepository) {
+        return xmlDocumentRepository.webApps()
+                .stream()
+                .flatMap(e -> e.resourceRefs().stream())
+                .toList();
+    }
+
+    public static List<JndiEntry> findJndiEntriesInServerXmlFiles(List<Path> dirs) {
+        return findJndiEntriesInServerXmlFiles(XmlDocumentRepository.load(dirs));
+    }
+
+    public static List<JndiEntry> findJndiEntriesInServerXmlFiles(XmlDocumentRepository xmlDocumentRepository) {
+        return xmlDocumentRepository.servers()
+                .stream()
+                .flatMap(e -> e.jndiEntries().stream())
+                .toList();
+    }
+
+    private static Map<AnnotatedElement, List<Resource>> findAllResourcesInClass(Class<?> clazz) {
+        List<Resource> resourcesInClass =
+                findResourceAnnotation(clazz).stream().toList();
+        Map<Field, List<Resource>> resourcesInFields =
+                getFields(clazz).stream()
+                        .flatMap(f -> findResourceAnnotation(f).stream().map(ann -> Map.entry(f, List.of(ann))))
+                        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        Map<Method, List<Resource>> resourcesInMethods =
+                getMethods(clazz).stream()
+                        .flatMap(m -> findResourceAnnotation(m).stream().map(ann -> Map.entry(m, List.of(ann))))
+                        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        List<Resource> resourcesBundledInClass =
+                findResourcesAnnotation(clazz).stream()
+                        .flatMap(r -> Arrays.stream(r.value()))
+                        .toList();
+
+        List<Resource> allResourcesInClass = new ArrayList<>();
+        allResourcesInClass.addAll(resourcesInClass);
+        allResourcesInClass.addAll(resourcesBundledInClass);
+
+        Map<AnnotatedElement, List<Resource>> result = new HashMap<>();
+        result.put(clazz, List.copyOf(allResourcesInClass));
+        result.putAll(resourcesInFields);
+        result.putAll(resourcesInMethods);
+
+        return Map.copyOf(result);
+    }
+
+    private static List<Field> getFields(Class<?> clazz) {
+        return ClassMetadata.of(clazz).fields();
+    }
+
+    private static List<Method> getMethods(Class<?> clazz) {
+        return ClassMetadata.of(clazz).methods();
+    }
+
+    private static void writeWrappedElement(
+            String wrapperName,
+            ElementTree.Element element,
+            XMLStreamWriter xmlWriter
+    ) {
+        try {
+            xmlWriter.writeStartElement(wrapperName);
+            xmlWriter.writeAttribute("doc", element.docUriOption().map(java.net.URI::toString).orElse(""));
+            ElementStreamWriting.writeElement(element.underlyingNode(), xmlWriter);
+            xmlWriter.writeEndElement();
+        } catch (XMLStreamException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.console;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import eu.cdevreeze.openlibertychecks.analysis.ResourceGraph;
+import eu.cdevreeze.openlibertychecks.analysis.UnusedResources;
+import eu.cdevreeze.openlibertychecks.classfile.AnnotationIndex;
+import eu.cdevreeze.openlibertychecks.classfile.internal.ArchiveScanning;
+import eu.cdevreeze.openlibertychecks.io.DirectoryCrawler;
+import eu.cdevreeze.openlibertychecks.reflection.jakartaee10.CommonJakartaAnnotations;
+import eu.cdevreeze.openlibertychecks.xml.XmlDocumentRepository;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.Server;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.VariableResolver;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.config.ConfigFileCache;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.config.IncludeResolver;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.config.ServerConfigMerger;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * Program reporting the data sources, JMS connection factories and resource adapters in an OpenLiberty server
+ * configuration that none of the given WARs uses. See {@link UnusedResources}.
+ * <p>
+ * This program takes at least one path. The first one is the server config directory, containing the server.xml
+ * file, whose includes and config dropins are merged into the effective configuration. The other ones are the WAR
+ * files or open WAR directories deployed to the server. The classes of the WARs are scanned for Resource
+ * annotations, without loading them. The web.xml files are only found in open WAR directories.
+ *
+ * @author Chris de Vreeze
+ */
+public class FindUnusedResources {
+
+    public static void main(String[] args) {
+        Objects.checkIndex(0, args.length);
+
+        Path serverConfigDir = Path.of(args[0]);
+        List<Path> warPaths = IntStream.range(1, args.length).mapToObj(i -> Path.of(args[i])).toList();
+
+        List<UnusedResources.UnusedResource> unusedResources = findUnusedResources(serverConfigDir, warPaths);
+
+        unusedResources.forEach(r -> System.out.printf(
+                "%s id=%s jndiName=%s minPoolSize=%s estimatedIdleConnections=%d%n",
+                r.kind(),
+                r.idOption().orElse("-"),
+                r.jndiNameOption().orElse("-"),
+                r.minPoolSizeOption().isPresent() ? String.valueOf(r.minPoolSizeOption().getAsInt()) : "-",
+                r.estimatedIdleConnections()
+        ));
+        System.out.printf(
+                "Unused resources: %d, estimated idle connections: %d%n",
+                unusedResources.size(),
+                UnusedResources.totalEstimatedIdleConnections(unusedResources)
+        );
+    }
+
+    public static ImmutableList<UnusedResources.UnusedResource> findUnusedResources(
+            Path serverConfigDir,
+            List<Path> warPaths
+    ) {
+        Path serverXmlFile = serverConfigDir.resolve("server.xml");
+        Preconditions.checkArgument(Files.isRegularFile(serverXmlFile));
+        Preconditions.checkArgument(warPaths.stream().allMatch(p -> Files.isDirectory(p) || Files.isRegularFile(p)));
+
+        ServerConfigMerger merger = new ServerConfigMerger(
+                new IncludeResolver(IncludeResolver.Settings.defaultSettings(), new ConfigFileCache())
+        );
+        List<Server> servers = List.of(merger.merge(serverXmlFile).server());
+
+        List<Path> warDirs = warPaths.stream().filter(Files::isDirectory).toList();
+        XmlDocumentRepository webXmlRepository = XmlDocumentRepository.load(warDirs);
+
+        List<AnnotationIndex.Occurrence> resourceAnnotationOccurrences = warPaths.stream()
+                .flatMap(warPath -> {
+                    AnnotationIndex index = AnnotationIndex.build(
+                            ArchiveScanning.findClassDescriptors(warPath, DirectoryCrawler.DEFAULT_PARALLELISM)
+                    );
+                    return CommonJakartaAnnotations.findResourceAnnotationOccurrences(index).stream();
+                })
+                .toList();
+
+        ResourceGraph resourceGraph = ResourceGraph.build(
+                resourceAnnotationOccurrences,
+                webXmlRepository.webApps(),
+                servers
+        );
+        return UnusedResources.findUnusedResources(
+                resourceGraph,
+                servers,
+                VariableResolver.load(serverConfigDir, servers)
+        );
+    }
+}
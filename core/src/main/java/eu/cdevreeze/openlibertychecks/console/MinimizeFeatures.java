@@ -0,0 +1,97 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.console;
+
+import com.google.common.base.Preconditions;
+import eu.cdevreeze.openlibertychecks.analysis.FeatureMinimizer;
+import eu.cdevreeze.openlibertychecks.analysis.FeatureTable;
+import eu.cdevreeze.openlibertychecks.classfile.AnnotationIndex;
+import eu.cdevreeze.openlibertychecks.classfile.internal.ArchiveScanning;
+import eu.cdevreeze.openlibertychecks.io.DirectoryCrawler;
+import eu.cdevreeze.openlibertychecks.xml.XmlDocumentRepository;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.Server;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.config.ConfigFileCache;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.config.IncludeResolver;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.config.ServerConfigMerger;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * Program recommending a minimal feature set for an OpenLiberty server, given the applications deployed to it.
+ * See {@link FeatureMinimizer}.
+ * <p>
+ * This program takes at least one path. The first one is the server config directory, containing the server.xml
+ * file, whose includes and config dropins are merged into the effective configuration. The other ones are the WAR
+ * files or open WAR directories deployed to the server. Deployment descriptors are only found in open WAR
+ * directories.
+ *
+ * @author Chris de Vreeze
+ */
+public class MinimizeFeatures {
+
+    public static void main(String[] args) {
+        Objects.checkIndex(0, args.length);
+
+        Path serverConfigDir = Path.of(args[0]);
+        List<Path> warPaths = IntStream.range(1, args.length).mapToObj(i -> Path.of(args[i])).toList();
+
+        FeatureMinimizer.Recommendation recommendation = recommendFeatures(serverConfigDir, warPaths);
+
+        System.out.println("Enabled features: " + recommendation.enabledFeatures());
+        System.out.println("Minimal features:");
+        recommendation.reasonsToKeep().forEach((feature, reason) -> System.out.printf("  %s (%s)%n", feature, reason));
+        System.out.println("Removable features: " + recommendation.removableFeatures());
+        System.out.printf(
+                "Estimated saving: %d ms startup time, %d KB heap%n",
+                recommendation.estimatedStartupSavingMillis(),
+                recommendation.estimatedHeapSavingKb()
+        );
+    }
+
+    public static FeatureMinimizer.Recommendation recommendFeatures(Path serverConfigDir, List<Path> warPaths) {
+        Path serverXmlFile = serverConfigDir.resolve("server.xml");
+        Preconditions.checkArgument(Files.isRegularFile(serverXmlFile));
+        Preconditions.checkArgument(warPaths.stream().allMatch(p -> Files.isDirectory(p) || Files.isRegularFile(p)));
+
+        ServerConfigMerger merger = new ServerConfigMerger(
+                new IncludeResolver(IncludeResolver.Settings.defaultSettings(), new ConfigFileCache())
+        );
+        Server server = merger.merge(serverXmlFile).server();
+
+        XmlDocumentRepository descriptorRepository =
+                XmlDocumentRepository.load(warPaths.stream().filter(Files::isDirectory).toList());
+
+        List<AnnotationIndex> annotationIndexes = warPaths.stream()
+                .map(warPath -> AnnotationIndex.build(
+                        ArchiveScanning.findClassDescriptors(warPath, DirectoryCrawler.DEFAULT_PARALLELISM)
+                ))
+                .toList();
+
+        FeatureTable featureTable = FeatureTable.bundled();
+        FeatureMinimizer.UsageEvidence evidence = FeatureMinimizer.UsageEvidence.collect(
+                annotationIndexes,
+                descriptorRepository.documentElements(),
+                List.of(server),
+                featureTable
+        );
+        return new FeatureMinimizer(featureTable).recommend(server, evidence);
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.console;
+
+import com.google.common.collect.ImmutableList;
+import eu.cdevreeze.openlibertychecks.classfile.AnnotationIndex;
+import eu.cdevreeze.openlibertychecks.classfile.internal.ArchiveScanning;
+import eu.cdevreeze.openlibertychecks.io.DirectoryCrawler;
+import eu.cdevreeze.openlibertychecks.rules.*;
+import eu.cdevreeze.openlibertychecks.xml.XmlDocumentRepository;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.config.*;
+
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Program running the standard checks against OpenLiberty configuration directories and, optionally, the classes
+ * of a WAR (file or directory). The checks are scheduled by {@link RuleScheduler}, so the cheap checks (on single
+ * documents) run first, then the checks on the merged server configurations, and finally the class index checks.
+ * <p>
+ * Usage: {@code RunChecks [--fail-fast] [--classes <war-or-dir>] <configDir>...}
+ * <p>
+ * With option "--fail-fast", no further checks are started once an error has been found, so the (expensive)
+ * class scanning is skipped for a broken configuration. The findings are printed one per line, and the exit
+ * status is 1 if there are errors.
+ *
+ * @author Chris de Vreeze
+ */
+public class RunChecks {
+
+    public static final ArtifactKey<XmlDocumentRepository> XML_DOCUMENTS = ArtifactKey.of("xmlDocuments");
+    public static final ArtifactKey<ImmutableList<MergedServerConfig>> MERGED_SERVER_CONFIGS =
+            ArtifactKey.of("mergedServerConfigs");
+    public static final ArtifactKey<AnnotationIndex> ANNOTATION_INDEX = ArtifactKey.of("annotationIndex");
+
+    private static final String SERVER_XML = "server.xml";
+
+    public static void main(String[] args) {
+        boolean failFast = false;
+        Optional<Path> classesPathOption = Optional.empty();
+        List<Path> configDirs = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--fail-fast")) {
+                failFast = true;
+            } else if (args[i].equals("--classes")) {
+                Objects.checkIndex(i + 1, args.length);
+                classesPathOption = Optional.of(Path.of(args[++i]));
+            } else {
+                configDirs.add(Path.of(args[i]));
+            }
+        }
+        Objects.checkIndex(0, configDirs.size());
+
+        RuleScheduler.Result result = createScheduler(configDirs, classesPathOption).run(failFast);
+
+        result.findings().forEach(finding -> System.out.println(format(finding)));
+        if (!result.skippedRuleIds().isEmpty()) {
+            System.out.println("Skipped checks (fail-fast): " + result.skippedRuleIds());
+        }
+
+        if (result.hasErrors()) {
+            System.exit(1);
+        }
+    }
+
+    public static RuleScheduler createScheduler(List<Path> configDirs, Optional<Path> classesPathOption) {
+        List<ArtifactProvider<?>> providers = new ArrayList<>();
+        List<Rule> rules = new ArrayList<>();
+
+        providers.add(ArtifactProvider.of(
+                XML_DOCUMENTS,
+                Set.of(),
+                Cost.CHEAP,
+                artifacts -> XmlDocumentRepository.load(configDirs)
+        ));
+        providers.add(ArtifactProvider.of(
+                MERGED_SERVER_CONFIGS,
+                Set.of(XML_DOCUMENTS),
+                Cost.MODERATE,
+                artifacts -> mergeServerConfigs(artifacts.get(XML_DOCUMENTS))
+        ));
+
+        CheckEngine documentCheckEngine =
+                new CheckEngine(List.of(ServerXmlChecks.CONNECTION_MANAGER_POOL_SIZE), List.of());
+        rules.add(Rule.of(
+                "documents",
+                Set.of(XML_DOCUMENTS),
+                Cost.CHEAP,
+                (artifacts, findingSink) -> {
+                    artifacts.get(XML_DOCUMENTS).unparseableFiles()
+                            .forEach(file -> findingSink.report(new Finding(
+                                    "xml.wellFormed",
+                                    Severity.ERROR,
+                                    Optional.of(file.toUri()),
+                                    "Not well-formed XML"
+                            )));
+                    documentCheckEngine.run(
+                            artifacts.get(XML_DOCUMENTS).documentElements(),
+                            Optional.empty(),
+                            findingSink
+                    );
+                }
+        ));
+
+        rules.add(Rule.of(
+                "mergedServerConfigs.includes",
+                Set.of(MERGED_SERVER_CONFIGS),
+                Cost.CHEAP,
+                (artifacts, findingSink) -> artifacts.get(MERGED_SERVER_CONFIGS).stream()
+                        .flatMap(config -> config.problems().stream())
+                        .forEach(problem -> findingSink.report(new Finding(
+                                "server.include",
+                                severity(problem.kind()),
+                                Optional.of(problem.includingFile().toUri()),
+                                String.format("Include '%s': %s", problem.location(), problem.message())
+                        )))
+        ));
+
+        List<ConfigCheck<?>> mergedConfigChecks = ServerXmlChecks.all().stream()
+                .filter(check -> !check.equals(ServerXmlChecks.CONNECTION_MANAGER_POOL_SIZE))
+                .toList();
+        CheckEngine mergedConfigCheckEngine = new CheckEngine(mergedConfigChecks, List.of());
+        rules.add(Rule.of(
+                "mergedServerConfigs.checks",
+                Set.of(MERGED_SERVER_CONFIGS),
+                Cost.CHEAP,
+                (artifacts, findingSink) -> mergedConfigCheckEngine.run(
+                        artifacts.get(MERGED_SERVER_CONFIGS).stream()
+                                .map(config -> config.server().getElement())
+                                .toList(),
+                        Optional.empty(),
+                        findingSink
+                )
+        ));
+
+        classesPathOption.ifPresent(classesPath -> {
+            providers.add(ArtifactProvider.of(
+                    ANNOTATION_INDEX,
+                    Set.of(),
+                    Cost.EXPENSIVE,
+                    artifacts -> AnnotationIndex.build(
+                            ArchiveScanning.findClassDescriptors(classesPath, DirectoryCrawler.DEFAULT_PARALLELISM)
+                    )
+            ));
+
+            CheckEngine classCheckEngine = new CheckEngine(List.of(), ClassIndexChecks.all());
+            rules.add(Rule.of(
+                    "classes",
+                    Set.of(ANNOTATION_INDEX),
+                    Cost.CHEAP,
+                    (artifacts, findingSink) -> classCheckEngine.run(
+                            List.of(),
+                            Optional.of(artifacts.get(ANNOTATION_INDEX)),
+                            findingSink
+                    )
+            ));
+        });
+
+        return new RuleScheduler(providers, rules);
+    }
+
+    private static ImmutableList<MergedServerConfig> mergeServerConfigs(XmlDocumentRepository xmlDocumentRepository) {
+        ServerConfigMerger merger = new ServerConfigMerger(
+                new IncludeResolver(IncludeResolver.Settings.defaultSettings(), new ConfigFileCache())
+        );
+        return xmlDocumentRepository.files().stream()
+                .filter(file -> file.getFileName().toString().equals(SERVER_XML))
+                .map(merger::merge)
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    private static Severity severity(ResolvedServerConfig.ProblemKind problemKind) {
+        return switch (problemKind) {
+            case MISSING_FILE, INVALID_LOCATION, CYCLE, NOT_PARSEABLE -> Severity.ERROR;
+            default -> Severity.WARNING;
+        };
+    }
+
+    private static String format(Finding finding) {
+        return String.format(
+                "%s [%s] %s%s",
+                finding.severity(),
+                finding.checkId(),
+                finding.documentUriOption().map(uri -> uri + ": ").orElse(""),
+                finding.message()
+        );
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.internal;
+
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Support for running (parallel) work in a {@link ForkJoinPool}. Parallel streams created by the work use the
+ * pool in which the work runs, so running the work in a given pool bounds its parallelism.
+ * <p>
+ * The shared pools are created once per parallelism, and are used instead of creating (and shutting down) a pool
+ * per call. Their worker threads are daemon threads, so the shared pools are never shut down.
+ *
+ * @author Chris de Vreeze
+ */
+public class ForkJoinSupport {
+
+    private ForkJoinSupport() {
+    }
+
+    private static final ConcurrentMap<Integer, ForkJoinPool> SHARED_POOLS = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the shared pool with the given parallelism, creating it on first use.
+     */
+    public static ForkJoinPool sharedPool(int parallelism) {
+        Preconditions.checkArgument(parallelism >= 1);
+        return SHARED_POOLS.computeIfAbsent(parallelism, ForkJoinPool::new);
+    }
+
+    /**
+     * Runs the given work in the given pool, and waits for the result. If the current thread is a worker thread
+     * of that pool (for example, when an engine running in the pool calls another engine using the same pool),
+     * the work runs directly in the current thread, instead of blocking a worker thread on a nested submission.
+     * <p>
+     * Unchecked exceptions and errors thrown by the work are rethrown as such, and checked ones are wrapped in a
+     * RuntimeException. If the waiting thread is interrupted, the interrupt status is restored and a
+     * RuntimeException is thrown.
+     */
+    public static <T> T invoke(ForkJoinPool pool, Supplier<T> work) {
+        if (ForkJoinTask.getPool() == pool) {
+            return work.get();
+        }
+        try {
+            return pool.submit((Callable<T>) work::get).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Like {@link #invoke(ForkJoinPool, Supplier)}, but for work without a result.
+     */
+    public static void run(ForkJoinPool pool, Runnable work) {
+        invoke(pool, () -> {
+            work.run();
+            return null;
+        });
+    }
+}
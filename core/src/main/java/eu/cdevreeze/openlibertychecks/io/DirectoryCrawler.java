@@ -0,0 +1,192 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.io;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import eu.cdevreeze.openlibertychecks.internal.ForkJoinSupport;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parallel directory crawler, splitting the directory tree across the worker threads of a {@link ForkJoinPool}.
+ * By default the shared pool for the configured parallelism is used (see {@link ForkJoinSupport#sharedPool(int)}).
+ * Each directory is listed by its own (work-stealing) task, so slow directory listings, such as on network-mounted
+ * file systems, are done concurrently.
+ * <p>
+ * Filtering on file extension and excluded directory names is done during traversal, so excluded directory
+ * trees are never listed. Like {@link Files#walk(Path, FileVisitOption...)}, symbolic links are not followed.
+ * File attributes are read with {@link LinkOption#NOFOLLOW_LINKS} as well, so a symbolic link to a regular file
+ * is not returned either. That differs from the former "Files.walk" followed by a "Files::isRegularFile" filter
+ * (as in FindResourcesInWar and ClassPathScanning), which did return such symbolically linked files.
+ * The result is sorted, so it does not depend on the parallelism.
+ *
+ * @author Chris de Vreeze
+ */
+public final class DirectoryCrawler {
+
+    /**
+     * Directory names that typically contain build output or VCS metadata rather than sources or configuration.
+     */
+    public static final ImmutableSet<String> DEFAULT_EXCLUDED_DIRECTORY_NAMES =
+            ImmutableSet.of("target", "build", ".git", ".svn", ".hg", ".idea", ".gradle", "node_modules");
+
+    /**
+     * Default parallelism, which can be overridden with system property "openlibertychecks.crawler.parallelism".
+     */
+    public static final int DEFAULT_PARALLELISM =
+            Integer.getInteger("openlibertychecks.crawler.parallelism", Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Crawler settings. The file extensions include the dot, such as ".xml". An empty set of file extensions
+     * means that all regular files are found. Excluded directory names only apply to strict descendant directories
+     * of the root directory. The maximum depth has the same meaning as for {@link Files#walk(Path, int, FileVisitOption...)}.
+     */
+    public record Settings(
+            ImmutableSet<String> fileExtensions,
+            ImmutableSet<String> excludedDirectoryNames,
+            int maxDepth,
+            int parallelism
+    ) {
+
+        public Settings {
+            Objects.requireNonNull(fileExtensions);
+            Objects.requireNonNull(excludedDirectoryNames);
+            Preconditions.checkArgument(maxDepth >= 0);
+            Preconditions.checkArgument(parallelism >= 1);
+        }
+
+        /**
+         * Returns settings for finding files with the given extension, without any excluded directories.
+         */
+        public static Settings forFileExtension(String fileExtension) {
+            return new Settings(ImmutableSet.of(fileExtension), ImmutableSet.of(), Integer.MAX_VALUE, DEFAULT_PARALLELISM);
+        }
+
+        public Settings withExcludedDirectoryNames(ImmutableSet<String> newExcludedDirectoryNames) {
+            return new Settings(fileExtensions, newExcludedDirectoryNames, maxDepth, parallelism);
+        }
+
+        public Settings withMaxDepth(int newMaxDepth) {
+            return new Settings(fileExtensions, excludedDirectoryNames, newMaxDepth, parallelism);
+        }
+
+        public Settings withParallelism(int newParallelism) {
+            return new Settings(fileExtensions, excludedDirectoryNames, maxDepth, newParallelism);
+        }
+
+        private boolean acceptsFile(Path file) {
+            if (fileExtensions.isEmpty()) {
+                return true;
+            }
+            String fileName = file.getFileName().toString();
+            return fileExtensions.stream().anyMatch(fileName::endsWith);
+        }
+
+        private boolean acceptsDirectory(Path dir) {
+            return !excludedDirectoryNames.contains(dir.getFileName().toString());
+        }
+    }
+
+    private final Settings settings;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a crawler running in the given pool, ignoring the parallelism of the settings.
+     */
+    public DirectoryCrawler(Settings settings, ForkJoinPool pool) {
+        this.settings = Objects.requireNonNull(settings);
+        this.pool = Objects.requireNonNull(pool);
+    }
+
+    public DirectoryCrawler(Settings settings) {
+        this(settings, ForkJoinSupport.sharedPool(settings.parallelism()));
+    }
+
+    public Settings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Finds the regular files under the given root directory that match the settings, sorted by path.
+     * I/O errors are thrown as {@link UncheckedIOException}.
+     */
+    public ImmutableList<Path> findFiles(Path rootDir) {
+        Preconditions.checkArgument(Files.isDirectory(rootDir));
+
+        if (settings.maxDepth() == 0) {
+            return ImmutableList.of();
+        }
+
+        List<Path> files = ForkJoinSupport.invoke(pool, () -> new CrawlTask(rootDir, 0).invoke());
+        return files.stream()
+                .sorted(Comparator.naturalOrder())
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    private final class CrawlTask extends RecursiveTask<List<Path>> {
+
+        private final Path dir;
+        private final int depth;
+
+        private CrawlTask(Path dir, int depth) {
+            this.dir = dir;
+            this.depth = depth;
+        }
+
+        @Override
+        protected List<Path> compute() {
+            List<Path> files = new ArrayList<>();
+            List<CrawlTask> subtasks = new ArrayList<>();
+            int childDepth = depth + 1;
+
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                for (Path entry : entries) {
+                    BasicFileAttributes attrs =
+                            Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+
+                    if (attrs.isRegularFile()) {
+                        if (settings.acceptsFile(entry)) {
+                            files.add(entry);
+                        }
+                    } else if (attrs.isDirectory() && childDepth < settings.maxDepth() && settings.acceptsDirectory(entry)) {
+                        CrawlTask subtask = new CrawlTask(entry, childDepth);
+                        subtask.fork();
+                        subtasks.add(subtask);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            for (CrawlTask subtask : subtasks) {
+                files.addAll(subtask.join());
+            }
+            return files;
+        }
+    }
+}
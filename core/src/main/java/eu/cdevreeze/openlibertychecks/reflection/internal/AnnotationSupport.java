@@ -16,14 +16,28 @@
 
 package eu.cdevreeze.openlibertychecks.reflection.internal;
 
+import eu.cdevreeze.openlibertychecks.classfile.AnnotatedElementDescriptor;
+import eu.cdevreeze.openlibertychecks.classfile.AnnotationDescriptor;
+
 import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Annotation retrieval support (for annotations having retention "runtime").
+ * <p>
+ * Besides the reflection-based methods, there are methods taking class file based descriptors
+ * (see {@link AnnotatedElementDescriptor}). The latter do not require the annotated classes to be loaded.
+ * Only declared annotations can be found that way, because the class hierarchy is not resolved.
+ * <p>
+ * The reflection-based class annotation lookups use the per-class cache in {@link ClassMetadata}. That is
+ * also where the memoized meta-annotation closures come from, used by the meta-annotation methods below.
  *
  * @author Chris de Vreeze
  */
@@ -36,14 +50,14 @@ public class AnnotationSupport {
             Class<?> clazz,
             Class<T> annotationClass
     ) {
-        return Optional.ofNullable(clazz.getDeclaredAnnotation(annotationClass));
+        return ClassMetadata.of(clazz).findDeclaredAnnotation(annotationClass);
     }
 
     public static <T extends Annotation> Optional<T> findAnnotation(
             Class<?> clazz,
             Class<T> annotationClass
     ) {
-        return Optional.ofNullable(clazz.getAnnotation(annotationClass));
+        return ClassMetadata.of(clazz).findAnnotation(annotationClass);
     }
 
     public static <T extends Annotation> Optional<T> findDeclaredAnnotation(
@@ -87,4 +101,39 @@ public class AnnotationSupport {
     ) {
         return Optional.ofNullable(method.getAnnotation(annotationClass));
     }
+
+    public static Optional<AnnotationDescriptor> findDeclaredAnnotation(
+            AnnotatedElementDescriptor annotatedElement,
+            Class<? extends Annotation> annotationClass
+    ) {
+        return annotatedElement.findAnnotation(annotationClass.getName());
+    }
+
+    /**
+     * Returns true if the given annotation type is directly or indirectly meta-annotated with the given
+     * meta-annotation type.
+     */
+    public static boolean isMetaAnnotatedWith(
+            Class<? extends Annotation> annotationClass,
+            Class<? extends Annotation> metaAnnotationClass
+    ) {
+        return ClassMetadata.of(annotationClass).isMetaAnnotatedWith(metaAnnotationClass);
+    }
+
+    /**
+     * Returns the annotations declared on the given element whose types are directly or indirectly
+     * meta-annotated with the given meta-annotation type.
+     */
+    public static List<Annotation> findDeclaredAnnotationsMetaAnnotatedWith(
+            AnnotatedElement annotatedElement,
+            Class<? extends Annotation> metaAnnotationClass
+    ) {
+        Collection<Annotation> declaredAnnotations = (annotatedElement instanceof Class<?> clazz) ?
+                ClassMetadata.of(clazz).declaredAnnotations() :
+                Arrays.asList(annotatedElement.getDeclaredAnnotations());
+
+        return declaredAnnotations.stream()
+                .filter(ann -> isMetaAnnotatedWith(ann.annotationType(), metaAnnotationClass))
+                .toList();
+    }
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.reflection.internal;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableCollection;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Per-class reflection metadata, computed once per class and cached in a {@link ClassValue}.
+ * <p>
+ * Methods like {@link Class#getDeclaredMethods()} return a fresh copy of the array (and of each member) on
+ * every call, and annotation lookups on those copies cannot reuse each other's work. This class computes the
+ * member and annotation tables once. Because a {@link ClassValue} is used, the cached metadata does not keep
+ * the class (and its class loader) from being garbage collected.
+ * <p>
+ * Each table is computed on first use. So an annotation lookup only reflects on the annotations, not on the members,
+ * and does not fail if a member signature refers to a type that is missing from the class path.
+ * <p>
+ * For annotation types, the transitive closure of meta-annotation types is memoized as well, so checks for
+ * (for example) CDI stereotypes and qualifiers are cheap.
+ *
+ * @author Chris de Vreeze
+ */
+public final class ClassMetadata {
+
+    private static final ClassValue<ClassMetadata> CACHE = new ClassValue<>() {
+        @Override
+        protected ClassMetadata computeValue(Class<?> type) {
+            return new ClassMetadata(type);
+        }
+    };
+
+    private final Class<?> clazz;
+    private final Supplier<ImmutableList<Field>> fields;
+    private final Supplier<ImmutableList<Method>> methods;
+    private final Supplier<ImmutableList<Constructor<?>>> declaredConstructors;
+    private final Supplier<ImmutableMap<Class<? extends Annotation>, Annotation>> declaredAnnotations;
+    private final Supplier<ImmutableMap<Class<? extends Annotation>, Annotation>> annotations;
+
+    // Only non-empty for annotation types
+    private final Supplier<ImmutableSet<Class<? extends Annotation>>> metaAnnotationClosure;
+
+    private ClassMetadata(Class<?> clazz) {
+        this.clazz = clazz;
+        this.fields = Suppliers.memoize(() ->
+                Stream.of(Arrays.stream(clazz.getDeclaredFields()), Arrays.stream(clazz.getFields()))
+                        .flatMap(v -> v)
+                        .distinct()
+                        .collect(ImmutableList.toImmutableList()));
+        this.methods = Suppliers.memoize(() ->
+                Stream.of(Arrays.stream(clazz.getDeclaredMethods()), Arrays.stream(clazz.getMethods()))
+                        .flatMap(v -> v)
+                        .distinct()
+                        .collect(ImmutableList.toImmutableList()));
+        this.declaredConstructors = Suppliers.memoize(() -> ImmutableList.copyOf(clazz.getDeclaredConstructors()));
+        this.declaredAnnotations = Suppliers.memoize(() -> toAnnotationMap(clazz.getDeclaredAnnotations()));
+        this.annotations = Suppliers.memoize(() -> toAnnotationMap(clazz.getAnnotations()));
+        this.metaAnnotationClosure = Suppliers.memoize(() ->
+                clazz.isAnnotation() ? computeMetaAnnotationClosure() : ImmutableSet.of());
+    }
+
+    public static ClassMetadata of(Class<?> clazz) {
+        return CACHE.get(clazz);
+    }
+
+    public Class<?> type() {
+        return clazz;
+    }
+
+    /**
+     * Returns the declared fields, followed by the inherited public fields. Same as the combination of
+     * {@link Class#getDeclaredFields()} and {@link Class#getFields()}, without duplicates.
+     */
+    public ImmutableList<Field> fields() {
+        return fields.get();
+    }
+
+    /**
+     * Returns the declared methods, followed by the inherited public methods. Same as the combination of
+     * {@link Class#getDeclaredMethods()} and {@link Class#getMethods()}, without duplicates.
+     */
+    public ImmutableList<Method> methods() {
+        return methods.get();
+    }
+
+    public ImmutableList<Constructor<?>> declaredConstructors() {
+        return declaredConstructors.get();
+    }
+
+    public ImmutableCollection<Annotation> declaredAnnotations() {
+        return declaredAnnotations.get().values();
+    }
+
+    public ImmutableCollection<Annotation> annotations() {
+        return annotations.get().values();
+    }
+
+    public <T extends Annotation> Optional<T> findDeclaredAnnotation(Class<T> annotationClass) {
+        return Optional.ofNullable(declaredAnnotations.get().get(annotationClass)).map(annotationClass::cast);
+    }
+
+    public <T extends Annotation> Optional<T> findAnnotation(Class<T> annotationClass) {
+        return Optional.ofNullable(annotations.get().get(annotationClass)).map(annotationClass::cast);
+    }
+
+    /**
+     * Returns the transitive closure of meta-annotation types of this annotation type, excluding the
+     * annotation type itself (unless it is meta-annotated with itself, like {@link java.lang.annotation.Documented}).
+     * Returns an empty set if this class is not an annotation type.
+     */
+    public ImmutableSet<Class<? extends Annotation>> metaAnnotationClosure() {
+        return metaAnnotationClosure.get();
+    }
+
+    /**
+     * Returns true if this annotation type is directly or indirectly meta-annotated with the given annotation type.
+     */
+    public boolean isMetaAnnotatedWith(Class<? extends Annotation> metaAnnotationClass) {
+        return metaAnnotationClosure().contains(metaAnnotationClass);
+    }
+
+    private ImmutableSet<Class<? extends Annotation>> computeMetaAnnotationClosure() {
+        // Breadth-first, without recursing into other ClassMetadata closures, so cycles
+        // (such as Documented and Retention annotating themselves) are harmless
+        Set<Class<? extends Annotation>> visited = new LinkedHashSet<>();
+        Deque<Class<? extends Annotation>> queue = new ArrayDeque<>();
+        declaredAnnotations.get().keySet().forEach(queue::addLast);
+
+        while (!queue.isEmpty()) {
+            Class<? extends Annotation> annotationClass = queue.removeFirst();
+            if (visited.add(annotationClass)) {
+                of(annotationClass).declaredAnnotations.get().keySet().forEach(queue::addLast);
+            }
+        }
+        return ImmutableSet.copyOf(visited);
+    }
+
+    private static ImmutableMap<Class<? extends Annotation>, Annotation> toAnnotationMap(Annotation[] annotations) {
+        return Arrays.stream(annotations)
+                .collect(ImmutableMap.toImmutableMap(Annotation::annotationType, Function.identity()));
+    }
+}
@@ -17,15 +17,13 @@
 package eu.cdevreeze.openlibertychecks.reflection.internal;
 
 import com.google.common.base.Preconditions;
+import eu.cdevreeze.openlibertychecks.io.DirectoryCrawler;
 
-import java.io.IOException;
-import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
 /**
  * Class path scanning support.
@@ -44,16 +42,21 @@ public class ClassPathScanning {
      * Only ".class" files somewhere under the given directory are found.
      */
     public static List<Class<?>> findClasses(Path rootDir) {
+        return findClasses(rootDir, DirectoryCrawler.DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * Like {@link #findClasses(Path)}, but crawling the directory tree with the given parallelism.
+     */
+    public static List<Class<?>> findClasses(Path rootDir, int parallelism) {
         int maxDepth = 100;
-        try (Stream<Path> pathStream = Files.walk(rootDir, maxDepth)) {
-            return pathStream
-                    .filter(Files::isRegularFile)
-                    .filter(p -> p.getFileName().toString().endsWith(".class"))
-                    .flatMap(p -> findClass(p, rootDir).stream())
-                    .toList();
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
+        DirectoryCrawler crawler = new DirectoryCrawler(
+                DirectoryCrawler.Settings.forFileExtension(".class").withMaxDepth(maxDepth).withParallelism(parallelism)
+        );
+        return crawler.findFiles(rootDir)
+                .stream()
+                .flatMap(p -> findClass(p, rootDir).stream())
+                .toList();
     }
 
     private static Optional<Class<?>> findClass(Path classFile, Path rootDir) {
@@ -16,14 +16,21 @@
 
 package eu.cdevreeze.openlibertychecks.reflection.jakartaee10;
 
+import com.google.common.collect.ImmutableList;
+import eu.cdevreeze.openlibertychecks.classfile.AnnotatedElementDescriptor;
+import eu.cdevreeze.openlibertychecks.classfile.AnnotationDescriptor;
+import eu.cdevreeze.openlibertychecks.classfile.AnnotationIndex;
+import eu.cdevreeze.openlibertychecks.classfile.ClassDescriptor;
 import jakarta.annotation.Resource;
 import jakarta.annotation.Resources;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static eu.cdevreeze.openlibertychecks.reflection.internal.AnnotationSupport.findAnnotation;
+import static eu.cdevreeze.openlibertychecks.reflection.internal.AnnotationSupport.findDeclaredAnnotation;
 
 /**
  * Jakarta common annotation support (for annotations having retention "runtime").
@@ -66,4 +73,36 @@ public class CommonJakartaAnnotations {
     public static Optional<Resources> findResourcesAnnotation(Class<?> clazz) {
         return findAnnotation(clazz, Resources.class);
     }
+
+    // Class file based (no class loading)
+
+    public static boolean isResource(AnnotatedElementDescriptor annotatedElement) {
+        return findResourceAnnotation(annotatedElement).isPresent();
+    }
+
+    public static Optional<AnnotationDescriptor> findResourceAnnotation(AnnotatedElementDescriptor annotatedElement) {
+        return findDeclaredAnnotation(annotatedElement, Resource.class);
+    }
+
+    public static boolean hasResourcesAnnotation(ClassDescriptor clazz) {
+        return findResourcesAnnotation(clazz).isPresent();
+    }
+
+    public static Optional<AnnotationDescriptor> findResourcesAnnotation(ClassDescriptor clazz) {
+        return findDeclaredAnnotation(clazz, Resources.class);
+    }
+
+    // Annotation index based (no class loading)
+
+    /**
+     * Returns all Resource annotation occurrences in the index, including the ones bundled in Resources annotations.
+     */
+    public static ImmutableList<AnnotationIndex.Occurrence> findResourceAnnotationOccurrences(AnnotationIndex index) {
+        Stream<AnnotationIndex.Occurrence> bundledOccurrences = index.occurrences(Resources.class).stream()
+                .flatMap(occ -> occ.annotation().nestedAnnotations("value").stream()
+                        .map(ann -> new AnnotationIndex.Occurrence(occ.declaringClass(), occ.annotatedElement(), ann)));
+
+        return Stream.concat(index.occurrences(Resource.class).stream(), bundledOccurrences)
+                .collect(ImmutableList.toImmutableList());
+    }
 }
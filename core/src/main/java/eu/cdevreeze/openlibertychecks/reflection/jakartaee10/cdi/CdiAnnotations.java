@@ -0,0 +1,132 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.reflection.jakartaee10.cdi;
+
+import com.google.common.collect.ImmutableList;
+import eu.cdevreeze.openlibertychecks.classfile.AnnotationDescriptor;
+import eu.cdevreeze.openlibertychecks.classfile.AnnotationIndex;
+import eu.cdevreeze.openlibertychecks.classfile.MemberDescriptor;
+import jakarta.enterprise.inject.Stereotype;
+import jakarta.inject.Inject;
+import jakarta.inject.Qualifier;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Optional;
+
+import static eu.cdevreeze.openlibertychecks.reflection.internal.AnnotationSupport.*;
+
+/**
+ * CDI annotation support (for annotations having retention "runtime").
+ *
+ * @author Chris de Vreeze
+ */
+public class CdiAnnotations {
+
+    private CdiAnnotations() {
+    }
+
+    public static boolean hasInjectAnnotation(Constructor<?> constructor) {
+        return findInjectAnnotation(constructor).isPresent();
+    }
+
+    public static Optional<Inject> findInjectAnnotation(Constructor<?> constructor) {
+        return findDeclaredAnnotation(constructor, Inject.class);
+    }
+
+    public static boolean hasInjectAnnotation(Field field) {
+        return findInjectAnnotation(field).isPresent();
+    }
+
+    public static Optional<Inject> findInjectAnnotation(Field field) {
+        return findDeclaredAnnotation(field, Inject.class);
+    }
+
+    public static boolean hasInjectAnnotation(Method method) {
+        return findInjectAnnotation(method).isPresent();
+    }
+
+    public static Optional<Inject> findInjectAnnotation(Method method) {
+        return findDeclaredAnnotation(method, Inject.class);
+    }
+
+    // Stereotypes and qualifiers (using the memoized meta-annotation closures)
+
+    public static boolean isStereotype(Class<? extends Annotation> annotationClass) {
+        return findDeclaredAnnotation(annotationClass, Stereotype.class).isPresent();
+    }
+
+    public static boolean isQualifier(Class<? extends Annotation> annotationClass) {
+        return findDeclaredAnnotation(annotationClass, Qualifier.class).isPresent();
+    }
+
+    /**
+     * Returns the stereotype annotations declared on the given class, method or field.
+     */
+    public static List<Annotation> findStereotypes(AnnotatedElement annotatedElement) {
+        return findDeclaredAnnotationsMetaAnnotatedWith(annotatedElement, Stereotype.class)
+                .stream()
+                .filter(ann -> isStereotype(ann.annotationType()))
+                .toList();
+    }
+
+    /**
+     * Returns the qualifier annotations (including custom ones) declared on the given element.
+     */
+    public static List<Annotation> findQualifiers(AnnotatedElement annotatedElement) {
+        return findDeclaredAnnotationsMetaAnnotatedWith(annotatedElement, Qualifier.class)
+                .stream()
+                .filter(ann -> isQualifier(ann.annotationType()))
+                .toList();
+    }
+
+    /**
+     * Returns true if the given annotation (such as a scope annotation or {@link jakarta.enterprise.inject.Alternative})
+     * is declared on the given element, either directly or through a (possibly nested) stereotype.
+     */
+    public static boolean hasAnnotationDirectlyOrViaStereotype(
+            AnnotatedElement annotatedElement,
+            Class<? extends Annotation> annotationClass
+    ) {
+        return annotatedElement.getDeclaredAnnotation(annotationClass) != null ||
+                findStereotypes(annotatedElement).stream()
+                        .anyMatch(ann -> isMetaAnnotatedWith(ann.annotationType(), annotationClass));
+    }
+
+    // Class file based (no class loading)
+
+    public static boolean hasInjectAnnotation(MemberDescriptor member) {
+        return findInjectAnnotation(member).isPresent();
+    }
+
+    public static Optional<AnnotationDescriptor> findInjectAnnotation(MemberDescriptor member) {
+        return findDeclaredAnnotation(member, Inject.class);
+    }
+
+    // Annotation index based (no class loading)
+
+    /**
+     * Returns the Inject annotation occurrences in the index, on fields, methods and constructors.
+     */
+    public static ImmutableList<AnnotationIndex.Occurrence> findInjectAnnotationOccurrences(AnnotationIndex index) {
+        return index.occurrences(Inject.class);
+    }
+}
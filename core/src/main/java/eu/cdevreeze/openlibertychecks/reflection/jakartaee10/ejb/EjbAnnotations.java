@@ -0,0 +1,169 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.reflection.jakartaee10.ejb;
+
+import com.google.common.collect.ImmutableList;
+import eu.cdevreeze.openlibertychecks.classfile.AnnotationDescriptor;
+import eu.cdevreeze.openlibertychecks.classfile.AnnotationIndex;
+import eu.cdevreeze.openlibertychecks.classfile.ClassDescriptor;
+import eu.cdevreeze.openlibertychecks.classfile.MethodDescriptor;
+import jakarta.ejb.*;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static eu.cdevreeze.openlibertychecks.reflection.internal.AnnotationSupport.findDeclaredAnnotation;
+
+/**
+ * EJB annotation support (for annotations having retention "runtime").
+ *
+ * @author Chris de Vreeze
+ */
+public class EjbAnnotations {
+
+    private EjbAnnotations() {
+    }
+
+    public static boolean isStatelessSessionBean(Class<?> clazz) {
+        return findStatelessAnnotation(clazz).isPresent();
+    }
+
+    public static Optional<Stateless> findStatelessAnnotation(Class<?> clazz) {
+        return findDeclaredAnnotation(clazz, Stateless.class);
+    }
+
+    public static boolean isStatefulSessionBean(Class<?> clazz) {
+        return findStatefulAnnotation(clazz).isPresent();
+    }
+
+    public static Optional<Stateful> findStatefulAnnotation(Class<?> clazz) {
+        return findDeclaredAnnotation(clazz, Stateful.class);
+    }
+
+    public static boolean isSingletonSessionBean(Class<?> clazz) {
+        return findSingletonAnnotation(clazz).isPresent();
+    }
+
+    public static Optional<Singleton> findSingletonAnnotation(Class<?> clazz) {
+        return findDeclaredAnnotation(clazz, Singleton.class);
+    }
+
+    public static boolean isMessageDrivenBean(Class<?> clazz) {
+        return findMessageDrivenAnnotation(clazz).isPresent();
+    }
+
+    public static Optional<MessageDriven> findMessageDrivenAnnotation(Class<?> clazz) {
+        return findDeclaredAnnotation(clazz, MessageDriven.class);
+    }
+
+    public static boolean hasSchedulesAnnotation(Method method) {
+        return findSchedulesAnnotation(method).isPresent();
+    }
+
+    public static Optional<Schedules> findSchedulesAnnotation(Method method) {
+        return findDeclaredAnnotation(method, Schedules.class);
+    }
+
+    public static boolean hasScheduleAnnotation(Method method) {
+        return findScheduleAnnotation(method).isPresent();
+    }
+
+    public static Optional<Schedule> findScheduleAnnotation(Method method) {
+        return findDeclaredAnnotation(method, Schedule.class);
+    }
+
+    // Class file based (no class loading)
+
+    public static boolean isStatelessSessionBean(ClassDescriptor clazz) {
+        return findStatelessAnnotation(clazz).isPresent();
+    }
+
+    public static Optional<AnnotationDescriptor> findStatelessAnnotation(ClassDescriptor clazz) {
+        return findDeclaredAnnotation(clazz, Stateless.class);
+    }
+
+    public static boolean isStatefulSessionBean(ClassDescriptor clazz) {
+        return findStatefulAnnotation(clazz).isPresent();
+    }
+
+    public static Optional<AnnotationDescriptor> findStatefulAnnotation(ClassDescriptor clazz) {
+        return findDeclaredAnnotation(clazz, Stateful.class);
+    }
+
+    public static boolean isSingletonSessionBean(ClassDescriptor clazz) {
+        return findSingletonAnnotation(clazz).isPresent();
+    }
+
+    public static Optional<AnnotationDescriptor> findSingletonAnnotation(ClassDescriptor clazz) {
+        return findDeclaredAnnotation(clazz, Singleton.class);
+    }
+
+    public static boolean isMessageDrivenBean(ClassDescriptor clazz) {
+        return findMessageDrivenAnnotation(clazz).isPresent();
+    }
+
+    public static Optional<AnnotationDescriptor> findMessageDrivenAnnotation(ClassDescriptor clazz) {
+        return findDeclaredAnnotation(clazz, MessageDriven.class);
+    }
+
+    public static boolean hasSchedulesAnnotation(MethodDescriptor method) {
+        return findSchedulesAnnotation(method).isPresent();
+    }
+
+    public static Optional<AnnotationDescriptor> findSchedulesAnnotation(MethodDescriptor method) {
+        return findDeclaredAnnotation(method, Schedules.class);
+    }
+
+    public static boolean hasScheduleAnnotation(MethodDescriptor method) {
+        return findScheduleAnnotation(method).isPresent();
+    }
+
+    public static Optional<AnnotationDescriptor> findScheduleAnnotation(MethodDescriptor method) {
+        return findDeclaredAnnotation(method, Schedule.class);
+    }
+
+    // Annotation index based (no class loading)
+
+    public static ImmutableList<ClassDescriptor> findStatelessSessionBeans(AnnotationIndex index) {
+        return index.annotatedClasses(Stateless.class.getName());
+    }
+
+    public static ImmutableList<ClassDescriptor> findStatefulSessionBeans(AnnotationIndex index) {
+        return index.annotatedClasses(Stateful.class.getName());
+    }
+
+    public static ImmutableList<ClassDescriptor> findSingletonSessionBeans(AnnotationIndex index) {
+        return index.annotatedClasses(Singleton.class.getName());
+    }
+
+    public static ImmutableList<ClassDescriptor> findMessageDrivenBeans(AnnotationIndex index) {
+        return index.annotatedClasses(MessageDriven.class.getName());
+    }
+
+    /**
+     * Returns all Schedule annotation occurrences in the index, including the ones bundled in Schedules annotations.
+     */
+    public static ImmutableList<AnnotationIndex.Occurrence> findScheduleAnnotationOccurrences(AnnotationIndex index) {
+        Stream<AnnotationIndex.Occurrence> bundledOccurrences = index.occurrences(Schedules.class).stream()
+                .flatMap(occ -> occ.annotation().nestedAnnotations("value").stream()
+                        .map(ann -> new AnnotationIndex.Occurrence(occ.declaringClass(), occ.annotatedElement(), ann)));
+
+        return Stream.concat(index.occurrences(Schedule.class).stream(), bundledOccurrences)
+                .collect(ImmutableList.toImmutableList());
+    }
+}
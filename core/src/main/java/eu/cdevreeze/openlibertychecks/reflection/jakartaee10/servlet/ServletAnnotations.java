@@ -16,6 +16,10 @@
 
 package eu.cdevreeze.openlibertychecks.reflection.jakartaee10.servlet;
 
+import com.google.common.collect.ImmutableList;
+import eu.cdevreeze.openlibertychecks.classfile.AnnotationDescriptor;
+import eu.cdevreeze.openlibertychecks.classfile.AnnotationIndex;
+import eu.cdevreeze.openlibertychecks.classfile.ClassDescriptor;
 import jakarta.servlet.ServletContextAttributeListener;
 import jakarta.servlet.ServletContextListener;
 import jakarta.servlet.ServletRequestAttributeListener;
@@ -84,6 +88,40 @@ public class ServletAnnotations {
         return findAnnotation(clazz, ServletSecurity.class); // can be inherited
     }
 
+    // Class file based (no class loading)
+
+    public static boolean isWebServlet(ClassDescriptor clazz) {
+        return findWebServletAnnotation(clazz).isPresent();
+    }
+
+    public static Optional<AnnotationDescriptor> findWebServletAnnotation(ClassDescriptor clazz) {
+        return findDeclaredAnnotation(clazz, WebServlet.class);
+    }
+
+    public static boolean isWebFilter(ClassDescriptor clazz) {
+        return findWebFilterAnnotation(clazz).isPresent();
+    }
+
+    public static Optional<AnnotationDescriptor> findWebFilterAnnotation(ClassDescriptor clazz) {
+        return findDeclaredAnnotation(clazz, WebFilter.class);
+    }
+
+    public static boolean isWebListener(ClassDescriptor clazz) {
+        return findWebListenerAnnotation(clazz).isPresent();
+    }
+
+    public static Optional<AnnotationDescriptor> findWebListenerAnnotation(ClassDescriptor clazz) {
+        return findDeclaredAnnotation(clazz, WebListener.class);
+    }
+
+    /**
+     * Returns the ServletSecurity annotation declared on the class itself. Note that this annotation
+     * can be inherited, which is not taken into account here, since the superclasses are not resolved.
+     */
+    public static Optional<AnnotationDescriptor> findDeclaredServletSecurityAnnotation(ClassDescriptor clazz) {
+        return findDeclaredAnnotation(clazz, ServletSecurity.class);
+    }
+
     private static boolean canBeWebListener(Class<?> clazz) {
         return Stream.of(
                         ServletContextListener.class,
@@ -96,4 +134,18 @@ public class ServletAnnotations {
                 )
                 .anyMatch(c -> c.isAssignableFrom(clazz));
     }
+
+    // Annotation index based (no class loading)
+
+    public static ImmutableList<ClassDescriptor> findWebServlets(AnnotationIndex index) {
+        return index.annotatedClasses(WebServlet.class.getName());
+    }
+
+    public static ImmutableList<ClassDescriptor> findWebFilters(AnnotationIndex index) {
+        return index.annotatedClasses(WebFilter.class.getName());
+    }
+
+    public static ImmutableList<ClassDescriptor> findWebListeners(AnnotationIndex index) {
+        return index.annotatedClasses(WebListener.class.getName());
+    }
 }
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.rules;
+
+import java.util.Objects;
+
+/**
+ * Key of an artifact, which is an intermediate result shared by rules, such as the parsed XML documents,
+ * the merged server configurations or the annotation index of the scanned classes. Keys are equal if their names
+ * are equal. The type parameter is the artifact type, which is not checked at runtime.
+ *
+ * @author Chris de Vreeze
+ */
+public record ArtifactKey<T>(String name) {
+
+    public ArtifactKey {
+        Objects.requireNonNull(name);
+    }
+
+    public static <T> ArtifactKey<T> of(String name) {
+        return new ArtifactKey<>(name);
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.rules;
+
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Provider of an artifact, possibly computed from other artifacts.
+ *
+ * @author Chris de Vreeze
+ */
+public interface ArtifactProvider<T> {
+
+    ArtifactKey<T> output();
+
+    ImmutableSet<ArtifactKey<?>> inputs();
+
+    Cost cost();
+
+    T produce(Artifacts artifacts);
+
+    static <T> ArtifactProvider<T> of(
+            ArtifactKey<T> output,
+            Set<ArtifactKey<?>> inputs,
+            Cost cost,
+            Function<Artifacts, T> producer
+    ) {
+        return new SimpleArtifactProvider<>(output, ImmutableSet.copyOf(inputs), cost, producer);
+    }
+}
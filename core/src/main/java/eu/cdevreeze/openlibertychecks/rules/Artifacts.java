@@ -0,0 +1,32 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.rules;
+
+/**
+ * Access to the artifacts declared as inputs of a rule or artifact provider. Each artifact is computed at most once
+ * per run, on first access.
+ *
+ * @author Chris de Vreeze
+ */
+public interface Artifacts {
+
+    /**
+     * Returns the artifact with the given key, computing it if needed. Throws an exception if the key has not been
+     * declared as an input.
+     */
+    <T> T get(ArtifactKey<T> key);
+}
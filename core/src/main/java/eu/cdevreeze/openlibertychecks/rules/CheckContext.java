@@ -0,0 +1,67 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.rules;
+
+import eu.cdevreeze.openlibertychecks.classfile.AnnotationIndex;
+import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Context passed to a check, giving access to the class index (if any) and to the finding sink.
+ * Each check gets its own context, so that findings are reported with the correct check ID.
+ *
+ * @author Chris de Vreeze
+ */
+public final class CheckContext {
+
+    private final String checkId;
+    private final Optional<AnnotationIndex> annotationIndexOption;
+    private final FindingSink findingSink;
+
+    public CheckContext(String checkId, Optional<AnnotationIndex> annotationIndexOption, FindingSink findingSink) {
+        this.checkId = Objects.requireNonNull(checkId);
+        this.annotationIndexOption = Objects.requireNonNull(annotationIndexOption);
+        this.findingSink = Objects.requireNonNull(findingSink);
+    }
+
+    public String checkId() {
+        return checkId;
+    }
+
+    /**
+     * Returns the annotation index of the scanned classes, if class scanning is part of the run.
+     */
+    public Optional<AnnotationIndex> annotationIndexOption() {
+        return annotationIndexOption;
+    }
+
+    /**
+     * Reports a finding about the document containing the given element.
+     */
+    public void report(Severity severity, ElementTree.Element element, String message) {
+        findingSink.report(new Finding(checkId, severity, element.docUriOption(), message));
+    }
+
+    /**
+     * Reports a finding that is not about a particular document.
+     */
+    public void report(Severity severity, String message) {
+        findingSink.report(new Finding(checkId, severity, Optional.empty(), message));
+    }
+}
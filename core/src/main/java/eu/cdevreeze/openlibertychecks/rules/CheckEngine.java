@@ -0,0 +1,177 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.rules;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import eu.cdevreeze.openlibertychecks.classfile.AnnotationIndex;
+import eu.cdevreeze.openlibertychecks.internal.ForkJoinSupport;
+import eu.cdevreeze.openlibertychecks.io.DirectoryCrawler;
+import eu.cdevreeze.openlibertychecks.xml.XmlDocumentRepository;
+import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
+
+import javax.xml.namespace.QName;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Engine running a collection of checks. The config checks are fused into one visitor: each document is traversed
+ * only once, and each element is handed to the checks registered for its element name (a hash lookup), no matter
+ * how many checks there are. Documents, and class index checks, are processed in parallel on a {@link ForkJoinPool},
+ * but within one document the config checks run sequentially, in that single traversal. So the parallelism is bounded
+ * by the number of documents (and class index checks), and a single large document is checked by one thread.
+ * <p>
+ * Unless a pool is passed, the shared pool for the given parallelism is used (see
+ * {@link ForkJoinSupport#sharedPool(int)}). If the engine runs inside a task of its own pool, such as a rule run by
+ * a {@link RuleScheduler} using the same pool, the work is not submitted to the pool again, but runs in that task.
+ * <p>
+ * A check throwing an exception does not stop the run. Instead, the exception is reported as an error finding.
+ * <p>
+ * This class is immutable and therefore thread-safe, provided that the checks are thread-safe.
+ *
+ * @author Chris de Vreeze
+ */
+public final class CheckEngine {
+
+    private final ImmutableList<ConfigCheck<?>> configChecks;
+    private final ImmutableList<ClassIndexCheck> classIndexChecks;
+    private final ImmutableListMultimap<QName, ConfigCheck<?>> configChecksByElementName;
+    private final ForkJoinPool pool;
+
+    public CheckEngine(
+            List<? extends ConfigCheck<?>> configChecks,
+            List<? extends ClassIndexCheck> classIndexChecks,
+            ForkJoinPool pool
+    ) {
+        this.configChecks = ImmutableList.copyOf(configChecks);
+        this.classIndexChecks = ImmutableList.copyOf(classIndexChecks);
+        this.configChecksByElementName = this.configChecks.stream()
+                .collect(ImmutableListMultimap.toImmutableListMultimap(ConfigCheck::elementName, c -> c));
+        this.pool = Objects.requireNonNull(pool);
+
+        long checkIdCount = Stream.concat(
+                this.configChecks.stream().map(ConfigCheck::id),
+                this.classIndexChecks.stream().map(ClassIndexCheck::id)
+        ).distinct().count();
+        Preconditions.checkArgument(
+                checkIdCount == this.configChecks.size() + this.classIndexChecks.size(),
+                "Check IDs must be unique"
+        );
+    }
+
+    public CheckEngine(
+            List<? extends ConfigCheck<?>> configChecks,
+            List<? extends ClassIndexCheck> classIndexChecks,
+            int parallelism
+    ) {
+        this(configChecks, classIndexChecks, ForkJoinSupport.sharedPool(parallelism));
+    }
+
+    public CheckEngine(List<? extends ConfigCheck<?>> configChecks, List<? extends ClassIndexCheck> classIndexChecks) {
+        this(configChecks, classIndexChecks, DirectoryCrawler.DEFAULT_PARALLELISM);
+    }
+
+    public ImmutableList<ConfigCheck<?>> configChecks() {
+        return configChecks;
+    }
+
+    public ImmutableList<ClassIndexCheck> classIndexChecks() {
+        return classIndexChecks;
+    }
+
+    /**
+     * Runs all checks against the documents of the given repository, returning the findings.
+     */
+    public ImmutableList<Finding> run(XmlDocumentRepository repository, Optional<AnnotationIndex> annotationIndexOption) {
+        return run(repository.documentElements(), annotationIndexOption);
+    }
+
+    /**
+     * Runs all checks against the given document elements (or other element trees, such as a merged
+     * server configuration), returning the findings.
+     */
+    public ImmutableList<Finding> run(
+            List<ElementTree.Element> documentElements,
+            Optional<AnnotationIndex> annotationIndexOption
+    ) {
+        FindingSink findingSink = new FindingSink();
+        run(documentElements, annotationIndexOption, findingSink);
+        return findingSink.findings();
+    }
+
+    /**
+     * Runs all checks against the given document elements, reporting the findings to the given sink.
+     * The class index checks only run if an annotation index is given.
+     */
+    public void run(
+            List<ElementTree.Element> documentElements,
+            Optional<AnnotationIndex> annotationIndexOption,
+            FindingSink findingSink
+    ) {
+        Map<String, CheckContext> contexts = Stream.concat(
+                        configChecks.stream().map(ConfigCheck::id),
+                        classIndexChecks.stream().map(ClassIndexCheck::id)
+                )
+                .collect(ImmutableMap.toImmutableMap(
+                        Function.identity(),
+                        id -> new CheckContext(id, annotationIndexOption, findingSink)
+                ));
+
+        List<Runnable> tasks = Stream.concat(
+                documentElements.stream().map(doc -> (Runnable) () -> checkDocument(doc, contexts)),
+                annotationIndexOption.stream().flatMap(index -> classIndexChecks.stream()
+                        .map(check -> (Runnable) () -> runClassIndexCheck(check, index, contexts.get(check.id()))))
+        ).toList();
+
+        ForkJoinSupport.run(pool, () -> tasks.parallelStream().forEach(Runnable::run));
+    }
+
+    private void checkDocument(ElementTree.Element documentElement, Map<String, CheckContext> contexts) {
+        if (configChecks.isEmpty()) {
+            return;
+        }
+        // One traversal, in which each element only meets the checks interested in it
+        documentElement.descendantElementOrSelfStream().forEach(element -> {
+            for (ConfigCheck<?> check : configChecksByElementName.get(element.elementName())) {
+                runConfigCheck(check, element, contexts.get(check.id()));
+            }
+        });
+    }
+
+    private static <T> void runConfigCheck(ConfigCheck<T> check, ElementTree.Element element, CheckContext context) {
+        try {
+            check.check(check.wrap(element), context);
+        } catch (RuntimeException e) {
+            context.report(Severity.ERROR, element, "Check failed with exception: " + e);
+        }
+    }
+
+    private static void runClassIndexCheck(ClassIndexCheck check, AnnotationIndex index, CheckContext context) {
+        try {
+            check.check(index, context);
+        } catch (RuntimeException e) {
+            context.report(Severity.ERROR, "Check failed with exception: " + e);
+        }
+    }
+}
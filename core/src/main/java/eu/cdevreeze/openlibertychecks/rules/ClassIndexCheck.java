@@ -0,0 +1,39 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.rules;
+
+import eu.cdevreeze.openlibertychecks.classfile.AnnotationIndex;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Check of the scanned classes, run once per run (if class scanning is part of the run).
+ * <p>
+ * Implementations must be thread-safe, since checks run concurrently.
+ *
+ * @author Chris de Vreeze
+ */
+public interface ClassIndexCheck {
+
+    String id();
+
+    void check(AnnotationIndex annotationIndex, CheckContext context);
+
+    static ClassIndexCheck of(String id, BiConsumer<AnnotationIndex, CheckContext> check) {
+        return new SimpleClassIndexCheck(id, check);
+    }
+}
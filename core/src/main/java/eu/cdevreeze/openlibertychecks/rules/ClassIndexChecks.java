@@ -0,0 +1,70 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.rules;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import eu.cdevreeze.openlibertychecks.classfile.ClassDescriptor;
+import jakarta.ejb.MessageDriven;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Stateful;
+import jakarta.ejb.Stateless;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Standard checks of the scanned classes, using the annotation index (so no class is loaded).
+ *
+ * @author Chris de Vreeze
+ */
+public class ClassIndexChecks {
+
+    private ClassIndexChecks() {
+    }
+
+    private static final List<String> EJB_COMPONENT_ANNOTATION_NAMES = List.of(
+            Stateless.class.getName(),
+            Stateful.class.getName(),
+            Singleton.class.getName(),
+            MessageDriven.class.getName()
+    );
+
+    public static final ClassIndexCheck EJB_COMPONENT_ANNOTATIONS = ClassIndexCheck.of(
+            "classes.ejbComponentAnnotations",
+            (annotationIndex, context) -> {
+                ImmutableListMultimap<String, String> annotationsByClassName = EJB_COMPONENT_ANNOTATION_NAMES.stream()
+                        .flatMap(annotationName -> annotationIndex.annotatedClasses(annotationName).stream()
+                                .map(ClassDescriptor::className)
+                                .map(className -> Map.entry(className, annotationName)))
+                        .collect(ImmutableListMultimap.toImmutableListMultimap(Map.Entry::getKey, Map.Entry::getValue));
+
+                annotationsByClassName.asMap().forEach((className, annotationNames) -> {
+                    if (annotationNames.size() > 1) {
+                        context.report(
+                                Severity.ERROR,
+                                String.format("Class %s has conflicting EJB annotations %s", className, annotationNames)
+                        );
+                    }
+                });
+            }
+    );
+
+    public static ImmutableList<ClassIndexCheck> all() {
+        return ImmutableList.of(EJB_COMPONENT_ANNOTATIONS);
+    }
+}
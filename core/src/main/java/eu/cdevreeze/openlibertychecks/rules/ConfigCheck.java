@@ -0,0 +1,79 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.rules;
+
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.ServerXmlContent;
+import eu.cdevreeze.openlibertychecks.xml.jakartaee10.JakartaEEXmlContent;
+import eu.cdevreeze.openlibertychecks.xml.jakartaee10.Names;
+import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
+
+import javax.xml.namespace.QName;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Check of configuration file content, such as the "dataSource" elements in server.xml files, or the "resource-ref"
+ * elements in web.xml files. A check declares the name of the elements it is interested in, and how to wrap
+ * them, so that the {@link CheckEngine} can run all checks in one pass over each document.
+ * <p>
+ * Implementations must be thread-safe, since checks run concurrently on different documents.
+ *
+ * @author Chris de Vreeze
+ */
+public interface ConfigCheck<T> {
+
+    /**
+     * Returns the unique ID of the check, which is also the check ID of its findings.
+     */
+    String id();
+
+    /**
+     * Returns the name of the elements to check.
+     */
+    QName elementName();
+
+    /**
+     * Wraps an element having name {@link #elementName()}, typically by calling a wrapper class constructor.
+     */
+    T wrap(ElementTree.Element element);
+
+    void check(T content, CheckContext context);
+
+    /**
+     * Returns a check of the server.xml elements with the given (namespace-less) name.
+     */
+    static <T extends ServerXmlContent> ConfigCheck<T> forServerXml(
+            String id,
+            String elementName,
+            Function<ElementTree.Element, T> wrapper,
+            BiConsumer<T, CheckContext> check
+    ) {
+        return new SimpleConfigCheck<>(id, new QName(elementName), wrapper, check);
+    }
+
+    /**
+     * Returns a check of the Jakarta EE XML elements (in the Jakarta EE namespace) with the given local name.
+     */
+    static <T extends JakartaEEXmlContent> ConfigCheck<T> forJakartaEEXml(
+            String id,
+            String elementLocalName,
+            Function<ElementTree.Element, T> wrapper,
+            BiConsumer<T, CheckContext> check
+    ) {
+        return new SimpleConfigCheck<>(id, new QName(Names.JAKARTAEE_NS, elementLocalName), wrapper, check);
+    }
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.rules;
+
+/**
+ * Rough cost of running a rule or computing an artifact, used for running cheap rules first.
+ * For example, checking attributes of a parsed server.xml file is cheap, resolving and merging includes is moderate,
+ * and scanning class files is expensive.
+ *
+ * @author Chris de Vreeze
+ */
+public enum Cost {CHEAP, MODERATE, EXPENSIVE}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.rules;
+
+import java.net.URI;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Finding reported by a check. The document URI is absent for findings that are not about a particular document,
+ * or for documents without URI. For a merged server configuration it is the URI of the root server.xml file.
+ *
+ * @author Chris de Vreeze
+ */
+public record Finding(String checkId, Severity severity, Optional<URI> documentUriOption, String message) {
+
+    /**
+     * Ordering by document URI (findings without document first), check ID and message, so that reports do not
+     * depend on the order in which parallel checks happen to finish.
+     */
+    public static final Comparator<Finding> ORDERING = Comparator
+            .comparing((Finding f) -> f.documentUriOption().map(URI::toString).orElse(""))
+            .thenComparing(Finding::checkId)
+            .thenComparing(Finding::message);
+
+    public Finding {
+        Objects.requireNonNull(checkId);
+        Objects.requireNonNull(severity);
+        Objects.requireNonNull(documentUriOption);
+        Objects.requireNonNull(message);
+    }
+}
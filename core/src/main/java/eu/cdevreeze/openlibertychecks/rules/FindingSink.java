@@ -0,0 +1,53 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.rules;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Thread-safe collector of findings, to which checks running in parallel report their findings.
+ *
+ * @author Chris de Vreeze
+ */
+public class FindingSink {
+
+    private final ConcurrentLinkedQueue<Finding> findings = new ConcurrentLinkedQueue<>();
+    private volatile boolean hasErrors;
+
+    public void report(Finding finding) {
+        findings.add(finding);
+        if (finding.severity() == Severity.ERROR) {
+            hasErrors = true;
+        }
+    }
+
+    /**
+     * Returns true if an error finding has been reported, which is cheap enough to call before each check.
+     */
+    public boolean hasErrors() {
+        return hasErrors;
+    }
+
+    /**
+     * Returns the findings reported so far, sorted by {@link Finding#ORDERING}.
+     */
+    public ImmutableList<Finding> findings() {
+        return findings.stream().sorted(Finding.ORDERING).collect(ImmutableList.toImmutableList());
+    }
+}
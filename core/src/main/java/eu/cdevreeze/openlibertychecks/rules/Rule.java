@@ -0,0 +1,45 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.rules;
+
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Unit of work scheduled by the {@link RuleScheduler}, declaring the artifacts it needs and its own cost.
+ * A rule typically runs a {@link CheckEngine} against some artifact, or checks an artifact directly.
+ * <p>
+ * Implementations must be thread-safe, since rules run concurrently.
+ *
+ * @author Chris de Vreeze
+ */
+public interface Rule {
+
+    String id();
+
+    ImmutableSet<ArtifactKey<?>> inputs();
+
+    Cost cost();
+
+    void run(Artifacts artifacts, FindingSink findingSink);
+
+    static Rule of(String id, Set<ArtifactKey<?>> inputs, Cost cost, BiConsumer<Artifacts, FindingSink> runner) {
+        return new SimpleRule(id, ImmutableSet.copyOf(inputs), cost, runner);
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.rules;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import eu.cdevreeze.openlibertychecks.internal.ForkJoinSupport;
+import eu.cdevreeze.openlibertychecks.io.DirectoryCrawler;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Scheduler of rules, which declare the artifacts they need. The artifact providers form a DAG, which is validated
+ * up front (each input must have a provider, and there must be no cycles).
+ * <p>
+ * The effective cost of a rule is the maximum of its own cost and the costs of all artifacts it (transitively)
+ * depends on. Rules are run in waves of increasing effective cost, so cheap rules run first, and within a wave the
+ * rules run in parallel. Each artifact is computed at most once per run, and only if a rule that runs needs it.
+ * <p>
+ * In fail-fast mode, no rule is started once an error has been reported, so a broken configuration can be reported
+ * without waiting for (or even starting) the expensive rules, such as the ones scanning class files. Note that
+ * fail-fast mode does not cancel anything: rules that are already running when the error is reported (necessarily
+ * in the same wave) are neither interrupted nor abandoned, but run to completion, and their findings are kept.
+ * So the run ends once the rules of the current wave that had already started are done.
+ * <p>
+ * This class is immutable and therefore thread-safe, provided that the rules and artifact providers are thread-safe.
+ *
+ * @author Chris de Vreeze
+ */
+public final class RuleScheduler {
+
+    /**
+     * The result of a run: the findings, the IDs of the rules that ran, the IDs of the rules that were skipped
+     * (in fail-fast mode), and the names of the artifacts that were computed.
+     */
+    public record Result(
+            ImmutableList<Finding> findings,
+            ImmutableList<String> executedRuleIds,
+            ImmutableList<String> skippedRuleIds,
+            ImmutableSet<String> computedArtifactNames
+    ) {
+
+        public Result {
+            Objects.requireNonNull(findings);
+            Objects.requireNonNull(executedRuleIds);
+            Objects.requireNonNull(skippedRuleIds);
+            Objects.requireNonNull(computedArtifactNames);
+        }
+
+        public boolean hasErrors() {
+            return findings.stream().anyMatch(f -> f.severity() == Severity.ERROR);
+        }
+    }
+
+    private final ImmutableMap<ArtifactKey<?>, ArtifactProvider<?>> providers;
+    private final ImmutableList<Rule> rules;
+    private final ImmutableMap<String, Cost> effectiveRuleCosts;
+    private final ForkJoinPool pool;
+
+    public RuleScheduler(
+            List<? extends ArtifactProvider<?>> providers,
+            List<? extends Rule> rules,
+            ForkJoinPool pool
+    ) {
+        this.providers = providers.stream()
+                .collect(ImmutableMap.toImmutableMap(ArtifactProvider::output, Function.identity()));
+        this.pool = Objects.requireNonNull(pool);
+
+        Preconditions.checkArgument(
+                rules.stream().map(Rule::id).distinct().count() == rules.size(),
+                "Rule IDs must be unique"
+        );
+
+        Map<ArtifactKey<?>, Cost> effectiveArtifactCosts = new HashMap<>();
+        for (ArtifactKey<?> key : this.providers.keySet()) {
+            computeEffectiveCost(key, effectiveArtifactCosts, new LinkedHashSet<>());
+        }
+
+        this.effectiveRuleCosts = rules.stream().collect(ImmutableMap.toImmutableMap(
+                Rule::id,
+                rule -> rule.inputs().stream()
+                        .map(key -> {
+                            Preconditions.checkArgument(
+                                    this.providers.containsKey(key),
+                                    "No provider of artifact '%s' needed by rule '%s'", key.name(), rule.id()
+                            );
+                            return effectiveArtifactCosts.get(key);
+                        })
+                        .reduce(rule.cost(), RuleScheduler::max)
+        ));
+
+        this.rules = rules.stream()
+                .sorted(Comparator.comparing((Rule r) -> effectiveRuleCosts.get(r.id())).thenComparing(Rule::id))
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    public RuleScheduler(
+            List<? extends ArtifactProvider<?>> providers,
+            List<? extends Rule> rules,
+            int parallelism
+    ) {
+        this(providers, rules, ForkJoinSupport.sharedPool(parallelism));
+    }
+
+    public RuleScheduler(List<? extends ArtifactProvider<?>> providers, List<? extends Rule> rules) {
+        this(providers, rules, DirectoryCrawler.DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * Returns the rules in the order in which they are scheduled, that is, by increasing effective cost.
+     */
+    public ImmutableList<Rule> rules() {
+        return rules;
+    }
+
+    public Cost effectiveCost(Rule rule) {
+        return Objects.requireNonNull(effectiveRuleCosts.get(rule.id()));
+    }
+
+    /**
+     * Runs the rules, wave by wave. In fail-fast mode, the rules that have not yet started when an error is reported
+     * are skipped, but rules that are already running are not cancelled.
+     */
+    public Result run(boolean failFast) {
+        FindingSink findingSink = new FindingSink();
+        ArtifactStore artifactStore = new ArtifactStore();
+        Set<String> executedRuleIds = ConcurrentHashMap.newKeySet();
+
+        for (Cost cost : Cost.values()) {
+            List<Rule> wave = rules.stream().filter(r -> effectiveRuleCosts.get(r.id()) == cost).toList();
+
+            ForkJoinSupport.run(pool, () -> wave.parallelStream().forEach(rule -> {
+                if (failFast && findingSink.hasErrors()) {
+                    return;
+                }
+                runRule(rule, artifactStore, findingSink);
+                executedRuleIds.add(rule.id());
+            }));
+        }
+
+        return new Result(
+                findingSink.findings(),
+                rules.stream().map(Rule::id).filter(executedRuleIds::contains).collect(ImmutableList.toImmutableList()),
+                rules.stream().map(Rule::id).filter(id -> !executedRuleIds.contains(id)).collect(ImmutableList.toImmutableList()),
+                artifactStore.computedArtifactNames()
+        );
+    }
+
+    private static void runRule(Rule rule, ArtifactStore artifactStore, FindingSink findingSink) {
+        try {
+            rule.run(artifactStore.view(rule.inputs()), findingSink);
+        } catch (RuntimeException e) {
+            findingSink.report(new Finding(
+                    rule.id(),
+                    Severity.ERROR,
+                    Optional.empty(),
+                    "Rule failed with exception: " + e
+            ));
+        }
+    }
+
+    private Cost computeEffectiveCost(
+            ArtifactKey<?> key,
+            Map<ArtifactKey<?>, Cost> effectiveCosts,
+            LinkedHashSet<ArtifactKey<?>> keysInProgress
+    ) {
+        Cost knownCost = effectiveCosts.get(key);
+        if (knownCost != null) {
+            return knownCost;
+        }
+        ArtifactProvider<?> provider = providers.get(key);
+        Preconditions.checkArgument(provider != null, "No provider of artifact '%s'", key.name());
+        Preconditions.checkArgument(
+                keysInProgress.add(key),
+                "Artifact dependency cycle: %s", keysInProgress.stream().map(ArtifactKey::name).toList()
+        );
+
+        Cost cost = provider.cost();
+        for (ArtifactKey<?> input : provider.inputs()) {
+            cost = max(cost, computeEffectiveCost(input, effectiveCosts, keysInProgress));
+        }
+        keysInProgress.remove(key);
+        effectiveCosts.put(key, cost);
+        return cost;
+    }
+
+    private static Cost max(Cost cost1, Cost cost2) {
+        return (cost1.compareTo(cost2) >= 0) ? cost1 : cost2;
+    }
+
+    private record Outcome(Object value, RuntimeException failure) {
+    }
+
+    /**
+     * Per-run store of artifacts, each one computed at most once, even if requested concurrently.
+     */
+    private final class ArtifactStore {
+
+        private final ConcurrentHashMap<ArtifactKey<?>, Supplier<Outcome>> outcomes = new ConcurrentHashMap<>();
+
+        Artifacts view(ImmutableSet<ArtifactKey<?>> declaredInputs) {
+            return new Artifacts() {
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public <T> T get(ArtifactKey<T> key) {
+                    Preconditions.checkArgument(declaredInputs.contains(key), "Undeclared input '%s'", key.name());
+                    Outcome outcome = outcomes.computeIfAbsent(key, k -> Suppliers.memoize(() -> compute(k))).get();
+                    if (outcome.failure() != null) {
+                        throw new RuntimeException(
+                                String.format("Artifact '%s' could not be computed", key.name()),
+                                outcome.failure()
+                        );
+                    }
+                    return (T) outcome.value();
+                }
+            };
+        }
+
+        ImmutableSet<String> computedArtifactNames() {
+            return outcomes.keySet().stream().map(ArtifactKey::name).sorted().collect(ImmutableSet.toImmutableSet());
+        }
+
+        private Outcome compute(ArtifactKey<?> key) {
+            ArtifactProvider<?> provider = providers.get(key);
+            try {
+                return new Outcome(provider.produce(view(provider.inputs())), null);
+            } catch (RuntimeException e) {
+                return new Outcome(null, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,347 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.rules;
+
+import com.google.common.collect.ImmutableList;
+import eu.cdevreeze.openlibertychecks.analysis.FeatureGraph;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.*;
+
+import java.util.Optional;
+
+/**
+ * Standard checks of server.xml content. The reference checks only look within one document, so they should be run
+ * against merged server configurations (including the includes), to prevent false positives.
+ *
+ * @author Chris de Vreeze
+ */
+public class ServerXmlChecks {
+
+    private ServerXmlChecks() {
+    }
+
+    public static final ConfigCheck<DataSource> DATA_SOURCE_CONNECTION_MANAGER_REF = ConfigCheck.forServerXml(
+            "server.dataSource.connectionManagerRef",
+            "dataSource",
+            DataSource::new,
+            (dataSource, context) -> checkReference(
+                    dataSource.connectionManagerRefOption(),
+                    dataSource.resolveConnectionManager(),
+                    "connectionManager",
+                    dataSource,
+                    context
+            )
+    );
+
+    public static final ConfigCheck<JmsConnectionFactory> JMS_CONNECTION_FACTORY_CONNECTION_MANAGER_REF =
+            ConfigCheck.forServerXml(
+                    "server.jmsConnectionFactory.connectionManagerRef",
+                    "jmsConnectionFactory",
+                    JmsConnectionFactory::new,
+                    (connectionFactory, context) -> checkReference(
+                            connectionFactory.connectionManagerRefOption(),
+                            connectionFactory.resolveConnectionManager(),
+                            "connectionManager",
+                            connectionFactory,
+                            context
+                    )
+            );
+
+    public static final ConfigCheck<JmsQueueConnectionFactory> JMS_QUEUE_CONNECTION_FACTORY_CONNECTION_MANAGER_REF =
+            ConfigCheck.forServerXml(
+                    "server.jmsQueueConnectionFactory.connectionManagerRef",
+                    "jmsQueueConnectionFactory",
+                    JmsQueueConnectionFactory::new,
+                    (connectionFactory, context) -> checkReference(
+                            connectionFactory.connectionManagerRefOption(),
+                            connectionFactory.resolveConnectionManager(),
+                            "connectionManager",
+                            connectionFactory,
+                            context
+                    )
+            );
+
+    public static final ConfigCheck<JmsTopicConnectionFactory> JMS_TOPIC_CONNECTION_FACTORY_CONNECTION_MANAGER_REF =
+            ConfigCheck.forServerXml(
+                    "server.jmsTopicConnectionFactory.connectionManagerRef",
+                    "jmsTopicConnectionFactory",
+                    JmsTopicConnectionFactory::new,
+                    (connectionFactory, context) -> checkReference(
+                            connectionFactory.connectionManagerRefOption(),
+                            connectionFactory.resolveConnectionManager(),
+                            "connectionManager",
+                            connectionFactory,
+                            context
+                    )
+            );
+
+    public static final ConfigCheck<JdbcDriver> JDBC_DRIVER_LIBRARY_REF = ConfigCheck.forServerXml(
+            "server.jdbcDriver.libraryRef",
+            "jdbcDriver",
+            JdbcDriver::new,
+            (jdbcDriver, context) -> checkReference(
+                    jdbcDriver.libraryRefOption(),
+                    jdbcDriver.resolveLibrary(),
+                    "library",
+                    jdbcDriver,
+                    context
+            )
+    );
+
+    public static final ConfigCheck<Ssl> SSL_KEY_STORE_REF = ConfigCheck.forServerXml(
+            "server.ssl.keyStoreRef",
+            "ssl",
+            Ssl::new,
+            (ssl, context) -> {
+                checkReference(ssl.keyStoreRefOption(), ssl.resolveKeyStore(), "keyStore", ssl, context);
+                checkReference(ssl.trustStoreRefOption(), ssl.resolveTrustStore(), "keyStore", ssl, context);
+            }
+    );
+
+    public static final ConfigCheck<SslDefault> SSL_DEFAULT_SSL_REF = ConfigCheck.forServerXml(
+            "server.sslDefault.sslRef",
+            "sslDefault",
+            SslDefault::new,
+            (sslDefault, context) -> checkReference(
+                    sslDefault.sslRefOption(),
+                    sslDefault.resolveSsl(),
+                    "ssl",
+                    sslDefault,
+                    context
+            )
+    );
+
+    public static final ConfigCheck<ConnectionManager> CONNECTION_MANAGER_POOL_SIZE = ConfigCheck.forServerXml(
+            "server.connectionManager.poolSize",
+            "connectionManager",
+            ConnectionManager::new,
+            (connectionManager, context) -> {
+                Optional<Integer> minPoolSizeOption = parseLiteralInt(connectionManager.minPoolSizeAsStringOption());
+                Optional<Integer> maxPoolSizeOption = parseLiteralInt(connectionManager.maxPoolSizeAsStringOption());
+
+                if (minPoolSizeOption.isPresent() && maxPoolSizeOption.isPresent() &&
+                        maxPoolSizeOption.get() > 0 && minPoolSizeOption.get() > maxPoolSizeOption.get()) {
+                    context.report(
+                            Severity.ERROR,
+                            connectionManager.getElement(),
+                            String.format(
+                                    "connectionManager '%s': minPoolSize %d exceeds maxPoolSize %d",
+                                    connectionManager.idOption().orElse(""),
+                                    minPoolSizeOption.get(),
+                                    maxPoolSizeOption.get()
+                            )
+                    );
+                }
+            }
+    );
+
+    public static final ConfigCheck<ManagedExecutorService> MANAGED_EXECUTOR_SERVICE_POLICY_REF =
+            ConfigCheck.forServerXml(
+                    "server.managedExecutorService.policyRef",
+                    "managedExecutorService",
+                    ManagedExecutorService::new,
+                    (executorService, context) -> {
+                        checkReference(
+                                executorService.concurrencyPolicyRefOption(),
+                                executorService.resolveConcurrencyPolicy(),
+                                "concurrencyPolicy",
+                                executorService,
+                                context
+                        );
+                        checkReference(
+                                executorService.longRunningPolicyRefOption(),
+                                executorService.resolveLongRunningPolicy(),
+                                "concurrencyPolicy",
+                                executorService,
+                                context
+                        );
+                    }
+            );
+
+    public static final ConfigCheck<ManagedScheduledExecutorService> MANAGED_SCHEDULED_EXECUTOR_SERVICE_POLICY_REF =
+            ConfigCheck.forServerXml(
+                    "server.managedScheduledExecutorService.policyRef",
+                    "managedScheduledExecutorService",
+                    ManagedScheduledExecutorService::new,
+                    (executorService, context) -> {
+                        checkReference(
+                                executorService.concurrencyPolicyRefOption(),
+                                executorService.resolveConcurrencyPolicy(),
+                                "concurrencyPolicy",
+                                executorService,
+                                context
+                        );
+                        checkReference(
+                                executorService.longRunningPolicyRefOption(),
+                                executorService.resolveLongRunningPolicy(),
+                                "concurrencyPolicy",
+                                executorService,
+                                context
+                        );
+                    }
+            );
+
+    /**
+     * Reports a coreThreads value exceeding maxThreads, and equal coreThreads and maxThreads values, which pin the
+     * size of the default executor and thereby switch off its self-tuning.
+     */
+    public static final ConfigCheck<Executor> EXECUTOR_THREADS = ConfigCheck.forServerXml(
+            "server.executor.threads",
+            "executor",
+            Executor::new,
+            (executor, context) -> {
+                Optional<Integer> coreThreadsOption = parseLiteralInt(executor.coreThreadsAsStringOption());
+                Optional<Integer> maxThreadsOption = parseLiteralInt(executor.maxThreadsAsStringOption());
+
+                if (coreThreadsOption.isPresent() && maxThreadsOption.isPresent() &&
+                        coreThreadsOption.get() > 0 && maxThreadsOption.get() > 0) {
+                    if (coreThreadsOption.get() > maxThreadsOption.get()) {
+                        context.report(
+                                Severity.ERROR,
+                                executor.getElement(),
+                                String.format(
+                                        "executor: coreThreads %d exceeds maxThreads %d",
+                                        coreThreadsOption.get(),
+                                        maxThreadsOption.get()
+                                )
+                        );
+                    } else if (coreThreadsOption.get().equals(maxThreadsOption.get())) {
+                        context.report(
+                                Severity.WARNING,
+                                executor.getElement(),
+                                String.format(
+                                        "executor: coreThreads and maxThreads are both %d, which disables " +
+                                                "the thread pool auto-tuning",
+                                        maxThreadsOption.get()
+                                )
+                        );
+                    }
+                }
+            }
+    );
+
+    /**
+     * Reports concurrency policies that limit the number of concurrently running tasks without limiting the queue,
+     * so that a burst of tasks piles up in memory instead of being rejected or run on the submitter's thread.
+     */
+    public static final ConfigCheck<ConcurrencyPolicy> CONCURRENCY_POLICY_QUEUE_SIZE = ConfigCheck.forServerXml(
+            "server.concurrencyPolicy.maxQueueSize",
+            "concurrencyPolicy",
+            ConcurrencyPolicy::new,
+            (policy, context) -> {
+                Optional<Integer> maxOption = parseLiteralInt(policy.maxAsStringOption());
+                boolean unboundedQueue = policy.maxQueueSizeAsStringOption().isEmpty() ||
+                        parseLiteralInt(policy.maxQueueSizeAsStringOption()).filter(v -> v < 0).isPresent();
+
+                if (maxOption.isPresent() && maxOption.get() > 0 && unboundedQueue) {
+                    context.report(
+                            Severity.WARNING,
+                            policy.getElement(),
+                            String.format(
+                                    "concurrencyPolicy '%s': max is %d, but maxQueueSize is unbounded",
+                                    policy.idOption().orElse(""),
+                                    maxOption.get()
+                            )
+                    );
+                }
+            }
+    );
+
+    /**
+     * Reports concurrency policies with maxPolicy "strict", a limited max and runIfQueueFull false. Tasks can then
+     * never run on the submitter's thread, so tasks that wait for other tasks of the same policy can starve.
+     */
+    public static final ConfigCheck<ConcurrencyPolicy> CONCURRENCY_POLICY_STRICT_MAX = ConfigCheck.forServerXml(
+            "server.concurrencyPolicy.maxPolicy",
+            "concurrencyPolicy",
+            ConcurrencyPolicy::new,
+            (policy, context) -> {
+                Optional<Integer> maxOption = parseLiteralInt(policy.maxAsStringOption());
+
+                if (policy.maxPolicy().equals("strict") && maxOption.isPresent() && maxOption.get() > 0 &&
+                        policy.runIfQueueFullAsStringOption().map(v -> v.trim().equals("false")).orElse(true)) {
+                    context.report(
+                            Severity.WARNING,
+                            policy.getElement(),
+                            String.format(
+                                    "concurrencyPolicy '%s': maxPolicy strict with max %d and without " +
+                                            "runIfQueueFull may starve asynchronous work",
+                                    policy.idOption().orElse(""),
+                                    maxOption.get()
+                            )
+                    );
+                }
+            }
+    );
+
+    /**
+     * Resolves the features of a featureManager against the bundled {@link FeatureGraph}, reporting singleton
+     * conflicts and mixed Java EE and Jakarta EE features. Features in other featureManager elements are not seen,
+     * so this check is meant for merged server configurations.
+     */
+    public static final ConfigCheck<FeatureManager> FEATURE_CONFLICTS = ConfigCheck.forServerXml(
+            "server.featureManager.conflicts",
+            "featureManager",
+            FeatureManager::new,
+            (featureManager, context) -> FeatureGraph.bundled().resolve(featureManager.features()).conflicts()
+                    .forEach(conflict -> context.report(Severity.ERROR, featureManager.getElement(), conflict.message()))
+    );
+
+    public static ImmutableList<ConfigCheck<?>> all() {
+        return ImmutableList.of(
+                DATA_SOURCE_CONNECTION_MANAGER_REF,
+                JMS_CONNECTION_FACTORY_CONNECTION_MANAGER_REF,
+                JMS_QUEUE_CONNECTION_FACTORY_CONNECTION_MANAGER_REF,
+                JMS_TOPIC_CONNECTION_FACTORY_CONNECTION_MANAGER_REF,
+                JDBC_DRIVER_LIBRARY_REF,
+                SSL_KEY_STORE_REF,
+                SSL_DEFAULT_SSL_REF,
+                CONNECTION_MANAGER_POOL_SIZE,
+                MANAGED_EXECUTOR_SERVICE_POLICY_REF,
+                MANAGED_SCHEDULED_EXECUTOR_SERVICE_POLICY_REF,
+                EXECUTOR_THREADS,
+                CONCURRENCY_POLICY_QUEUE_SIZE,
+                CONCURRENCY_POLICY_STRICT_MAX,
+                FEATURE_CONFLICTS
+        );
+    }
+
+    private static <T extends ServerXmlContent> void checkReference(
+            Optional<String> refOption,
+            Optional<T> targetOption,
+            String targetElementName,
+            ServerXmlContent content,
+            CheckContext context
+    ) {
+        if (refOption.isPresent() && targetOption.isEmpty() && !refOption.get().contains("${")) {
+            context.report(
+                    Severity.ERROR,
+                    content.getElement(),
+                    String.format(
+                            "%s reference '%s' of element '%s' does not resolve",
+                            targetElementName,
+                            refOption.get(),
+                            content.getElement().elementName().getLocalPart()
+                    )
+            );
+        }
+    }
+
+    // Values still containing configuration variables are skipped
+    private static Optional<Integer> parseLiteralInt(Optional<String> valueOption) {
+        return valueOption.map(String::trim).filter(v -> v.matches("-?\\d+")).map(Integer::parseInt);
+    }
+}
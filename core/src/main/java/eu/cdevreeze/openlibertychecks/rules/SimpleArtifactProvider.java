@@ -0,0 +1,47 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.rules;
+
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * {@link ArtifactProvider} composed of a producer function.
+ *
+ * @author Chris de Vreeze
+ */
+record SimpleArtifactProvider<T>(
+        ArtifactKey<T> output,
+        ImmutableSet<ArtifactKey<?>> inputs,
+        Cost cost,
+        Function<Artifacts, T> producer
+) implements ArtifactProvider<T> {
+
+    SimpleArtifactProvider {
+        Objects.requireNonNull(output);
+        Objects.requireNonNull(inputs);
+        Objects.requireNonNull(cost);
+        Objects.requireNonNull(producer);
+    }
+
+    @Override
+    public T produce(Artifacts artifacts) {
+        return producer.apply(artifacts);
+    }
+}
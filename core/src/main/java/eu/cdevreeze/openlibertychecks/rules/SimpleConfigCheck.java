@@ -0,0 +1,54 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.rules;
+
+import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
+
+import javax.xml.namespace.QName;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * {@link ConfigCheck} composed of a wrapper function and a check function.
+ *
+ * @author Chris de Vreeze
+ */
+record SimpleConfigCheck<T>(
+        String id,
+        QName elementName,
+        Function<ElementTree.Element, T> wrapper,
+        BiConsumer<T, CheckContext> checkFunction
+) implements ConfigCheck<T> {
+
+    SimpleConfigCheck {
+        Objects.requireNonNull(id);
+        Objects.requireNonNull(elementName);
+        Objects.requireNonNull(wrapper);
+        Objects.requireNonNull(checkFunction);
+    }
+
+    @Override
+    public T wrap(ElementTree.Element element) {
+        return wrapper.apply(element);
+    }
+
+    @Override
+    public void check(T content, CheckContext context) {
+        checkFunction.accept(content, context);
+    }
+}
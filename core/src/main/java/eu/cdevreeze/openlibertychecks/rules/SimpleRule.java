@@ -0,0 +1,47 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.rules;
+
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * {@link Rule} composed of a runner function.
+ *
+ * @author Chris de Vreeze
+ */
+record SimpleRule(
+        String id,
+        ImmutableSet<ArtifactKey<?>> inputs,
+        Cost cost,
+        BiConsumer<Artifacts, FindingSink> runner
+) implements Rule {
+
+    SimpleRule {
+        Objects.requireNonNull(id);
+        Objects.requireNonNull(inputs);
+        Objects.requireNonNull(cost);
+        Objects.requireNonNull(runner);
+    }
+
+    @Override
+    public void run(Artifacts artifacts, FindingSink findingSink) {
+        runner.accept(artifacts, findingSink);
+    }
+}
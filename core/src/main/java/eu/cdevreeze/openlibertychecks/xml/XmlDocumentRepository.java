@@ -0,0 +1,229 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.xml;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+import eu.cdevreeze.openlibertychecks.io.DirectoryCrawler;
+import eu.cdevreeze.openlibertychecks.xml.internal.RootElementSniffer;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.Server;
+import eu.cdevreeze.openlibertychecks.xml.jakartaee10.Names;
+import eu.cdevreeze.openlibertychecks.xml.jakartaee10.cdi.Beans;
+import eu.cdevreeze.openlibertychecks.xml.jakartaee10.ejb.EjbJar;
+import eu.cdevreeze.openlibertychecks.xml.jakartaee10.servlet.WebApp;
+import eu.cdevreeze.yaidom4j.dom.ancestryaware.Document;
+import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
+import eu.cdevreeze.yaidom4j.dom.immutabledom.jaxpinterop.DocumentParser;
+import eu.cdevreeze.yaidom4j.dom.immutabledom.jaxpinterop.DocumentParsers;
+
+import javax.xml.namespace.QName;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Repository of the XML documents found in a collection of directories, each one parsed only once.
+ * The document elements are classified by their names, so that the web.xml, ejb-jar.xml, beans.xml
+ * and server.xml contents can be retrieved without any further I/O or parsing.
+ * <p>
+ * Before parsing, each XML file is classified by only reading up to its document element start tag
+ * (see {@link RootElementSniffer}). Only files having one of the requested document element names
+ * (by default {@link #DEFAULT_DOCUMENT_ELEMENT_NAMES}) are fully parsed. Files larger than the maximum
+ * file size are skipped, as are files that are not well-formed XML. A file can only turn out not to be
+ * well-formed after its document element start tag, when it is fully parsed. Such files are skipped as well,
+ * but they are kept as {@link #unparseableFiles()}.
+ * <p>
+ * This class is immutable and therefore thread-safe. It holds on to all parsed documents, so
+ * it is meant to be created once per run, and to be shared by all queries of that run.
+ *
+ * @author Chris de Vreeze
+ */
+public final class XmlDocumentRepository {
+
+    public static final QName SERVER_NAME = new QName("server");
+
+    public static final ImmutableSet<QName> DEFAULT_DOCUMENT_ELEMENT_NAMES = ImmutableSet.of(
+            SERVER_NAME,
+            Names.JAKARTAEE_WEBAPP_NAME,
+            Names.JAKARTAEE_EJBJAR_NAME,
+            Names.JAKARTAEE_BEANS_NAME,
+            Names.JAKARTA_PERSISTENCE_NAME
+    );
+
+    public static final long DEFAULT_MAX_FILE_SIZE =
+            Long.getLong("openlibertychecks.xml.maxFileSize", 50L * 1024 * 1024);
+
+    private static final DirectoryCrawler XML_FILE_CRAWLER = new DirectoryCrawler(
+            DirectoryCrawler.Settings.forFileExtension(".xml")
+                    .withExcludedDirectoryNames(DirectoryCrawler.DEFAULT_EXCLUDED_DIRECTORY_NAMES)
+    );
+
+    private final ImmutableList<Path> files;
+    private final ImmutableList<ElementTree.Element> documentElements;
+    private final ImmutableList<Path> unparseableFiles;
+    private final ImmutableListMultimap<QName, ElementTree.Element> documentElementsByName;
+
+    // The wrappers are created once, so that their (lazily built) child element indexes are reused
+    private final ImmutableList<WebApp> webApps;
+    private final ImmutableList<EjbJar> ejbJars;
+    private final ImmutableList<Beans> beans;
+    private final ImmutableList<Server> servers;
+
+    private XmlDocumentRepository(
+            ImmutableList<Path> files,
+            ImmutableList<ElementTree.Element> documentElements,
+            ImmutableList<Path> unparseableFiles
+    ) {
+        this.files = files;
+        this.documentElements = documentElements;
+        this.unparseableFiles = unparseableFiles;
+        this.documentElementsByName = documentElements.stream()
+                .collect(ImmutableListMultimap.toImmutableListMultimap(ElementTree.Element::elementName, e -> e));
+
+        this.webApps = wrap(Names.JAKARTAEE_WEBAPP_NAME, WebApp::new);
+        this.ejbJars = wrap(Names.JAKARTAEE_EJBJAR_NAME, EjbJar::new);
+        this.beans = wrap(Names.JAKARTAEE_BEANS_NAME, Beans::new);
+        this.servers = wrap(SERVER_NAME, Server::new);
+    }
+
+    /**
+     * Finds all XML files in the given directories (skipping directories such as "target" and ".git"),
+     * and parses each of them once, if the document element name is one of {@link #DEFAULT_DOCUMENT_ELEMENT_NAMES}.
+     * Files found through multiple (nested) directories are parsed only once.
+     */
+    public static XmlDocumentRepository load(List<Path> dirs) {
+        return load(dirs, DEFAULT_DOCUMENT_ELEMENT_NAMES, DEFAULT_MAX_FILE_SIZE);
+    }
+
+    /**
+     * Like {@link #load(List)}, but only parsing the files having one of the given document element names,
+     * and skipping files larger than the given maximum size in bytes.
+     */
+    public static XmlDocumentRepository load(List<Path> dirs, Set<QName> documentElementNames, long maxFileSize) {
+        ImmutableList<Path> candidateFiles = findFiles(dirs, documentElementNames, maxFileSize);
+
+        DocumentParser docParser = DocumentParsers.builder().removingInterElementWhitespace().build();
+
+        ImmutableList.Builder<Path> files = ImmutableList.builder();
+        ImmutableList.Builder<ElementTree.Element> documentElements = ImmutableList.builder();
+        ImmutableList.Builder<Path> unparseableFiles = ImmutableList.builder();
+
+        for (Path file : candidateFiles) {
+            parseOption(docParser, file).ifPresentOrElse(
+                    documentElement -> {
+                        files.add(file);
+                        documentElements.add(documentElement);
+                    },
+                    () -> unparseableFiles.add(file)
+            );
+        }
+
+        return new XmlDocumentRepository(files.build(), documentElements.build(), unparseableFiles.build());
+    }
+
+    /**
+     * Streaming alternative to {@link #load(List, Set, long)}, for callers that need each document only once.
+     * The same files are parsed, in the same order, but each document element is handed to the given consumer
+     * right after parsing, and is not retained afterwards. Files that turn out not to be well-formed are skipped.
+     */
+    public static void scan(
+            List<Path> dirs,
+            Set<QName> documentElementNames,
+            long maxFileSize,
+            Consumer<ElementTree.Element> documentElementConsumer
+    ) {
+        ImmutableList<Path> files = findFiles(dirs, documentElementNames, maxFileSize);
+
+        DocumentParser docParser = DocumentParsers.builder().removingInterElementWhitespace().build();
+
+        for (Path file : files) {
+            parseOption(docParser, file).ifPresent(documentElementConsumer);
+        }
+    }
+
+    private static Optional<ElementTree.Element> parseOption(DocumentParser docParser, Path file) {
+        try {
+            return Optional.of(Document.from(docParser.parse(file.toUri())).documentElement());
+        } catch (RuntimeException e) {
+            // The parser wraps the (SAX or I/O) exception
+            return Optional.empty();
+        }
+    }
+
+    private static ImmutableList<Path> findFiles(List<Path> dirs, Set<QName> documentElementNames, long maxFileSize) {
+        return dirs.stream()
+                .flatMap(dir -> XML_FILE_CRAWLER.findFiles(dir).stream())
+                .map(p -> p.toAbsolutePath().normalize())
+                .distinct()
+                .filter(p -> RootElementSniffer.findDocumentElementName(p, maxFileSize)
+                        .filter(documentElementNames::contains)
+                        .isPresent())
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    /**
+     * Returns the parsed files, which are the files having one of the requested document element names.
+     */
+    public ImmutableList<Path> files() {
+        return files;
+    }
+
+    /**
+     * Returns the files that have one of the requested document element names, but that could not be parsed,
+     * typically because they are not well-formed XML after the document element start tag.
+     */
+    public ImmutableList<Path> unparseableFiles() {
+        return unparseableFiles;
+    }
+
+    /**
+     * Returns all document elements, in the order of {@link #files()}.
+     */
+    public ImmutableList<ElementTree.Element> documentElements() {
+        return documentElements;
+    }
+
+    public ImmutableList<ElementTree.Element> documentElements(QName documentElementName) {
+        return documentElementsByName.get(documentElementName);
+    }
+
+    public ImmutableList<WebApp> webApps() {
+        return webApps;
+    }
+
+    public ImmutableList<EjbJar> ejbJars() {
+        return ejbJars;
+    }
+
+    public ImmutableList<Beans> beans() {
+        return beans;
+    }
+
+    public ImmutableList<Server> servers() {
+        return servers;
+    }
+
+    private <T> ImmutableList<T> wrap(QName documentElementName, Function<ElementTree.Element, T> wrapper) {
+        return documentElements(documentElementName).stream()
+                .map(wrapper)
+                .collect(ImmutableList.toImmutableList());
+    }
+}
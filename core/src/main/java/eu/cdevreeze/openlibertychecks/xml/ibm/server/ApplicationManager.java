@@ -20,6 +20,7 @@ import com.google.common.base.Preconditions;
 import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
 
 import javax.xml.namespace.QName;
+import java.time.Duration;
 import java.util.Optional;
 
 /**
@@ -29,6 +30,11 @@ import java.util.Optional;
  */
 public final class ApplicationManager implements ServerXmlContent {
 
+    // OpenLiberty defaults, for absent attributes
+
+    public static final Duration DEFAULT_START_TIMEOUT = Duration.ofSeconds(30);
+    public static final Duration DEFAULT_STOP_TIMEOUT = Duration.ofSeconds(30);
+
     private final ElementTree.Element element;
 
     public ApplicationManager(ElementTree.Element element) {
@@ -61,4 +67,32 @@ public final class ApplicationManager implements ServerXmlContent {
     public boolean autoExpand() {
         return autoExpandAsStringOption().map(Boolean::parseBoolean).orElse(false);
     }
+
+    public boolean autoExpand(VariableResolver variableResolver) {
+        return autoExpandAsStringOption().map(variableResolver::resolve).map(Boolean::parseBoolean).orElse(false);
+    }
+
+    // Typed durations
+
+    public Duration startTimeoutDuration() {
+        return startTimeoutOption().map(ConfigValueParser::parseDuration).orElse(DEFAULT_START_TIMEOUT);
+    }
+
+    public Duration startTimeoutDuration(VariableResolver variableResolver) {
+        return startTimeoutOption()
+                .map(variableResolver::resolve)
+                .map(ConfigValueParser::parseDuration)
+                .orElse(DEFAULT_START_TIMEOUT);
+    }
+
+    public Duration stopTimeoutDuration() {
+        return stopTimeoutOption().map(ConfigValueParser::parseDuration).orElse(DEFAULT_STOP_TIMEOUT);
+    }
+
+    public Duration stopTimeoutDuration(VariableResolver variableResolver) {
+        return stopTimeoutOption()
+                .map(variableResolver::resolve)
+                .map(ConfigValueParser::parseDuration)
+                .orElse(DEFAULT_STOP_TIMEOUT);
+    }
 }
@@ -23,16 +23,16 @@ import javax.xml.namespace.QName;
 import java.util.Optional;
 
 /**
- * Element named "jmsConnectionFactory" in a server.xml file.
+ * Element named "authData" in a server.xml file.
  *
  * @author Chris de Vreeze
  */
-public final class JmsConnectionFactory implements ServerXmlContent {
+public final class AuthData implements ServerXmlContent {
 
     private final ElementTree.Element element;
 
-    public JmsConnectionFactory(ElementTree.Element element) {
-        Preconditions.checkArgument(element.elementName().getLocalPart().equals("jmsConnectionFactory"));
+    public AuthData(ElementTree.Element element) {
+        Preconditions.checkArgument(element.elementName().getLocalPart().equals("authData"));
         this.element = element;
     }
 
@@ -44,11 +44,11 @@ public final class JmsConnectionFactory implements ServerXmlContent {
         return element.attributeOption(new QName("id"));
     }
 
-    public Optional<String> jndiNameOption() {
-        return element.attributeOption(new QName("jndiName"));
+    public Optional<String> userOption() {
+        return element.attributeOption(new QName("user"));
     }
 
-    public Optional<String> connectionManagerRefOption() {
-        return element.attributeOption(new QName("connectionManagerRef"));
+    public Optional<String> passwordOption() {
+        return element.attributeOption(new QName("password"));
     }
 }
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.xml.ibm.server;
+
+import com.google.common.base.Preconditions;
+import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
+
+import javax.xml.namespace.QName;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/**
+ * Element named "concurrencyPolicy" in a server.xml file, either top-level or nested in a managed executor.
+ * A missing or negative max or maxQueueSize means that there is no limit. The durations maxWaitForEnqueue and
+ * startTimeout have millisecond precision, so plain numbers are in milliseconds.
+ *
+ * @author Chris de Vreeze
+ */
+public final class ConcurrencyPolicy implements ServerXmlContent {
+
+    // OpenLiberty default, for an absent attribute
+
+    public static final Duration DEFAULT_MAX_WAIT_FOR_ENQUEUE = Duration.ZERO;
+
+    private final ElementTree.Element element;
+
+    public ConcurrencyPolicy(ElementTree.Element element) {
+        Preconditions.checkArgument(element.elementName().getLocalPart().equals("concurrencyPolicy"));
+        this.element = element;
+    }
+
+    public ElementTree.Element getElement() {
+        return element;
+    }
+
+    public Optional<String> idOption() {
+        return element.attributeOption(new QName("id"));
+    }
+
+    public Optional<String> maxPolicyOption() {
+        return element.attributeOption(new QName("maxPolicy"));
+    }
+
+    public String maxPolicy() {
+        return maxPolicyOption().orElse("loose");
+    }
+
+    public Optional<String> maxWaitForEnqueueOption() {
+        return element.attributeOption(new QName("maxWaitForEnqueue"));
+    }
+
+    public Optional<String> startTimeoutOption() {
+        return element.attributeOption(new QName("startTimeout"));
+    }
+
+    // In case configuration variables have not yet been resolved
+
+    public Optional<String> maxAsStringOption() {
+        return element.attributeOption(new QName("max"));
+    }
+
+    public OptionalInt maxOption() {
+        return maxAsStringOption()
+                .stream()
+                .mapToInt(Integer::parseInt)
+                .findFirst();
+    }
+
+    public OptionalInt maxOption(VariableResolver variableResolver) {
+        return variableResolver.resolveAsInt(maxAsStringOption());
+    }
+
+    public Optional<String> maxQueueSizeAsStringOption() {
+        return element.attributeOption(new QName("maxQueueSize"));
+    }
+
+    public OptionalInt maxQueueSizeOption() {
+        return maxQueueSizeAsStringOption()
+                .stream()
+                .mapToInt(Integer::parseInt)
+                .findFirst();
+    }
+
+    public OptionalInt maxQueueSizeOption(VariableResolver variableResolver) {
+        return variableResolver.resolveAsInt(maxQueueSizeAsStringOption());
+    }
+
+    public Optional<String> runIfQueueFullAsStringOption() {
+        return element.attributeOption(new QName("runIfQueueFull"));
+    }
+
+    public boolean runIfQueueFull() {
+        return runIfQueueFullAsStringOption().map(Boolean::parseBoolean).orElse(false);
+    }
+
+    public boolean runIfQueueFull(VariableResolver variableResolver) {
+        return runIfQueueFullAsStringOption().map(variableResolver::resolve).map(Boolean::parseBoolean).orElse(false);
+    }
+
+    // Typed durations, with plain numbers in milliseconds
+
+    public Duration maxWaitForEnqueueDuration() {
+        return maxWaitForEnqueueOption()
+                .map(v -> ConfigValueParser.parseDuration(v, ChronoUnit.MILLIS))
+                .orElse(DEFAULT_MAX_WAIT_FOR_ENQUEUE);
+    }
+
+    public Duration maxWaitForEnqueueDuration(VariableResolver variableResolver) {
+        return maxWaitForEnqueueOption()
+                .map(variableResolver::resolve)
+                .map(v -> ConfigValueParser.parseDuration(v, ChronoUnit.MILLIS))
+                .orElse(DEFAULT_MAX_WAIT_FOR_ENQUEUE);
+    }
+
+    public Optional<Duration> startTimeoutDurationOption() {
+        return startTimeoutOption().map(v -> ConfigValueParser.parseDuration(v, ChronoUnit.MILLIS));
+    }
+
+    public Optional<Duration> startTimeoutDurationOption(VariableResolver variableResolver) {
+        return startTimeoutOption()
+                .map(variableResolver::resolve)
+                .map(v -> ConfigValueParser.parseDuration(v, ChronoUnit.MILLIS));
+    }
+}
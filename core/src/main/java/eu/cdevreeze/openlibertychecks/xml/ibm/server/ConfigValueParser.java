@@ -0,0 +1,253 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.xml.ibm.server;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Parser of OpenLiberty duration and size attribute values, shared by the server.xml dialect classes.
+ * <p>
+ * Durations are sequences of numbers with units "d", "h", "m", "s" or "ms", such as "30s", "3m" or "1h30m",
+ * or plain numbers, which are in seconds by default. Some attributes (such as the concurrencyPolicy "startTimeout")
+ * take plain numbers in another unit, typically milliseconds, which is then passed as default unit. The units must
+ * occur from large to small, each at most once, so "30s1h" and "1m1m" are not durations. A leading minus sign is
+ * allowed, since -1 typically means "disabled".
+ * Sizes are numbers with an optional (1024-based) unit "b", "k", "kb", "m", "mb", "g" or "gb", such as "20m".
+ * Plain numbers are in bytes. Units are case-insensitive.
+ * <p>
+ * Parsing scans the characters without creating intermediate strings or matchers. Parse results are cached per
+ * distinct value, because the same few values ("30s", "3m", "-1") occur over and over again in a fleet of server
+ * configurations. The caches are bounded to {@link #MAX_CACHE_SIZE} entries each, evicting the least recently
+ * used values first.
+ * <p>
+ * Values that still contain configuration variables cannot be parsed, so they should be resolved first.
+ *
+ * @author Chris de Vreeze
+ */
+public class ConfigValueParser {
+
+    private ConfigValueParser() {
+    }
+
+    public static final int MAX_CACHE_SIZE = 1024;
+
+    // Indexed by unit rank: days, hours, minutes, seconds and milliseconds
+    private static final long[] UNIT_MILLIS = {24 * 60 * 60 * 1000L, 60 * 60 * 1000L, 60 * 1000L, 1000L, 1L};
+
+    private static final LoadingCache<DurationKey, Optional<Duration>> DURATION_CACHE =
+            CacheBuilder.newBuilder()
+                    .maximumSize(MAX_CACHE_SIZE)
+                    .build(CacheLoader.from(key -> doParseDuration(key.value(), key.defaultUnit())));
+    private static final LoadingCache<String, OptionalLong> BYTE_COUNT_CACHE =
+            CacheBuilder.newBuilder()
+                    .maximumSize(MAX_CACHE_SIZE)
+                    .build(CacheLoader.from(ConfigValueParser::doParseByteCount));
+
+    /**
+     * Parses the given duration, returning an empty Optional if it cannot be parsed. Plain numbers are in seconds.
+     */
+    public static Optional<Duration> parseDurationOption(String value) {
+        return parseDurationOption(value, ChronoUnit.SECONDS);
+    }
+
+    /**
+     * Parses the given duration, returning an empty Optional if it cannot be parsed. Plain numbers are in the
+     * given default unit, which must be a whole number of milliseconds (such as MILLIS or SECONDS).
+     */
+    public static Optional<Duration> parseDurationOption(String value, ChronoUnit defaultUnit) {
+        Preconditions.checkArgument(
+                !defaultUnit.isDurationEstimated() && defaultUnit.getDuration().toNanos() % 1_000_000L == 0,
+                "Not a whole number of milliseconds: %s",
+                defaultUnit
+        );
+        return DURATION_CACHE.getUnchecked(new DurationKey(value, defaultUnit));
+    }
+
+    /**
+     * Parses the given duration, throwing an {@link IllegalArgumentException} if it cannot be parsed.
+     * Plain numbers are in seconds.
+     */
+    public static Duration parseDuration(String value) {
+        return parseDuration(value, ChronoUnit.SECONDS);
+    }
+
+    /**
+     * Parses the given duration, throwing an {@link IllegalArgumentException} if it cannot be parsed.
+     * Plain numbers are in the given default unit.
+     */
+    public static Duration parseDuration(String value, ChronoUnit defaultUnit) {
+        return parseDurationOption(value, defaultUnit)
+                .orElseThrow(() -> new IllegalArgumentException("Not a duration: '" + value + "'"));
+    }
+
+    /**
+     * Parses the given size as a number of bytes, returning an empty OptionalLong if it cannot be parsed.
+     */
+    public static OptionalLong parseByteCountOption(String value) {
+        return BYTE_COUNT_CACHE.getUnchecked(value);
+    }
+
+    /**
+     * Parses the given size as a number of bytes, throwing an {@link IllegalArgumentException} if it cannot be parsed.
+     */
+    public static long parseByteCount(String value) {
+        return parseByteCountOption(value)
+                .orElseThrow(() -> new IllegalArgumentException("Not a size: '" + value + "'"));
+    }
+
+    private static Optional<Duration> doParseDuration(String value, ChronoUnit defaultUnit) {
+        long defaultUnitMillis = defaultUnit.getDuration().toMillis();
+        int end = lastNonWhitespaceIndex(value) + 1;
+        int i = firstNonWhitespaceIndex(value, end);
+        boolean negative = i < end && value.charAt(i) == '-';
+        if (negative) {
+            i++;
+        }
+        if (i == end) {
+            return Optional.empty();
+        }
+
+        long totalMillis = 0;
+        // Units are ranked from large ("d", rank 0) to small ("ms", rank 4), and must occur in that order
+        int previousUnitRank = -1;
+
+        try {
+            while (i < end) {
+                int start = i;
+                long amount = 0;
+                while (i < end && isDigit(value.charAt(i))) {
+                    amount = Math.addExact(Math.multiplyExact(amount, 10), value.charAt(i) - '0');
+                    i++;
+                }
+                if (i == start) {
+                    return Optional.empty();
+                }
+                if (i == end) {
+                    // Only a plain number is allowed without unit, meaning the default unit
+                    if (previousUnitRank >= 0) {
+                        return Optional.empty();
+                    }
+                    return Optional.of(toDuration(Math.multiplyExact(amount, defaultUnitMillis), negative));
+                }
+
+                int unitRank;
+                char unit = Character.toLowerCase(value.charAt(i++));
+                if (unit == 'm' && i < end && Character.toLowerCase(value.charAt(i)) == 's') {
+                    i++;
+                    unitRank = 4;
+                } else {
+                    unitRank = switch (unit) {
+                        case 'd' -> 0;
+                        case 'h' -> 1;
+                        case 'm' -> 2;
+                        case 's' -> 3;
+                        default -> -1;
+                    };
+                    if (unitRank < 0) {
+                        return Optional.empty();
+                    }
+                }
+                if (unitRank <= previousUnitRank) {
+                    return Optional.empty();
+                }
+                totalMillis = Math.addExact(totalMillis, Math.multiplyExact(amount, UNIT_MILLIS[unitRank]));
+                previousUnitRank = unitRank;
+            }
+        } catch (ArithmeticException e) {
+            return Optional.empty();
+        }
+        return Optional.of(toDuration(totalMillis, negative));
+    }
+
+    private static OptionalLong doParseByteCount(String value) {
+        int end = lastNonWhitespaceIndex(value) + 1;
+        int i = firstNonWhitespaceIndex(value, end);
+        int start = i;
+
+        try {
+            long amount = 0;
+            while (i < end && isDigit(value.charAt(i))) {
+                amount = Math.addExact(Math.multiplyExact(amount, 10), value.charAt(i) - '0');
+                i++;
+            }
+            if (i == start) {
+                return OptionalLong.empty();
+            }
+            if (i == end) {
+                return OptionalLong.of(amount);
+            }
+
+            long unitBytes = switch (Character.toLowerCase(value.charAt(i++))) {
+                case 'b' -> 1L;
+                case 'k' -> 1024L;
+                case 'm' -> 1024L * 1024;
+                case 'g' -> 1024L * 1024 * 1024;
+                default -> -1L;
+            };
+            if (unitBytes > 1 && i < end && Character.toLowerCase(value.charAt(i)) == 'b') {
+                i++;
+            }
+            if (unitBytes < 0 || i != end) {
+                return OptionalLong.empty();
+            }
+            return OptionalLong.of(Math.multiplyExact(amount, unitBytes));
+        } catch (ArithmeticException e) {
+            return OptionalLong.empty();
+        }
+    }
+
+    private record DurationKey(String value, ChronoUnit defaultUnit) {
+
+        private DurationKey {
+            Objects.requireNonNull(value);
+            Objects.requireNonNull(defaultUnit);
+        }
+    }
+
+    private static Duration toDuration(long millis, boolean negative) {
+        return Duration.ofMillis(negative ? -millis : millis);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int firstNonWhitespaceIndex(String value, int end) {
+        int i = 0;
+        while (i < end && Character.isWhitespace(value.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int lastNonWhitespaceIndex(String value) {
+        int i = value.length() - 1;
+        while (i >= 0 && Character.isWhitespace(value.charAt(i))) {
+            i--;
+        }
+        return i;
+    }
+}
@@ -20,6 +20,7 @@ import com.google.common.base.Preconditions;
 import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
 
 import javax.xml.namespace.QName;
+import java.time.Duration;
 import java.util.Optional;
 import java.util.OptionalInt;
 
@@ -30,6 +31,14 @@ import java.util.OptionalInt;
  */
 public final class ConnectionManager implements ServerXmlContent {
 
+    // OpenLiberty defaults, for absent attributes
+
+    public static final int DEFAULT_MAX_POOL_SIZE = 50;
+    public static final Duration DEFAULT_CONNECTION_TIMEOUT = Duration.ofSeconds(30);
+    public static final Duration DEFAULT_MAX_IDLE_TIME = Duration.ofMinutes(30);
+    public static final Duration DEFAULT_AGED_TIMEOUT = Duration.ofSeconds(-1);
+    public static final Duration DEFAULT_REAP_TIME = Duration.ofMinutes(3);
+
     private final ElementTree.Element element;
 
     public ConnectionManager(ElementTree.Element element) {
@@ -67,6 +76,10 @@ public final class ConnectionManager implements ServerXmlContent {
                 .orElse(-1);
     }
 
+    public int agedTimeout(VariableResolver variableResolver) {
+        return variableResolver.resolveAsInt(agedTimeoutAsStringOption()).orElse(-1);
+    }
+
     public Optional<String> maxPoolSizeAsStringOption() {
         return element.attributeOption(new QName("maxPoolSize"));
     }
@@ -80,7 +93,11 @@ public final class ConnectionManager implements ServerXmlContent {
                 .stream()
                 .mapToInt(Integer::parseInt)
                 .findFirst()
-                .orElse(50);
+                .orElse(DEFAULT_MAX_POOL_SIZE);
+    }
+
+    public int maxPoolSize(VariableResolver variableResolver) {
+        return variableResolver.resolveAsInt(maxPoolSizeAsStringOption()).orElse(DEFAULT_MAX_POOL_SIZE);
     }
 
     public OptionalInt minPoolSizeOption() {
@@ -90,6 +107,10 @@ public final class ConnectionManager implements ServerXmlContent {
                 .findFirst();
     }
 
+    public OptionalInt minPoolSizeOption(VariableResolver variableResolver) {
+        return variableResolver.resolveAsInt(minPoolSizeAsStringOption());
+    }
+
     public Optional<String> reapTimeOption() {
         return element.attributeOption(new QName("reapTime"));
     }
@@ -97,4 +118,50 @@ public final class ConnectionManager implements ServerXmlContent {
     public String reapTime() {
         return reapTimeOption().orElse("3m");
     }
+
+    // Durations, such as "30s" or "1h30m", parsed by the shared ConfigValueParser
+
+    public Duration connectionTimeoutDuration() {
+        return connectionTimeoutOption().map(ConfigValueParser::parseDuration).orElse(DEFAULT_CONNECTION_TIMEOUT);
+    }
+
+    public Duration connectionTimeoutDuration(VariableResolver variableResolver) {
+        return connectionTimeoutOption()
+                .map(variableResolver::resolve)
+                .map(ConfigValueParser::parseDuration)
+                .orElse(DEFAULT_CONNECTION_TIMEOUT);
+    }
+
+    public Duration maxIdleTimeDuration() {
+        return maxIdleTimeOption().map(ConfigValueParser::parseDuration).orElse(DEFAULT_MAX_IDLE_TIME);
+    }
+
+    public Duration maxIdleTimeDuration(VariableResolver variableResolver) {
+        return maxIdleTimeOption()
+                .map(variableResolver::resolve)
+                .map(ConfigValueParser::parseDuration)
+                .orElse(DEFAULT_MAX_IDLE_TIME);
+    }
+
+    public Duration agedTimeoutDuration() {
+        return agedTimeoutAsStringOption().map(ConfigValueParser::parseDuration).orElse(DEFAULT_AGED_TIMEOUT);
+    }
+
+    public Duration agedTimeoutDuration(VariableResolver variableResolver) {
+        return agedTimeoutAsStringOption()
+                .map(variableResolver::resolve)
+                .map(ConfigValueParser::parseDuration)
+                .orElse(DEFAULT_AGED_TIMEOUT);
+    }
+
+    public Duration reapTimeDuration() {
+        return reapTimeOption().map(ConfigValueParser::parseDuration).orElse(DEFAULT_REAP_TIME);
+    }
+
+    public Duration reapTimeDuration(VariableResolver variableResolver) {
+        return reapTimeOption()
+                .map(variableResolver::resolve)
+                .map(ConfigValueParser::parseDuration)
+                .orElse(DEFAULT_REAP_TIME);
+    }
 }
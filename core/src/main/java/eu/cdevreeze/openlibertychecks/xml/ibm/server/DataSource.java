@@ -18,6 +18,7 @@ package eu.cdevreeze.openlibertychecks.xml.ibm.server;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import eu.cdevreeze.openlibertychecks.xml.internal.DescendantElementIndex;
 import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
 
 import javax.xml.namespace.QName;
@@ -60,6 +61,22 @@ public final class DataSource implements ServerXmlContent {
         return element.attributeOption(new QName("connectionManagerRef"));
     }
 
+    public Optional<ConnectionManager> resolveConnectionManager() {
+        return connectionManagerRefOption()
+                .flatMap(ref -> DescendantElementIndex.of(element).findElementById("connectionManager", ref))
+                .map(ConnectionManager::new);
+    }
+
+    /**
+     * Returns the nested connectionManager elements (normally at most one), which are an alternative to
+     * a connectionManagerRef attribute.
+     */
+    public ImmutableList<ConnectionManager> connectionManagers() {
+        return element.childElementStream(hasName("connectionManager"))
+                .map(ConnectionManager::new)
+                .collect(ImmutableList.toImmutableList());
+    }
+
     public ImmutableList<JdbcDriver> jdbcDrivers() {
         return element.childElementStream(hasName("jdbcDriver"))
                 .map(JdbcDriver::new)
@@ -117,5 +134,9 @@ public final class DataSource implements ServerXmlContent {
                     .mapToInt(Integer::parseInt)
                     .findFirst();
         }
+
+        public OptionalInt portNumberOption(VariableResolver variableResolver) {
+            return variableResolver.resolveAsInt(portNumberAsStringOption());
+        }
     }
 }
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.xml.ibm.server;
+
+import com.google.common.base.Preconditions;
+import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
+
+import javax.xml.namespace.QName;
+import java.util.Optional;
+
+/**
+ * Element named "executor" in a server.xml file, configuring the default executor (thread pool) of the server.
+ * A negative coreThreads or maxThreads value (the default) lets the server tune the thread pool itself.
+ *
+ * @author Chris de Vreeze
+ */
+public final class Executor implements ServerXmlContent {
+
+    private final ElementTree.Element element;
+
+    public Executor(ElementTree.Element element) {
+        Preconditions.checkArgument(element.elementName().getLocalPart().equals("executor"));
+        this.element = element;
+    }
+
+    public ElementTree.Element getElement() {
+        return element;
+    }
+
+    public Optional<String> idOption() {
+        return element.attributeOption(new QName("id"));
+    }
+
+    // In case configuration variables have not yet been resolved
+
+    public Optional<String> coreThreadsAsStringOption() {
+        return element.attributeOption(new QName("coreThreads"));
+    }
+
+    public int coreThreads() {
+        return coreThreadsAsStringOption().map(Integer::parseInt).orElse(-1);
+    }
+
+    public int coreThreads(VariableResolver variableResolver) {
+        return variableResolver.resolveAsInt(coreThreadsAsStringOption()).orElse(-1);
+    }
+
+    public Optional<String> maxThreadsAsStringOption() {
+        return element.attributeOption(new QName("maxThreads"));
+    }
+
+    public int maxThreads() {
+        return maxThreadsAsStringOption().map(Integer::parseInt).orElse(-1);
+    }
+
+    public int maxThreads(VariableResolver variableResolver) {
+        return variableResolver.resolveAsInt(maxThreadsAsStringOption()).orElse(-1);
+    }
+}
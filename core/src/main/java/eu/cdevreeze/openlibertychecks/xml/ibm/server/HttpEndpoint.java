@@ -66,6 +66,10 @@ public final class HttpEndpoint implements ServerXmlContent {
                 .findFirst();
     }
 
+    public OptionalInt httpPortOption(VariableResolver variableResolver) {
+        return variableResolver.resolveAsInt(httpPortAsStringOption());
+    }
+
     public OptionalInt httpsPortOption() {
         return httpsPortAsStringOption()
                 .stream()
@@ -73,6 +77,10 @@ public final class HttpEndpoint implements ServerXmlContent {
                 .findFirst();
     }
 
+    public OptionalInt httpsPortOption(VariableResolver variableResolver) {
+        return variableResolver.resolveAsInt(httpsPortAsStringOption());
+    }
+
     public Optional<String> hostOption() {
         return element.attributeOption(new QName("host"));
     }
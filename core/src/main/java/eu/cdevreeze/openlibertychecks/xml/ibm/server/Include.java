@@ -61,4 +61,8 @@ public final class Include implements ServerXmlContent {
     public boolean optional() {
         return optionalAdStringOption().map(Boolean::parseBoolean).orElse(false);
     }
+
+    public boolean optional(VariableResolver variableResolver) {
+        return optionalAdStringOption().map(variableResolver::resolve).map(Boolean::parseBoolean).orElse(false);
+    }
 }
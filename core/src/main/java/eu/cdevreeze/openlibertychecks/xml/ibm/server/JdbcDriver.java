@@ -17,6 +17,7 @@
 package eu.cdevreeze.openlibertychecks.xml.ibm.server;
 
 import com.google.common.base.Preconditions;
+import eu.cdevreeze.openlibertychecks.xml.internal.DescendantElementIndex;
 import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
 
 import javax.xml.namespace.QName;
@@ -43,4 +44,10 @@ public final class JdbcDriver implements ServerXmlContent {
     public Optional<String> libraryRefOption() {
         return element.attributeOption(new QName("libraryRef"));
     }
+
+    public Optional<Library> resolveLibrary() {
+        return libraryRefOption()
+                .flatMap(ref -> DescendantElementIndex.of(element).findElementById("library", ref))
+                .map(Library::new);
+    }
 }
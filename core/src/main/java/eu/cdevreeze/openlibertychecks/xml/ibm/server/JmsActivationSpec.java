@@ -17,6 +17,7 @@
 package eu.cdevreeze.openlibertychecks.xml.ibm.server;
 
 import com.google.common.base.Preconditions;
+import eu.cdevreeze.openlibertychecks.xml.internal.DescendantElementIndex;
 import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
 
 import javax.xml.namespace.QName;
@@ -48,6 +49,12 @@ public final class JmsActivationSpec implements ServerXmlContent {
         return element.attributeOption(new QName("authDataRef"));
     }
 
+    public Optional<AuthData> resolveAuthData() {
+        return authDataRefOption()
+                .flatMap(ref -> DescendantElementIndex.of(element).findElementById("authData", ref))
+                .map(AuthData::new);
+    }
+
     // In case configuration variables have not yet been resolved
 
     public Optional<String> autoStartAsStringOption() {
@@ -58,6 +65,10 @@ public final class JmsActivationSpec implements ServerXmlContent {
         return autoStartAsStringOption().map(Boolean::parseBoolean).orElse(true);
     }
 
+    public boolean autoStart(VariableResolver variableResolver) {
+        return autoStartAsStringOption().map(variableResolver::resolve).map(Boolean::parseBoolean).orElse(true);
+    }
+
     public Optional<String> maxEndpointsAsStringOption() {
         return element.attributeOption(new QName("maxEndpoints"));
     }
@@ -65,4 +76,8 @@ public final class JmsActivationSpec implements ServerXmlContent {
     public int maxEndpoints() {
         return maxEndpointsAsStringOption().map(Integer::parseInt).orElse(500);
     }
+
+    public int maxEndpoints(VariableResolver variableResolver) {
+        return variableResolver.resolveAsInt(maxEndpointsAsStringOption()).orElse(500);
+    }
 }
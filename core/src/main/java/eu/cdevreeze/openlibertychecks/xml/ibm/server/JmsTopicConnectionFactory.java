@@ -17,6 +17,7 @@
 package eu.cdevreeze.openlibertychecks.xml.ibm.server;
 
 import com.google.common.base.Preconditions;
+import eu.cdevreeze.openlibertychecks.xml.internal.DescendantElementIndex;
 import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
 
 import javax.xml.namespace.QName;
@@ -51,4 +52,10 @@ public final class JmsTopicConnectionFactory implements ServerXmlContent {
     public Optional<String> connectionManagerRefOption() {
         return element.attributeOption(new QName("connectionManagerRef"));
     }
+
+    public Optional<ConnectionManager> resolveConnectionManager() {
+        return connectionManagerRefOption()
+                .flatMap(ref -> DescendantElementIndex.of(element).findElementById("connectionManager", ref))
+                .map(ConnectionManager::new);
+    }
 }
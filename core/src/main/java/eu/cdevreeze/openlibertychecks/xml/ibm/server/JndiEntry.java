@@ -61,4 +61,8 @@ public final class JndiEntry implements ServerXmlContent {
     public boolean decode() {
         return decodeAsStringOption().map(Boolean::valueOf).orElse(Boolean.FALSE);
     }
+
+    public boolean decode(VariableResolver variableResolver) {
+        return decodeAsStringOption().map(variableResolver::resolve).map(Boolean::valueOf).orElse(Boolean.FALSE);
+    }
 }
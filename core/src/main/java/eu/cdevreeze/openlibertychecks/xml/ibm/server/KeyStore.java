@@ -74,6 +74,10 @@ public final class KeyStore implements ServerXmlContent {
         return fileBasedAsStringOption().map(Boolean::parseBoolean).orElse(true);
     }
 
+    public boolean fileBased(VariableResolver variableResolver) {
+        return fileBasedAsStringOption().map(variableResolver::resolve).map(Boolean::parseBoolean).orElse(true);
+    }
+
     public Optional<String> readOnlyAsStringOption() {
         return element.attributeOption(new QName("readOnly"));
     }
@@ -81,4 +85,8 @@ public final class KeyStore implements ServerXmlContent {
     public boolean readOnly() {
         return readOnlyAsStringOption().map(Boolean::parseBoolean).orElse(false);
     }
+
+    public boolean readOnly(VariableResolver variableResolver) {
+        return readOnlyAsStringOption().map(variableResolver::resolve).map(Boolean::parseBoolean).orElse(false);
+    }
 }
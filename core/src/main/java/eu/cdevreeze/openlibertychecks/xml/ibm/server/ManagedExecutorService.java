@@ -0,0 +1,85 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.xml.ibm.server;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import eu.cdevreeze.openlibertychecks.xml.internal.DescendantElementIndex;
+import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
+
+import javax.xml.namespace.QName;
+import java.util.Optional;
+
+import static eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementPredicates.hasName;
+
+/**
+ * Element named "managedExecutorService" in a server.xml file. The concurrency policies are either referenced or
+ * nested. The long-running policy applies to tasks submitted with the LONGRUNNING_HINT execution property.
+ *
+ * @author Chris de Vreeze
+ */
+public final class ManagedExecutorService implements ServerXmlContent {
+
+    private final ElementTree.Element element;
+
+    public ManagedExecutorService(ElementTree.Element element) {
+        Preconditions.checkArgument(element.elementName().getLocalPart().equals("managedExecutorService"));
+        this.element = element;
+    }
+
+    public ElementTree.Element getElement() {
+        return element;
+    }
+
+    public Optional<String> idOption() {
+        return element.attributeOption(new QName("id"));
+    }
+
+    public Optional<String> jndiNameOption() {
+        return element.attributeOption(new QName("jndiName"));
+    }
+
+    public Optional<String> contextServiceRefOption() {
+        return element.attributeOption(new QName("contextServiceRef"));
+    }
+
+    public Optional<String> concurrencyPolicyRefOption() {
+        return element.attributeOption(new QName("concurrencyPolicyRef"));
+    }
+
+    public Optional<ConcurrencyPolicy> resolveConcurrencyPolicy() {
+        return concurrencyPolicyRefOption()
+                .flatMap(ref -> DescendantElementIndex.of(element).findElementById("concurrencyPolicy", ref))
+                .map(ConcurrencyPolicy::new);
+    }
+
+    public Optional<String> longRunningPolicyRefOption() {
+        return element.attributeOption(new QName("longRunningPolicyRef"));
+    }
+
+    public Optional<ConcurrencyPolicy> resolveLongRunningPolicy() {
+        return longRunningPolicyRefOption()
+                .flatMap(ref -> DescendantElementIndex.of(element).findElementById("concurrencyPolicy", ref))
+                .map(ConcurrencyPolicy::new);
+    }
+
+    public ImmutableList<ConcurrencyPolicy> concurrencyPolicies() {
+        return element.childElementStream(hasName("concurrencyPolicy"))
+                .map(ConcurrencyPolicy::new)
+                .collect(ImmutableList.toImmutableList());
+    }
+}
@@ -57,4 +57,8 @@ public final class ResourceAdapter implements ServerXmlContent {
     public Optional<Boolean> autoStartOption() {
         return autoStartAsStringOption().map(Boolean::parseBoolean);
     }
+
+    public Optional<Boolean> autoStartOption(VariableResolver variableResolver) {
+        return autoStartAsStringOption().map(variableResolver::resolve).map(Boolean::parseBoolean);
+    }
 }
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.xml.ibm.server;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import eu.cdevreeze.openlibertychecks.xml.internal.ChildElementIndex;
+import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
+
+import javax.xml.namespace.QName;
+import java.util.Optional;
+
+/**
+ * Root element of an OpenLiberty server.xml file.
+ * <p>
+ * Note that a server.xml file may contain configuration variables.
+ * <p>
+ * Mind the potential occurrences of "include" elements, Ref tags such as "authDataRef",
+ * and variables. Also mind merging rules when the server configuration is split into several files.
+ * <p>
+ * Within one server.xml file, Ref tags can be resolved through methods such as
+ * {@link DataSource#resolveConnectionManager()}, which use a document-wide element index.
+ *
+ * @author Chris de Vreeze
+ */
+public final class Server implements ServerXmlContent {
+
+    private final ElementTree.Element element;
+    private final ChildElementIndex childElementIndex;
+
+    public Server(ElementTree.Element element) {
+        Preconditions.checkArgument(element.elementName().getLocalPart().equals("server"));
+        this.element = element;
+        this.childElementIndex = new ChildElementIndex(element);
+    }
+
+    public ElementTree.Element getElement() {
+        return element;
+    }
+
+    public Optional<String> descriptionOption() {
+        return element.attributeOption(new QName("description"));
+    }
+
+    public ImmutableList<Include> includes() {
+        return childElementIndex.wrappedChildElements("include", Include.class, Include::new);
+    }
+
+    public ImmutableList<Executor> executors() {
+        return childElementIndex.wrappedChildElements("executor", Executor.class, Executor::new);
+    }
+
+    public ImmutableList<FeatureManager> featureManagers() {
+        return childElementIndex.wrappedChildElements("featureManager", FeatureManager.class, FeatureManager::new);
+    }
+
+    public ImmutableList<HttpEndpoint> httpEndpoints() {
+        return childElementIndex.wrappedChildElements("httpEndpoint", HttpEndpoint.class, HttpEndpoint::new);
+    }
+
+    public ImmutableList<ApplicationManager> applicationManagers() {
+        return childElementIndex.wrappedChildElements(
+                "applicationManager",
+                ApplicationManager.class,
+                ApplicationManager::new
+        );
+    }
+
+    public ImmutableList<JndiEntry> jndiEntries() {
+        return childElementIndex.wrappedChildElements("jndiEntry", JndiEntry.class, JndiEntry::new);
+    }
+
+    public ImmutableList<AuthData> authDataElements() {
+        return childElementIndex.wrappedChildElements("authData", AuthData.class, AuthData::new);
+    }
+
+    public ImmutableList<ConcurrencyPolicy> concurrencyPolicies() {
+        return childElementIndex.wrappedChildElements(
+                "concurrencyPolicy",
+                ConcurrencyPolicy.class,
+                ConcurrencyPolicy::new
+        );
+    }
+
+    public ImmutableList<ConnectionManager> connectionManagers() {
+        return childElementIndex.wrappedChildElements(
+                "connectionManager",
+                ConnectionManager.class,
+                ConnectionManager::new
+        );
+    }
+
+    public ImmutableList<DataSource> dataSources() {
+        return childElementIndex.wrappedChildElements("dataSource", DataSource.class, DataSource::new);
+    }
+
+    public ImmutableList<ActivationSpec> activationSpecs() {
+        return childElementIndex.wrappedChildElements("activationSpec", ActivationSpec.class, ActivationSpec::new);
+    }
+
+    public ImmutableList<JmsActivationSpec> jmsActivationSpecs() {
+        return childElementIndex.wrappedChildElements(
+                "jmsActivationSpec",
+                JmsActivationSpec.class,
+                JmsActivationSpec::new
+        );
+    }
+
+    public ImmutableList<JmsConnectionFactory> jmsConnectionFactories() {
+        return childElementIndex.wrappedChildElements(
+                "jmsConnectionFactory",
+                JmsConnectionFactory.class,
+                JmsConnectionFactory::new
+        );
+    }
+
+    public ImmutableList<JmsQueueConnectionFactory> jmsQueueConnectionFactories() {
+        return childElementIndex.wrappedChildElements(
+                "jmsQueueConnectionFactory",
+                JmsQueueConnectionFactory.class,
+                JmsQueueConnectionFactory::new
+        );
+    }
+
+    public ImmutableList<JmsTopicConnectionFactory> jmsTopicConnectionFactories() {
+        return childElementIndex.wrappedChildElements(
+                "jmsTopicConnectionFactory",
+                JmsTopicConnectionFactory.class,
+                JmsTopicConnectionFactory::new
+        );
+    }
+
+    public ImmutableList<JmsQueue> jmsQueues() {
+        return childElementIndex.wrappedChildElements("jmsQueue", JmsQueue.class, JmsQueue::new);
+    }
+
+    public ImmutableList<JmsTopic> jmsTopics() {
+        return childElementIndex.wrappedChildElements("jmsTopic", JmsTopic.class, JmsTopic::new);
+    }
+
+    public ImmutableList<KeyStore> keyStores() {
+        return childElementIndex.wrappedChildElements("keyStore", KeyStore.class, KeyStore::new);
+    }
+
+    public ImmutableList<Library> libraries() {
+        return childElementIndex.wrappedChildElements("library", Library.class, Library::new);
+    }
+
+    public ImmutableList<Logging> loggings() {
+        return childElementIndex.wrappedChildElements("logging", Logging.class, Logging::new);
+    }
+
+    public ImmutableList<ManagedExecutorService> managedExecutorServices() {
+        return childElementIndex.wrappedChildElements(
+                "managedExecutorService",
+                ManagedExecutorService.class,
+                ManagedExecutorService::new
+        );
+    }
+
+    public ImmutableList<ManagedScheduledExecutorService> managedScheduledExecutorServices() {
+        return childElementIndex.wrappedChildElements(
+                "managedScheduledExecutorService",
+                ManagedScheduledExecutorService.class,
+                ManagedScheduledExecutorService::new
+        );
+    }
+
+    public ImmutableList<MessagingEngine> messagingEngines() {
+        return childElementIndex.wrappedChildElements("messagingEngine", MessagingEngine.class, MessagingEngine::new);
+    }
+
+    public ImmutableList<ResourceAdapter> resourceAdapters() {
+        return childElementIndex.wrappedChildElements("resourceAdapter", ResourceAdapter.class, ResourceAdapter::new);
+    }
+
+    public ImmutableList<Ssl> ssls() {
+        return childElementIndex.wrappedChildElements("ssl", Ssl.class, Ssl::new);
+    }
+
+    public ImmutableList<SslDefault> sslDefaults() {
+        return childElementIndex.wrappedChildElements("sslDefault", SslDefault.class, SslDefault::new);
+    }
+
+    public ImmutableList<Transaction> transactions() {
+        return childElementIndex.wrappedChildElements("transaction", Transaction.class, Transaction::new);
+    }
+
+    public ImmutableList<Variable> variables() {
+        return childElementIndex.wrappedChildElements("variable", Variable.class, Variable::new);
+    }
+
+    public ImmutableList<WasJmsEndpoint> wasJmsEndpoints() {
+        return childElementIndex.wrappedChildElements("wasJmsEndpoint", WasJmsEndpoint.class, WasJmsEndpoint::new);
+    }
+
+    public ImmutableList<WebApplication> webApplications() {
+        return childElementIndex.wrappedChildElements("webApplication", WebApplication.class, WebApplication::new);
+    }
+}
@@ -17,6 +17,7 @@
 package eu.cdevreeze.openlibertychecks.xml.ibm.server;
 
 import com.google.common.base.Preconditions;
+import eu.cdevreeze.openlibertychecks.xml.internal.DescendantElementIndex;
 import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
 
 import javax.xml.namespace.QName;
@@ -48,7 +49,19 @@ public final class Ssl implements ServerXmlContent {
         return element.attributeOption(new QName("keyStoreRef"));
     }
 
+    public Optional<KeyStore> resolveKeyStore() {
+        return keyStoreRefOption()
+                .flatMap(ref -> DescendantElementIndex.of(element).findElementById("keyStore", ref))
+                .map(KeyStore::new);
+    }
+
     public Optional<String> trustStoreRefOption() {
         return element.attributeOption(new QName("trustStoreRef"));
     }
+
+    public Optional<KeyStore> resolveTrustStore() {
+        return trustStoreRefOption()
+                .flatMap(ref -> DescendantElementIndex.of(element).findElementById("keyStore", ref))
+                .map(KeyStore::new);
+    }
 }
@@ -17,6 +17,7 @@
 package eu.cdevreeze.openlibertychecks.xml.ibm.server;
 
 import com.google.common.base.Preconditions;
+import eu.cdevreeze.openlibertychecks.xml.internal.DescendantElementIndex;
 import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
 
 import javax.xml.namespace.QName;
@@ -43,4 +44,10 @@ public final class SslDefault implements ServerXmlContent {
     public Optional<String> sslRefOption() {
         return element.attributeOption(new QName("sslRef"));
     }
+
+    public Optional<Ssl> resolveSsl() {
+        return sslRefOption()
+                .flatMap(ref -> DescendantElementIndex.of(element).findElementById("ssl", ref))
+                .map(Ssl::new);
+    }
 }
@@ -20,6 +20,7 @@ import com.google.common.base.Preconditions;
 import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
 
 import javax.xml.namespace.QName;
+import java.time.Duration;
 import java.util.Optional;
 
 /**
@@ -29,6 +30,10 @@ import java.util.Optional;
  */
 public final class Transaction implements ServerXmlContent {
 
+    // OpenLiberty default, for an absent attribute
+
+    public static final Duration DEFAULT_TOTAL_TRAN_LIFETIME_TIMEOUT = Duration.ofSeconds(120);
+
     private final ElementTree.Element element;
 
     public Transaction(ElementTree.Element element) {
@@ -43,4 +48,19 @@ public final class Transaction implements ServerXmlContent {
     public Optional<String> totalTranLifetimeTimeoutOption() {
         return element.attributeOption(new QName("totalTranLifetimeTimeout"));
     }
+
+    // Typed durations
+
+    public Duration totalTranLifetimeTimeoutDuration() {
+        return totalTranLifetimeTimeoutOption()
+                .map(ConfigValueParser::parseDuration)
+                .orElse(DEFAULT_TOTAL_TRAN_LIFETIME_TIMEOUT);
+    }
+
+    public Duration totalTranLifetimeTimeoutDuration(VariableResolver variableResolver) {
+        return totalTranLifetimeTimeoutOption()
+                .map(variableResolver::resolve)
+                .map(ConfigValueParser::parseDuration)
+                .orElse(DEFAULT_TOTAL_TRAN_LIFETIME_TIMEOUT);
+    }
 }
@@ -0,0 +1,336 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.xml.ibm.server;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resolver of OpenLiberty configuration variables, such as "${default.http.port}", in server.xml attribute values.
+ * <p>
+ * Variables are looked up in the following order:
+ * <ol>
+ * <li>bootstrap.properties</li>
+ * <li>"value" attributes of "variable" elements (if a variable occurs more than once, the last one wins)</li>
+ * <li>server.env, where variable "NAME" can also be referred to as "env.NAME"</li>
+ * <li>"defaultValue" attributes of "variable" elements</li>
+ * </ol>
+ * Variable values may themselves refer to other variables. Simple integer arithmetic is supported as well,
+ * such as "${base.port+1}". References that cannot be resolved, for example because the variable is undefined
+ * or because of a reference cycle, are left as is, like OpenLiberty does.
+ * <p>
+ * Each distinct text is compiled only once, and each distinct expression is evaluated only once, so resolving
+ * the same attribute values across many elements (or many server configurations sharing this resolver) is cheap.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @author Chris de Vreeze
+ */
+public final class VariableResolver {
+
+    private static final Pattern OPERATOR_PATTERN = Pattern.compile("\\s*([+*/-])\\s*");
+
+    private static final Pattern INT_PATTERN = Pattern.compile("[+-]?\\d+");
+
+    private sealed interface Part permits Literal, Reference {
+    }
+
+    private record Literal(String text) implements Part {
+    }
+
+    private record Reference(String expression) implements Part {
+    }
+
+    private static final class CycleException extends RuntimeException {
+
+        CycleException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final VariableResolver EMPTY = new VariableResolver(ImmutableMap.of());
+
+    private final ImmutableMap<String, String> variables;
+    private final ConcurrentHashMap<String, ImmutableList<Part>> compiledTexts = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Optional<String>> evaluatedExpressions = new ConcurrentHashMap<>();
+
+    private VariableResolver(ImmutableMap<String, String> variables) {
+        this.variables = variables;
+    }
+
+    /**
+     * Returns the resolver without any variables, which only evaluates arithmetic on integer literals.
+     */
+    public static VariableResolver empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns the resolver for the given (unresolved) variable values.
+     */
+    public static VariableResolver of(Map<String, String> variables) {
+        return new VariableResolver(ImmutableMap.copyOf(variables));
+    }
+
+    /**
+     * Returns the resolver for the "variable" elements in the given server.xml files (typically a server.xml file
+     * and its includes), along with the given bootstrap.properties and server.env entries.
+     */
+    public static VariableResolver of(
+            List<Server> servers,
+            Map<String, String> bootstrapProperties,
+            Map<String, String> serverEnv
+    ) {
+        List<Variable> variableElements = servers.stream().flatMap(s -> s.variables().stream()).toList();
+
+        Map<String, String> variables = new HashMap<>();
+        for (Variable variable : variableElements) {
+            variable.defaultValueOption().ifPresent(v -> variables.put(variable.name(), v));
+        }
+        serverEnv.forEach((name, value) -> {
+            variables.put(name, value);
+            variables.put("env." + name, value);
+        });
+        for (Variable variable : variableElements) {
+            variable.valueOption().ifPresent(v -> variables.put(variable.name(), v));
+        }
+        variables.putAll(bootstrapProperties);
+        return of(variables);
+    }
+
+    /**
+     * Like {@link #of(List, Map, Map)}, reading the bootstrap.properties and server.env files (if any) from the
+     * given server config directory.
+     */
+    public static VariableResolver load(Path serverConfigDir, List<Server> servers) {
+        return of(
+                servers,
+                readProperties(serverConfigDir.resolve("bootstrap.properties")),
+                readProperties(serverConfigDir.resolve("server.env"))
+        );
+    }
+
+    /**
+     * Returns the unresolved variable values.
+     */
+    public ImmutableMap<String, String> variables() {
+        return variables;
+    }
+
+    /**
+     * Returns the resolved value of the given variable, if it is defined and can be resolved.
+     */
+    public Optional<String> findValue(String variableName) {
+        return evaluate(variableName);
+    }
+
+    /**
+     * Resolves all "${...}" references in the given text, leaving unresolvable references as is.
+     */
+    public String resolve(String text) {
+        if (!text.contains("${")) {
+            return text;
+        }
+        return resolve(text, new HashSet<>());
+    }
+
+    /**
+     * Resolves the given (optional) attribute value, and parses the result as an int. Returns an empty OptionalInt
+     * if the value is absent, if a reference cannot be resolved, or if the resolved value is not an int, so that
+     * callers can fall back to the default value instead of failing with a NumberFormatException.
+     */
+    public OptionalInt resolveAsInt(Optional<String> textOption) {
+        Optional<String> resolvedValueOption = textOption.map(this::resolve).map(String::strip);
+        if (resolvedValueOption.isEmpty() || !INT_PATTERN.matcher(resolvedValueOption.get()).matches()) {
+            return OptionalInt.empty();
+        }
+        try {
+            return OptionalInt.of(Integer.parseInt(resolvedValueOption.get()));
+        } catch (NumberFormatException e) {
+            // Out of int range
+            return OptionalInt.empty();
+        }
+    }
+
+    private String resolve(String text, Set<String> expressionsInProgress) {
+        ImmutableList<Part> parts = compiledTexts.computeIfAbsent(text, VariableResolver::compile);
+        StringBuilder sb = new StringBuilder();
+        for (Part part : parts) {
+            if (part instanceof Literal literal) {
+                sb.append(literal.text());
+            } else if (part instanceof Reference reference) {
+                sb.append(evaluate(reference.expression(), expressionsInProgress)
+                        .orElse("${" + reference.expression() + "}"));
+            }
+        }
+        return sb.toString();
+    }
+
+    private Optional<String> evaluate(String expression) {
+        try {
+            return evaluate(expression, new HashSet<>());
+        } catch (CycleException e) {
+            return Optional.empty();
+        }
+    }
+
+    private Optional<String> evaluate(String expression, Set<String> expressionsInProgress) {
+        Optional<String> cachedResult = evaluatedExpressions.get(expression);
+        if (cachedResult != null) {
+            return cachedResult;
+        }
+        if (!expressionsInProgress.add(expression)) {
+            throw new CycleException();
+        }
+
+        try {
+            Optional<String> result = doEvaluate(expression, expressionsInProgress);
+            evaluatedExpressions.put(expression, result);
+            return result;
+        } catch (CycleException e) {
+            if (expressionsInProgress.size() > 1) {
+                throw e;
+            }
+            // The outermost expression depends on a cycle, so it remains unresolved (not cached, for determinism)
+            return Optional.empty();
+        } finally {
+            expressionsInProgress.remove(expression);
+        }
+    }
+
+    private Optional<String> doEvaluate(String expression, Set<String> expressionsInProgress) {
+        String value = variables.get(expression);
+        if (value != null) {
+            return Optional.of(value.contains("${") ? resolve(value, expressionsInProgress) : value);
+        }
+
+        return evaluateArithmetic(expression, expressionsInProgress).stream()
+                .mapToObj(String::valueOf)
+                .findFirst();
+    }
+
+    /**
+     * Evaluates an arithmetic expression such as "base.port + 2 * offset", where multiplication and division
+     * take precedence over addition and subtraction.
+     */
+    private OptionalLong evaluateArithmetic(String expression, Set<String> expressionsInProgress) {
+        List<String> operands = new ArrayList<>();
+        List<String> operators = new ArrayList<>();
+        Matcher matcher = OPERATOR_PATTERN.matcher(expression);
+        int position = 0;
+        while (matcher.find()) {
+            operands.add(expression.substring(position, matcher.start()).trim());
+            operators.add(matcher.group(1));
+            position = matcher.end();
+        }
+        operands.add(expression.substring(position).trim());
+
+        if (operators.isEmpty() || operands.stream().anyMatch(String::isEmpty)) {
+            return OptionalLong.empty();
+        }
+
+        List<Long> values = new ArrayList<>();
+        for (String operand : operands) {
+            OptionalLong value = evaluateOperand(operand, expressionsInProgress);
+            if (value.isEmpty()) {
+                return OptionalLong.empty();
+            }
+            values.add(value.getAsLong());
+        }
+
+        // First multiplication and division, then addition and subtraction, each from left to right
+        List<Long> terms = new ArrayList<>(List.of(values.get(0)));
+        List<String> termOperators = new ArrayList<>();
+        for (int i = 0; i < operators.size(); i++) {
+            String operator = operators.get(i);
+            long value = values.get(i + 1);
+            int last = terms.size() - 1;
+            if (operator.equals("*")) {
+                terms.set(last, terms.get(last) * value);
+            } else if (operator.equals("/")) {
+                if (value == 0) {
+                    return OptionalLong.empty();
+                }
+                terms.set(last, terms.get(last) / value);
+            } else {
+                terms.add(value);
+                termOperators.add(operator);
+            }
+        }
+
+        long result = terms.get(0);
+        for (int i = 0; i < termOperators.size(); i++) {
+            result = termOperators.get(i).equals("+") ? result + terms.get(i + 1) : result - terms.get(i + 1);
+        }
+        return OptionalLong.of(result);
+    }
+
+    private OptionalLong evaluateOperand(String operand, Set<String> expressionsInProgress) {
+        Optional<String> valueOption = operand.chars().allMatch(Character::isDigit) ?
+                Optional.of(operand) :
+                evaluate(operand, expressionsInProgress);
+        try {
+            return valueOption.stream().mapToLong(v -> Long.parseLong(v.trim())).findFirst();
+        } catch (NumberFormatException e) {
+            return OptionalLong.empty();
+        }
+    }
+
+    private static ImmutableList<Part> compile(String text) {
+        ImmutableList.Builder<Part> parts = ImmutableList.builder();
+        int position = 0;
+        while (position < text.length()) {
+            int start = text.indexOf("${", position);
+            int end = (start < 0) ? -1 : text.indexOf('}', start + 2);
+            if (end < 0) {
+                parts.add(new Literal(text.substring(position)));
+                break;
+            }
+            if (start > position) {
+                parts.add(new Literal(text.substring(position, start)));
+            }
+            parts.add(new Reference(text.substring(start + 2, end)));
+            position = end + 1;
+        }
+        return parts.build();
+    }
+
+    private static ImmutableMap<String, String> readProperties(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return ImmutableMap.of();
+        }
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.ISO_8859_1)) {
+            Properties properties = new Properties();
+            properties.load(reader);
+            return properties.stringPropertyNames().stream()
+                    .collect(ImmutableMap.toImmutableMap(k -> k, properties::getProperty));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -70,6 +70,10 @@ public final class WasJmsEndpoint implements ServerXmlContent {
                 .orElse(7276);
     }
 
+    public int wasJmsPort(VariableResolver variableResolver) {
+        return variableResolver.resolveAsInt(wasJmsPortAsStringOption()).orElse(7276);
+    }
+
     public int wasJmsSSLPort() {
         return wasJmsSSLPortAsStringOption()
                 .stream()
@@ -77,4 +81,8 @@ public final class WasJmsEndpoint implements ServerXmlContent {
                 .findFirst()
                 .orElse(7286);
     }
+
+    public int wasJmsSSLPort(VariableResolver variableResolver) {
+        return variableResolver.resolveAsInt(wasJmsSSLPortAsStringOption()).orElse(7286);
+    }
 }
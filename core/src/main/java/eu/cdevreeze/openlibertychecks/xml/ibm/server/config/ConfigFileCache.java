@@ -0,0 +1,117 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.xml.ibm.server.config;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import eu.cdevreeze.yaidom4j.dom.ancestryaware.Document;
+import eu.cdevreeze.yaidom4j.dom.immutabledom.jaxpinterop.DocumentParser;
+import eu.cdevreeze.yaidom4j.dom.immutabledom.jaxpinterop.DocumentParsers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory cache of parsed server configuration files (server.xml files and their includes), keyed by
+ * canonical path. A cache entry is reused as long as the file size and last-modified time are unchanged.
+ * <p>
+ * The cache is meant to be shared by all server configurations checked during one run, so that an include
+ * file shared by many server configurations is parsed only once.
+ * <p>
+ * This class is thread-safe. Concurrent requests for the same file lead to only one parse.
+ *
+ * @author Chris de Vreeze
+ */
+public final class ConfigFileCache {
+
+    private record Fingerprint(long lastModifiedMillis, long size) {
+    }
+
+    private record Entry(Fingerprint fingerprint, Supplier<Document> documentSupplier) {
+    }
+
+    private static final ThreadLocal<DocumentParser> DOCUMENT_PARSER =
+            ThreadLocal.withInitial(() -> DocumentParsers.builder().removingInterElementWhitespace().build());
+
+    private final ConcurrentHashMap<Path, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    public ConfigFileCache() {
+    }
+
+    /**
+     * Returns the parsed document for the given file, parsing it only if it is not in the cache, or if it has
+     * been modified since it was parsed.
+     */
+    public Document getOrParse(Path file) {
+        Path canonicalFile = canonicalPath(file);
+        Fingerprint fingerprint = fingerprint(canonicalFile);
+
+        Entry entry = entries.compute(canonicalFile, (path, oldEntry) -> {
+            if (oldEntry != null && oldEntry.fingerprint().equals(fingerprint)) {
+                hitCount.increment();
+                return oldEntry;
+            }
+            missCount.increment();
+            // Parsing is deferred to outside the map update, and happens at most once per entry
+            return new Entry(fingerprint, Suppliers.memoize(() -> parse(path)));
+        });
+        return entry.documentSupplier().get();
+    }
+
+    public long hitCount() {
+        return hitCount.sum();
+    }
+
+    public long missCount() {
+        return missCount.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the canonical path of the given existing file, which is the key used by this cache.
+     */
+    public static Path canonicalPath(Path file) {
+        try {
+            return file.toRealPath();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Fingerprint fingerprint(Path file) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            return new Fingerprint(attrs.lastModifiedTime().toMillis(), attrs.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Document parse(Path file) {
+        return Document.from(DOCUMENT_PARSER.get().parse(file.toUri()));
+    }
+}
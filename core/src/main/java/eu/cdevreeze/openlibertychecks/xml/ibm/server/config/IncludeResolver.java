@@ -0,0 +1,323 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.xml.ibm.server.config;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import eu.cdevreeze.openlibertychecks.internal.ForkJoinSupport;
+import eu.cdevreeze.openlibertychecks.io.DirectoryCrawler;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.Include;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.Server;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.VariableResolver;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.config.ResolvedServerConfig.ConfigFile;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.config.ResolvedServerConfig.Problem;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.config.ResolvedServerConfig.ProblemKind;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.config.ResolvedServerConfig.ResolvedInclude;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+/**
+ * Resolver of the include graph of a server.xml file. It follows "include" elements, substituting location
+ * variables such as "${server.config.dir}", resolving relative locations against the directory of the including
+ * file, and expanding directory locations to the XML files in that directory.
+ * <p>
+ * The include graph is loaded breadth-first, where the files of each "wave" are parsed in parallel. Parsing goes
+ * through a {@link ConfigFileCache}, so sharing the cache across resolutions means that files shared by several
+ * server configurations are parsed only once. Include cycles are detected, and reported as problems, as are
+ * missing (non-optional) files, locations that are not valid paths, and remote locations, which are not fetched.
+ * <p>
+ * The files of a wave are parsed in the shared fork/join pool for the configured parallelism, so resolvers (and
+ * other components) with the same parallelism do not create a pool of their own per call.
+ * <p>
+ * Location variables are resolved against the settings, "server.config.dir" (which defaults to the directory of
+ * the server.xml file), and the bootstrap.properties and server.env files in that directory, using a
+ * {@link VariableResolver}. Variables defined in the server configuration itself are not used for include locations.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @author Chris de Vreeze
+ */
+public final class IncludeResolver {
+
+    public static final String SERVER_CONFIG_DIR = "server.config.dir";
+
+    /**
+     * Resolver settings, holding the location variables (such as "wlp.user.dir") and the parsing parallelism.
+     */
+    public record Settings(ImmutableMap<String, String> locationVariables, int parallelism) {
+
+        public Settings {
+            Objects.requireNonNull(locationVariables);
+            Preconditions.checkArgument(parallelism >= 1);
+        }
+
+        public static Settings defaultSettings() {
+            return new Settings(ImmutableMap.of(), DirectoryCrawler.DEFAULT_PARALLELISM);
+        }
+
+        public Settings withLocationVariable(String name, String value) {
+            Map<String, String> variables = new HashMap<>(locationVariables);
+            variables.put(name, value);
+            return new Settings(ImmutableMap.copyOf(variables), parallelism);
+        }
+
+        /**
+         * Adds location variable "wlp.user.dir", along with the "shared.*.dir" variables derived from it.
+         */
+        public Settings withWlpUserDir(Path wlpUserDir) {
+            Path sharedDir = wlpUserDir.resolve("shared");
+            return withLocationVariable("wlp.user.dir", wlpUserDir.toString())
+                    .withLocationVariable("shared.config.dir", sharedDir.resolve("config").toString())
+                    .withLocationVariable("shared.resource.dir", sharedDir.resolve("resources").toString())
+                    .withLocationVariable("shared.app.dir", sharedDir.resolve("apps").toString());
+        }
+
+        public Settings withParallelism(int parallelism) {
+            return new Settings(locationVariables, parallelism);
+        }
+    }
+
+    private record IncludeTarget(Include include, String location, ImmutableList<Path> files) {
+    }
+
+    private record LoadedFile(
+            Path path,
+            Optional<Server> serverOption,
+            String parseErrorMessage,
+            ImmutableList<IncludeTarget> includeTargets,
+            ImmutableList<Problem> problems
+    ) {
+    }
+
+    private final Settings settings;
+    private final ConfigFileCache cache;
+
+    public IncludeResolver(Settings settings, ConfigFileCache cache) {
+        this.settings = Objects.requireNonNull(settings);
+        this.cache = Objects.requireNonNull(cache);
+    }
+
+    public Settings settings() {
+        return settings;
+    }
+
+    public ConfigFileCache cache() {
+        return cache;
+    }
+
+    /**
+     * Resolves the include graph of the given server.xml file. Problems with includes are reported in the result,
+     * but if the server.xml file itself cannot be parsed, an exception is thrown.
+     */
+    public ResolvedServerConfig resolve(Path serverXmlFile) {
+        Path rootFile = ConfigFileCache.canonicalPath(serverXmlFile);
+
+        Map<String, String> variables =
+                new HashMap<>(VariableResolver.load(rootFile.getParent(), List.of()).variables());
+        variables.put(SERVER_CONFIG_DIR, rootFile.getParent().toString());
+        variables.putAll(settings.locationVariables());
+
+        Map<Path, LoadedFile> loadedFiles = loadIncludeGraph(rootFile, VariableResolver.of(variables));
+
+        LoadedFile root = loadedFiles.get(rootFile);
+        if (root.serverOption().isEmpty()) {
+            throw new RuntimeException(String.format("Could not parse '%s': %s", rootFile, root.parseErrorMessage()));
+        }
+
+        return new Traversal(loadedFiles).traverse(rootFile);
+    }
+
+    private Map<Path, LoadedFile> loadIncludeGraph(Path rootFile, VariableResolver variableResolver) {
+        Map<Path, LoadedFile> loadedFiles = new HashMap<>();
+        Set<Path> wave = Set.of(rootFile);
+
+        ForkJoinPool pool = ForkJoinSupport.sharedPool(settings.parallelism());
+        while (!wave.isEmpty()) {
+            Set<Path> currentWave = wave;
+            List<LoadedFile> loadedWave = ForkJoinSupport.invoke(
+                    pool,
+                    () -> currentWave.parallelStream().map(f -> load(f, variableResolver)).toList()
+            );
+
+            Set<Path> nextWave = new LinkedHashSet<>();
+            for (LoadedFile loadedFile : loadedWave) {
+                loadedFiles.put(loadedFile.path(), loadedFile);
+                loadedFile.includeTargets().stream()
+                        .flatMap(t -> t.files().stream())
+                        .forEach(nextWave::add);
+            }
+            nextWave.removeAll(loadedFiles.keySet());
+            wave = nextWave;
+        }
+        return loadedFiles;
+    }
+
+    private LoadedFile load(Path file, VariableResolver variableResolver) {
+        Server server;
+        try {
+            server = new Server(cache.getOrParse(file).documentElement());
+        } catch (RuntimeException e) {
+            return new LoadedFile(file, Optional.empty(), String.valueOf(e.getMessage()), ImmutableList.of(), ImmutableList.of());
+        }
+
+        ImmutableList.Builder<IncludeTarget> includeTargets = ImmutableList.builder();
+        ImmutableList.Builder<Problem> problems = ImmutableList.builder();
+
+        for (Include include : server.includes()) {
+            String rawLocation = include.locationOption().orElse("");
+            String location = variableResolver.resolve(rawLocation);
+
+            if (location.contains("${")) {
+                problems.add(new Problem(file, location, ProblemKind.UNRESOLVED_VARIABLE, "Unresolved location variable"));
+                includeTargets.add(new IncludeTarget(include, location, ImmutableList.of()));
+            } else if (location.matches("^[a-zA-Z][a-zA-Z0-9+.-]+://.*") && !location.startsWith("file:")) {
+                problems.add(new Problem(file, location, ProblemKind.REMOTE_LOCATION, "Remote location not fetched"));
+                includeTargets.add(new IncludeTarget(include, location, ImmutableList.of()));
+            } else {
+                Optional<Path> targetOption = resolveLocation(file, location);
+
+                if (targetOption.isEmpty()) {
+                    problems.add(
+                            new Problem(file, location, ProblemKind.INVALID_LOCATION, "Not a valid file location")
+                    );
+                    includeTargets.add(new IncludeTarget(include, location, ImmutableList.of()));
+                    continue;
+                }
+
+                Path target = targetOption.get();
+                if (!Files.exists(target)) {
+                    if (!include.optional()) {
+                        problems.add(new Problem(file, location, ProblemKind.MISSING_FILE, "File not found: " + target));
+                    }
+                    includeTargets.add(new IncludeTarget(include, location, ImmutableList.of()));
+                } else {
+                    ImmutableList<Path> files = Files.isDirectory(target) ? findXmlFiles(target) : ImmutableList.of(target);
+                    includeTargets.add(new IncludeTarget(
+                            include,
+                            location,
+                            files.stream().map(ConfigFileCache::canonicalPath).collect(ImmutableList.toImmutableList())
+                    ));
+                }
+            }
+        }
+
+        return new LoadedFile(file, Optional.of(server), "", includeTargets.build(), problems.build());
+    }
+
+    /**
+     * Resolves the given location against the directory of the including file, returning an empty Optional if the
+     * location is not a valid path or "file:" URI. Note that InvalidPathException is an IllegalArgumentException.
+     */
+    private static Optional<Path> resolveLocation(Path includingFile, String location) {
+        try {
+            Path path = location.startsWith("file:") ? Path.of(URI.create(location)) : Path.of(location);
+            return Optional.of(path.isAbsolute() ? path : includingFile.getParent().resolve(path).normalize());
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static ImmutableList<Path> findXmlFiles(Path dir) {
+        try (Stream<Path> pathStream = Files.list(dir)) {
+            return pathStream
+                    .filter(Files::isRegularFile)
+                    .filter(p -> p.getFileName().toString().endsWith(".xml"))
+                    .sorted()
+                    .collect(ImmutableList.toImmutableList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Depth-first traversal of the loaded include graph, detecting cycles.
+     */
+    private static final class Traversal {
+
+        private final Map<Path, LoadedFile> loadedFiles;
+        private final Set<Path> visitOrder = new LinkedHashSet<>();
+        private final Map<Path, ConfigFile> configFiles = new HashMap<>();
+        private final Set<Path> filesOnStack = new HashSet<>();
+        private final List<Problem> problems = new ArrayList<>();
+
+        Traversal(Map<Path, LoadedFile> loadedFiles) {
+            this.loadedFiles = loadedFiles;
+        }
+
+        ResolvedServerConfig traverse(Path rootFile) {
+            visit(rootFile);
+
+            ImmutableMap<Path, ConfigFile> orderedConfigFiles = visitOrder.stream()
+                    .collect(ImmutableMap.toImmutableMap(p -> p, configFiles::get));
+            return new ResolvedServerConfig(rootFile, orderedConfigFiles, ImmutableList.copyOf(problems));
+        }
+
+        private void visit(Path file) {
+            LoadedFile loadedFile = loadedFiles.get(file);
+            visitOrder.add(file);
+            filesOnStack.add(file);
+            problems.addAll(loadedFile.problems());
+
+            ImmutableList.Builder<ResolvedInclude> resolvedIncludes = ImmutableList.builder();
+
+            for (IncludeTarget includeTarget : loadedFile.includeTargets()) {
+                ImmutableList.Builder<Path> files = ImmutableList.builder();
+
+                for (Path includedFile : includeTarget.files()) {
+                    LoadedFile loadedIncludedFile = loadedFiles.get(includedFile);
+
+                    if (filesOnStack.contains(includedFile)) {
+                        problems.add(new Problem(
+                                file,
+                                includeTarget.location(),
+                                ProblemKind.CYCLE,
+                                "Include cycle via " + includedFile
+                        ));
+                    } else if (loadedIncludedFile.serverOption().isEmpty()) {
+                        problems.add(new Problem(
+                                file,
+                                includeTarget.location(),
+                                ProblemKind.NOT_PARSEABLE,
+                                loadedIncludedFile.parseErrorMessage()
+                        ));
+                    } else {
+                        files.add(includedFile);
+                        if (!visitOrder.contains(includedFile)) {
+                            visit(includedFile);
+                        }
+                    }
+                }
+
+                resolvedIncludes.add(new ResolvedInclude(includeTarget.include(), files.build()));
+            }
+
+            filesOnStack.remove(file);
+            configFiles.put(
+                    file,
+                    new ConfigFile(file, loadedFile.serverOption().orElseThrow(), resolvedIncludes.build())
+            );
+        }
+    }
+}
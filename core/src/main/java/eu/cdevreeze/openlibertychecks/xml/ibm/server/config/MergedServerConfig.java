@@ -0,0 +1,41 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.xml.ibm.server.config;
+
+import com.google.common.collect.ImmutableList;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.Server;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.config.ResolvedServerConfig.Problem;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * The effective configuration of an OpenLiberty server, as one "server" element tree, merged from the server.xml
+ * file, its includes and the configuration dropins (see {@link ServerConfigMerger}). The merged files are the
+ * canonical paths of the files that contributed to the effective configuration, in merge order. The problems
+ * are the include resolution problems found along the way.
+ *
+ * @author Chris de Vreeze
+ */
+public record MergedServerConfig(Server server, ImmutableList<Path> mergedFiles, ImmutableList<Problem> problems) {
+
+    public MergedServerConfig {
+        Objects.requireNonNull(server);
+        Objects.requireNonNull(mergedFiles);
+        Objects.requireNonNull(problems);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.xml.ibm.server.config;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.Include;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.Server;
+
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The result of resolving the include graph of a server.xml file (see {@link IncludeResolver}). It contains
+ * the parsed server.xml file and all (directly or indirectly) included files, each one only once, in the order
+ * in which they are first encountered by a depth-first traversal (in document order) starting at the server.xml
+ * file. It also contains the includes that could not be resolved.
+ * <p>
+ * This class is immutable and therefore thread-safe.
+ *
+ * @author Chris de Vreeze
+ */
+public final class ResolvedServerConfig {
+
+    /**
+     * A parsed server configuration file, along with its resolved includes. The path is a canonical path.
+     */
+    public record ConfigFile(Path path, Server server, ImmutableList<ResolvedInclude> includes) {
+
+        public ConfigFile {
+            Objects.requireNonNull(path);
+            Objects.requireNonNull(server);
+            Objects.requireNonNull(includes);
+        }
+    }
+
+    /**
+     * An "include" element, along with the canonical paths of the files it resolved to. An include of a directory
+     * resolves to the XML files in that directory, in alphabetical order. An unresolved include, or an include that
+     * would close a cycle, resolves to no files at all.
+     */
+    public record ResolvedInclude(Include include, ImmutableList<Path> files) {
+
+        public ResolvedInclude {
+            Objects.requireNonNull(include);
+            Objects.requireNonNull(files);
+        }
+    }
+
+    public enum ProblemKind {MISSING_FILE, UNRESOLVED_VARIABLE, REMOTE_LOCATION, INVALID_LOCATION, NOT_PARSEABLE, CYCLE}
+
+    /**
+     * An include that could not be (fully) resolved. The location is the one after variable substitution,
+     * as far as possible.
+     */
+    public record Problem(Path includingFile, String location, ProblemKind kind, String message) {
+
+        public Problem {
+            Objects.requireNonNull(includingFile);
+            Objects.requireNonNull(location);
+            Objects.requireNonNull(kind);
+            Objects.requireNonNull(message);
+        }
+    }
+
+    private final Path rootFile;
+    private final ImmutableMap<Path, ConfigFile> configFiles;
+    private final ImmutableList<Problem> problems;
+
+    public ResolvedServerConfig(Path rootFile, ImmutableMap<Path, ConfigFile> configFiles, ImmutableList<Problem> problems) {
+        Preconditions.checkArgument(configFiles.containsKey(rootFile));
+        this.rootFile = rootFile;
+        this.configFiles = configFiles;
+        this.problems = problems;
+    }
+
+    /**
+     * Returns the canonical path of the server.xml file.
+     */
+    public Path rootFile() {
+        return rootFile;
+    }
+
+    public ConfigFile rootConfigFile() {
+        return configFiles.get(rootFile);
+    }
+
+    /**
+     * Returns all config files, keyed by canonical path, starting with the server.xml file, in depth-first order.
+     */
+    public ImmutableMap<Path, ConfigFile> configFiles() {
+        return configFiles;
+    }
+
+    public Optional<ConfigFile> findConfigFile(Path canonicalPath) {
+        return Optional.ofNullable(configFiles.get(canonicalPath));
+    }
+
+    /**
+     * Returns the Server wrappers of all config files, in the order of {@link #configFiles()}.
+     */
+    public ImmutableList<Server> servers() {
+        return configFiles.values().stream()
+                .map(ConfigFile::server)
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    public ImmutableList<Problem> problems() {
+        return problems;
+    }
+}
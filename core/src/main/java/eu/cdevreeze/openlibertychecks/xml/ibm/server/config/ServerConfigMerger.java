@@ -0,0 +1,288 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.xml.ibm.server.config;
+
+import com.google.common.base.Enums;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.Include;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.Server;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.config.ResolvedServerConfig.ConfigFile;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.config.ResolvedServerConfig.ResolvedInclude;
+import eu.cdevreeze.yaidom4j.dom.ancestryaware.Document;
+import eu.cdevreeze.yaidom4j.dom.immutabledom.Element;
+import eu.cdevreeze.yaidom4j.dom.immutabledom.Node;
+
+import javax.xml.namespace.QName;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Merge engine building the effective configuration of an OpenLiberty server, like OpenLiberty itself does.
+ * The XML files in "configDropins/defaults" are merged first, then the server.xml file, and finally the XML files in
+ * "configDropins/overrides", where the dropin files are taken in alphabetical order. Includes are merged at the
+ * position where they occur, following the "onConflict" attribute of the include element (MERGE by default).
+ * <p>
+ * Top-level elements conflict if they have the same name and "id" attribute, or the same name if they are known
+ * singletons (see {@link #SINGLETON_ELEMENT_NAMES}), or the same name and "name" attribute in the case of "variable"
+ * elements. Other elements without "id" never conflict. Conflicting elements are handled as follows:
+ * <ul>
+ * <li>MERGE: the attributes are combined, with later values winning, and the child elements are merged in the
+ * same way (children without "id" are appended, unless an equal child is already present)</li>
+ * <li>REPLACE: the later element replaces the earlier one</li>
+ * <li>IGNORE: the later element is ignored</li>
+ * </ul>
+ * <p>
+ * The result is an immutable element tree with structural sharing: elements that are not involved in any conflict
+ * are the very same (immutable) element nodes as in the parsed files, so merging many files does not copy
+ * the bulk of the configuration.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @author Chris de Vreeze
+ */
+public final class ServerConfigMerger {
+
+    public enum OnConflict {MERGE, REPLACE, IGNORE}
+
+    public static final ImmutableSet<String> SINGLETON_ELEMENT_NAMES = ImmutableSet.of(
+            "featureManager",
+            "logging",
+            "applicationManager",
+            "applicationMonitor",
+            "config",
+            "executor",
+            "httpDispatcher",
+            "httpSession",
+            "sslDefault",
+            "transaction",
+            "webContainer"
+    );
+
+    private static final QName ID_NAME = new QName("id");
+    private static final QName NAME_NAME = new QName("name");
+
+    private final IncludeResolver includeResolver;
+
+    public ServerConfigMerger(IncludeResolver includeResolver) {
+        this.includeResolver = Objects.requireNonNull(includeResolver);
+    }
+
+    /**
+     * Returns the effective configuration of the server whose server.xml file is given.
+     */
+    public MergedServerConfig merge(Path serverXmlFile) {
+        Path canonicalServerXmlFile = ConfigFileCache.canonicalPath(serverXmlFile);
+        Path serverConfigDir = canonicalServerXmlFile.getParent();
+
+        List<ResolvedServerConfig> resolvedConfigs = Stream.of(
+                        findXmlFiles(serverConfigDir.resolve("configDropins").resolve("defaults")).stream(),
+                        Stream.of(serverXmlFile),
+                        findXmlFiles(serverConfigDir.resolve("configDropins").resolve("overrides")).stream()
+                )
+                .flatMap(s -> s)
+                .map(includeResolver::resolve)
+                .toList();
+
+        // The effective configuration gets the URI of the server.xml file, so that findings point to that file
+        return merge(resolvedConfigs, Optional.of(canonicalServerXmlFile.toUri()));
+    }
+
+    /**
+     * Merges the given resolved server configurations, in the given order. The attributes of the root elements are
+     * combined as well, with later values winning. The resulting document has no URI.
+     */
+    public static MergedServerConfig merge(List<ResolvedServerConfig> resolvedConfigs) {
+        return merge(resolvedConfigs, Optional.empty());
+    }
+
+    /**
+     * Like {@link #merge(List)}, but the resulting document gets the given URI, if any.
+     */
+    public static MergedServerConfig merge(List<ResolvedServerConfig> resolvedConfigs, Optional<URI> documentUriOption) {
+        Merge merge = new Merge();
+        resolvedConfigs.forEach(config -> merge.mergeConfigFile(config, config.rootConfigFile(), OnConflict.MERGE));
+
+        Element root = merge.buildRootElement();
+        Server server = new Server(
+                Document.from(new eu.cdevreeze.yaidom4j.dom.immutabledom.Document(documentUriOption, ImmutableList.of(root)))
+                        .documentElement()
+        );
+
+        return new MergedServerConfig(
+                server,
+                ImmutableList.copyOf(merge.mergedFiles),
+                resolvedConfigs.stream().flatMap(c -> c.problems().stream()).collect(ImmutableList.toImmutableList())
+        );
+    }
+
+    public static OnConflict onConflict(Include include) {
+        // Unknown values are treated as the default, so that one typo does not stop the checks
+        return include.onConflictOption()
+                .flatMap(v -> Enums.getIfPresent(OnConflict.class, v.trim().toUpperCase(Locale.ROOT)).toJavaUtil())
+                .orElse(OnConflict.MERGE);
+    }
+
+    private static ImmutableList<Path> findXmlFiles(Path dir) {
+        if (!Files.isDirectory(dir)) {
+            return ImmutableList.of();
+        }
+        try (Stream<Path> pathStream = Files.list(dir)) {
+            return pathStream
+                    .filter(Files::isRegularFile)
+                    .filter(p -> p.getFileName().toString().endsWith(".xml"))
+                    .sorted()
+                    .collect(ImmutableList.toImmutableList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Mutable merge state, holding the top-level elements merged so far, in order of first occurrence.
+     */
+    private static final class Merge {
+
+        private record MergeKey(QName elementName, String qualifier) {
+        }
+
+        private final Map<Object, Element> topLevelElements = new LinkedHashMap<>();
+        private final List<Path> mergedFiles = new ArrayList<>();
+        private final Map<QName, String> rootAttributes = new LinkedHashMap<>();
+        private Element firstRootElement;
+
+        void mergeConfigFile(ResolvedServerConfig config, ConfigFile configFile, OnConflict onConflict) {
+            Element rootElement = configFile.server().getElement().underlyingNode();
+            if (firstRootElement == null) {
+                firstRootElement = rootElement;
+            }
+            rootAttributes.putAll(rootElement.attributes());
+            mergedFiles.add(configFile.path());
+
+            Iterator<ResolvedInclude> includeIterator = configFile.includes().iterator();
+
+            for (Element child : rootElement.childElementStream().toList()) {
+                if (child.name().getLocalPart().equals("include")) {
+                    // Includes are in document order, like the "include" child elements
+                    ResolvedInclude resolvedInclude = includeIterator.next();
+                    OnConflict includeOnConflict = onConflict(resolvedInclude.include());
+
+                    for (Path includedFile : resolvedInclude.files()) {
+                        mergeConfigFile(config, config.configFiles().get(includedFile), includeOnConflict);
+                    }
+                } else {
+                    mergeTopLevelElement(child, onConflict);
+                }
+            }
+        }
+
+        Element buildRootElement() {
+            Element root = Objects.requireNonNull(firstRootElement);
+            return new Element(
+                    root.name(),
+                    ImmutableMap.copyOf(rootAttributes),
+                    ImmutableList.copyOf(topLevelElements.values()),
+                    root.namespaceScope()
+            );
+        }
+
+        private void mergeTopLevelElement(Element element, OnConflict onConflict) {
+            // Elements that never conflict get a unique key
+            Object key = mergeKey(element).map(k -> (Object) k).orElseGet(Object::new);
+            Element existingElement = topLevelElements.get(key);
+            topLevelElements.put(
+                    key,
+                    (existingElement == null) ? element : resolveConflict(existingElement, element, onConflict)
+            );
+        }
+
+        private static Optional<MergeKey> mergeKey(Element element) {
+            String localName = element.name().getLocalPart();
+            Optional<String> idOption = Optional.ofNullable(element.attributes().get(ID_NAME));
+
+            if (idOption.isPresent()) {
+                return Optional.of(new MergeKey(element.name(), "id:" + idOption.get()));
+            } else if (localName.equals("variable")) {
+                return Optional.ofNullable(element.attributes().get(NAME_NAME))
+                        .map(name -> new MergeKey(element.name(), "name:" + name));
+            } else if (SINGLETON_ELEMENT_NAMES.contains(localName)) {
+                return Optional.of(new MergeKey(element.name(), ""));
+            } else {
+                return Optional.empty();
+            }
+        }
+
+        private static Element resolveConflict(Element existingElement, Element newElement, OnConflict onConflict) {
+            return switch (onConflict) {
+                case IGNORE -> existingElement;
+                case REPLACE -> newElement;
+                case MERGE -> mergeElements(existingElement, newElement);
+            };
+        }
+
+        private static Element mergeElements(Element existingElement, Element newElement) {
+            Map<QName, String> attributes = new LinkedHashMap<>(existingElement.attributes());
+            attributes.putAll(newElement.attributes());
+
+            List<Node> children = new ArrayList<>(existingElement.children());
+            boolean childrenChanged = false;
+
+            for (Element newChild : newElement.childElementStream().toList()) {
+                Optional<String> idOption = Optional.ofNullable(newChild.attributes().get(ID_NAME));
+                int index = idOption.isPresent() ? indexOfChildWithId(children, newChild.name(), idOption.get()) : -1;
+
+                if (index >= 0) {
+                    Element existingChild = (Element) children.get(index);
+                    Element mergedChild = mergeElements(existingChild, newChild);
+                    if (mergedChild != existingChild) {
+                        children.set(index, mergedChild);
+                        childrenChanged = true;
+                    }
+                } else if (idOption.isPresent() || !children.contains(newChild)) {
+                    children.add(newChild);
+                    childrenChanged = true;
+                }
+            }
+
+            if (!childrenChanged && attributes.equals(existingElement.attributes())) {
+                // Structural sharing: nothing changed, so reuse the existing element
+                return existingElement;
+            }
+            return new Element(
+                    existingElement.name(),
+                    ImmutableMap.copyOf(attributes),
+                    ImmutableList.copyOf(children),
+                    existingElement.namespaceScope()
+            );
+        }
+
+        private static int indexOfChildWithId(List<Node> children, QName name, String id) {
+            for (int i = 0; i < children.size(); i++) {
+                if (children.get(i) instanceof Element e && e.name().equals(name) && id.equals(e.attributes().get(ID_NAME))) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.xml.internal;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
+
+import javax.xml.namespace.QName;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Lazily built index of the child elements of an element, keyed by element name. It is meant to be held by
+ * an XML element wrapper (such as the one for a server.xml root element), so that each child element accessor
+ * becomes a map lookup instead of a scan over all child elements.
+ * <p>
+ * The wrapped child element lists are cached as well, so repeated accessor calls return the same list.
+ * They are cached per element name and explicitly passed wrapper type (such as {@code DataSource.class}), so
+ * wrappers with different result types for the same element name do not interfere. Callers must therefore use
+ * only one wrapper function per element name and wrapper type, which is natural for XML element wrapper classes
+ * (typically wrapping with their constructor).
+ * <p>
+ * This class is thread-safe. At worst, the index is built more than once in case of concurrent first access.
+ *
+ * @author Chris de Vreeze
+ */
+public final class ChildElementIndex {
+
+    private final ElementTree.Element element;
+    private volatile ImmutableListMultimap<QName, ElementTree.Element> childElementsByName;
+    private final ConcurrentHashMap<WrapperKey, ImmutableList<?>> wrappedChildElementsByKey = new ConcurrentHashMap<>();
+
+    private record WrapperKey(QName name, Class<?> wrapperType) {
+    }
+
+    public ChildElementIndex(ElementTree.Element element) {
+        this.element = element;
+    }
+
+    public ElementTree.Element element() {
+        return element;
+    }
+
+    public ImmutableList<ElementTree.Element> childElements(QName name) {
+        return getChildElementsByName().get(name);
+    }
+
+    public ImmutableList<ElementTree.Element> childElements(String namespace, String localName) {
+        return childElements(new QName(namespace, localName));
+    }
+
+    /**
+     * Returns the child elements having the given name without namespace.
+     */
+    public ImmutableList<ElementTree.Element> childElements(String localName) {
+        return childElements(new QName(localName));
+    }
+
+    public Optional<ElementTree.Element> firstChildElementOption(QName name) {
+        return childElements(name).stream().findFirst();
+    }
+
+    public Optional<ElementTree.Element> firstChildElementOption(String namespace, String localName) {
+        return firstChildElementOption(new QName(namespace, localName));
+    }
+
+    public Optional<ElementTree.Element> firstChildElementOption(String localName) {
+        return firstChildElementOption(new QName(localName));
+    }
+
+    /**
+     * Returns the child elements having the given name, converted by the given wrapper function to the given
+     * wrapper type. The result is computed once per element name and wrapper type, and cached. Hence, the given
+     * wrapper function must be the only one used for this element name and wrapper type.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ImmutableList<T> wrappedChildElements(
+            QName name,
+            Class<T> wrapperType,
+            Function<ElementTree.Element, ? extends T> wrapper
+    ) {
+        // The cached list was created for the same wrapper type, so it is an ImmutableList<T>
+        return (ImmutableList<T>) wrappedChildElementsByKey.computeIfAbsent(
+                new WrapperKey(name, wrapperType),
+                key -> childElements(key.name()).stream().map(wrapper).collect(ImmutableList.toImmutableList())
+        );
+    }
+
+    public <T> ImmutableList<T> wrappedChildElements(
+            String namespace,
+            String localName,
+            Class<T> wrapperType,
+            Function<ElementTree.Element, ? extends T> wrapper
+    ) {
+        return wrappedChildElements(new QName(namespace, localName), wrapperType, wrapper);
+    }
+
+    /**
+     * Like {@link #wrappedChildElements(QName, Class, Function)}, for the given name without namespace.
+     */
+    public <T> ImmutableList<T> wrappedChildElements(
+            String localName,
+            Class<T> wrapperType,
+            Function<ElementTree.Element, ? extends T> wrapper
+    ) {
+        return wrappedChildElements(new QName(localName), wrapperType, wrapper);
+    }
+
+    private ImmutableListMultimap<QName, ElementTree.Element> getChildElementsByName() {
+        ImmutableListMultimap<QName, ElementTree.Element> result = childElementsByName;
+        if (result == null) {
+            result = element.childElementStream()
+                    .collect(ImmutableListMultimap.toImmutableListMultimap(ElementTree.Element::elementName, e -> e));
+            childElementsByName = result;
+        }
+        return result;
+    }
+}
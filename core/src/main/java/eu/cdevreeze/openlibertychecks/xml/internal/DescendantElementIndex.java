@@ -0,0 +1,128 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.xml.internal;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
+
+import javax.xml.namespace.QName;
+import java.util.Optional;
+
+/**
+ * Index of all elements in an XML document (or, more precisely, in the element tree of a root element),
+ * keyed by element name and by "id" attribute. It is built once per element tree, so that resolving
+ * "Ref" attributes (such as "connectionManagerRef" in a server.xml file) is a map lookup instead of a
+ * scan over the element tree.
+ * <p>
+ * The indexes are cached, keyed by the identity of the underlying (immutable) root element. Since an index
+ * refers to its root element, a cached index keeps its element tree alive, so the cache is bounded to
+ * {@link #MAX_CACHE_SIZE} element trees, evicting (roughly) the least recently used ones first. A run over
+ * more documents than that (such as a large fleet of server configurations) may therefore build some indexes
+ * more than once.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @author Chris de Vreeze
+ */
+public final class DescendantElementIndex {
+
+    private static final QName ID_NAME = new QName("id");
+
+    public static final int MAX_CACHE_SIZE =
+            Integer.getInteger("openlibertychecks.xml.descendantElementIndexCacheSize", 256);
+
+    // Weak keys only for their identity semantics; the values strongly refer to the keys anyway
+    private static final Cache<eu.cdevreeze.yaidom4j.dom.immutabledom.Element, DescendantElementIndex> CACHE =
+            CacheBuilder.newBuilder().weakKeys().maximumSize(MAX_CACHE_SIZE).build();
+
+    private final ElementTree.Element rootElement;
+    private final ImmutableListMultimap<QName, ElementTree.Element> elementsByName;
+    private final ImmutableListMultimap<String, ElementTree.Element> elementsById;
+
+    private DescendantElementIndex(ElementTree.Element rootElement) {
+        this.rootElement = rootElement;
+        ImmutableList<ElementTree.Element> allElements =
+                rootElement.descendantElementOrSelfStream().collect(ImmutableList.toImmutableList());
+        this.elementsByName = allElements.stream()
+                .collect(ImmutableListMultimap.toImmutableListMultimap(ElementTree.Element::elementName, e -> e));
+        this.elementsById = allElements.stream()
+                .filter(e -> e.attributeOption(ID_NAME).isPresent())
+                .collect(ImmutableListMultimap.toImmutableListMultimap(e -> e.attribute(ID_NAME), e -> e));
+    }
+
+    /**
+     * Returns the index of the element tree containing the given element, building it if needed.
+     */
+    public static DescendantElementIndex of(ElementTree.Element element) {
+        ElementTree.Element root = findRootElement(element);
+        // Not a LoadingCache, since the index needs the ancestry-aware root (with its document URI), not just the key
+        return CACHE.asMap().computeIfAbsent(root.underlyingNode(), ignoredKey -> new DescendantElementIndex(root));
+    }
+
+    public ElementTree.Element rootElement() {
+        return rootElement;
+    }
+
+    /**
+     * Returns all elements (the root element included) having the given name, in document order.
+     */
+    public ImmutableList<ElementTree.Element> elements(QName name) {
+        return elementsByName.get(name);
+    }
+
+    /**
+     * Returns all elements having the given name without namespace, in document order.
+     */
+    public ImmutableList<ElementTree.Element> elements(String localName) {
+        return elements(new QName(localName));
+    }
+
+    /**
+     * Returns all elements having the given "id" attribute, in document order. Typically, there is at most
+     * one such element, but ids are only required to be unique per element name.
+     */
+    public ImmutableList<ElementTree.Element> elementsById(String id) {
+        return elementsById.get(id);
+    }
+
+    /**
+     * Returns the first element having the given name and "id" attribute, if any.
+     */
+    public Optional<ElementTree.Element> findElementById(QName name, String id) {
+        return elementsById(id).stream().filter(e -> e.elementName().equals(name)).findFirst();
+    }
+
+    /**
+     * Returns the first element having the given name without namespace and the given "id" attribute, if any.
+     */
+    public Optional<ElementTree.Element> findElementById(String localName, String id) {
+        return findElementById(new QName(localName), id);
+    }
+
+    private static ElementTree.Element findRootElement(ElementTree.Element element) {
+        ElementTree.Element current = element;
+        Optional<ElementTree.Element> parentOption = current.parentElementOption();
+        while (parentOption.isPresent()) {
+            current = parentOption.get();
+            parentOption = current.parentElementOption();
+        }
+        return current;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.xml.internal;
+
+import eu.cdevreeze.yaidom4j.dom.immutabledom.*;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * Support for writing yaidom4j immutable elements to a StAX {@link XMLStreamWriter}, so that (large)
+ * XML reports can be streamed instead of being built as one element tree before being printed.
+ * <p>
+ * The writers created here repair namespaces, so namespace declarations are emitted where needed,
+ * and the written elements can be mixed freely with other content written to the same writer.
+ *
+ * @author Chris de Vreeze
+ */
+public final class ElementStreamWriting {
+
+    private static final XMLOutputFactory XML_OUTPUT_FACTORY = createXmlOutputFactory();
+
+    private ElementStreamWriting() {
+    }
+
+    public static XMLStreamWriter createXmlStreamWriter(Writer writer) throws XMLStreamException {
+        return XML_OUTPUT_FACTORY.createXMLStreamWriter(writer);
+    }
+
+    /**
+     * Writes the given element, including its descendants, to the given writer.
+     */
+    public static void writeElement(Element element, XMLStreamWriter writer) throws XMLStreamException {
+        QName name = element.name();
+        writer.writeStartElement(name.getPrefix(), name.getLocalPart(), name.getNamespaceURI());
+
+        for (Map.Entry<QName, String> attribute : element.attributes().entrySet()) {
+            QName attributeName = attribute.getKey();
+
+            if (attributeName.getNamespaceURI().isEmpty()) {
+                writer.writeAttribute(attributeName.getLocalPart(), attribute.getValue());
+            } else {
+                writer.writeAttribute(
+                        attributeName.getPrefix(),
+                        attributeName.getNamespaceURI(),
+                        attributeName.getLocalPart(),
+                        attribute.getValue()
+                );
+            }
+        }
+
+        for (Node child : element.children()) {
+            writeNode(child, writer);
+        }
+
+        writer.writeEndElement();
+    }
+
+    private static void writeNode(Node node, XMLStreamWriter writer) throws XMLStreamException {
+        if (node instanceof Element element) {
+            writeElement(element, writer);
+        } else if (node instanceof Text text) {
+            if (text.isCData()) {
+                writer.writeCData(text.value());
+            } else {
+                writer.writeCharacters(text.value());
+            }
+        } else if (node instanceof Comment comment) {
+            writer.writeComment(comment.value());
+        } else if (node instanceof ProcessingInstruction pi) {
+            writer.writeProcessingInstruction(pi.target(), pi.data());
+        }
+    }
+
+    private static XMLOutputFactory createXmlOutputFactory() {
+        XMLOutputFactory factory = XMLOutputFactory.newFactory();
+        factory.setProperty(XMLOutputFactory.IS_REPAIRING_NAMESPACES, true);
+        return factory;
+    }
+}
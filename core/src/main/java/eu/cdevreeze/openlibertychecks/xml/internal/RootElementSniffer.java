@@ -0,0 +1,110 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.xml.internal;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Cheap classifier of XML files, reading them with StAX only up to the document element start tag.
+ * This makes it possible to skip full (DOM) parsing of XML files that are not of interest.
+ * <p>
+ * DTDs and external entities are not processed. Files that are not well-formed up to and including the
+ * document element start tag are treated as non-XML files.
+ *
+ * @author Chris de Vreeze
+ */
+public final class RootElementSniffer {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+    private RootElementSniffer() {
+    }
+
+    /**
+     * Returns the name of the document element of the given XML file, if any. Returns an empty Optional
+     * if the file is not well-formed up to the document element start tag.
+     */
+    public static Optional<QName> findDocumentElementName(Path xmlFile) {
+        try (InputStream is = new BufferedInputStream(Files.newInputStream(xmlFile))) {
+            return findDocumentElementName(is, xmlFile.toUri().toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Like {@link #findDocumentElementName(Path)}, but only if the file does not exceed the given size in bytes.
+     * For larger files, an empty Optional is returned without reading the file.
+     */
+    public static Optional<QName> findDocumentElementName(Path xmlFile, long maxFileSize) {
+        try {
+            if (Files.size(xmlFile) > maxFileSize) {
+                return Optional.empty();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return findDocumentElementName(xmlFile);
+    }
+
+    public static Optional<QName> findDocumentElementName(InputStream inputStream, String systemId) {
+        XMLStreamReader reader = null;
+        try {
+            reader = XML_INPUT_FACTORY.createXMLStreamReader(systemId, inputStream);
+
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                    return Optional.of(reader.getName());
+                }
+            }
+            return Optional.empty();
+        } catch (XMLStreamException e) {
+            return Optional.empty();
+        } finally {
+            closeQuietly(reader);
+        }
+    }
+
+    private static void closeQuietly(XMLStreamReader reader) {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                // Ignore
+            }
+        }
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return factory;
+    }
+}
@@ -63,4 +63,11 @@ public final class ResourceEnvRef implements WebXmlContent {
                 .findFirst()
                 .map(ElementTree.Element::text);
     }
+
+    public Optional<String> lookupNameOption() {
+        String ns = element.elementName().getNamespaceURI();
+        return element.childElementStream(hasName(ns, "lookup-name"))
+                .findFirst()
+                .map(ElementTree.Element::text);
+    }
 }
@@ -71,4 +71,11 @@ public final class ResourceRef implements WebXmlContent {
                 .map(ElementTree.Element::text)
                 .map(ResAuthType::valueOf);
     }
+
+    public Optional<String> lookupNameOption() {
+        String ns = element.elementName().getNamespaceURI();
+        return element.childElementStream(hasName(ns, "lookup-name"))
+                .findFirst()
+                .map(ElementTree.Element::text);
+    }
 }
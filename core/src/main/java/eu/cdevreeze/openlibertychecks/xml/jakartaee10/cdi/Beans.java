@@ -17,14 +17,13 @@
 package eu.cdevreeze.openlibertychecks.xml.jakartaee10.cdi;
 
 import com.google.common.base.Preconditions;
+import eu.cdevreeze.openlibertychecks.xml.internal.ChildElementIndex;
 import eu.cdevreeze.openlibertychecks.xml.jakartaee10.Names;
 import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
 
 import javax.xml.namespace.QName;
 import java.util.Optional;
 
-import static eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementPredicates.hasName;
-
 /**
  * EJB Jar XML element wrapper. Corresponds to the contents of a beans.xml file.
  *
@@ -33,12 +32,14 @@ import static eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementPredicates.hasName;
 public final class Beans implements BeansXmlContent {
 
     private final ElementTree.Element element;
+    private final ChildElementIndex childElementIndex;
 
     public Beans(ElementTree.Element element) {
         Preconditions.checkArgument(Names.JAKARTAEE_NS.equals(element.elementName().getNamespaceURI()));
         Preconditions.checkArgument(element.elementName().getLocalPart().equals("beans"));
 
         this.element = element;
+        this.childElementIndex = new ChildElementIndex(element);
     }
 
     public ElementTree.Element getElement() {
@@ -53,36 +54,31 @@ public final class Beans implements BeansXmlContent {
 
     public Optional<Interceptors> interceptorsElementOption() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "interceptors"))
-                .map(Interceptors::new)
-                .findFirst();
+        return childElementIndex.firstChildElementOption(ns, "interceptors")
+                .map(Interceptors::new);
     }
 
     public Optional<Decorators> decoratorsElementOption() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "decorators"))
-                .map(Decorators::new)
-                .findFirst();
+        return childElementIndex.firstChildElementOption(ns, "decorators")
+                .map(Decorators::new);
     }
 
     public Optional<Alternatives> alternativesElementOption() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "alternatives"))
-                .map(Alternatives::new)
-                .findFirst();
+        return childElementIndex.firstChildElementOption(ns, "alternatives")
+                .map(Alternatives::new);
     }
 
     public Optional<Scan> scanOption() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "scan"))
-                .map(Scan::new)
-                .findFirst();
+        return childElementIndex.firstChildElementOption(ns, "scan")
+                .map(Scan::new);
     }
 
     public Optional<String> trimOption() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "trim"))
-                .map(ElementTree.Element::text)
-                .findFirst();
+        return childElementIndex.firstChildElementOption(ns, "trim")
+                .map(ElementTree.Element::text);
     }
 }
@@ -17,13 +17,12 @@
 package eu.cdevreeze.openlibertychecks.xml.jakartaee10.ejb;
 
 import com.google.common.base.Preconditions;
+import eu.cdevreeze.openlibertychecks.xml.internal.ChildElementIndex;
 import eu.cdevreeze.openlibertychecks.xml.jakartaee10.Names;
 import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
 
 import java.util.Optional;
 
-import static eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementPredicates.hasName;
-
 /**
  * EJB Jar XML element wrapper. Corresponds to the contents of an ejb-jar.xml file.
  * <p>
@@ -35,12 +34,14 @@ import static eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementPredicates.hasName;
 public final class EjbJar implements EjbJarXmlContent {
 
     private final ElementTree.Element element;
+    private final ChildElementIndex childElementIndex;
 
     public EjbJar(ElementTree.Element element) {
         Preconditions.checkArgument(Names.JAKARTAEE_NS.equals(element.elementName().getNamespaceURI()));
         Preconditions.checkArgument(element.elementName().getLocalPart().equals("ejb-jar"));
 
         this.element = element;
+        this.childElementIndex = new ChildElementIndex(element);
     }
 
     public ElementTree.Element getElement() {
@@ -49,36 +50,31 @@ public final class EjbJar implements EjbJarXmlContent {
 
     public Optional<EnterpriseBeans> enterpriseBeansElementOption() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "enterprise-beans"))
-                .map(EnterpriseBeans::new)
-                .findFirst();
+        return childElementIndex.firstChildElementOption(ns, "enterprise-beans")
+                .map(EnterpriseBeans::new);
     }
 
     public Optional<Interceptors> interceptorsElementOption() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "interceptors"))
-                .map(Interceptors::new)
-                .findFirst();
+        return childElementIndex.firstChildElementOption(ns, "interceptors")
+                .map(Interceptors::new);
     }
 
     public Optional<Relationships> relationshipsElementOption() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "relationships"))
-                .map(Relationships::new)
-                .findFirst();
+        return childElementIndex.firstChildElementOption(ns, "relationships")
+                .map(Relationships::new);
     }
 
     public Optional<AssemblyDescriptor> assemblyDescriptorOption() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "assembly-descriptor"))
-                .map(AssemblyDescriptor::new)
-                .findFirst();
+        return childElementIndex.firstChildElementOption(ns, "assembly-descriptor")
+                .map(AssemblyDescriptor::new);
     }
 
     public Optional<String> ejbClientJarOption() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "ejb-client-jar"))
-                .map(ElementTree.Element::text)
-                .findFirst();
+        return childElementIndex.firstChildElementOption(ns, "ejb-client-jar")
+                .map(ElementTree.Element::text);
     }
 }
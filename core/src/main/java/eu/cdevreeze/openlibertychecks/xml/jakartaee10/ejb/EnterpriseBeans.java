@@ -18,14 +18,13 @@ package eu.cdevreeze.openlibertychecks.xml.jakartaee10.ejb;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import eu.cdevreeze.openlibertychecks.xml.internal.ChildElementIndex;
 import eu.cdevreeze.openlibertychecks.xml.jakartaee10.Names;
 import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
 
 import javax.xml.namespace.QName;
 import java.util.Optional;
 
-import static eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementPredicates.hasName;
-
 /**
  * Enterprise beans XML element wrapper.
  *
@@ -34,12 +33,14 @@ import static eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementPredicates.hasName;
 public final class EnterpriseBeans implements EjbJarXmlContent {
 
     private final ElementTree.Element element;
+    private final ChildElementIndex childElementIndex;
 
     public EnterpriseBeans(ElementTree.Element element) {
         Preconditions.checkArgument(Names.JAKARTAEE_NS.equals(element.elementName().getNamespaceURI()));
         Preconditions.checkArgument(element.elementName().getLocalPart().equals("enterprise-beans"));
 
         this.element = element;
+        this.childElementIndex = new ChildElementIndex(element);
     }
 
     public ElementTree.Element getElement() {
@@ -52,22 +53,21 @@ public final class EnterpriseBeans implements EjbJarXmlContent {
 
     public ImmutableList<SessionBean> sessionBeans() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "session"))
-                .map(SessionBean::new)
-                .collect(ImmutableList.toImmutableList());
+        return childElementIndex.wrappedChildElements(ns, "session", SessionBean.class, SessionBean::new);
     }
 
     public ImmutableList<EntityBean> entityBeans() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "entity"))
-                .map(EntityBean::new)
-                .collect(ImmutableList.toImmutableList());
+        return childElementIndex.wrappedChildElements(ns, "entity", EntityBean.class, EntityBean::new);
     }
 
     public ImmutableList<MessageDrivenBean> messageDrivenBeans() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "message-driven"))
-                .map(MessageDrivenBean::new)
-                .collect(ImmutableList.toImmutableList());
+        return childElementIndex.wrappedChildElements(
+                ns,
+                "message-driven",
+                MessageDrivenBean.class,
+                MessageDrivenBean::new
+        );
     }
 }
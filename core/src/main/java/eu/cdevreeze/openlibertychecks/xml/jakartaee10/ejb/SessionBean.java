@@ -18,6 +18,7 @@ package eu.cdevreeze.openlibertychecks.xml.jakartaee10.ejb;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import eu.cdevreeze.openlibertychecks.xml.internal.ChildElementIndex;
 import eu.cdevreeze.openlibertychecks.xml.jakartaee10.Names;
 import eu.cdevreeze.openlibertychecks.xml.jakartaee10.SecurityRoleRef;
 import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
@@ -25,8 +26,6 @@ import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
 import javax.xml.namespace.QName;
 import java.util.Optional;
 
-import static eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementPredicates.hasName;
-
 /**
  * Session bean XML element wrapper.
  *
@@ -35,12 +34,14 @@ import static eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementPredicates.hasName;
 public final class SessionBean implements EjbJarXmlContent {
 
     private final ElementTree.Element element;
+    private final ChildElementIndex childElementIndex;
 
     public SessionBean(ElementTree.Element element) {
         Preconditions.checkArgument(Names.JAKARTAEE_NS.equals(element.elementName().getNamespaceURI()));
         Preconditions.checkArgument(element.elementName().getLocalPart().equals("session"));
 
         this.element = element;
+        this.childElementIndex = new ChildElementIndex(element);
     }
 
     public ElementTree.Element getElement() {
@@ -53,94 +54,83 @@ public final class SessionBean implements EjbJarXmlContent {
 
     public String ejbName() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "ejb-name"))
-                .findFirst()
+        return childElementIndex.firstChildElementOption(ns, "ejb-name")
                 .orElseThrow()
                 .text();
     }
 
     public Optional<String> mappedNameOption() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "mapped-name"))
-                .findFirst()
+        return childElementIndex.firstChildElementOption(ns, "mapped-name")
                 .map(ElementTree.Element::text);
     }
 
     public Optional<String> homeOption() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "home"))
-                .findFirst()
+        return childElementIndex.firstChildElementOption(ns, "home")
                 .map(ElementTree.Element::text);
     }
 
     public Optional<String> remoteOption() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "remote"))
-                .findFirst()
+        return childElementIndex.firstChildElementOption(ns, "remote")
                 .map(ElementTree.Element::text);
     }
 
     public Optional<String> localHomeOption() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "local-home"))
-                .findFirst()
+        return childElementIndex.firstChildElementOption(ns, "local-home")
                 .map(ElementTree.Element::text);
     }
 
     public Optional<String> localOption() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "local"))
-                .findFirst()
+        return childElementIndex.firstChildElementOption(ns, "local")
                 .map(ElementTree.Element::text);
     }
 
     public ImmutableList<String> businessLocals() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "business-local"))
-                .map(ElementTree.Element::text)
-                .collect(ImmutableList.toImmutableList());
+        return childElementIndex.wrappedChildElements(ns, "business-local", String.class, ElementTree.Element::text);
     }
 
     public ImmutableList<String> businessRemotes() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "business-remote"))
-                .map(ElementTree.Element::text)
-                .collect(ImmutableList.toImmutableList());
+        return childElementIndex.wrappedChildElements(ns, "business-remote", String.class, ElementTree.Element::text);
     }
 
     public Optional<LocalBean> localBeanOption() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "local-bean"))
-                .map(LocalBean::new)
-                .findFirst();
+        return childElementIndex.firstChildElementOption(ns, "local-bean")
+                .map(LocalBean::new);
     }
 
     public Optional<String> serviceEndpointOption() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "service-endpoint"))
-                .findFirst()
+        return childElementIndex.firstChildElementOption(ns, "service-endpoint")
                 .map(ElementTree.Element::text);
     }
 
     public Optional<String> ejbClassOption() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "ejb-class"))
-                .findFirst()
+        return childElementIndex.firstChildElementOption(ns, "ejb-class")
                 .map(ElementTree.Element::text);
     }
 
     public Optional<SessionType> sessionTypeOption() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "session-type"))
-                .findFirst()
+        return childElementIndex.firstChildElementOption(ns, "session-type")
                 .map(ElementTree.Element::text)
                 .map(SessionType::valueOf);
     }
 
     public ImmutableList<SecurityRoleRef> securityRoleRefs() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "security-role-ref"))
-                .map(SecurityRoleRef::new)
-                .collect(ImmutableList.toImmutableList());
+        return childElementIndex.wrappedChildElements(
+                ns,
+                "security-role-ref",
+                SecurityRoleRef.class,
+                SecurityRoleRef::new
+        );
     }
 }
@@ -18,14 +18,13 @@ package eu.cdevreeze.openlibertychecks.xml.jakartaee10.servlet;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import eu.cdevreeze.openlibertychecks.xml.internal.ChildElementIndex;
 import eu.cdevreeze.openlibertychecks.xml.jakartaee10.Listener;
 import eu.cdevreeze.openlibertychecks.xml.jakartaee10.Names;
 import eu.cdevreeze.openlibertychecks.xml.jakartaee10.ResourceEnvRef;
 import eu.cdevreeze.openlibertychecks.xml.jakartaee10.ResourceRef;
 import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
 
-import static eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementPredicates.hasName;
-
 /**
  * Web app XML element wrapper. Corresponds to the contents of a web.xml file.
  *
@@ -34,12 +33,14 @@ import static eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementPredicates.hasName;
 public final class WebApp implements WebXmlContent {
 
     private final ElementTree.Element element;
+    private final ChildElementIndex childElementIndex;
 
     public WebApp(ElementTree.Element element) {
         Preconditions.checkArgument(Names.JAKARTAEE_NS.equals(element.elementName().getNamespaceURI()));
         Preconditions.checkArgument(element.elementName().getLocalPart().equals("web-app"));
 
         this.element = element;
+        this.childElementIndex = new ChildElementIndex(element);
     }
 
     public ElementTree.Element getElement() {
@@ -48,64 +49,56 @@ public final class WebApp implements WebXmlContent {
 
     public ImmutableList<Servlet> servlets() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "servlet"))
-                .map(Servlet::new)
-                .collect(ImmutableList.toImmutableList());
+        return childElementIndex.wrappedChildElements(ns, "servlet", Servlet.class, Servlet::new);
     }
 
     public ImmutableList<ServletMapping> servletMappings() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "servlet-mapping"))
-                .map(ServletMapping::new)
-                .collect(ImmutableList.toImmutableList());
+        return childElementIndex.wrappedChildElements(ns, "servlet-mapping", ServletMapping.class, ServletMapping::new);
     }
 
     public ImmutableList<Filter> filters() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "filter"))
-                .map(Filter::new)
-                .collect(ImmutableList.toImmutableList());
+        return childElementIndex.wrappedChildElements(ns, "filter", Filter.class, Filter::new);
     }
 
     public ImmutableList<FilterMapping> filterMappings() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "filter-mapping"))
-                .map(FilterMapping::new)
-                .collect(ImmutableList.toImmutableList());
+        return childElementIndex.wrappedChildElements(ns, "filter-mapping", FilterMapping.class, FilterMapping::new);
     }
 
     public ImmutableList<Listener> listeners() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "listener"))
-                .map(Listener::new)
-                .collect(ImmutableList.toImmutableList());
+        return childElementIndex.wrappedChildElements(ns, "listener", Listener.class, Listener::new);
     }
 
     public ImmutableList<WelcomeFileList> welcomeFileLists() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "welcome-file-list"))
-                .map(WelcomeFileList::new)
-                .collect(ImmutableList.toImmutableList());
+        return childElementIndex.wrappedChildElements(
+                ns,
+                "welcome-file-list",
+                WelcomeFileList.class,
+                WelcomeFileList::new
+        );
     }
 
     public ImmutableList<ErrorPage> errorPages() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "error-page"))
-                .map(ErrorPage::new)
-                .collect(ImmutableList.toImmutableList());
+        return childElementIndex.wrappedChildElements(ns, "error-page", ErrorPage.class, ErrorPage::new);
     }
 
     public ImmutableList<ResourceRef> resourceRefs() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "resource-ref"))
-                .map(ResourceRef::new)
-                .collect(ImmutableList.toImmutableList());
+        return childElementIndex.wrappedChildElements(ns, "resource-ref", ResourceRef.class, ResourceRef::new);
     }
 
     public ImmutableList<ResourceEnvRef> resourceEnvRefs() {
         String ns = element.elementName().getNamespaceURI();
-        return element.childElementStream(hasName(ns, "resource-env-ref"))
-                .map(ResourceEnvRef::new)
-                .collect(ImmutableList.toImmutableList());
+        return childElementIndex.wrappedChildElements(
+                ns,
+                "resource-env-ref",
+                ResourceEnvRef.class,
+                ResourceEnvRef::new
+        );
     }
 }
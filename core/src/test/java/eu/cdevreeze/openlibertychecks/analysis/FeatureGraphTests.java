@@ -0,0 +1,92 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.analysis;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Feature graph tests, against the bundled feature graph.
+ * <p>
+ * This is not a regular unit test.
+ *
+ * @author Chris de Vreeze
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class FeatureGraphTests {
+
+    @Test
+    public void testResolution() {
+        FeatureGraph.Resolution resolution = FeatureGraph.bundled()
+                .resolve(List.of("restfulWS-3.1", "CDI-4.0", "persistence-3.1", "localConnector-1.0", "usr:custom-1.0"));
+
+        assertFalse(resolution.hasConflicts());
+        assertEquals(List.of("usr:custom-1.0"), resolution.unknownFeatures());
+        assertTrue(resolution.enabledFeatures().containsAll(
+                List.of("servlet-6.0", "restfulWSClient-3.1", "jdbc-4.2", "restfulWSCdi-3.1")
+        ));
+        assertFalse(resolution.enabledFeatures().contains("restfulWSJsonb-3.1"));
+    }
+
+    @Test
+    public void testToleratedFeatures() {
+        FeatureGraph graph = FeatureGraph.bundled();
+
+        // jsp-2.3 prefers servlet-3.1, but tolerates servlet-4.0
+        FeatureGraph.Resolution resolution = graph.resolve(List.of("jsp-2.3", "jaxrs-2.1"));
+        assertFalse(resolution.hasConflicts());
+        assertTrue(resolution.enabledFeatures().contains("servlet-4.0"));
+        assertFalse(resolution.enabledFeatures().contains("servlet-3.1"));
+
+        // The convenience feature enables messaging-3.1, which messagingClient-3.0 tolerates
+        FeatureGraph.Resolution jakartaee10Resolution = graph.resolve(List.of("jakartaee-10.0"));
+        assertFalse(jakartaee10Resolution.hasConflicts(), jakartaee10Resolution.conflicts().toString());
+        assertFalse(jakartaee10Resolution.enabledFeatures().contains("messaging-3.0"));
+    }
+
+    @Test
+    public void testConflicts() {
+        FeatureGraph graph = FeatureGraph.bundled();
+
+        FeatureGraph.Resolution resolution = graph.resolve(List.of("servlet-4.0", "restfulWS-3.1"));
+
+        assertEquals(
+                List.of(FeatureGraph.ConflictKind.SINGLETON, FeatureGraph.ConflictKind.MIXED_GENERATION),
+                resolution.conflicts().stream().map(FeatureGraph.Conflict::kind).toList()
+        );
+        assertEquals(List.of("servlet-4.0", "servlet-6.0"), resolution.conflicts().get(0).features());
+
+        // Renamed features are in the same singleton family
+        assertTrue(
+                graph.resolve(List.of("jaxrs-2.1", "restfulWS-3.1")).conflicts().stream()
+                        .anyMatch(c -> c.features().equals(List.of("jaxrs-2.1", "restfulWS-3.1")))
+        );
+
+        // A fleet of server configurations is checked quickly
+        List<List<String>> fleet = IntStream.range(0, 500)
+                .mapToObj(i -> (i % 10 == 0) ?
+                        List.of("javaee-8.0", "cdi-4.0") :
+                        List.of("webProfile-10.0", "messaging-3.1", "jdbc-4.3", "localConnector-1.0"))
+                .toList();
+        assertEquals(50, fleet.stream().map(graph::resolve).filter(FeatureGraph.Resolution::hasConflicts).count());
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.analysis;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import eu.cdevreeze.openlibertychecks.classfile.AnnotationIndex;
+import eu.cdevreeze.openlibertychecks.classfile.ClassDescriptor;
+import eu.cdevreeze.openlibertychecks.classfile.MethodDescriptor;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.Server;
+import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static eu.cdevreeze.openlibertychecks.xml.XmlTestSupport.parse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Feature minimizer tests, against the bundled feature table.
+ * <p>
+ * This is not a regular unit test.
+ *
+ * @author Chris de Vreeze
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class FeatureMinimizerTests {
+
+    private static final String WEB_XML = """
+            <web-app xmlns="https://jakarta.ee/xml/ns/jakartaee" version="6.0">
+                <security-constraint>
+                    <web-resource-collection>
+                        <web-resource-name>orders</web-resource-name>
+                        <url-pattern>/orders/*</url-pattern>
+                    </web-resource-collection>
+                    <auth-constraint>
+                        <role-name>clerk</role-name>
+                    </auth-constraint>
+                </security-constraint>
+            </web-app>
+            """;
+
+    private static final String SERVER_XML = """
+            <server>
+                <dataSource id="orderDS" jndiName="jdbc/orderDS"/>
+            </server>
+            """;
+
+    @Test
+    public void testFeatureTable() {
+        FeatureTable featureTable = FeatureTable.bundled();
+
+        assertEquals("jaxrs", featureTable.findFeature("restfulWS-3.1").orElseThrow().name());
+        assertEquals("jaxrs", featureTable.findFeature("JAXRS-2.1").orElseThrow().name());
+        assertTrue(featureTable.findFeature("jakartaee-10.0").isEmpty());
+        assertEquals("localConnector", FeatureTable.nameWithoutVersion("localConnector-1.0"));
+        assertEquals(
+                List.of("jaxrs", "servlet", "jaxrsClient"),
+                featureTable.requiredFeatureClosure(featureTable.findFeature("restfulWS").orElseThrow())
+                        .stream()
+                        .map(FeatureTable.FeatureInfo::name)
+                        .toList()
+        );
+    }
+
+    @Test
+    public void testRecommendation() {
+        FeatureMinimizer.UsageEvidence evidence = new FeatureMinimizer.UsageEvidence(
+                ImmutableSet.of("jakarta.ws.rs.GET", "jakarta.ws.rs.core.Response", "java.lang.String"),
+                ImmutableSet.of("web-app"),
+                ImmutableSet.of("dataSource")
+        );
+
+        FeatureMinimizer.Recommendation recommendation = new FeatureMinimizer().recommend(
+                List.of("servlet-6.0", "restfulWS-3.1", "jdbc-4.3", "persistence-3.1", "localConnector-1.0", "mpHealth-4.0"),
+                evidence
+        );
+
+        assertEquals(
+                Map.of(
+                        "servlet-6.0", "has descriptor web-app",
+                        "restfulWS-3.1", "uses package jakarta.ws.rs",
+                        "jdbc-4.3", "configures dataSource",
+                        "localConnector-1.0", "usage cannot be inferred",
+                        "mpHealth-4.0", "not in the feature table"
+                ),
+                recommendation.reasonsToKeep()
+        );
+        assertEquals(List.of("persistence-3.1"), recommendation.removableFeatures());
+        assertEquals(1500, recommendation.estimatedStartupSavingMillis());
+        assertEquals(30000, recommendation.estimatedHeapSavingKb());
+
+        // Without web.xml, servlet is still removable, but restfulWS enables it anyway, so there is no extra saving
+        FeatureMinimizer.Recommendation recommendationWithoutWebXml = new FeatureMinimizer().recommend(
+                List.of("servlet-6.0", "restfulWS-3.1"),
+                new FeatureMinimizer.UsageEvidence(evidence.referencedTypeNames(), ImmutableSet.of(), ImmutableSet.of())
+        );
+        assertEquals(List.of("servlet-6.0"), recommendationWithoutWebXml.removableFeatures());
+        assertEquals(0, recommendationWithoutWebXml.estimatedStartupSavingMillis());
+    }
+
+    @Test
+    public void testUsageEvidenceCollection() {
+        // The JAX-RS client is only used in a method body, so it is not part of any signature
+        ClassDescriptor clientUser = new ClassDescriptor(
+                "com.example.OrderClient",
+                Optional.of(Object.class.getName()),
+                ImmutableList.of(),
+                0,
+                ImmutableList.of(),
+                ImmutableList.of(),
+                ImmutableList.of(
+                        new MethodDescriptor("com.example.OrderClient", "fetch", "()V", 0, ImmutableList.of())
+                ),
+                ImmutableList.of(Object.class.getName(), "jakarta.ws.rs.client.ClientBuilder")
+        );
+        ElementTree.Element webXml = parse(WEB_XML);
+        Server server = new Server(parse(SERVER_XML));
+        FeatureTable featureTable = FeatureTable.bundled();
+
+        FeatureMinimizer.UsageEvidence evidence = FeatureMinimizer.UsageEvidence.collect(
+                List.of(AnnotationIndex.build(List.of(clientUser))),
+                List.of(webXml),
+                List.of(server),
+                featureTable
+        );
+
+        assertTrue(evidence.referencedTypeNames().contains("jakarta.ws.rs.client.ClientBuilder"));
+        assertEquals(ImmutableSet.of("web-app", "web-app/security-constraint"), evidence.descriptorNames());
+        assertEquals(ImmutableSet.of("dataSource"), evidence.serverElementNames());
+
+        FeatureMinimizer.Recommendation recommendation = new FeatureMinimizer(featureTable).recommend(
+                List.of("servlet-6.0", "appSecurity-5.0", "restfulWSClient-3.1", "jdbc-4.3", "persistence-3.1"),
+                evidence
+        );
+
+        assertEquals(
+                Map.of(
+                        "servlet-6.0", "has descriptor web-app",
+                        "appSecurity-5.0", "has descriptor web-app/security-constraint",
+                        "restfulWSClient-3.1", "uses package jakarta.ws.rs.client",
+                        "jdbc-4.3", "configures dataSource"
+                ),
+                recommendation.reasonsToKeep()
+        );
+        assertEquals(List.of("persistence-3.1"), recommendation.removableFeatures());
+    }
+}
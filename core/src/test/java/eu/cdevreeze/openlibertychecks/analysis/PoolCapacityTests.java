@@ -0,0 +1,116 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.analysis;
+
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.Server;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.VariableResolver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.util.List;
+import java.util.Map;
+
+import static eu.cdevreeze.openlibertychecks.xml.XmlTestSupport.parse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Pool capacity analysis tests.
+ * <p>
+ * This is not a regular unit test.
+ *
+ * @author Chris de Vreeze
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class PoolCapacityTests {
+
+    private static final String SERVER_XML_1 = """
+            <server>
+                <executor maxThreads="${max.threads}"/>
+                <dataSource id="orderDS" jndiName="jdbc/orderDS" connectionManagerRef="orderPool">
+                    <properties serverName="${db.host}"/>
+                </dataSource>
+                <dataSource id="auditDS" jndiName="jdbc/auditDS">
+                    <connectionManager maxPoolSize="0" agedTimeout="30s" reapTime="1m"/>
+                    <properties serverName="audit.example.com"/>
+                </dataSource>
+                <dataSource id="reportDS" jndiName="jdbc/reportDS">
+                    <properties serverName="${db.host}"/>
+                </dataSource>
+                <connectionManager id="orderPool" maxPoolSize="20" minPoolSize="25"/>
+            </server>
+            """;
+
+    private static final String SERVER_XML_2 = """
+            <server>
+                <dataSource id="orderDS" jndiName="jdbc/orderDS">
+                    <connectionManager maxPoolSize="30" agedTimeout="5m" reapTime="180"/>
+                    <properties serverName="orders.example.com"/>
+                </dataSource>
+                <dataSource id="cacheDS" jndiName="jdbc/cacheDS">
+                    <connectionManager minPoolSize="5"/>
+                </dataSource>
+                <dataSource id="batchDS" jndiName="jdbc/batchDS">
+                    <connectionManager maxPoolSize="${batch.pool.size}"/>
+                    <properties serverName="orders.example.com"/>
+                </dataSource>
+            </server>
+            """;
+
+    @Test
+    public void testIssues() {
+        Server server = new Server(parse(SERVER_XML_1));
+        List<PoolCapacityAnalyzer.Issue> issues = PoolCapacityAnalyzer.findIssues(
+                server,
+                VariableResolver.of(Map.of("max.threads", "40"))
+        );
+
+        assertEquals(
+                List.of(
+                        "orderDS: POOL_SMALLER_THAN_EXECUTOR",
+                        "auditDS: UNBOUNDED_POOL",
+                        "auditDS: AGED_TIMEOUT_SHORTER_THAN_REAP_TIME"
+                ),
+                issues.stream()
+                        .map(issue -> issue.dataSource().idOption().orElseThrow() + ": " + issue.kind())
+                        .toList()
+        );
+    }
+
+    @Test
+    public void testHostCapacities() {
+        Server server1 = new Server(parse(SERVER_XML_1));
+        Server server2 = new Server(parse(SERVER_XML_2));
+
+        List<PoolCapacityAnalyzer.HostCapacity> capacities = PoolCapacityAnalyzer.findHostCapacities(
+                List.of(server1, server2),
+                server -> server == server1 ?
+                        VariableResolver.of(Map.of("db.host", "orders.example.com")) :
+                        VariableResolver.empty()
+        );
+
+        assertEquals(
+                List.of(
+                        // The connection manager of cacheDS has the default maxPoolSize
+                        new PoolCapacityAnalyzer.HostCapacity(PoolCapacityAnalyzer.UNKNOWN_HOST, 1, 50, false, 0),
+                        new PoolCapacityAnalyzer.HostCapacity("audit.example.com", 1, 0, true, 0),
+                        // The maxPoolSize of batchDS is unknown, because the variable is not resolved
+                        new PoolCapacityAnalyzer.HostCapacity("orders.example.com", 4, 100, false, 1)
+                ),
+                capacities
+        );
+    }
+}
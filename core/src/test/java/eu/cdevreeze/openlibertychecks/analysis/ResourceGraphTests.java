@@ -0,0 +1,172 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.analysis;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import eu.cdevreeze.openlibertychecks.classfile.*;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.DataSource;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.Server;
+import eu.cdevreeze.openlibertychecks.xml.jakartaee10.servlet.WebApp;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static eu.cdevreeze.openlibertychecks.xml.XmlTestSupport.parse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Resource graph tests.
+ * <p>
+ * This is not a regular unit test.
+ *
+ * @author Chris de Vreeze
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ResourceGraphTests {
+
+    private static final String SERVER_XML = """
+            <server>
+                <dataSource id="blogDS" jndiName="jdbc/blogDS" connectionManagerRef="pool">
+                    <jdbcDriver libraryRef="derbyLib"/>
+                </dataSource>
+                <dataSource id="orderDS" jndiName="jdbc/orderDS">
+                    <connectionManager maxPoolSize="5"/>
+                </dataSource>
+                <dataSource id="unusedDS" jndiName="jdbc/unusedDS" connectionManagerRef="pool"/>
+                <connectionManager id="pool" maxPoolSize="10"/>
+                <library id="derbyLib"/>
+                <jmsQueue id="orderQueue" jndiName="jms/orderQueue"/>
+                <jndiEntry jndiName="app/mode" value="test"/>
+            </server>
+            """;
+
+    private static final String WEB_XML = """
+            <web-app xmlns="https://jakarta.ee/xml/ns/jakartaee" version="6.0">
+                <resource-ref>
+                    <res-ref-name>jdbc/blog</res-ref-name>
+                    <res-type>javax.sql.DataSource</res-type>
+                    <lookup-name>jdbc/blogDS</lookup-name>
+                </resource-ref>
+                <resource-env-ref>
+                    <resource-env-ref-name>jms/orderQueue</resource-env-ref-name>
+                </resource-env-ref>
+                <resource-ref>
+                    <res-ref-name>jdbc/missing</res-ref-name>
+                </resource-ref>
+            </web-app>
+            """;
+
+    @Test
+    public void testResourceGraph() {
+        ResourceGraph graph = ResourceGraph.build(
+                AnnotationIndex.build(List.of(resourceUser())).occurrences("jakarta.annotation.Resource"),
+                List.of(new WebApp(parse(WEB_XML))),
+                List.of(new Server(parse(SERVER_XML)))
+        );
+
+        assertEquals(4, graph.injectionPoints().size());
+        assertEquals(3, graph.references().size());
+        assertEquals(5, graph.serverResources().size());
+
+        ResourceGraph.InjectionPoint blogInjectionPoint = findInjectionPoint(graph, "jdbc/blog");
+        assertEquals(
+                Set.of("jdbc/blogDS"),
+                graph.usedServerResources(blogInjectionPoint).stream()
+                        .map(ResourceGraph.ServerResource::jndiName)
+                        .collect(Collectors.toSet())
+        );
+        assertEquals(5, graph.reachableNodes(blogInjectionPoint).size());
+
+        ResourceGraph.InjectionPoint orderInjectionPoint = findInjectionPoint(graph, "com.example.BlogService/orders");
+        assertEquals(
+                List.of("orderDS"),
+                graph.usedServerResources(orderInjectionPoint).stream()
+                        .map(r -> ((DataSource) r.resource()).idOption().orElseThrow())
+                        .toList()
+        );
+
+        assertEquals(
+                Set.of("jdbc/missing", "com.example.BlogService/missing"),
+                graph.unresolvedLookups().stream()
+                        .map(n -> (n instanceof ResourceGraph.Reference r) ? r.name() : ((ResourceGraph.InjectionPoint) n).name())
+                        .collect(Collectors.toSet())
+        );
+        assertEquals(
+                Set.of("jdbc/unusedDS", "app/mode"),
+                graph.orphanServerResources().stream()
+                        .map(ResourceGraph.ServerResource::jndiName)
+                        .collect(Collectors.toSet())
+        );
+
+        assertEquals(1, graph.findLookups("jms/orderQueue").size());
+        assertTrue(graph.findLookups("jdbc/unusedDS").isEmpty());
+
+        // The shared connection manager is one node
+        ResourceGraph.ServerResource unusedDataSource = graph.findServerResources("jdbc/unusedDS").get(0);
+        assertEquals(
+                graph.successors(graph.findServerResources("jdbc/blogDS").get(0)).stream()
+                        .filter(n -> graph.successors(n).isEmpty())
+                        .findFirst()
+                        .orElseThrow(),
+                graph.successors(unusedDataSource).stream().findFirst().orElseThrow()
+        );
+    }
+
+    private static ResourceGraph.InjectionPoint findInjectionPoint(ResourceGraph graph, String name) {
+        return graph.injectionPoints().stream().filter(p -> p.name().equals(name)).findFirst().orElseThrow();
+    }
+
+    private static ClassDescriptor resourceUser() {
+        String className = "com.example.BlogService";
+        return new ClassDescriptor(
+                className,
+                Optional.of(Object.class.getName()),
+                ImmutableList.of(),
+                0,
+                ImmutableList.of(),
+                ImmutableList.of(
+                        field(className, "blog", resource(ImmutableMap.of("name", "jdbc/blog"))),
+                        field(className, "orders", resource(ImmutableMap.of("lookup", "jdbc/orderDS"))),
+                        field(className, "missing", resource(ImmutableMap.of())),
+                        field(className, "queue", resource(ImmutableMap.of("lookup", "java:comp/env/jms/orderQueue")))
+                ),
+                ImmutableList.of(),
+                ImmutableList.of()
+        );
+    }
+
+    private static FieldDescriptor field(String className, String name, AnnotationDescriptor annotation) {
+        return new FieldDescriptor(className, name, "Ljava/lang/Object;", 0, ImmutableList.of(annotation));
+    }
+
+    private static AnnotationDescriptor resource(ImmutableMap<String, String> elementValues) {
+        return new AnnotationDescriptor(
+                "jakarta.annotation.Resource",
+                elementValues.entrySet().stream().collect(ImmutableMap.toImmutableMap(
+                        Map.Entry::getKey,
+                        e -> new AnnotationValue.ConstValue(e.getValue())
+                ))
+        );
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.analysis;
+
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.Server;
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.VariableResolver;
+import eu.cdevreeze.openlibertychecks.xml.jakartaee10.servlet.WebApp;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.util.List;
+import java.util.Map;
+
+import static eu.cdevreeze.openlibertychecks.xml.XmlTestSupport.parse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unused resources tests.
+ * <p>
+ * This is not a regular unit test.
+ *
+ * @author Chris de Vreeze
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class UnusedResourcesTests {
+
+    private static final String SERVER_XML = """
+            <server>
+                <dataSource id="blogDS" jndiName="jdbc/blogDS" connectionManagerRef="blogPool"/>
+                <dataSource id="legacyDS" jndiName="jdbc/legacyDS" connectionManagerRef="legacyPool"/>
+                <dataSource id="reportDS" jndiName="jdbc/reportDS">
+                    <connectionManager minPoolSize="${report.minPoolSize}"/>
+                </dataSource>
+                <connectionManager id="blogPool" minPoolSize="5"/>
+                <connectionManager id="legacyPool" minPoolSize="10"/>
+                <jmsConnectionFactory id="orderCF" jndiName="jms/orderCF"/>
+                <resourceAdapter id="mqRA" location="wmq.jmsra.rar"/>
+                <resourceAdapter id="usedRA" location="used.rar"/>
+                <resourceAdapter id="selfConfiguredRA" location="self.rar">
+                    <properties.selfConfiguredRA/>
+                </resourceAdapter>
+                <connectionFactory jndiName="eis/used">
+                    <properties.usedRA/>
+                </connectionFactory>
+            </server>
+            """;
+
+    private static final String WEB_XML = """
+            <web-app xmlns="https://jakarta.ee/xml/ns/jakartaee" version="6.0">
+                <resource-ref>
+                    <res-ref-name>jdbc/blogDS</res-ref-name>
+                </resource-ref>
+            </web-app>
+            """;
+
+    @Test
+    public void testUnusedResources() {
+        List<Server> servers = List.of(new Server(parse(SERVER_XML)));
+        ResourceGraph graph = ResourceGraph.build(List.of(), List.of(new WebApp(parse(WEB_XML))), servers);
+
+        List<UnusedResources.UnusedResource> unusedResources = UnusedResources.findUnusedResources(
+                graph,
+                servers,
+                VariableResolver.of(Map.of("report.minPoolSize", "3"))
+        );
+
+        assertEquals(
+                List.of("legacyDS", "reportDS", "orderCF", "mqRA", "selfConfiguredRA"),
+                unusedResources.stream().map(r -> r.idOption().orElseThrow()).toList()
+        );
+        assertEquals(
+                List.of(10, 3, 0, 0, 0),
+                unusedResources.stream().map(UnusedResources.UnusedResource::estimatedIdleConnections).toList()
+        );
+        assertEquals(13, UnusedResources.totalEstimatedIdleConnections(unusedResources));
+    }
+}
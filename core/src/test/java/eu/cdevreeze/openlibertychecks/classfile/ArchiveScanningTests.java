@@ -0,0 +1,167 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.classfile;
+
+import eu.cdevreeze.openlibertychecks.classfile.internal.ArchiveScanning;
+import eu.cdevreeze.openlibertychecks.classfile.internal.ClassFileScanning;
+import eu.cdevreeze.openlibertychecks.classfile.internal.ScanIndexCache;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Archive scanning tests, using a generated WAR file containing a nested JAR file.
+ * <p>
+ * This is not a regular unit test.
+ *
+ * @author Chris de Vreeze
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ArchiveScanningTests {
+
+    private Path tempDir;
+    private Path warFile;
+
+    @BeforeAll
+    public void createWarFile(@TempDir Path tempDir) throws IOException {
+        this.tempDir = tempDir;
+
+        ByteArrayOutputStream jarContent = new ByteArrayOutputStream();
+        try (ZipOutputStream jarOutputStream = new ZipOutputStream(jarContent)) {
+            addClassFile(jarOutputStream, "", ClassFileScanningTests.class);
+            addClassFile(jarOutputStream, "META-INF/versions/17/", ClassFileScanningTests.class);
+        }
+
+        warFile = tempDir.resolve("test.war");
+        try (ZipOutputStream warOutputStream = new ZipOutputStream(Files.newOutputStream(warFile))) {
+            addClassFile(warOutputStream, "WEB-INF/classes/", ArchiveScanningTests.class);
+
+            warOutputStream.putNextEntry(new ZipEntry("WEB-INF/lib/test.jar"));
+            jarContent.writeTo(warOutputStream);
+            warOutputStream.closeEntry();
+
+            warOutputStream.putNextEntry(new ZipEntry("WEB-INF/web.xml"));
+            warOutputStream.write("<web-app/>".getBytes());
+            warOutputStream.closeEntry();
+        }
+    }
+
+    @Test
+    public void testWarScanning() {
+        List<ClassDescriptor> classes = ArchiveScanning.findClassDescriptorsInWar(warFile, 2);
+
+        assertEquals(
+                List.of(ArchiveScanningTests.class.getName(), ClassFileScanningTests.class.getName()),
+                classes.stream().map(ClassDescriptor::className).toList()
+        );
+
+        assertEquals(classes, ArchiveScanning.findClassDescriptors(warFile, 1));
+    }
+
+    @Test
+    public void testWarScanningWithScanIndexCache() {
+        Path cacheFile = tempDir.resolve("scan-index.bin");
+        List<ClassDescriptor> expectedClasses = ArchiveScanning.findClassDescriptorsInWar(warFile, 2);
+
+        ScanIndexCache cache = ScanIndexCache.load(cacheFile, true);
+        assertEquals(expectedClasses, ArchiveScanning.findClassDescriptorsInWar(warFile, 2, cache));
+        assertEquals(0, cache.hitCount());
+        cache.save();
+
+        ScanIndexCache reloadedCache = ScanIndexCache.load(cacheFile, true);
+        assertEquals(expectedClasses, ArchiveScanning.findClassDescriptorsInWar(warFile, 2, reloadedCache));
+        assertEquals(0, reloadedCache.missCount());
+        assertEquals(2, reloadedCache.hitCount());
+    }
+
+    @Test
+    public void testScanIndexCacheReusesEntryIfOnlyLastModifiedTimeChanged() throws IOException {
+        Path classFile = tempDir.resolve("touched").resolve("ArchiveScanningTests.class");
+        Files.createDirectories(classFile.getParent());
+        try (InputStream is = Objects.requireNonNull(
+                ArchiveScanningTests.class.getResourceAsStream("ArchiveScanningTests.class"))) {
+            Files.copy(is, classFile);
+        }
+        Path cacheFile = tempDir.resolve("content-hash-scan-index.bin");
+        List<ClassDescriptor> expectedClasses = ClassFileScanning.findClassDescriptors(classFile.getParent());
+
+        ScanIndexCache cache = ScanIndexCache.load(cacheFile, true);
+        assertEquals(expectedClasses, cache.getOrScan(classFile, () -> expectedClasses));
+        assertEquals(1, cache.missCount());
+        cache.save();
+
+        // Touch the file: the last-modified time changes, the content does not
+        FileTime lastModifiedTime = Files.getLastModifiedTime(classFile);
+        Files.setLastModifiedTime(classFile, FileTime.fromMillis(lastModifiedTime.toMillis() + 60_000L));
+
+        ScanIndexCache reloadedCache = ScanIndexCache.load(cacheFile, true);
+        assertEquals(expectedClasses, reloadedCache.getOrScan(classFile, () -> fail("Cache entry not reused")));
+        assertEquals(1, reloadedCache.hitCount());
+        assertEquals(0, reloadedCache.missCount());
+
+        // Without content hashes, the touched file is scanned again
+        ScanIndexCache cacheWithoutContentHash = ScanIndexCache.load(cacheFile, false);
+        assertEquals(expectedClasses, cacheWithoutContentHash.getOrScan(classFile, () -> expectedClasses));
+        assertEquals(0, cacheWithoutContentHash.hitCount());
+        assertEquals(1, cacheWithoutContentHash.missCount());
+    }
+
+    @Test
+    public void testScanIndexCacheSaveFailureLeavesNoTempFile() throws IOException {
+        Path cacheDir = tempDir.resolve("failing-save");
+        Files.createDirectories(cacheDir);
+        // The cache file is a non-empty directory, so the final move fails
+        Path cacheFile = cacheDir.resolve("scan-index.bin");
+        Files.createDirectories(cacheFile);
+        Files.writeString(cacheFile.resolve("blocker.txt"), "blocker");
+
+        ScanIndexCache cache = ScanIndexCache.load(cacheFile, false);
+        assertThrows(UncheckedIOException.class, cache::save);
+
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            assertEquals(List.of(cacheFile), files.toList());
+        }
+    }
+
+    private static void addClassFile(ZipOutputStream zipOutputStream, String prefix, Class<?> clazz) throws IOException {
+        String path = clazz.getName().replace('.', '/') + ".class";
+
+        zipOutputStream.putNextEntry(new ZipEntry(prefix + path));
+        try (InputStream is = Objects.requireNonNull(clazz.getResourceAsStream("/" + path))) {
+            is.transferTo(zipOutputStream);
+        }
+        zipOutputStream.closeEntry();
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.classfile;
+
+import eu.cdevreeze.openlibertychecks.classfile.internal.ClassFileParser;
+import eu.cdevreeze.openlibertychecks.classfile.internal.ClassFileScanning;
+import eu.cdevreeze.openlibertychecks.reflection.internal.ClassPathScanning;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Class file scanning tests.
+ * <p>
+ * This is not a regular unit test.
+ *
+ * @author Chris de Vreeze
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ClassFileScanningTests {
+
+    @Test
+    public void testClassFileScanning() throws URISyntaxException {
+        Path rootDir = Path.of(
+                Objects.requireNonNull(ClassPathScanning.class.getResource("/dummyFile.txt")).toURI()
+        ).getParent();
+
+        List<ClassDescriptor> classes = ClassFileScanning.findClassDescriptors(rootDir);
+
+        System.out.printf("Found %d class descriptors%n", classes.size());
+
+        assertTrue(classes.size() >= 75);
+
+        assertTrue(classes.stream().allMatch(c -> c.packageName().startsWith("eu.cdevreeze.openlibertychecks")));
+
+        // Same classes as found by (loading) class path scanning
+        assertEquals(
+                ClassPathScanning.findClasses(rootDir).stream().map(Class::getName).sorted().toList(),
+                classes.stream().map(ClassDescriptor::className).sorted().toList()
+        );
+    }
+
+    @Test
+    public void testAnnotationParsing() throws IOException {
+        ClassDescriptor clazz;
+        try (InputStream is = ClassFileScanningTests.class.getResourceAsStream("ClassFileScanningTests.class")) {
+            clazz = ClassFileParser.parse(Objects.requireNonNull(is));
+        }
+
+        assertEquals(ClassFileScanningTests.class.getName(), clazz.className());
+        assertEquals(Optional.of(Object.class.getName()), clazz.superClassNameOption());
+
+        assertEquals(
+                Optional.of(new AnnotationValue.EnumConstant(
+                        TestInstance.Lifecycle.class.getName(),
+                        TestInstance.Lifecycle.PER_CLASS.name()
+                )),
+                clazz.findAnnotation(TestInstance.class.getName()).flatMap(ann -> ann.enumValueOption("value"))
+        );
+
+        assertEquals(
+                List.of(
+                        "testAnnotationIndex",
+                        "testAnnotationParsing",
+                        "testClassFileScanning",
+                        "testInvalidAnnotationConstantIndex"
+                ),
+                clazz.methods().stream()
+                        .filter(m -> m.hasAnnotation(Test.class.getName()))
+                        .map(MethodDescriptor::name)
+                        .sorted()
+                        .toList()
+        );
+
+        assertEquals(
+                List.of("public void " + ClassFileScanningTests.class.getName() + ".testClassFileScanning()"),
+                clazz.methods().stream()
+                        .filter(m -> m.name().equals("testClassFileScanning"))
+                        .map(MethodDescriptor::toJavaString)
+                        .toList()
+        );
+
+        // Classes only used in method bodies are referenced from the constant pool
+        assertTrue(clazz.referencedClassNames().contains(ClassPathScanning.class.getName()));
+        assertTrue(clazz.referencedClassNames().contains(ClassFileParser.class.getName()));
+        assertFalse(clazz.referencedClassNames().contains(clazz.className()));
+    }
+
+    @Test
+    public void testAnnotationIndex() throws URISyntaxException, IOException {
+        Path rootDir = Path.of(
+                Objects.requireNonNull(ClassPathScanning.class.getResource("/dummyFile.txt")).toURI()
+        ).getParent();
+
+        List<ClassDescriptor> classes = new ArrayList<>(ClassFileScanning.findClassDescriptors(rootDir));
+        try (InputStream is = ClassFileScanningTests.class.getResourceAsStream("ClassFileScanningTests.class")) {
+            classes.add(ClassFileParser.parse(Objects.requireNonNull(is)));
+        }
+        AnnotationIndex index = AnnotationIndex.build(classes);
+
+        assertEquals(classes.size(), index.classes().size());
+
+        // Same results as a pass over all classes
+        assertEquals(
+                classes.stream()
+                        .filter(c -> c.hasAnnotation(TestInstance.class.getName()))
+                        .map(ClassDescriptor::className)
+                        .sorted()
+                        .toList(),
+                index.annotatedClasses(TestInstance.class.getName()).stream()
+                        .map(ClassDescriptor::className)
+                        .sorted()
+                        .toList()
+        );
+        assertEquals(
+                classes.stream()
+                        .flatMap(c -> c.methods().stream())
+                        .filter(m -> m.hasAnnotation(Test.class.getName()))
+                        .toList(),
+                index.annotatedMethods(Test.class.getName())
+        );
+
+        assertEquals(
+                List.of(ClassFileScanningTests.class.getName()),
+                index.annotatedClasses(TestInstance.class.getName()).stream().map(ClassDescriptor::className).toList()
+        );
+        assertEquals(4, index.annotatedMethods(Test.class.getName()).size());
+        assertTrue(index.annotatedConstructors(Test.class.getName()).isEmpty());
+        assertTrue(index.occurrences("com.example.NonExistingAnnotation").isEmpty());
+    }
+
+    @Test
+    public void testInvalidAnnotationConstantIndex() throws IOException {
+        // Constant pool index 2 is the unusable second slot of the long constant at index 1
+        assertThrows(ClassFormatError.class, () -> ClassFileParser.parse(classWithStringAnnotationValue(2)));
+        // Constant pool index 0 is never used
+        assertThrows(ClassFormatError.class, () -> ClassFileParser.parse(classWithStringAnnotationValue(0)));
+        // Constant pool index 1 is a long constant, not a Utf8 entry
+        assertThrows(ClassFormatError.class, () -> ClassFileParser.parse(classWithStringAnnotationValue(1)));
+
+        ClassDescriptor clazz = ClassFileParser.parse(classWithStringAnnotationValue(3));
+        assertEquals(
+                Optional.of("Corrupt"),
+                clazz.findAnnotation("Ann").flatMap(ann -> ann.stringValueOption("value"))
+        );
+    }
+
+    /**
+     * Returns a minimal class file, with a class annotation whose "value" element is a String constant
+     * at the given constant pool index.
+     */
+    private static byte[] classWithStringAnnotationValue(int constantIndex) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bos);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0); // minor version
+        out.writeShort(61); // major version
+
+        out.writeShort(8); // constant pool count
+        out.writeByte(5); // 1 (and 2): CONSTANT_Long
+        out.writeLong(42L);
+        out.writeByte(1); // 3: CONSTANT_Utf8
+        out.writeUTF("Corrupt");
+        out.writeByte(7); // 4: CONSTANT_Class
+        out.writeShort(3);
+        out.writeByte(1); // 5: CONSTANT_Utf8
+        out.writeUTF("RuntimeVisibleAnnotations");
+        out.writeByte(1); // 6: CONSTANT_Utf8
+        out.writeUTF("LAnn;");
+        out.writeByte(1); // 7: CONSTANT_Utf8
+        out.writeUTF("value");
+
+        out.writeShort(0x21); // access flags
+        out.writeShort(4); // this class
+        out.writeShort(0); // no super class
+        out.writeShort(0); // interfaces
+        out.writeShort(0); // fields
+        out.writeShort(0); // methods
+
+        out.writeShort(1); // attributes
+        out.writeShort(5);
+        out.writeInt(10);
+        out.writeShort(1); // annotations
+        out.writeShort(6);
+        out.writeShort(1); // element value pairs
+        out.writeShort(7);
+        out.writeByte('s');
+        out.writeShort(constantIndex);
+        out.flush();
+        return bos.toByteArray();
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.console;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMultiset;
+import eu.cdevreeze.yaidom4j.core.NamespaceScope;
+import eu.cdevreeze.yaidom4j.dom.immutabledom.Element;
+import eu.cdevreeze.yaidom4j.dom.immutabledom.Node;
+import eu.cdevreeze.yaidom4j.dom.immutabledom.Text;
+import eu.cdevreeze.yaidom4j.dom.immutabledom.jaxpinterop.DocumentParsers;
+import jakarta.annotation.Resource;
+import jakarta.annotation.Resources;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+import org.xml.sax.InputSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests comparing the streamed resource report with the report built in memory, using a generated exploded WAR
+ * directory containing a nested JAR file, and generated web.xml and server.xml files.
+ * <p>
+ * This is not a regular unit test.
+ *
+ * @author Chris de Vreeze
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class FindResourcesInWarTests {
+
+    private Path warDir;
+    private Path configDir;
+
+    @BeforeAll
+    public void createWarAndConfigDirs(@TempDir Path tempDir) throws IOException {
+        warDir = tempDir.resolve("test-war");
+        Path classesDir = warDir.resolve("WEB-INF/classes");
+        copyClassFile(classesDir, SampleServlet.class);
+        copyClassFile(classesDir, SampleBean.class);
+
+        Path libDir = Files.createDirectories(warDir.resolve("WEB-INF/lib"));
+        try (ZipOutputStream jarOutputStream = new ZipOutputStream(Files.newOutputStream(libDir.resolve("test.jar")))) {
+            String path = SampleRepository.class.getName().replace('.', '/') + ".class";
+            jarOutputStream.putNextEntry(new ZipEntry(path));
+            try (InputStream is = Objects.requireNonNull(SampleRepository.class.getResourceAsStream("/" + path))) {
+                is.transferTo(jarOutputStream);
+            }
+            jarOutputStream.closeEntry();
+        }
+
+        configDir = Files.createDirectories(tempDir.resolve("config"));
+        Files.writeString(
+                configDir.resolve("web.xml"),
+                """
+                        <web-app xmlns="https://jakarta.ee/xml/ns/jakartaee" version="6.0">
+                            <resource-ref>
+                                <res-ref-name>jdbc/sampleDs</res-ref-name>
+                                <res-type>javax.sql.DataSource</res-type>
+                            </resource-ref>
+                            <resource-ref>
+                                <res-ref-name>jms/sampleCf</res-ref-name>
+                                <res-type>jakarta.jms.ConnectionFactory</res-type>
+                            </resource-ref>
+                        </web-app>
+                        """
+        );
+        Files.writeString(
+                configDir.resolve("server.xml"),
+                """
+                        <server>
+                            <jndiEntry jndiName="sample/name" value="sample"/>
+                            <jndiEntry jndiName="sample/count" value="${sample.count}"/>
+                        </server>
+                        """
+        );
+    }
+
+    @Test
+    public void testStreamedReportEqualsReportBuiltInMemory() {
+        Element inMemoryReport = normalize(FindResourcesInWar.findResourcesAsXml(warDir, List.of(configDir)));
+
+        StringWriter writer = new StringWriter();
+        FindResourcesInWar.writeResourcesAsXml(warDir, List.of(configDir), writer);
+        Element streamedReport = normalize(
+                DocumentParsers.builder().removingInterElementWhitespace().build()
+                        .parse(new InputSource(new StringReader(writer.toString())))
+                        .documentElement()
+        );
+
+        assertEquals(inMemoryReport.name(), streamedReport.name());
+        assertEquals(
+                List.of("resourceAnnotationOccurrences", "resourceRefs", "jndiEntries"),
+                streamedReport.childElementStream().map(e -> e.name().getLocalPart()).toList()
+        );
+
+        List<Element> inMemorySections = inMemoryReport.childElementStream().toList();
+        List<Element> streamedSections = streamedReport.childElementStream().toList();
+
+        // The occurrences are grouped per class when streaming, so only the order may differ
+        assertEquals(5, inMemorySections.get(0).childElementStream().count());
+        assertEquals(
+                ImmutableMultiset.copyOf(inMemorySections.get(0).childElementStream().toList()),
+                ImmutableMultiset.copyOf(streamedSections.get(0).childElementStream().toList())
+        );
+
+        assertEquals(2, inMemorySections.get(1).childElementStream().count());
+        assertEquals(inMemorySections.get(1), streamedSections.get(1));
+
+        assertEquals(2, inMemorySections.get(2).childElementStream().count());
+        assertEquals(inMemorySections.get(2), streamedSections.get(2));
+    }
+
+    /**
+     * Drops the namespace scopes, which depend on where the (re)parsed namespace declarations happen to occur,
+     * as well as empty text nodes, which do not survive serialization and parsing.
+     */
+    private static Element normalize(Element element) {
+        return new Element(
+                element.name(),
+                element.attributes(),
+                element.children().stream()
+                        .filter(ch -> !(ch instanceof Text t) || !t.value().isEmpty())
+                        .map(ch -> ch instanceof Element e ? normalize(e) : ch)
+                        .collect(ImmutableList.<Node>toImmutableList()),
+                NamespaceScope.empty()
+        );
+    }
+
+    private static void copyClassFile(Path classesDir, Class<?> clazz) throws IOException {
+        String path = clazz.getName().replace('.', '/') + ".class";
+        Path target = classesDir.resolve(path);
+        Files.createDirectories(target.getParent());
+
+        try (InputStream is = Objects.requireNonNull(clazz.getResourceAsStream("/" + path))) {
+            Files.copy(is, target);
+        }
+    }
+
+    @Resources({
+            @Resource(name = "jms/sampleCf", type = Object.class),
+            @Resource(name = "jms/sampleQueue", lookup = "jms/queue")
+    })
+    public static class SampleServlet {
+
+        @Resource(name = "jdbc/sampleDs")
+        private Object dataSource;
+    }
+
+    @Resource(name = "sample/bean", shareable = false)
+    public static class SampleBean {
+    }
+
+    public static class SampleRepository {
+
+        private Object name;
+
+        @Resource(lookup = "sample/name")
+        public void setName(Object name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.console;
+
+import eu.cdevreeze.openlibertychecks.rules.Finding;
+import eu.cdevreeze.openlibertychecks.rules.RuleScheduler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the wiring of the checks in {@link RunChecks}.
+ * <p>
+ * This is not a regular unit test.
+ *
+ * @author Chris de Vreeze
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class RunChecksTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testFailFastSkipsLaterWavesForBrokenConfig() throws IOException {
+        Path configDir = createConfigDir("broken", "10", "5");
+        Path classesDir = Files.createDirectories(tempDir.resolve("classes"));
+
+        RuleScheduler.Result result =
+                RunChecks.createScheduler(List.of(configDir), Optional.of(classesDir)).run(true);
+
+        assertTrue(result.hasErrors());
+        assertTrue(result.findings().stream()
+                .map(Finding::checkId)
+                .toList()
+                .contains("server.connectionManager.poolSize"));
+
+        // The rules on merged configurations inherit the cost of merging, so they do not run either
+        assertEquals(List.of("documents"), result.executedRuleIds());
+        assertEquals(
+                List.of("classes", "mergedServerConfigs.checks", "mergedServerConfigs.includes"),
+                result.skippedRuleIds().stream().sorted().toList()
+        );
+        assertFalse(result.computedArtifactNames().contains(RunChecks.MERGED_SERVER_CONFIGS.name()));
+        assertFalse(result.computedArtifactNames().contains(RunChecks.ANNOTATION_INDEX.name()));
+    }
+
+    @Test
+    public void testAllRulesRunWithoutFailFast() throws IOException {
+        Path configDir = createConfigDir("broken2", "10", "5");
+        Path classesDir = Files.createDirectories(tempDir.resolve("classes2"));
+
+        RuleScheduler.Result result =
+                RunChecks.createScheduler(List.of(configDir), Optional.of(classesDir)).run(false);
+
+        assertTrue(result.hasErrors());
+        assertEquals(
+                List.of("classes", "documents", "mergedServerConfigs.checks", "mergedServerConfigs.includes"),
+                result.executedRuleIds().stream().sorted().toList()
+        );
+        assertEquals(List.of(), result.skippedRuleIds());
+        assertTrue(result.computedArtifactNames().contains(RunChecks.ANNOTATION_INDEX.name()));
+    }
+
+    @Test
+    public void testNoClassRuleWithoutClassesPath() throws IOException {
+        Path configDir = createConfigDir("valid", "2", "5");
+
+        RuleScheduler.Result result = RunChecks.createScheduler(List.of(configDir), Optional.empty()).run(true);
+
+        assertFalse(result.findings().stream()
+                .map(Finding::checkId)
+                .toList()
+                .contains("server.connectionManager.poolSize"));
+        assertFalse(result.executedRuleIds().contains("classes"));
+        assertEquals(List.of(), result.skippedRuleIds());
+    }
+
+    @Test
+    public void testTruncatedXmlIsReported() throws IOException {
+        Path configDir = createConfigDir("truncated", "2", "5");
+        Files.writeString(configDir.resolve("extra.xml"), "<server>\n    <featureManager>\n");
+
+        RuleScheduler.Result result = RunChecks.createScheduler(List.of(configDir), Optional.empty()).run(false);
+
+        assertEquals(
+                List.of(configDir.resolve("extra.xml").toAbsolutePath().toUri()),
+                result.findings().stream()
+                        .filter(finding -> finding.checkId().equals("xml.wellFormed"))
+                        .flatMap(finding -> finding.documentUriOption().stream())
+                        .toList()
+        );
+        assertTrue(result.hasErrors());
+    }
+
+    private Path createConfigDir(String name, String minPoolSize, String maxPoolSize) throws IOException {
+        Path configDir = Files.createDirectories(tempDir.resolve(name));
+        Files.writeString(configDir.resolve("server.xml"), String.format("""
+                <server>
+                    <featureManager>
+                        <feature>jdbc-4.3</feature>
+                    </featureManager>
+                    <connectionManager id="cm" minPoolSize="%s" maxPoolSize="%s"/>
+                </server>
+                """, minPoolSize, maxPoolSize));
+        return configDir;
+    }
+}
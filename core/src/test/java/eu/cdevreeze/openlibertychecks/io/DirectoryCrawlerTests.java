@@ -0,0 +1,103 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.io;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Directory crawler tests, comparing the results of the crawler with those of a plain {@link Files#walk}.
+ * See the benchmarks project for a performance comparison.
+ *
+ * @author Chris de Vreeze
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class DirectoryCrawlerTests {
+
+    private Path rootDir;
+
+    @BeforeAll
+    public void createDirectoryTree(@TempDir Path tempDir) throws IOException {
+        rootDir = tempDir;
+
+        for (int i = 0; i < 20; i++) {
+            for (int j = 0; j < 20; j++) {
+                Path dir = Files.createDirectories(rootDir.resolve("dir" + i).resolve("sub" + j));
+                Files.writeString(dir.resolve("server.xml"), "<server/>");
+                Files.writeString(dir.resolve("server.env"), "A=B");
+                Files.writeString(dir.resolve("notes.xml.txt"), "");
+            }
+            Path excludedDir = Files.createDirectories(rootDir.resolve("dir" + i).resolve("target").resolve("classes"));
+            Files.writeString(excludedDir.resolve("server.xml"), "<server/>");
+            Path gitDir = Files.createDirectories(rootDir.resolve("dir" + i).resolve(".git"));
+            Files.writeString(gitDir.resolve("config.xml"), "<config/>");
+        }
+    }
+
+    @Test
+    public void testCrawlingAgainstFilesWalk() throws IOException {
+        DirectoryCrawler crawler = new DirectoryCrawler(
+                DirectoryCrawler.Settings.forFileExtension(".xml")
+                        .withExcludedDirectoryNames(DirectoryCrawler.DEFAULT_EXCLUDED_DIRECTORY_NAMES)
+        );
+
+        ImmutableList<Path> crawledFiles = crawler.findFiles(rootDir);
+        List<Path> walkedFiles = findFilesWithFilesWalk();
+
+        assertEquals(20 * 20, crawledFiles.size());
+        assertTrue(crawledFiles.stream().allMatch(p -> p.getFileName().toString().equals("server.xml")));
+        assertEquals(walkedFiles, crawledFiles);
+    }
+
+    @Test
+    public void testCrawlingWithDifferentParallelism() {
+        DirectoryCrawler.Settings settings = DirectoryCrawler.Settings.forFileExtension(".env");
+
+        ImmutableList<Path> files = new DirectoryCrawler(settings.withParallelism(1)).findFiles(rootDir);
+
+        assertEquals(20 * 20, files.size());
+        assertEquals(files, new DirectoryCrawler(settings.withParallelism(8)).findFiles(rootDir));
+        assertEquals(
+                List.of(),
+                new DirectoryCrawler(settings.withMaxDepth(2)).findFiles(rootDir)
+        );
+    }
+
+    private List<Path> findFilesWithFilesWalk() throws IOException {
+        try (Stream<Path> fileStream = Files.walk(rootDir)) {
+            return fileStream
+                    .filter(Files::isRegularFile)
+                    .filter(p -> p.getFileName().toString().endsWith(".xml"))
+                    .filter(p -> rootDir.relativize(p).getParent().toString().indexOf("target") < 0)
+                    .filter(p -> rootDir.relativize(p).getParent().toString().indexOf(".git") < 0)
+                    .sorted()
+                    .toList();
+        }
+    }
+}
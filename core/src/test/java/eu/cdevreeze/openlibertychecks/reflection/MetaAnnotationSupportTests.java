@@ -0,0 +1,92 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.reflection;
+
+import eu.cdevreeze.openlibertychecks.reflection.internal.ClassMetadata;
+import eu.cdevreeze.openlibertychecks.reflection.jakartaee10.cdi.CdiAnnotations;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.NormalScope;
+import jakarta.enterprise.context.RequestScoped;
+import jakarta.enterprise.inject.Stereotype;
+import jakarta.inject.Named;
+import jakarta.inject.Qualifier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.reflect.Field;
+import java.util.List;
+
+import static eu.cdevreeze.openlibertychecks.reflection.internal.AnnotationSupport.isMetaAnnotatedWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Meta-annotation retrieval support tests, using CDI stereotypes and qualifiers.
+ * <p>
+ * This is not a regular unit test.
+ *
+ * @author Chris de Vreeze
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class MetaAnnotationSupportTests {
+
+    @Test
+    public void testMetaAnnotationRetrieval() {
+        assertSame(ClassMetadata.of(SampleStereotype.class), ClassMetadata.of(SampleStereotype.class));
+
+        assertTrue(isMetaAnnotatedWith(SampleStereotype.class, Stereotype.class));
+        assertTrue(isMetaAnnotatedWith(SampleStereotype.class, NormalScope.class));
+        assertFalse(isMetaAnnotatedWith(SampleQualifier.class, Stereotype.class));
+
+        assertEquals(
+                List.of(SampleStereotype.class),
+                CdiAnnotations.findStereotypes(SampleBean.class).stream().map(Annotation::annotationType).toList()
+        );
+        assertTrue(CdiAnnotations.hasAnnotationDirectlyOrViaStereotype(SampleBean.class, RequestScoped.class));
+        assertFalse(CdiAnnotations.hasAnnotationDirectlyOrViaStereotype(SampleBean.class, ApplicationScoped.class));
+
+        Field field = ClassMetadata.of(SampleBean.class).fields().get(0);
+        assertEquals(
+                List.of(SampleQualifier.class, Named.class),
+                CdiAnnotations.findQualifiers(field).stream().map(Annotation::annotationType).toList()
+        );
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Stereotype
+    @RequestScoped
+    @interface SampleStereotype {
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Qualifier
+    @interface SampleQualifier {
+    }
+
+    @SampleStereotype
+    static class SampleBean {
+
+        @SampleQualifier
+        @Named("sample")
+        String value;
+    }
+}
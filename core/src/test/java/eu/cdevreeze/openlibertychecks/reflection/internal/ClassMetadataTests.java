@@ -0,0 +1,107 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.reflection.internal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the lazily computed per-class metadata.
+ * <p>
+ * This is not a regular unit test.
+ *
+ * @author Chris de Vreeze
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ClassMetadataTests {
+
+    @Test
+    public void testAnnotationLookupDoesNotNeedMemberTypes() throws ClassNotFoundException {
+        Class<?> clazz = Class.forName(DependsOnMissingType.class.getName(), false, new HidingClassLoader());
+
+        ClassMetadata metadata = ClassMetadata.of(clazz);
+
+        assertTrue(AnnotationSupport.findDeclaredAnnotation(clazz, Marker.class).isPresent());
+        assertTrue(AnnotationSupport.findAnnotation(clazz, Marker.class).isPresent());
+
+        // Only the member lookups need the missing type
+        assertThrows(NoClassDefFoundError.class, metadata::methods);
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Marker {
+    }
+
+    public static class MissingType {
+    }
+
+    @Marker
+    public static class DependsOnMissingType {
+
+        public MissingType missingType() {
+            return new MissingType();
+        }
+    }
+
+    /**
+     * Class loader defining its own copy of {@link DependsOnMissingType}, for which {@link MissingType} cannot
+     * be found. All other classes are loaded by the parent class loader.
+     */
+    private static final class HidingClassLoader extends ClassLoader {
+
+        private HidingClassLoader() {
+            super(ClassMetadataTests.class.getClassLoader());
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (name.equals(MissingType.class.getName())) {
+                throw new ClassNotFoundException(name);
+            }
+            if (!name.equals(DependsOnMissingType.class.getName())) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> clazz = findLoadedClass(name);
+                if (clazz == null) {
+                    byte[] classFileContent = readClassFile(name);
+                    clazz = defineClass(name, classFileContent, 0, classFileContent.length);
+                }
+                return clazz;
+            }
+        }
+
+        private static byte[] readClassFile(String className) {
+            String resourceName = "/" + className.replace('.', '/') + ".class";
+            try (InputStream is = ClassMetadataTests.class.getResourceAsStream(resourceName)) {
+                return Objects.requireNonNull(is).readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.rules;
+
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.DataSource;
+import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.xml.sax.InputSource;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static eu.cdevreeze.openlibertychecks.xml.XmlTestSupport.parse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Check engine tests.
+ * <p>
+ * This is not a regular unit test.
+ *
+ * @author Chris de Vreeze
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class CheckEngineTests {
+
+    private static final String BROKEN_SERVER_XML = """
+            <server>
+                <dataSource id="ds1" jndiName="jdbc/ds1" connectionManagerRef="noSuchPool">
+                    <jdbcDriver libraryRef="noSuchLib"/>
+                </dataSource>
+                <dataSource id="ds2" jndiName="jdbc/ds2" connectionManagerRef="${pool.ref}"/>
+                <connectionManager id="pool" minPoolSize="20" maxPoolSize="10"/>
+                <jmsQueueConnectionFactory jndiName="jms/qcf" connectionManagerRef="noSuchPool"/>
+                <jmsTopicConnectionFactory jndiName="jms/tcf" connectionManagerRef="pool"/>
+            </server>
+            """;
+
+    private static final String THREAD_POOL_SERVER_XML = """
+            <server>
+                <executor coreThreads="40" maxThreads="40"/>
+                <managedExecutorService jndiName="concurrent/batch" concurrencyPolicyRef="batchPolicy"
+                                        longRunningPolicyRef="noSuchPolicy"/>
+                <managedScheduledExecutorService jndiName="concurrent/timers">
+                    <concurrencyPolicy max="2" maxPolicy="strict" maxQueueSize="100"/>
+                </managedScheduledExecutorService>
+                <concurrencyPolicy id="batchPolicy" max="5"/>
+                <concurrencyPolicy id="boundedPolicy" max="5" maxQueueSize="50" maxPolicy="strict"
+                                   runIfQueueFull="true"/>
+            </server>
+            """;
+
+    @Test
+    public void testCheckEngine() {
+        ElementTree.Element sampleServer = parseSampleServerXml();
+        ElementTree.Element brokenServer = parse(BROKEN_SERVER_XML);
+
+        ConfigCheck<DataSource> failingCheck = ConfigCheck.forServerXml(
+                "test.failing",
+                "dataSource",
+                DataSource::new,
+                (dataSource, context) -> {
+                    throw new IllegalStateException("Failing check");
+                }
+        );
+
+        CheckEngine engine = new CheckEngine(
+                Stream.concat(ServerXmlChecks.all().stream(), Stream.of(failingCheck)).toList(),
+                List.of(),
+                4
+        );
+
+        List<Finding> findings = engine.run(List.of(sampleServer, brokenServer), Optional.empty());
+
+        assertEquals(
+                List.of(
+                        "server.connectionManager.poolSize",
+                        "server.dataSource.connectionManagerRef",
+                        "server.jdbcDriver.libraryRef",
+                        "server.jmsQueueConnectionFactory.connectionManagerRef",
+                        "test.failing",
+                        "test.failing",
+                        "test.failing"
+                ),
+                findings.stream().map(Finding::checkId).sorted().toList()
+        );
+        assertEquals(
+                List.of(Severity.ERROR),
+                findings.stream().map(Finding::severity).distinct().toList()
+        );
+    }
+
+    @Test
+    public void testThreadPoolChecks() {
+        ElementTree.Element server = parse(THREAD_POOL_SERVER_XML);
+
+        CheckEngine engine = new CheckEngine(ServerXmlChecks.all(), List.of(), 2);
+
+        List<Finding> findings = engine.run(List.of(server), Optional.empty());
+
+        assertEquals(
+                List.of(
+                        "server.concurrencyPolicy.maxPolicy",
+                        "server.concurrencyPolicy.maxQueueSize",
+                        "server.executor.threads",
+                        "server.managedExecutorService.policyRef"
+                ),
+                findings.stream().map(Finding::checkId).sorted().toList()
+        );
+    }
+
+    private ElementTree.Element parseSampleServerXml() {
+        InputStream inputStream = CheckEngineTests.class.getResourceAsStream("/dialects/sample-server.xml");
+        return parse(new InputSource(inputStream));
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.rules;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Rule scheduler tests.
+ * <p>
+ * This is not a regular unit test.
+ *
+ * @author Chris de Vreeze
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class RuleSchedulerTests {
+
+    private static final ArtifactKey<String> CONFIG = ArtifactKey.of("config");
+    private static final ArtifactKey<Integer> CONFIG_LENGTH = ArtifactKey.of("configLength");
+    private static final ArtifactKey<String> CLASSES = ArtifactKey.of("classes");
+
+    @Test
+    public void testScheduling() {
+        AtomicInteger configComputations = new AtomicInteger();
+        RuleScheduler scheduler = createScheduler(configComputations);
+
+        assertEquals(
+                List.of("configRule", "configLengthRule", "classesRule"),
+                scheduler.rules().stream().map(Rule::id).toList()
+        );
+        assertEquals(Cost.MODERATE, scheduler.effectiveCost(scheduler.rules().get(1)));
+
+        RuleScheduler.Result result = scheduler.run(false);
+
+        assertEquals(List.of("configRule", "configLengthRule", "classesRule"), result.executedRuleIds());
+        assertTrue(result.skippedRuleIds().isEmpty());
+        assertEquals(Set.of("classes", "config", "configLength"), result.computedArtifactNames());
+        assertEquals(1, configComputations.get());
+        assertEquals(2, result.findings().size());
+        assertTrue(result.hasErrors());
+    }
+
+    @Test
+    public void testFailFast() {
+        AtomicInteger configComputations = new AtomicInteger();
+        RuleScheduler.Result result = createScheduler(configComputations).run(true);
+
+        assertEquals(List.of("configRule"), result.executedRuleIds());
+        assertEquals(List.of("configLengthRule", "classesRule"), result.skippedRuleIds());
+        assertEquals(Set.of("config"), result.computedArtifactNames());
+        assertEquals(1, result.findings().size());
+    }
+
+    @Test
+    public void testFailFastDoesNotCancelRunningRules() {
+        CountDownLatch errorReported = new CountDownLatch(1);
+
+        List<Rule> rules = List.of(
+                Rule.of("failingRule", Set.of(), Cost.CHEAP, (artifacts, findingSink) -> {
+                    findingSink.report(new Finding("failingRule", Severity.ERROR, Optional.empty(), "broken"));
+                    errorReported.countDown();
+                }),
+                Rule.of("runningRule", Set.of(), Cost.CHEAP, (artifacts, findingSink) -> {
+                    try {
+                        // Normally runs concurrently with the failing rule, and is still running after the error
+                        errorReported.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    findingSink.report(new Finding("runningRule", Severity.INFO, Optional.empty(), "completed"));
+                }),
+                Rule.of("expensiveRule", Set.of(), Cost.EXPENSIVE, (artifacts, findingSink) -> fail("Not skipped"))
+        );
+
+        RuleScheduler.Result result = new RuleScheduler(List.of(), rules, 2).run(true);
+
+        assertEquals(List.of("failingRule", "runningRule"), result.executedRuleIds());
+        assertEquals(List.of("expensiveRule"), result.skippedRuleIds());
+        assertEquals(
+                List.of("failingRule", "runningRule"),
+                result.findings().stream().map(Finding::checkId).sorted().toList()
+        );
+        assertTrue(result.hasErrors());
+    }
+
+    @Test
+    public void testInvalidDependencies() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new RuleScheduler(
+                        List.of(ArtifactProvider.of(CONFIG, Set.of(CONFIG_LENGTH), Cost.CHEAP, a -> "")),
+                        List.of()
+                )
+        );
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new RuleScheduler(
+                        List.of(
+                                ArtifactProvider.of(CONFIG, Set.of(CONFIG_LENGTH), Cost.CHEAP, a -> ""),
+                                ArtifactProvider.of(CONFIG_LENGTH, Set.of(CONFIG), Cost.CHEAP, a -> 0)
+                        ),
+                        List.of()
+                )
+        );
+    }
+
+    private RuleScheduler createScheduler(AtomicInteger configComputations) {
+        List<ArtifactProvider<?>> providers = List.of(
+                ArtifactProvider.of(CONFIG, Set.of(), Cost.CHEAP, artifacts -> {
+                    configComputations.incrementAndGet();
+                    return "<server/>";
+                }),
+                ArtifactProvider.of(
+                        CONFIG_LENGTH,
+                        Set.of(CONFIG),
+                        Cost.MODERATE,
+                        artifacts -> artifacts.get(CONFIG).length()
+                ),
+                ArtifactProvider.of(CLASSES, Set.of(), Cost.EXPENSIVE, artifacts -> "classes")
+        );
+
+        List<Rule> rules = List.of(
+                Rule.of("classesRule", Set.of(CLASSES), Cost.CHEAP, (artifacts, findingSink) -> {
+                    assertEquals("classes", artifacts.get(CLASSES));
+                }),
+                Rule.of("configLengthRule", Set.of(CONFIG_LENGTH), Cost.CHEAP, (artifacts, findingSink) -> {
+                    assertEquals(9, artifacts.get(CONFIG_LENGTH));
+                    findingSink.report(new Finding("configLengthRule", Severity.INFO, Optional.empty(), "length"));
+                }),
+                Rule.of("configRule", Set.of(CONFIG), Cost.CHEAP, (artifacts, findingSink) -> {
+                    if (artifacts.get(CONFIG).startsWith("<server")) {
+                        findingSink.report(new Finding("configRule", Severity.ERROR, Optional.empty(), "broken"));
+                    }
+                })
+        );
+        return new RuleScheduler(providers, rules);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.xml;
+
+import eu.cdevreeze.openlibertychecks.xml.internal.RootElementSniffer;
+import eu.cdevreeze.openlibertychecks.xml.jakartaee10.Names;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.xml.namespace.QName;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Document element sniffing tests.
+ * <p>
+ * This is not a regular unit test.
+ *
+ * @author Chris de Vreeze
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class RootElementSnifferTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testSniffingSampleFiles() {
+        List<Optional<QName>> documentElementNames = List.of(
+                        "sample-server.xml",
+                        "sample-web.xml",
+                        "sample-ejb-jar.xml",
+                        "sample-beans.xml",
+                        "sample-persistence.xml"
+                )
+                .stream()
+                .map(this::getPath)
+                .map(RootElementSniffer::findDocumentElementName)
+                .toList();
+
+        assertEquals(
+                List.of(
+                        Optional.of(XmlDocumentRepository.SERVER_NAME),
+                        Optional.of(Names.JAKARTAEE_WEBAPP_NAME),
+                        Optional.of(Names.JAKARTAEE_EJBJAR_NAME),
+                        Optional.of(Names.JAKARTAEE_BEANS_NAME),
+                        Optional.of(Names.JAKARTA_PERSISTENCE_NAME)
+                ),
+                documentElementNames
+        );
+
+        assertEquals(Optional.empty(), RootElementSniffer.findDocumentElementName(getPath("sample-server.xml"), 10));
+    }
+
+    @Test
+    public void testSniffingNonXml() {
+        assertEquals(Optional.empty(), sniff("not XML at all"));
+        assertEquals(Optional.empty(), sniff(""));
+        assertEquals(Optional.of(new QName("root")), sniff("<?xml version=\"1.0\"?><!-- comment --><root><unclosed></root>"));
+    }
+
+    @Test
+    public void testTruncatedFileIsSkippedByRepository() throws IOException {
+        Path dir = Files.createDirectories(tempDir.resolve("config"));
+        Files.writeString(dir.resolve("server.xml"), """
+                <server>
+                    <featureManager>
+                        <feature>jdbc-4.3</feature>
+                    </featureManager>
+                </server>
+                """);
+        // The start tag sniffs fine, but the rest of the file is missing
+        Files.writeString(dir.resolve("truncated.xml"), """
+                <server>
+                    <featureManager>
+                        <feature>servlet-6.0
+                """);
+
+        XmlDocumentRepository repository = XmlDocumentRepository.load(List.of(dir));
+
+        assertEquals(List.of(dir.resolve("server.xml").toAbsolutePath()), repository.files());
+        assertEquals(1, repository.servers().size());
+        assertEquals(List.of(dir.resolve("truncated.xml").toAbsolutePath()), repository.unparseableFiles());
+
+        List<QName> scannedNames = new ArrayList<>();
+        XmlDocumentRepository.scan(
+                List.of(dir),
+                XmlDocumentRepository.DEFAULT_DOCUMENT_ELEMENT_NAMES,
+                XmlDocumentRepository.DEFAULT_MAX_FILE_SIZE,
+                e -> scannedNames.add(e.elementName())
+        );
+        assertEquals(List.of(XmlDocumentRepository.SERVER_NAME), scannedNames);
+    }
+
+    private Optional<QName> sniff(String xmlString) {
+        return RootElementSniffer.findDocumentElementName(
+                new ByteArrayInputStream(xmlString.getBytes(StandardCharsets.UTF_8)),
+                "test.xml"
+        );
+    }
+
+    private Path getPath(String fileName) {
+        try {
+            return Path.of(Objects.requireNonNull(RootElementSnifferTests.class.getResource("/dialects/" + fileName)).toURI());
+        } catch (URISyntaxException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.xml;
+
+import eu.cdevreeze.yaidom4j.dom.ancestryaware.Document;
+import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
+import eu.cdevreeze.yaidom4j.dom.immutabledom.jaxpinterop.DocumentParsers;
+import org.xml.sax.InputSource;
+
+import java.io.StringReader;
+
+/**
+ * XML parsing support shared by the tests. Inter-element whitespace is removed when parsing.
+ *
+ * @author Chris de Vreeze
+ */
+public class XmlTestSupport {
+
+    private XmlTestSupport() {
+    }
+
+    public static ElementTree.Element parse(String xml) {
+        return parse(new InputSource(new StringReader(xml)));
+    }
+
+    public static ElementTree.Element parse(InputSource inputSource) {
+        return Document.from(
+                DocumentParsers.builder().removingInterElementWhitespace().build().parse(inputSource)
+        ).documentElement();
+    }
+}
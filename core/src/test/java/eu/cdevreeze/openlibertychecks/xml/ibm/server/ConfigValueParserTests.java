@@ -0,0 +1,124 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.xml.ibm.server;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import static eu.cdevreeze.openlibertychecks.xml.XmlTestSupport.parse;
+import static java.time.temporal.ChronoUnit.MICROS;
+import static java.time.temporal.ChronoUnit.MILLIS;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Duration and size parsing tests.
+ * <p>
+ * This is not a regular unit test.
+ *
+ * @author Chris de Vreeze
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ConfigValueParserTests {
+
+    private static final String SERVER_XML = """
+            <server>
+                <transaction totalTranLifetimeTimeout="${tran.timeout}"/>
+                <applicationManager startTimeout="2m"/>
+                <connectionManager id="pool" agedTimeout="90" reapTime="1m30s" connectionTimeout="500ms"/>
+                <concurrencyPolicy id="normal" maxWaitForEnqueue="500" startTimeout="${start.timeout}"/>
+                <concurrencyPolicy id="strict" maxWaitForEnqueue="2s"/>
+            </server>
+            """;
+
+    @Test
+    public void testDurationParsing() {
+        assertEquals(Optional.of(Duration.ofSeconds(30)), ConfigValueParser.parseDurationOption("30s"));
+        assertEquals(Optional.of(Duration.ofSeconds(45)), ConfigValueParser.parseDurationOption(" 45 "));
+        assertEquals(Optional.of(Duration.ofSeconds(-1)), ConfigValueParser.parseDurationOption("-1"));
+        assertEquals(Optional.of(Duration.ofMinutes(90)), ConfigValueParser.parseDurationOption("1h30m"));
+        assertEquals(Optional.of(Duration.ofMillis(250)), ConfigValueParser.parseDurationOption("250MS"));
+        assertEquals(Optional.of(Duration.ofDays(2)), ConfigValueParser.parseDurationOption("2d"));
+        assertEquals(
+                Optional.of(Duration.ofDays(1).plusHours(2).plusMinutes(3).plusSeconds(4).plusMillis(5)),
+                ConfigValueParser.parseDurationOption("1d2h3m4s5ms")
+        );
+
+        assertEquals(Optional.empty(), ConfigValueParser.parseDurationOption(""));
+        assertEquals(Optional.empty(), ConfigValueParser.parseDurationOption("1m30"));
+        assertEquals(Optional.empty(), ConfigValueParser.parseDurationOption("30s1h"));
+        assertEquals(Optional.empty(), ConfigValueParser.parseDurationOption("1m1m"));
+        assertEquals(Optional.empty(), ConfigValueParser.parseDurationOption("1ms1s"));
+        assertEquals(Optional.empty(), ConfigValueParser.parseDurationOption("5x"));
+        assertEquals(Optional.empty(), ConfigValueParser.parseDurationOption("${timeout}"));
+        assertEquals(Optional.empty(), ConfigValueParser.parseDurationOption("99999999999999999999s"));
+
+        assertSame(ConfigValueParser.parseDurationOption("3m"), ConfigValueParser.parseDurationOption("3m"));
+
+        // Plain numbers in another default unit
+        assertEquals(Optional.of(Duration.ofMillis(500)), ConfigValueParser.parseDurationOption("500", MILLIS));
+        assertEquals(Optional.of(Duration.ofSeconds(500)), ConfigValueParser.parseDurationOption("500"));
+        assertEquals(Optional.of(Duration.ofSeconds(5)), ConfigValueParser.parseDurationOption("5s", MILLIS));
+        assertThrows(IllegalArgumentException.class, () -> ConfigValueParser.parseDurationOption("5", MICROS));
+        assertThrows(IllegalArgumentException.class, () -> ConfigValueParser.parseDuration("soon"));
+    }
+
+    @Test
+    public void testByteCountParsing() {
+        assertEquals(OptionalLong.of(512), ConfigValueParser.parseByteCountOption("512"));
+        assertEquals(OptionalLong.of(20L * 1024 * 1024), ConfigValueParser.parseByteCountOption("20m"));
+        assertEquals(OptionalLong.of(64L * 1024), ConfigValueParser.parseByteCountOption("64KB"));
+        assertEquals(OptionalLong.of(2L * 1024 * 1024 * 1024), ConfigValueParser.parseByteCountOption("2g"));
+
+        assertEquals(OptionalLong.empty(), ConfigValueParser.parseByteCountOption("-1"));
+        assertEquals(OptionalLong.empty(), ConfigValueParser.parseByteCountOption("20mbs"));
+    }
+
+    @Test
+    public void testTypedAccessors() {
+        Server server = new Server(parse(SERVER_XML));
+        VariableResolver variableResolver = VariableResolver.of(Map.of("tran.timeout", "5m"));
+
+        assertEquals(
+                Duration.ofMinutes(5),
+                server.transactions().get(0).totalTranLifetimeTimeoutDuration(variableResolver)
+        );
+        assertEquals(Duration.ofMinutes(2), server.applicationManagers().get(0).startTimeoutDuration());
+        assertEquals(Duration.ofSeconds(30), server.applicationManagers().get(0).stopTimeoutDuration());
+
+        ConnectionManager connectionManager = server.connectionManagers().get(0);
+        assertEquals(Duration.ofSeconds(90), connectionManager.agedTimeoutDuration());
+        assertEquals(Duration.ofSeconds(90), connectionManager.reapTimeDuration());
+        assertEquals(Duration.ofMillis(500), connectionManager.connectionTimeoutDuration());
+        assertEquals(Duration.ofMinutes(30), connectionManager.maxIdleTimeDuration());
+
+        // Plain numbers are in milliseconds for concurrency policies
+        ConcurrencyPolicy normalPolicy = server.concurrencyPolicies().get(0);
+        assertEquals(Duration.ofMillis(500), normalPolicy.maxWaitForEnqueueDuration());
+        assertEquals(
+                Optional.of(Duration.ofMillis(1500)),
+                normalPolicy.startTimeoutDurationOption(VariableResolver.of(Map.of("start.timeout", "1500")))
+        );
+        ConcurrencyPolicy strictPolicy = server.concurrencyPolicies().get(1);
+        assertEquals(Duration.ofSeconds(2), strictPolicy.maxWaitForEnqueueDuration());
+        assertEquals(Optional.empty(), strictPolicy.startTimeoutDurationOption());
+    }
+}
@@ -104,6 +104,11 @@ public class ServerDialectTests {
                         .anyMatch(cm -> cm.idOption().equals(Optional.of("derbyPool")))
         );
 
+        assertEquals(
+                Optional.of("derbyPool"),
+                dataSource.resolveConnectionManager().flatMap(ConnectionManager::idOption)
+        );
+
         assertEquals(
                 List.of(List.of("derbyPool", "10")),
                 server.connectionManagers().stream()
@@ -132,6 +137,13 @@ public class ServerDialectTests {
                         .anyMatch(lib -> lib.idOption().equals(Optional.of("derbyLib")))
         );
 
+        assertEquals(
+                List.of(Optional.of("derbyLib")),
+                dataSource.jdbcDrivers().stream()
+                        .map(drv -> drv.resolveLibrary().flatMap(Library::idOption))
+                        .toList()
+        );
+
         assertEquals(
                 Optional.of(Optional.of("derbyLib")),
                 server.libraries().stream()
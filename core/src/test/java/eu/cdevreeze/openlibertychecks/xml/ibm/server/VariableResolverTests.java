@@ -0,0 +1,95 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.xml.ibm.server;
+
+import eu.cdevreeze.yaidom4j.dom.ancestryaware.Document;
+import eu.cdevreeze.yaidom4j.dom.immutabledom.jaxpinterop.DocumentParsers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.xml.sax.InputSource;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Configuration variable resolution tests.
+ * <p>
+ * This is not a regular unit test.
+ *
+ * @author Chris de Vreeze
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class VariableResolverTests {
+
+    private static final String SERVER_XML = """
+            <server>
+                <variable name="base.port" defaultValue="9000"/>
+                <variable name="http.port" value="${base.port+80}"/>
+                <variable name="pool.size" value="${pool.min * 2 + 1}"/>
+                <variable name="pool.min" defaultValue="5"/>
+                <variable name="db.host" value="${env.DB_HOST}"/>
+                <variable name="loop.a" value="${loop.b}"/>
+                <variable name="loop.b" value="x${loop.a}"/>
+                <httpEndpoint id="defaultHttpEndpoint" httpPort="${http.port}" httpsPort="${undefined.port}"/>
+                <connectionManager id="pool" maxPoolSize="${pool.size}"/>
+            </server>
+            """;
+
+    @Test
+    public void testVariableResolution() {
+        Server server = new Server(
+                Document.from(DocumentParsers.builder().removingInterElementWhitespace().build()
+                                .parse(new InputSource(new StringReader(SERVER_XML))))
+                        .documentElement()
+        );
+
+        VariableResolver variableResolver = VariableResolver.of(
+                List.of(server),
+                Map.of("base.port", "8000"),
+                Map.of("DB_HOST", "localhost")
+        );
+
+        assertEquals(Optional.of("8080"), variableResolver.findValue("http.port"));
+        assertEquals(Optional.of("11"), variableResolver.findValue("pool.size"));
+        assertEquals(Optional.of("localhost"), variableResolver.findValue("db.host"));
+        assertEquals(Optional.empty(), variableResolver.findValue("loop.a"));
+        assertEquals(Optional.empty(), variableResolver.findValue("loop.b"));
+        assertEquals("jdbc://localhost:8080/${undefined}", variableResolver.resolve("jdbc://${db.host}:${http.port}/${undefined}"));
+
+        HttpEndpoint httpEndpoint = server.httpEndpoints().get(0);
+
+        assertEquals(OptionalInt.of(8080), httpEndpoint.httpPortOption(variableResolver));
+        assertThrows(NumberFormatException.class, httpEndpoint::httpPortOption);
+        // Unresolved references no longer lead to a NumberFormatException when using a VariableResolver
+        assertEquals(OptionalInt.empty(), httpEndpoint.httpsPortOption(variableResolver));
+
+        assertEquals(11, server.connectionManagers().get(0).maxPoolSize(variableResolver));
+
+        assertEquals(OptionalInt.of(11), variableResolver.resolveAsInt(Optional.of(" ${pool.size} ")));
+        assertEquals(OptionalInt.of(-1), variableResolver.resolveAsInt(Optional.of("-1")));
+        assertEquals(OptionalInt.empty(), variableResolver.resolveAsInt(Optional.empty()));
+        assertEquals(OptionalInt.empty(), variableResolver.resolveAsInt(Optional.of("${undefined}")));
+        assertEquals(OptionalInt.empty(), variableResolver.resolveAsInt(Optional.of("${db.host}")));
+        assertEquals(OptionalInt.empty(), variableResolver.resolveAsInt(Optional.of("99999999999")));
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.xml.ibm.server.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Include resolution tests.
+ * <p>
+ * This is not a regular unit test.
+ *
+ * @author Chris de Vreeze
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class IncludeResolverTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testIncludeResolution() throws IOException {
+        Path sharedDir = Files.createDirectories(tempDir.resolve("shared"));
+        Path fragmentsDir = Files.createDirectories(tempDir.resolve("server1").resolve("fragments"));
+        Path server1Dir = fragmentsDir.getParent();
+        Path server2Dir = Files.createDirectories(tempDir.resolve("server2"));
+
+        Files.writeString(sharedDir.resolve("shared.xml"), """
+                <server>
+                    <include location="${server.config.dir}/local.xml"/>
+                    <include location="missing.xml" optional="true"/>
+                </server>
+                """);
+        Files.writeString(server1Dir.resolve("server.xml"), """
+                <server>
+                    <include location="${shared.dir}/shared.xml"/>
+                    <include location="fragments/"/>
+                    <include location="missing.xml"/>
+                </server>
+                """);
+        Files.writeString(server1Dir.resolve("local.xml"), """
+                <server>
+                    <include location="server.xml"/>
+                </server>
+                """);
+        Files.writeString(fragmentsDir.resolve("b.xml"), "<server/>");
+        Files.writeString(fragmentsDir.resolve("a.xml"), "<server/>");
+        Files.writeString(server2Dir.resolve("server.xml"), """
+                <server>
+                    <include location="${shared.dir}/shared.xml"/>
+                    <include location="https://example.com/remote.xml"/>
+                </server>
+                """);
+        Files.writeString(server2Dir.resolve("local.xml"), "<server/>");
+
+        IncludeResolver resolver = new IncludeResolver(
+                IncludeResolver.Settings.defaultSettings().withLocationVariable("shared.dir", sharedDir.toString()),
+                new ConfigFileCache()
+        );
+
+        ResolvedServerConfig config1 = resolver.resolve(server1Dir.resolve("server.xml"));
+
+        assertEquals(
+                List.of("server.xml", "shared.xml", "local.xml", "a.xml", "b.xml"),
+                config1.configFiles().keySet().stream().map(p -> p.getFileName().toString()).toList()
+        );
+        assertEquals(
+                List.of(ResolvedServerConfig.ProblemKind.MISSING_FILE, ResolvedServerConfig.ProblemKind.CYCLE),
+                config1.problems().stream().map(ResolvedServerConfig.Problem::kind).sorted().toList()
+        );
+
+        ResolvedServerConfig config2 = resolver.resolve(server2Dir.resolve("server.xml"));
+
+        assertEquals(
+                List.of("server.xml", "shared.xml", "local.xml"),
+                config2.configFiles().keySet().stream().map(p -> p.getFileName().toString()).toList()
+        );
+        assertEquals(
+                List.of(ResolvedServerConfig.ProblemKind.REMOTE_LOCATION),
+                config2.problems().stream().map(ResolvedServerConfig.Problem::kind).toList()
+        );
+
+        // The shared include has been parsed only once
+        assertEquals(1, resolver.cache().hitCount());
+        assertEquals(7, resolver.cache().missCount());
+    }
+
+    @Test
+    public void testInvalidIncludeLocations() throws IOException {
+        Path serverDir = Files.createDirectories(tempDir.resolve("server3"));
+
+        // Opaque and malformed "file:" URIs cannot be turned into paths
+        Files.writeString(serverDir.resolve("server.xml"), """
+                <server>
+                    <include location="file:local.xml"/>
+                    <include location="file:/with space.xml"/>
+                    <include location="local.xml"/>
+                </server>
+                """);
+        Files.writeString(serverDir.resolve("local.xml"), "<server/>");
+
+        IncludeResolver resolver =
+                new IncludeResolver(IncludeResolver.Settings.defaultSettings(), new ConfigFileCache());
+
+        ResolvedServerConfig config = resolver.resolve(serverDir.resolve("server.xml"));
+
+        assertEquals(
+                List.of("server.xml", "local.xml"),
+                config.configFiles().keySet().stream().map(p -> p.getFileName().toString()).toList()
+        );
+        assertEquals(
+                List.of(
+                        ResolvedServerConfig.ProblemKind.INVALID_LOCATION,
+                        ResolvedServerConfig.ProblemKind.INVALID_LOCATION
+                ),
+                config.problems().stream().map(ResolvedServerConfig.Problem::kind).toList()
+        );
+        assertEquals(
+                List.of("file:local.xml", "file:/with space.xml"),
+                config.problems().stream().map(ResolvedServerConfig.Problem::location).toList()
+        );
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.xml.ibm.server.config;
+
+import eu.cdevreeze.openlibertychecks.xml.ibm.server.Server;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Server configuration merge tests.
+ * <p>
+ * This is not a regular unit test.
+ *
+ * @author Chris de Vreeze
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ServerConfigMergerTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testMerge() throws IOException {
+        Path serverDir = Files.createDirectories(tempDir.resolve("server1"));
+        Path defaultsDir = Files.createDirectories(serverDir.resolve("configDropins").resolve("defaults"));
+        Path overridesDir = Files.createDirectories(serverDir.resolve("configDropins").resolve("overrides"));
+
+        Files.writeString(defaultsDir.resolve("defaults.xml"), """
+                <server>
+                    <logging traceSpecification="*=info"/>
+                    <httpEndpoint id="defaultHttpEndpoint" httpPort="9080" host="*"/>
+                </server>
+                """);
+        Files.writeString(serverDir.resolve("server.xml"), """
+                <server description="Test server">
+                    <featureManager>
+                        <feature>servlet-6.0</feature>
+                        <feature>jdbc-4.3</feature>
+                    </featureManager>
+                    <connectionManager id="pool" maxPoolSize="10" minPoolSize="2"/>
+                    <library id="derbyLib">
+                        <fileset dir="/derby" includes="derby.jar"/>
+                    </library>
+                    <include location="replace.xml" onConflict="REPLACE"/>
+                    <include location="ignore.xml" onConflict="IGNORE"/>
+                </server>
+                """);
+        Files.writeString(serverDir.resolve("replace.xml"), """
+                <server>
+                    <connectionManager id="pool" maxPoolSize="20"/>
+                </server>
+                """);
+        Files.writeString(serverDir.resolve("ignore.xml"), """
+                <server>
+                    <library id="derbyLib"/>
+                </server>
+                """);
+        Files.writeString(overridesDir.resolve("overrides.xml"), """
+                <server>
+                    <featureManager>
+                        <feature>jdbc-4.3</feature>
+                        <feature>jndi-1.0</feature>
+                    </featureManager>
+                    <httpEndpoint id="defaultHttpEndpoint" httpPort="8080"/>
+                </server>
+                """);
+
+        ConfigFileCache cache = new ConfigFileCache();
+        ServerConfigMerger merger = new ServerConfigMerger(
+                new IncludeResolver(IncludeResolver.Settings.defaultSettings(), cache)
+        );
+
+        MergedServerConfig mergedConfig = merger.merge(serverDir.resolve("server.xml"));
+        Server server = mergedConfig.server();
+
+        assertEquals(
+                List.of("defaults.xml", "server.xml", "replace.xml", "ignore.xml", "overrides.xml"),
+                mergedConfig.mergedFiles().stream().map(p -> p.getFileName().toString()).toList()
+        );
+        assertEquals(Optional.of("Test server"), server.descriptionOption());
+
+        assertEquals(
+                List.of("servlet-6.0", "jdbc-4.3", "jndi-1.0"),
+                server.featureManagers().stream().flatMap(fm -> fm.features().stream()).toList()
+        );
+
+        assertEquals(1, server.httpEndpoints().size());
+        assertEquals(OptionalInt.of(8080), server.httpEndpoints().get(0).httpPortOption());
+        assertEquals("*", server.httpEndpoints().get(0).host());
+
+        assertEquals(1, server.connectionManagers().size());
+        assertEquals(20, server.connectionManagers().get(0).maxPoolSize());
+        assertEquals(OptionalInt.empty(), server.connectionManagers().get(0).minPoolSizeOption());
+
+        // The library has not been touched by the merge, so it is the very same element node as in server.xml
+        assertSame(
+                new Server(cache.getOrParse(serverDir.resolve("server.xml")).documentElement())
+                        .libraries().get(0).getElement().underlyingNode(),
+                server.libraries().get(0).getElement().underlyingNode()
+        );
+    }
+}
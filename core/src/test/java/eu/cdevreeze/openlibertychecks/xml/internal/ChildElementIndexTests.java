@@ -0,0 +1,107 @@
+/*
+ * Copyright 2024-2024 Chris de Vreeze
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.cdevreeze.openlibertychecks.xml.internal;
+
+import com.google.common.collect.ImmutableList;
+import eu.cdevreeze.yaidom4j.dom.ancestryaware.ElementTree;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import javax.xml.namespace.QName;
+import java.util.List;
+import java.util.Optional;
+
+import static eu.cdevreeze.openlibertychecks.xml.XmlTestSupport.parse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Child element index tests.
+ * <p>
+ * This is not a regular unit test.
+ *
+ * @author Chris de Vreeze
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ChildElementIndexTests {
+
+    private static final String XML = """
+            <root xmlns:ns="urn:test">
+                <item name="a" size="1"/>
+                <other/>
+                <item name="b" size="2"/>
+                <ns:item name="c" size="3"/>
+            </root>
+            """;
+
+    record Item(String name) {
+    }
+
+    @Test
+    public void testChildElementLookup() {
+        ChildElementIndex index = new ChildElementIndex(parse(XML));
+
+        assertEquals(
+                List.of("a", "b"),
+                index.childElements("item").stream().map(e -> e.attribute(new QName("name"))).toList()
+        );
+        assertEquals(
+                List.of("c"),
+                index.childElements("urn:test", "item").stream().map(e -> e.attribute(new QName("name"))).toList()
+        );
+        assertEquals(1, index.childElements("other").size());
+        assertEquals(List.of(), index.childElements("absent"));
+
+        assertEquals(
+                Optional.of("a"),
+                index.firstChildElementOption("item").map(e -> e.attribute(new QName("name")))
+        );
+        assertEquals(Optional.empty(), index.firstChildElementOption("urn:test", "other"));
+    }
+
+    @Test
+    public void testWrappedChildElementsAreCachedPerWrapperType() {
+        ChildElementIndex index = new ChildElementIndex(parse(XML));
+
+        ImmutableList<Item> items = wrapAsItems(index);
+        assertEquals(List.of(new Item("a"), new Item("b")), items);
+        assertSame(items, wrapAsItems(index));
+
+        // A different wrapper type for the same element name gets its own cached list, instead of a ClassCastException
+        ImmutableList<Integer> sizes = wrapAsSizes(index);
+        assertEquals(List.of(1, 2), sizes);
+        assertSame(sizes, wrapAsSizes(index));
+        assertSame(items, wrapAsItems(index));
+
+        assertEquals(
+                List.of(new Item("c")),
+                index.wrappedChildElements("urn:test", "item", Item.class, ChildElementIndexTests::toItem)
+        );
+    }
+
+    private static ImmutableList<Item> wrapAsItems(ChildElementIndex index) {
+        return index.wrappedChildElements("item", Item.class, ChildElementIndexTests::toItem);
+    }
+
+    private static ImmutableList<Integer> wrapAsSizes(ChildElementIndex index) {
+        return index.wrappedChildElements("item", Integer.class, e -> Integer.parseInt(e.attribute(new QName("size"))));
+    }
+
+    private static Item toItem(ElementTree.Element element) {
+        return new Item(element.attribute(new QName("name")));
+    }
+}